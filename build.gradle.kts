@@ -21,13 +21,98 @@ repositories {
 	mavenCentral()
 }
 
+val jmhVersion = "1.37"
+
+// JMH benchmarks live in their own source set so they never end up in the application jar
+val jmh: SourceSet by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+// End to end load tests (src/loadtest/java) drive the whole service, in-process or over HTTP, so like the benchmarks
+// they stay out of the application jar
+val loadtest: SourceSet by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-web")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("com.github.ben-manes.caffeine:caffeine")
 	compileOnly("org.projectlombok:lombok")
 	annotationProcessor("org.projectlombok:lombok")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
+	"jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+	"jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+	"loadtestImplementation"("org.hdrhistogram:HdrHistogram")
 }
 
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+val jmhResults = layout.buildDirectory.file("reports/jmh/results.json")
+val jmhBaseline = layout.projectDirectory.file("src/jmh/baseline/results.json")
+
+tasks.register<JavaExec>("jmh") {
+	description = "Runs the JMH benchmarks with the GC profiler. Narrow the run with -PjmhIncludes=<regex>"
+	group = "benchmark"
+	classpath = jmh.runtimeClasspath
+	mainClass.set("org.openjdk.jmh.Main")
+	args(
+		findProperty("jmhIncludes")?.toString() ?: ".*",
+		"-prof", "gc",
+		"-rf", "json",
+		"-rff", jmhResults.get().asFile.absolutePath
+	)
+	doFirst {
+		jmhResults.get().asFile.parentFile.mkdirs()
+	}
+}
+
+tasks.register<Copy>("jmhBaseline") {
+	description = "Replaces the committed benchmark baseline with the results of the last jmh run"
+	group = "benchmark"
+	from(jmhResults)
+	into(jmhBaseline.asFile.parentFile)
+}
+
+tasks.register<JavaExec>("jmhCompare") {
+	description = "Compares the last jmh run against the committed baseline. Set the allowed slowdown with -PjmhTolerance=<percent>"
+	group = "benchmark"
+	classpath = jmh.runtimeClasspath
+	mainClass.set("com.winters.tool.rental.benchmark.BaselineComparison")
+	args(
+		jmhBaseline.asFile.absolutePath,
+		jmhResults.get().asFile.absolutePath,
+		findProperty("jmhTolerance")?.toString() ?: "10"
+	)
+}
+
+tasks.register<JavaExec>("loadTest") {
+	description = "Runs the open loop load test and writes a JSON report to build/reports/loadtest. Pass options with -PloadTestArgs=\"--target http --rates 1000,2000\""
+	group = "benchmark"
+	classpath = loadtest.runtimeClasspath
+	mainClass.set("com.winters.tool.rental.loadtest.LoadTest")
+	args((findProperty("loadTestArgs")?.toString() ?: "").split(" ").filter { it.isNotBlank() })
+}
+
+tasks.register<JavaExec>("startupBenchmark") {
+	description = "Times each way of starting the app until its first quote, with & without a CDS archive. Set the runs per mode with -PstartupRuns=<count>"
+	group = "benchmark"
+	classpath = jmh.runtimeClasspath
+	mainClass.set("com.winters.tool.rental.benchmark.StartupBenchmark")
+	// CDS can only archive classes loaded from jars, so the app is started from its plain jar rather than build/classes
+	val applicationClasspath = files(tasks.jar, configurations.runtimeClasspath)
+	inputs.files(applicationClasspath)
+	doFirst {
+		args(applicationClasspath.asPath, findProperty("startupRuns")?.toString() ?: "5")
+	}
+}
@@ -0,0 +1,74 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.journal.AgreementJournal;
+import com.winters.tool.rental.services.RentalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable appends per second from one checkout thread vs. many. Every append waits for its force, so a single thread
+ * is bound by the disk's fsync latency while concurrent threads share forces through group commit.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AgreementJournalBenchmark {
+
+    private Path directory;
+    private AgreementJournal journal;
+    private RentalAgreement agreement;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("agreement-journal-benchmark");
+        journal = AgreementJournal.builder().directory(directory).build();
+        agreement = new RentalService().checkout(BenchmarkRequests.request("LADW", 7, 10, BenchmarkRequests.Window.HOLIDAY_SPANNING.getCheckoutDate()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long append1Thread() {
+        return journal.append(agreement);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long append16Threads() {
+        return journal.append(agreement);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long append64Threads() {
+        return journal.append(agreement);
+    }
+}
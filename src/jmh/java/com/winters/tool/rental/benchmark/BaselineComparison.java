@@ -0,0 +1,98 @@
+package com.winters.tool.rental.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH json result files benchmark by benchmark and exits with a non-zero status if any score (or
+ * allocation rate per operation) got worse than the allowed tolerance. Used by the {@code jmhCompare} gradle task.
+ * <p>
+ * Usage: {@code BaselineComparison <baseline.json> <results.json> <tolerancePercent>}
+ */
+public final class BaselineComparison {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <results.json> <tolerancePercent>");
+            System.exit(2);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(new File(args[0])));
+        Map<String, JsonNode> results = index(mapper.readTree(new File(args[1])));
+        double tolerance = Double.parseDouble(args[2]) / 100;
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : results.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW        %s%n", entry.getKey());
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+
+            regressions += compare(entry.getKey(), "score", before.path("primaryMetric"), after.path("primaryMetric"), higherIsBetter, tolerance);
+            regressions += compare(entry.getKey(), "alloc", allocation(before), allocation(after), false, tolerance);
+        }
+
+        System.out.printf("%d regression(s) beyond %.0f%%%n", regressions, tolerance * 100);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return 1 if the metric regressed beyond the tolerance, otherwise 0
+     */
+    private static int compare(String benchmark, String label, JsonNode before, JsonNode after, boolean higherIsBetter, double tolerance) {
+        if (before.isMissingNode() || after.isMissingNode()) {
+            return 0;
+        }
+        double beforeScore = before.path("score").asDouble();
+        double afterScore = after.path("score").asDouble();
+        if (beforeScore == 0) {
+            return 0;
+        }
+        double change = (afterScore - beforeScore) / beforeScore;
+        boolean regressed = higherIsBetter ? change < -tolerance : change > tolerance;
+        System.out.printf("%-10s %-5s %s: %.3f -> %.3f %s (%+.1f%%)%n", regressed ? "REGRESSED" : "ok", label, benchmark,
+                beforeScore, afterScore, after.path("scoreUnit").asText(), change * 100);
+        return regressed ? 1 : 0;
+    }
+
+    private static JsonNode allocation(JsonNode result) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = result.path("secondaryMetrics").fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+                return metric.getValue();
+            }
+        }
+        return result.path("secondaryMetrics").path(ALLOCATION_METRIC);
+    }
+
+    /**
+     * Keys each result by benchmark method plus its parameters, i.e. "CheckoutBenchmark.checkout{numDaysToRent=7, ...}"
+     */
+    private static Map<String, JsonNode> index(JsonNode runs) {
+        Map<String, JsonNode> indexed = new LinkedHashMap<>();
+        for (JsonNode run : runs) {
+            String benchmark = run.path("benchmark").asText();
+            String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            JsonNode params = run.path("params");
+            indexed.put(params.isMissingNode() ? name : name + params, run);
+        }
+        return indexed;
+    }
+}
@@ -0,0 +1,44 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.RentalRequest;
+
+import java.time.LocalDate;
+
+/**
+ * Shared request fixtures so every benchmark prices the same windows.
+ */
+public final class BenchmarkRequests {
+
+    /**
+     * Where the rental starts relative to our holidays. Anything longer than a few months will cross a holiday no
+     * matter where it starts, so the distinction only matters for the shorter rental lengths.
+     */
+    public enum Window {
+        // Wednesday July 1st 2020, so the observed 4th of July (Friday the 3rd) is the second charge day
+        HOLIDAY_SPANNING(LocalDate.of(2020, 7, 1)),
+        // Monday January 11th 2021, nothing observed until the 4th of July
+        NO_HOLIDAY(LocalDate.of(2021, 1, 11));
+
+        private final LocalDate checkoutDate;
+
+        Window(LocalDate checkoutDate) {
+            this.checkoutDate = checkoutDate;
+        }
+
+        LocalDate getCheckoutDate() {
+            return checkoutDate;
+        }
+    }
+
+    private BenchmarkRequests() {
+    }
+
+    static RentalRequest request(String toolCode, int numDaysToRent, int discountPercent, LocalDate checkoutDate) {
+        return RentalRequest.builder()
+                .toolCode(toolCode)
+                .numDaysToRent(numDaysToRent)
+                .discountPercent(discountPercent)
+                .checkoutLocalDate(checkoutDate)
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.services.RentalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices a single valid request per invocation across every tool type, a spread of rental lengths and windows that
+ * do / don't cross a holiday.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckoutBenchmark {
+
+    @Param({"1", "7", "30", "365", "3650"})
+    int numDaysToRent;
+
+    // One code per tool type - CHAINSAW, LADDER, JACKHAMMER & WEEKDAY_EXEMPT
+    @Param({"CHNS", "LADW", "JAKR", "WEEW"})
+    String toolCode;
+
+    @Param({"HOLIDAY_SPANNING", "NO_HOLIDAY"})
+    BenchmarkRequests.Window window;
+
+    private final RentalService rentalService = new RentalService();
+    private RentalRequest request;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkRequests.request(toolCode, numDaysToRent, 10, window.getCheckoutDate());
+    }
+
+    @Benchmark
+    public RentalAgreement checkout() throws Exception {
+        return rentalService.checkout(request);
+    }
+
+    @Benchmark
+    public CheckoutResult tryCheckout() {
+        return rentalService.tryCheckout(request);
+    }
+}
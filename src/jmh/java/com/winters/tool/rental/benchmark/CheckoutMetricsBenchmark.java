@@ -0,0 +1,63 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.metrics.CheckoutMetrics;
+import com.winters.tool.rental.metrics.MicrometerCheckoutMetrics;
+import com.winters.tool.rental.services.RentalService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checkout instrumentation. {@code NONE} should be indistinguishable from {@link CheckoutBenchmark}'s
+ * tryCheckout for the same request, {@code MICROMETER} shows what the per-stage timers add and
+ * {@code MICROMETER_SAMPLED} what they add when only timing one checkout in 16.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckoutMetricsBenchmark {
+
+    public enum Instrumentation {
+        NONE,
+        MICROMETER,
+        MICROMETER_SAMPLED
+    }
+
+    @Param({"NONE", "MICROMETER", "MICROMETER_SAMPLED"})
+    Instrumentation instrumentation;
+
+    private RentalService rentalService;
+    private RentalRequest request;
+
+    @Setup
+    public void setUp() {
+        CheckoutMetrics checkoutMetrics = switch (instrumentation) {
+            case NONE -> CheckoutMetrics.NONE;
+            case MICROMETER -> new MicrometerCheckoutMetrics(new SimpleMeterRegistry());
+            case MICROMETER_SAMPLED -> new MicrometerCheckoutMetrics(new SimpleMeterRegistry(), 16);
+        };
+        rentalService = RentalService.builder().checkoutMetrics(checkoutMetrics).build();
+        request = BenchmarkRequests.request("LADW", 7, 10, BenchmarkRequests.Window.HOLIDAY_SPANNING.getCheckoutDate());
+    }
+
+    @Benchmark
+    public CheckoutResult tryCheckout() {
+        return rentalService.tryCheckout(request);
+    }
+}
@@ -0,0 +1,73 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.BatchCheckoutResult;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.pricing.ColumnarPricer;
+import com.winters.tool.rental.pricing.PricingColumns;
+import com.winters.tool.rental.services.RentalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-pricing a large batch of rentals as columns vs. as a list of requests through {@link RentalService#checkoutBatch(List)}.
+ * Both price the same rows: every tool type, checkouts spread over ten years and rental lengths up to a month.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnarPricingBenchmark {
+
+    @Param({"1000000"})
+    int numRows;
+
+    private final RentalService rentalService = new RentalService();
+    private final ColumnarPricer columnarPricer = ColumnarPricer.builder().build();
+    private PricingColumns columns;
+    private List<RentalRequest> requests;
+
+    @Setup
+    public void setUp() {
+        Tool.Type[] types = Tool.Type.values();
+        Random random = new Random(823L);
+        LocalDate origin = LocalDate.of(2015, 1, 1);
+        columns = new PricingColumns(numRows);
+        requests = new ArrayList<>(numRows);
+        for (int row = 0; row < numRows; row++) {
+            Tool.Type type = types[random.nextInt(types.length)];
+            LocalDate checkoutDate = origin.plusDays(random.nextInt(3650));
+            int numDays = 1 + random.nextInt(30);
+            int discountPercent = random.nextInt(5) * 5;
+            columns.set(row, type, checkoutDate.toEpochDay(), numDays, discountPercent);
+            requests.add(BenchmarkRequests.request(type.getTypeCode() + "S", numDays, discountPercent, checkoutDate));
+        }
+    }
+
+    @Benchmark
+    public int columnar() {
+        return columnarPricer.price(columns);
+    }
+
+    @Benchmark
+    public BatchCheckoutResult checkoutBatch() {
+        return rentalService.checkoutBatch(requests);
+    }
+}
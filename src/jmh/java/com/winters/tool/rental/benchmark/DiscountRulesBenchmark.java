@@ -0,0 +1,88 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.discount.CompiledDiscountRules;
+import com.winters.tool.rental.discount.DiscountRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up the promotions for a checkout from compiled rules, as the number of rules grows from a handful to
+ * thousands
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiscountRulesBenchmark {
+
+    private static final int NUM_LOOKUPS = 1024;
+
+    @Param({"5", "100", "5000"})
+    int numRules;
+
+    private CompiledDiscountRules discountRules;
+    private final Tool[] tools = new Tool[NUM_LOOKUPS];
+    private final long[] checkoutEpochDays = new long[NUM_LOOKUPS];
+    private final int[] numDays = new int[NUM_LOOKUPS];
+
+    @Setup
+    public void setUp() {
+        Tool.Type[] types = Tool.Type.values();
+        Tool.Brand[] brands = Tool.Brand.values();
+        LocalDate origin = BenchmarkRequests.Window.HOLIDAY_SPANNING.getCheckoutDate();
+        Random random = new Random(823L);
+        List<DiscountRule> rules = new ArrayList<>(numRules);
+        for (int i = 0; i < numRules; i++) {
+            LocalDate first = origin.plusDays(random.nextInt(365));
+            rules.add(DiscountRule.builder()
+                    .name("Promotion " + i)
+                    .toolType(random.nextBoolean() ? types[random.nextInt(types.length)] : null)
+                    .brand(random.nextBoolean() ? brands[random.nextInt(brands.length)] : null)
+                    .minDays(1 + random.nextInt(30))
+                    .firstCheckoutDate(random.nextBoolean() ? first : null)
+                    .lastCheckoutDate(random.nextBoolean() ? first.plusDays(random.nextInt(14)) : null)
+                    .percent(random.nextInt(20))
+                    .stackable(random.nextInt(4) == 0)
+                    .build());
+        }
+        discountRules = new CompiledDiscountRules(rules);
+
+        List<Tool> catalog = ToolCatalog.DEFAULT.getTools();
+        for (int i = 0; i < NUM_LOOKUPS; i++) {
+            tools[i] = catalog.get(random.nextInt(catalog.size()));
+            checkoutEpochDays[i] = origin.toEpochDay() + random.nextInt(365);
+            numDays[i] = 1 + random.nextInt(45);
+        }
+    }
+
+    /**
+     * Average time per lookup is the score divided by 1024
+     */
+    @Benchmark
+    public int discountPercent() {
+        int total = 0;
+        for (int i = 0; i < NUM_LOOKUPS; i++) {
+            total += discountRules.discountPercent(tools[i], checkoutEpochDays[i], numDays[i]);
+        }
+        return total;
+    }
+}
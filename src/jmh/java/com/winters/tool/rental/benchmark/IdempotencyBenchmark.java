@@ -0,0 +1,79 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.idempotency.IdempotencyCache;
+import com.winters.tool.rental.services.RentalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What an idempotency key costs a checkout: a retry answered from the cache, with every thread retrying the same key,
+ * against issuing with a new key each time (which includes building the key string and keeping the cache within its
+ * size) and issuing without one at all
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdempotencyBenchmark {
+
+    private final AtomicLong nextKey = new AtomicLong();
+    private RentalService rentalService;
+    private RentalRequest retried;
+    private RentalRequest withoutKey;
+
+    @Setup
+    public void setUp() {
+        rentalService = RentalService.builder()
+                .idempotencyCache(new IdempotencyCache(10_000, Duration.ofHours(1)))
+                .build();
+        LocalDate checkoutDate = BenchmarkRequests.Window.HOLIDAY_SPANNING.getCheckoutDate();
+        withoutKey = BenchmarkRequests.request("LADW", 5, 10, checkoutDate);
+        retried = BenchmarkRequests.request("LADW", 5, 10, checkoutDate);
+        retried.setIdempotencyKey("order-823");
+        rentalService.issue(retried);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CheckoutResult issueWithoutKey() {
+        return rentalService.issue(withoutKey);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CheckoutResult issueNewKey() {
+        RentalRequest req = BenchmarkRequests.request("LADW", 5, 10, withoutKey.getCheckoutLocalDate());
+        req.setIdempotencyKey("order-" + nextKey.incrementAndGet());
+        return rentalService.issue(req);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CheckoutResult retry1Thread() {
+        return rentalService.issue(retried);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public CheckoutResult retry16Threads() {
+        return rentalService.issue(retried);
+    }
+}
@@ -0,0 +1,83 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.services.RentalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejected requests, through the throwing checkout, the result based tryCheckout (with and without building the
+ * messages) and the fail fast isValid check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvalidCheckoutBenchmark {
+
+    public enum Invalid {
+        DISCOUNT_OVER_100,
+        UNKNOWN_TOOL_CODE,
+        TOOL_CODE_TOO_LONG,
+        // Every field is wrong at once, the most expensive rejection to build
+        EVERYTHING
+    }
+
+    @Param({"DISCOUNT_OVER_100", "UNKNOWN_TOOL_CODE", "TOOL_CODE_TOO_LONG", "EVERYTHING"})
+    Invalid invalid;
+
+    private final RentalService rentalService = new RentalService();
+    private RentalRequest request;
+
+    @Setup
+    public void setUp() {
+        LocalDate checkoutDate = LocalDate.of(2015, 9, 3);
+        switch (invalid) {
+            case DISCOUNT_OVER_100 -> request = BenchmarkRequests.request("JAKR", 6, 101, checkoutDate);
+            case UNKNOWN_TOOL_CODE -> request = BenchmarkRequests.request("SCRP", 6, 0, checkoutDate);
+            case TOOL_CODE_TOO_LONG -> request = BenchmarkRequests.request("BADTOOLCODE", 6, 0, checkoutDate);
+            case EVERYTHING -> request = BenchmarkRequests.request("XXXX", 0, -5, checkoutDate);
+        }
+    }
+
+    @Benchmark
+    public Exception checkout() {
+        try {
+            rentalService.checkout(request);
+            throw new IllegalStateException("Benchmark request was expected to be invalid");
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public CheckoutResult tryCheckout() {
+        return rentalService.tryCheckout(request);
+    }
+
+    @Benchmark
+    public List<String> tryCheckoutMessages() {
+        return rentalService.tryCheckout(request).getValidationMessages();
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return rentalService.isValid(request);
+    }
+}
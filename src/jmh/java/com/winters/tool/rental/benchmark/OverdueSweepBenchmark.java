@@ -0,0 +1,101 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.overdue.OverdueTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One day of the "who's late" sweep over {@code numOpen} open rentals due evenly over the coming year: the overdue
+ * tracker's sweep, which only touches the rentals falling due that day (and, every 64 days, those cascading down to
+ * the next block), against a scan of every open rental for the ones past due
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OverdueSweepBenchmark {
+
+    private static final int DAYS_AHEAD = 365;
+
+    @Param({"100000", "500000"})
+    int numOpen;
+
+    private final Tool tool = ToolCatalog.DEFAULT.findTool("LADW");
+    private OverdueTracker tracker;
+    private RentalAgreement[] open;
+    private LocalDate today;
+    private List<RentalAgreement> lastOverdue = List.of();
+
+    @Setup
+    public void setUp() {
+        today = LocalDate.of(2020, Month.JULY, 1);
+        tracker = new OverdueTracker(today);
+        open = new RentalAgreement[numOpen];
+        for (int i = 0; i < numOpen; i++) {
+            open[i] = agreement(today.plusDays(i % DAYS_AHEAD));
+            tracker.track(open[i]);
+        }
+    }
+
+    /**
+     * Yesterday's overdue rentals come back and go out again for another year, so the open set stays the same size.
+     * Kept out of the measurement, which is only the sweep itself.
+     */
+    @Setup(Level.Invocation)
+    public void checkInAndReissue() {
+        for (RentalAgreement agreement : lastOverdue) {
+            tracker.remove(agreement);
+            agreement.setDueLocalDate(today.plusDays(DAYS_AHEAD));
+            agreement.setCheckOutLocalDate(today.plusDays(DAYS_AHEAD - 7));
+            tracker.track(agreement);
+        }
+        today = today.plusDays(1);
+    }
+
+    @Benchmark
+    public List<RentalAgreement> sweepOneDay() {
+        lastOverdue = tracker.sweep(today);
+        return lastOverdue;
+    }
+
+    @Benchmark
+    public int scanEveryOpenRental() {
+        LocalDate asOf = today.plusDays(DAYS_AHEAD / 2);
+        int numOverdue = 0;
+        for (RentalAgreement agreement : open) {
+            if (agreement.getDueLocalDate().isBefore(asOf)) {
+                numOverdue++;
+            }
+        }
+        return numOverdue;
+    }
+
+    private RentalAgreement agreement(LocalDate dueDate) {
+        return RentalAgreement.builder()
+                .tool(tool)
+                .numDaysRented(7)
+                .checkOutLocalDate(dueDate.minusDays(7))
+                .dueLocalDate(dueDate)
+                .build();
+    }
+}
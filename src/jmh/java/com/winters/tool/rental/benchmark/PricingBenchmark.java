@@ -0,0 +1,63 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.pricing.CentsPricing;
+import com.winters.tool.rental.pricing.PriceBreakdown;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The charge math on its own, the BigDecimal version checkout used to run vs. the cents version it runs now. The
+ * agreement variant includes converting the cents back to BigDecimal, which is what checkout actually pays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingBenchmark {
+
+    @Param({"JACKHAMMER"})
+    Tool.Type type;
+
+    @Param({"3", "3650"})
+    int chargeDays;
+
+    @Param({"0", "25"})
+    int discountPercent;
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal preDiscountCharge = type.getDailyCharge().multiply(BigDecimal.valueOf(chargeDays)).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal discountPercentageAsDecimal = BigDecimal.valueOf(discountPercent).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        BigDecimal discountAmount = preDiscountCharge.multiply(discountPercentageAsDecimal).setScale(2, RoundingMode.HALF_UP);
+        return preDiscountCharge.subtract(discountAmount);
+    }
+
+    @Benchmark
+    public long cents() {
+        return CentsPricing.price(type.getDailyChargeCents(), chargeDays, discountPercent).getFinalCents();
+    }
+
+    @Benchmark
+    public void centsToAgreement(Blackhole blackhole) {
+        PriceBreakdown price = CentsPricing.price(type.getDailyChargeCents(), chargeDays, discountPercent);
+        blackhole.consume(price.getPreDiscountCharge());
+        blackhole.consume(price.getDiscountAmount());
+        blackhole.consume(price.getFinalCharge());
+    }
+}
@@ -0,0 +1,53 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.pricing.QuoteCache;
+import com.winters.tool.rental.services.RentalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same repeated request priced with & without a quote cache, so every cached call after the first is a hit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuoteCacheBenchmark {
+
+    @Param({"7", "3650"})
+    int numDaysToRent;
+
+    private final RentalService uncached = new RentalService();
+    private final RentalService cached = RentalService.builder().quoteCache(new QuoteCache(10_000)).build();
+    private RentalRequest request;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkRequests.request("LADW", numDaysToRent, 10, BenchmarkRequests.Window.HOLIDAY_SPANNING.getCheckoutDate());
+    }
+
+    @Benchmark
+    public CheckoutResult uncached() {
+        return uncached.tryCheckout(request);
+    }
+
+    @Benchmark
+    public CheckoutResult cachedHit() {
+        return cached.tryCheckout(request);
+    }
+}
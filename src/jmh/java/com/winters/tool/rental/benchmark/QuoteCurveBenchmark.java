@@ -0,0 +1,61 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.QuoteCurve;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.services.RentalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A quote for every rental length up to {@code maxDays}, built as one curve vs. one checkout per length
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuoteCurveBenchmark {
+
+    @Param({"30", "365"})
+    int maxDays;
+
+    private final RentalService rentalService = new RentalService();
+    private RentalRequest curveRequest;
+    private RentalRequest[] checkoutRequests;
+
+    @Setup
+    public void setUp() {
+        LocalDate checkoutDate = BenchmarkRequests.Window.HOLIDAY_SPANNING.getCheckoutDate();
+        curveRequest = BenchmarkRequests.request("LADW", maxDays, 10, checkoutDate);
+        checkoutRequests = new RentalRequest[maxDays];
+        for (int numDays = 1; numDays <= maxDays; numDays++) {
+            checkoutRequests[numDays - 1] = BenchmarkRequests.request("LADW", numDays, 10, checkoutDate);
+        }
+    }
+
+    @Benchmark
+    public QuoteCurve curve() {
+        return rentalService.quoteCurve(curveRequest);
+    }
+
+    @Benchmark
+    public void checkoutPerLength(Blackhole blackhole) {
+        for (RentalRequest request : checkoutRequests) {
+            blackhole.consume(rentalService.tryCheckout(request));
+        }
+    }
+}
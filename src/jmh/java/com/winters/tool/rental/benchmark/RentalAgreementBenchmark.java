@@ -0,0 +1,61 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.receipt.ReceiptRenderer;
+import com.winters.tool.rental.services.RentalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the human readable receipt for an agreement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalAgreementBenchmark {
+
+    private RentalAgreement agreement;
+    private final StringBuilder reusedBuilder = new StringBuilder(512);
+    private final ByteBuffer reusedBuffer = ByteBuffer.allocateDirect(1024);
+
+    @Setup
+    public void setUp() {
+        agreement = new RentalService()
+                .tryCheckout(BenchmarkRequests.request("CHNS", 5, 25, LocalDate.of(2015, 7, 2)))
+                .getAgreement();
+    }
+
+    @Benchmark
+    public String agreementToString() {
+        return agreement.toString();
+    }
+
+    @Benchmark
+    public StringBuilder renderIntoReusedBuilder() {
+        reusedBuilder.setLength(0);
+        ReceiptRenderer.DEFAULT.render(agreement, reusedBuilder);
+        return reusedBuilder;
+    }
+
+    @Benchmark
+    public ByteBuffer renderIntoByteBuffer() {
+        reusedBuffer.clear();
+        ReceiptRenderer.DEFAULT.render(agreement, reusedBuffer);
+        return reusedBuffer;
+    }
+}
@@ -0,0 +1,78 @@
+package com.winters.tool.rental.benchmark;
+
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.util.DayCounts;
+import com.winters.tool.rental.util.RentalUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The individual day counting & tool lookup helpers used by checkout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalUtilBenchmark {
+
+    @Param({"1", "7", "30", "365", "3650"})
+    int numDays;
+
+    private LocalDate firstChargeDay;
+    private LocalDate dueDay;
+    private Date firstChargeDate;
+    private Date dueDate;
+
+    @Setup
+    public void setUp() {
+        firstChargeDay = LocalDate.of(2020, 7, 2);
+        dueDay = firstChargeDay.plusDays(numDays - 1);
+        firstChargeDate = RentalUtil.convertLocalDateToDate(firstChargeDay);
+        dueDate = RentalUtil.convertLocalDateToDate(dueDay);
+    }
+
+    @Benchmark
+    public DayCounts countDays() {
+        return RentalUtil.countDays(firstChargeDay, dueDay);
+    }
+
+    @Benchmark
+    public int calculateNumHolidays() {
+        return RentalUtil.calculateNumHolidays(firstChargeDate, dueDate);
+    }
+
+    @Benchmark
+    public int calculateNumWeekendDays() {
+        return RentalUtil.calculateNumWeekendDays(firstChargeDate, dueDate);
+    }
+
+    @Benchmark
+    public int calculateNumWeekDays() {
+        return RentalUtil.calculateNumWeekDays(firstChargeDate, dueDate);
+    }
+
+    @Benchmark
+    public LocalDate convertDateToLocalDate() {
+        return RentalUtil.convertDateToLocalDate(firstChargeDate);
+    }
+
+    @Benchmark
+    public Tool assembleToolFromToolCode() {
+        return RentalUtil.assembleToolFromToolCode("LADW");
+    }
+}
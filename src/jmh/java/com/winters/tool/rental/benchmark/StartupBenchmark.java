@@ -0,0 +1,147 @@
+package com.winters.tool.rental.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times how long each way of starting the application takes to produce its first quote, from launching the JVM to
+ * having the priced agreement in hand. Each mode is run in fresh JVMs, both as is and with an application class data
+ * sharing (CDS) archive recorded by a training run of the same mode. JMH can't time process startup, so this is a
+ * plain main class. Used by the {@code startupBenchmark} gradle task.
+ * <p>
+ * Usage: {@code StartupBenchmark <application classpath> [runs]}. CDS can only archive classes loaded from jars, so the
+ * application classpath should be the plain application jar & its dependencies rather than a classes directory.
+ */
+public final class StartupBenchmark {
+
+    private static final String MAIN_CLASS = "com.winters.tool.rental.Application";
+    private static final String[] QUOTE_ARGS = {"quote", "--tool-code", "CHNS", "--checkout-date", "2015-07-02", "--days", "5", "--discount", "25"};
+    private static final String QUOTE_QUERY = "/api/rentals/quote?toolCode=CHNS&checkoutDate=2015-07-02&numDaysToRent=5&discountPercent=25";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final long POLL_INTERVAL_MILLIS = 5;
+
+    private enum Mode {
+        // The quote command, Spring is never started
+        HEADLESS,
+        // The web application as it normally starts, timed until GET /quote answers
+        BOOT,
+        // The web application with the fast-start profile (lazy initialization)
+        BOOT_FAST_START
+    }
+
+    private final String classpath;
+    private final Path archiveDirectory;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private StartupBenchmark(String classpath, Path archiveDirectory) {
+        this.classpath = classpath;
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: StartupBenchmark <application classpath> [runs]");
+            System.exit(2);
+        }
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        StartupBenchmark benchmark = new StartupBenchmark(args[0], Files.createTempDirectory("startup-benchmark"));
+
+        System.out.printf("%-16s %-4s %10s %10s %10s%n", "Mode", "CDS", "Median ms", "Min ms", "Max ms");
+        for (Mode mode : Mode.values()) {
+            Path archive = benchmark.archiveDirectory.resolve(mode.name().toLowerCase() + ".jsa");
+            // Also warms the OS file cache, so the first timed run isn't penalized for it
+            benchmark.timeToFirstQuote(mode, List.of("-XX:ArchiveClassesAtExit=" + archive));
+            benchmark.report(mode, "no", List.of(), runs);
+            if (Files.exists(archive)) {
+                benchmark.report(mode, "yes", List.of("-XX:SharedArchiveFile=" + archive), runs);
+            } else {
+                System.out.printf("%-16s %-4s %10s%n", mode, "yes", "no archive was recorded");
+            }
+        }
+    }
+
+    private void report(Mode mode, String cds, List<String> jvmOptions, int runs) throws Exception {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = TimeUnit.NANOSECONDS.toMillis(timeToFirstQuote(mode, jvmOptions));
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-16s %-4s %10d %10d %10d%n", mode, cds, millis[runs / 2], millis[0], millis[runs - 1]);
+    }
+
+    /**
+     * @return nanoseconds from launching the JVM until the quote was produced
+     */
+    private long timeToFirstQuote(Mode mode, List<String> jvmOptions) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(MAIN_CLASS);
+        int port = mode == Mode.HEADLESS ? 0 : freePort();
+        switch (mode) {
+            case HEADLESS -> command.addAll(List.of(QUOTE_ARGS));
+            case BOOT -> command.add("--server.port=" + port);
+            case BOOT_FAST_START -> command.addAll(List.of("--server.port=" + port, "--spring.profiles.active=fast-start"));
+        }
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            if (mode == Mode.HEADLESS) {
+                if (process.waitFor() != 0) {
+                    throw new IllegalStateException("quote command exited with " + process.exitValue());
+                }
+                return System.nanoTime() - start;
+            }
+            awaitQuote(process, port);
+            return System.nanoTime() - start;
+        } finally {
+            // A normal shutdown rather than a kill, otherwise a training run never writes its archive
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private void awaitQuote(Process process, int port) throws IOException, InterruptedException {
+        HttpRequest quote = HttpRequest.newBuilder(URI.create("http://localhost:" + port + QUOTE_QUERY)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("application exited with " + process.exitValue() + " before it answered");
+            }
+            try {
+                if (httpClient.send(quote, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        throw new IllegalStateException("application didn't answer within " + STARTUP_TIMEOUT);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.winters.tool.rental.loadtest;
+
+import java.util.Random;
+
+/**
+ * When each request is due to be sent. Either way the schedule is fixed before the run starts and never waits on
+ * responses (open loop), so a slow response can't delay the requests behind it and hide its own cost.
+ */
+public enum Arrivals {
+
+    /**
+     * Evenly spaced, exactly {@code rate} requests a second
+     */
+    UNIFORM {
+        @Override
+        long nextGapNanos(Random random, double rate) {
+            return Math.round(NANOS_PER_SECOND / rate);
+        }
+    },
+
+    /**
+     * Independent arrivals averaging {@code rate} a second (exponentially distributed gaps), so requests sometimes
+     * bunch up the way real traffic does
+     */
+    POISSON {
+        @Override
+        long nextGapNanos(Random random, double rate) {
+            return Math.round(-Math.log(1 - random.nextDouble()) * NANOS_PER_SECOND / rate);
+        }
+    };
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * @return nanoseconds from one request's intended start to the next
+     */
+    abstract long nextGapNanos(Random random, double rate);
+}
@@ -0,0 +1,81 @@
+package com.winters.tool.rental.loadtest;
+
+import com.winters.tool.rental.Application;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * {@code POST /api/rentals/checkout} over HTTP/1.1, either against a server that is already running or against the
+ * application started in this JVM on a free local port.
+ */
+public final class HttpTarget implements Target {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI checkoutUri;
+    private final ConfigurableApplicationContext application;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private HttpTarget(URI baseUri, ConfigurableApplicationContext application) {
+        this.checkoutUri = baseUri.resolve("/api/rentals/checkout");
+        this.application = application;
+    }
+
+    /**
+     * @param baseUri - Where the service is running, i.e. {@code http://localhost:8080}
+     */
+    public static HttpTarget remote(URI baseUri) {
+        return new HttpTarget(baseUri, null);
+    }
+
+    /**
+     * Starts the application in this JVM, configured exactly as it would be deployed except for the port
+     *
+     * @param applicationArgs - Any extra Spring arguments, i.e. {@code --rental.journal.enabled=true}
+     */
+    public static HttpTarget local(String... applicationArgs) {
+        String[] args = new String[applicationArgs.length + 1];
+        args[0] = "--server.port=0";
+        System.arraycopy(applicationArgs, 0, args, 1, applicationArgs.length);
+        ConfigurableApplicationContext application = SpringApplication.run(Application.class, args);
+        int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+        return new HttpTarget(URI.create("http://localhost:" + port), application);
+    }
+
+    @Override
+    public String getName() {
+        return "http";
+    }
+
+    @Override
+    public Outcome checkout(RequestMix.Entry entry) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(checkoutUri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(entry.json()))
+                .build();
+        int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        return switch (status) {
+            case 200 -> Outcome.ACCEPTED;
+            case 400 -> Outcome.REJECTED;
+            default -> Outcome.ERROR;
+        };
+    }
+
+    @Override
+    public void close() {
+        if (application != null) {
+            application.close();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.winters.tool.rental.loadtest;
+
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.services.RentalService;
+
+/**
+ * Calls {@link RentalService#issue} directly, which is the cost of checkout with the HTTP stack taken out. The service
+ * is built by whoever creates the target, see {@code LoadTest}.
+ */
+public final class InProcessTarget implements Target {
+
+    private final RentalService rentalService;
+
+    public InProcessTarget(RentalService rentalService) {
+        this.rentalService = rentalService;
+    }
+
+    @Override
+    public String getName() {
+        return "in-process";
+    }
+
+    @Override
+    public Outcome checkout(RequestMix.Entry entry) {
+        CheckoutResult result = rentalService.issue(entry.request());
+        return result.isSuccess() ? Outcome.ACCEPTED : Outcome.REJECTED;
+    }
+}
@@ -0,0 +1,83 @@
+package com.winters.tool.rental.loadtest;
+
+import com.winters.tool.rental.cli.CommandLineOptions;
+import com.winters.tool.rental.metrics.MicrometerCheckoutMetrics;
+import com.winters.tool.rental.pricing.QuoteCache;
+import com.winters.tool.rental.services.RentalService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Drives checkout with an open loop request schedule (see {@link OpenLoopRunner}) at one or more rates and reports
+ * the latency percentiles & throughput of each. Used by the {@code loadTest} gradle task:
+ * <pre>
+ *     LoadTest [--target in-process|http] [--url http://host:port] [--rates 1000,2000,4000] [--duration 30]
+ *         [--warmup 10] [--arrivals uniform|poisson] [--threads 64] [--seed 823] [--mix-size 100000] [--report file]
+ * </pre>
+ * The HTTP target starts the application in this JVM on a free port unless {@code --url} points it at one that is
+ * already running. Rates are run in the order given, so listing them in increasing order finds the highest rate the
+ * service keeps up with ({@code maxSustainedRate} in the report).
+ */
+public final class LoadTest {
+
+    private static final String USAGE = "Usage: LoadTest [--target in-process|http] [--url <base url>] [--rates <rate,...>] "
+            + "[--duration <seconds>] [--warmup <seconds>] [--arrivals uniform|poisson] [--threads <count>] "
+            + "[--seed <seed>] [--mix-size <count>] [--report <file>]";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = CommandLineOptions.parse(args);
+        if (options == null) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        String targetName = options.getOrDefault("target", "in-process");
+        List<Double> rates = new ArrayList<>();
+        for (String rate : options.getOrDefault("rates", "1000").split(",")) {
+            rates.add(Double.parseDouble(rate.trim()));
+        }
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        Arrivals arrivals = Arrivals.valueOf(options.getOrDefault("arrivals", "uniform").toUpperCase(Locale.ROOT));
+        int numClientThreads = Integer.parseInt(options.getOrDefault("threads", "64"));
+        RequestMix mix = new RequestMix(Long.parseLong(options.getOrDefault("seed", "823")),
+                Integer.parseInt(options.getOrDefault("mix-size", "100000")));
+        Path reportPath = Path.of(options.getOrDefault("report", "build/reports/loadtest/" + targetName + ".json"));
+
+        try (Target target = createTarget(targetName, options.get("url"))) {
+            OpenLoopRunner runner = new OpenLoopRunner(target, mix, arrivals, numClientThreads);
+            LoadTestReport report = new LoadTestReport(target.getName(), mix, arrivals, numClientThreads);
+            List<StepResult> steps = new ArrayList<>();
+            for (double rate : rates) {
+                StepResult step = runner.run(rate, warmupSeconds, durationSeconds);
+                steps.add(step);
+                report.add(step);
+                LoadTestReport.printSummary(System.out, step);
+            }
+            report.write(reportPath, steps);
+            System.out.println("Report written to " + reportPath.toAbsolutePath());
+        }
+        // The local application's non-daemon threads would otherwise keep the JVM up
+        System.exit(0);
+    }
+
+    private static Target createTarget(String name, String url) {
+        return switch (name) {
+            // Wired like RentalConfiguration's defaults: a quote cache and metrics
+            case "in-process" -> new InProcessTarget(RentalService.builder()
+                    .quoteCache(new QuoteCache(10_000))
+                    .checkoutMetrics(new MicrometerCheckoutMetrics(new SimpleMeterRegistry(), 1))
+                    .build());
+            case "http" -> url != null ? HttpTarget.remote(URI.create(url)) : HttpTarget.local();
+            default -> throw new IllegalArgumentException("Unknown target " + name + ". " + USAGE);
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.winters.tool.rental.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a load test's results as JSON, one entry per step with the headline percentiles as plain numbers so two
+ * reports can be diffed (or compared by a script) release to release. Each step also carries its full latency
+ * histogram, compressed & base64 encoded, which {@code Histogram.decodeFromCompressedByteBuffer} reads back for any
+ * other percentile or for merging runs.
+ */
+public final class LoadTestReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final ObjectNode root = MAPPER.createObjectNode();
+    private final ArrayNode steps;
+
+    public LoadTestReport(String target, RequestMix mix, Arrivals arrivals, int numClientThreads) {
+        root.put("target", target);
+        root.put("startedAt", Instant.now().toString());
+        root.put("javaVersion", System.getProperty("java.version"));
+        root.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        root.put("arrivals", arrivals.name());
+        root.put("clientThreads", numClientThreads);
+        ObjectNode mixNode = root.putObject("mix");
+        mixNode.put("seed", mix.getSeed());
+        mixNode.put("size", mix.size());
+        mixNode.put("holidaySpanningPercent", RequestMix.HOLIDAY_SPANNING_PERCENT);
+        mixNode.put("invalidPercent", RequestMix.INVALID_PERCENT);
+        // Filled in by write once every step has run, but listed ahead of the steps
+        root.putNull("maxSustainedRate");
+        steps = root.putArray("steps");
+    }
+
+    public void add(StepResult step) {
+        ObjectNode node = steps.addObject();
+        node.put("targetRate", step.targetRate());
+        node.put("durationSeconds", step.durationSeconds());
+        node.put("requestsSent", step.requestsSent());
+        node.put("requestsAnswered", step.requestsAnswered());
+        node.put("unexpectedOutcomes", step.unexpected());
+        node.put("achievedRate", Math.round(step.achievedRate() * 10) / 10.0);
+        node.put("maxSendLagMicros", step.maxSendLagMicros());
+        node.put("sustained", step.isSustained());
+        node.set("latencyMicros", percentiles(step.latency()));
+        ObjectNode byOutcome = node.putObject("latencyMicrosByOutcome");
+        for (Map.Entry<Target.Outcome, Histogram> outcome : step.latencyByOutcome().entrySet()) {
+            byOutcome.set(outcome.getKey().name(), percentiles(outcome.getValue()));
+        }
+        node.put("histogram", encode(step.latency()));
+    }
+
+    /**
+     * @param steps - Every step that was run, to find the highest rate the service kept up with
+     */
+    public void write(Path path, List<StepResult> steps) throws IOException {
+        double maxSustainedRate = steps.stream().filter(StepResult::isSustained).mapToDouble(StepResult::targetRate).max().orElse(0);
+        root.put("maxSustainedRate", maxSustainedRate);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        MAPPER.writeValue(path.toFile(), root);
+    }
+
+    /**
+     * One line per step, for the console
+     */
+    public static void printSummary(PrintStream out, StepResult step) {
+        Histogram latency = step.latency();
+        out.printf("rate %8.0f/s  achieved %8.1f/s  p50 %8dus  p99 %8dus  p99.9 %8dus  max %8dus  unexpected %d%s%n",
+                step.targetRate(), step.achievedRate(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(99),
+                latency.getValueAtPercentile(99.9), latency.getMaxValue(), step.unexpected(), step.isSustained() ? "" : "  NOT SUSTAINED");
+    }
+
+    private static ObjectNode percentiles(Histogram histogram) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("count", histogram.getTotalCount());
+        node.put("mean", Math.round(histogram.getMean()));
+        node.put("p50", histogram.getValueAtPercentile(50));
+        node.put("p90", histogram.getValueAtPercentile(90));
+        node.put("p99", histogram.getValueAtPercentile(99));
+        node.put("p999", histogram.getValueAtPercentile(99.9));
+        node.put("max", histogram.getMaxValue());
+        return node;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+}
@@ -0,0 +1,162 @@
+package com.winters.tool.rental.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed rate for a fixed time, whether or not earlier requests have been answered, and records
+ * each one's latency from when it was <em>due</em> to be sent rather than when it actually was. If the service (or the
+ * pool of client threads) falls behind, requests queue up and that wait is counted against them, exactly as it would
+ * be for real users arriving at that rate - which avoids coordinated omission, where a closed loop client quietly stops
+ * sending while the service is stalled and the worst latencies never get measured.
+ * <p>
+ * Latencies are recorded in microseconds into HdrHistogram {@link Recorder}s, which are safe to record into from any
+ * number of threads without locking.
+ */
+public final class OpenLoopRunner {
+
+    // Anything up to an hour, at 3 significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    private final Target target;
+    private final RequestMix mix;
+    private final Arrivals arrivals;
+    private final int numClientThreads;
+
+    /**
+     * @param numClientThreads - Requests in flight at once. Requests beyond that queue until a thread is free, with
+     *                         the time spent queued counted as latency
+     */
+    public OpenLoopRunner(Target target, RequestMix mix, Arrivals arrivals, int numClientThreads) {
+        this.target = target;
+        this.mix = mix;
+        this.arrivals = arrivals;
+        this.numClientThreads = numClientThreads;
+    }
+
+    /**
+     * Runs one step: {@code warmupSeconds} at the rate with nothing recorded, then {@code durationSeconds} measured
+     */
+    public StepResult run(double rate, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(numClientThreads);
+        try {
+            if (warmupSeconds > 0) {
+                Recording warmup = new Recording();
+                send(clients, rate, warmupSeconds, warmup);
+                // Otherwise a warmup backlog would be counted against the measured requests
+                warmup.awaitCompletion(DRAIN_TIMEOUT_SECONDS);
+            }
+            Recording recording = new Recording();
+            long start = System.nanoTime();
+            long maxSendLagNanos = send(clients, rate, durationSeconds, recording);
+            boolean drained = recording.awaitCompletion(DRAIN_TIMEOUT_SECONDS);
+            long elapsedNanos = recording.lastCompletionNanos.get() - start;
+            return recording.toResult(rate, durationSeconds, elapsedNanos, TimeUnit.NANOSECONDS.toMicros(maxSendLagNanos), drained);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * Hands each request to the client threads at its scheduled time. Sleeping isn't precise enough to send one
+     * request at a time at high rates, so each time the scheduler wakes up it sends everything that has come due.
+     *
+     * @return the furthest behind schedule a request was handed over, in nanoseconds. A large value means the load
+     * generator itself couldn't keep up and the run measured less load than it was asked to
+     */
+    private long send(ExecutorService clients, double rate, int seconds, Recording recording) {
+        Random random = new Random(mix.getSeed());
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long intended = start;
+        long maxLag = 0;
+        for (long index = 0; intended - end < 0; index++) {
+            long now = System.nanoTime();
+            while (intended - now > 0) {
+                LockSupport.parkNanos(intended - now);
+                now = System.nanoTime();
+            }
+            maxLag = Math.max(maxLag, now - intended);
+
+            RequestMix.Entry entry = mix.get(index);
+            long intendedStart = intended;
+            recording.sent.increment();
+            clients.execute(() -> recording.record(entry, intendedStart, call(entry)));
+            intended += arrivals.nextGapNanos(random, rate);
+        }
+        return maxLag;
+    }
+
+    private Target.Outcome call(RequestMix.Entry entry) {
+        try {
+            return target.checkout(entry);
+        } catch (Exception e) {
+            return Target.Outcome.ERROR;
+        }
+    }
+
+    /**
+     * Everything recorded during one run of the schedule
+     */
+    private static final class Recording {
+        final Recorder all = newRecorder();
+        final Map<Target.Outcome, Recorder> byOutcome = new EnumMap<>(Target.Outcome.class);
+        final LongAdder sent = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder unexpected = new LongAdder();
+        final AtomicLong lastCompletionNanos = new AtomicLong();
+
+        Recording() {
+            for (Target.Outcome outcome : Target.Outcome.values()) {
+                byOutcome.put(outcome, newRecorder());
+            }
+        }
+
+        void record(RequestMix.Entry entry, long intendedStart, Target.Outcome outcome) {
+            long now = System.nanoTime();
+            long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(now - intendedStart), HIGHEST_TRACKABLE_MICROS);
+            all.recordValue(micros);
+            byOutcome.get(outcome).recordValue(micros);
+            if (outcome != (entry.valid() ? Target.Outcome.ACCEPTED : Target.Outcome.REJECTED)) {
+                unexpected.increment();
+            }
+            lastCompletionNanos.accumulateAndGet(now, Math::max);
+            completed.increment();
+        }
+
+        boolean awaitCompletion(long timeoutSeconds) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            while (completed.sum() < sent.sum()) {
+                if (System.nanoTime() - deadline > 0) {
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+            return true;
+        }
+
+        StepResult toResult(double rate, int durationSeconds, long elapsedNanos, long maxSendLagMicros, boolean drained) {
+            Map<Target.Outcome, Histogram> histograms = new EnumMap<>(Target.Outcome.class);
+            byOutcome.forEach((outcome, recorder) -> histograms.put(outcome, recorder.getIntervalHistogram()));
+            return new StepResult(rate, durationSeconds, sent.sum(), completed.sum(), unexpected.sum(),
+                    completed.sum() * 1e9 / Math.max(elapsedNanos, 1), maxSendLagMicros, drained,
+                    all.getIntervalHistogram(), histograms);
+        }
+
+        private static Recorder newRecorder() {
+            return new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.winters.tool.rental.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.winters.tool.rental.api.RentalRequestDto;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+
+import java.io.UncheckedIOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A fixed, seeded set of checkout requests shaped like real traffic, replayed in order (and from the start again once
+ * exhausted) so two runs with the same seed send exactly the same requests:
+ * <ul>
+ *     <li>every tool in the catalog, so every {@link Tool.Type} & brand, equally often</li>
+ *     <li>mostly short rentals - 60% of 1 to 7 days, 30% of 8 to 30 and 10% of 31 to 365</li>
+ *     <li>{@value #HOLIDAY_SPANNING_PERCENT}% checked out in the week before the 4th of July or Labor Day, the rest any
+ *     day from 2015 through 2030</li>
+ *     <li>{@value #INVALID_PERCENT}% invalid - no days, a discount over 100%, an unknown tool or no checkout date</li>
+ * </ul>
+ * Everything is generated up front so building requests never shows up in the measured latency.
+ */
+public final class RequestMix {
+
+    static final int HOLIDAY_SPANNING_PERCENT = 30;
+    static final int INVALID_PERCENT = 5;
+
+    private static final int FIRST_YEAR = 2015;
+    private static final int NUM_YEARS = 16;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * One request, in both the form the service takes in-process and the JSON body the HTTP API takes
+     *
+     * @param valid - Whether the service should accept it, so a run can spot a response that doesn't match
+     */
+    public record Entry(RentalRequest request, String json, boolean valid, boolean holidaySpanning) {
+    }
+
+    private final long seed;
+    private final Entry[] entries;
+
+    /**
+     * @param size - How many distinct requests to generate before the mix repeats
+     */
+    public RequestMix(long seed, int size) {
+        this.seed = seed;
+        this.entries = new Entry[size];
+        Random random = new Random(seed);
+        List<Tool> tools = ToolCatalog.DEFAULT.getTools();
+        for (int i = 0; i < size; i++) {
+            entries[i] = generate(random, tools);
+        }
+    }
+
+    /**
+     * @return the {@code index}th request sent, wrapping around the mix
+     */
+    public Entry get(long index) {
+        return entries[(int) (index % entries.length)];
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    private static Entry generate(Random random, List<Tool> tools) {
+        String toolCode = tools.get(random.nextInt(tools.size())).getCode();
+        int numDays = rentalLength(random);
+        int discountPercent = random.nextInt(4) == 0 ? 5 * random.nextInt(11) : 0;
+        boolean holidaySpanning = random.nextInt(100) < HOLIDAY_SPANNING_PERCENT;
+        LocalDate checkoutDate = holidaySpanning ? beforeHoliday(random) : LocalDate.of(FIRST_YEAR, Month.JANUARY, 1)
+                .plusDays(random.nextInt(NUM_YEARS * 365));
+
+        boolean valid = random.nextInt(100) >= INVALID_PERCENT;
+        if (!valid) {
+            switch (random.nextInt(4)) {
+                case 0 -> numDays = 0;
+                case 1 -> discountPercent = 101;
+                case 2 -> toolCode = "XXXX";
+                default -> checkoutDate = null;
+            }
+        }
+
+        RentalRequest request = RentalRequest.builder()
+                .toolCode(toolCode)
+                .numDaysToRent(numDays)
+                .discountPercent(discountPercent)
+                .checkoutLocalDate(checkoutDate)
+                .build();
+        String date = checkoutDate != null ? DateTimeFormatter.ISO_LOCAL_DATE.format(checkoutDate) : null;
+        return new Entry(request, toJson(new RentalRequestDto(toolCode, numDays, discountPercent, date)), valid, holidaySpanning);
+    }
+
+    private static int rentalLength(Random random) {
+        int bucket = random.nextInt(10);
+        if (bucket < 6) {
+            return 1 + random.nextInt(7);
+        }
+        return bucket < 9 ? 8 + random.nextInt(23) : 31 + random.nextInt(335);
+    }
+
+    /**
+     * @return a day in the week leading up to the 4th of July or Labor Day, so the rental's first days span it
+     */
+    private static LocalDate beforeHoliday(Random random) {
+        int year = FIRST_YEAR + random.nextInt(NUM_YEARS);
+        LocalDate holiday = random.nextBoolean()
+                ? LocalDate.of(year, Month.JULY, 4)
+                : LocalDate.of(year, Month.SEPTEMBER, 1).with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+        return holiday.minusDays(1 + random.nextInt(7));
+    }
+
+    private static String toJson(RentalRequestDto request) {
+        try {
+            return MAPPER.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
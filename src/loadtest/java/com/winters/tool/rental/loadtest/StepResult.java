@@ -0,0 +1,33 @@
+package com.winters.tool.rental.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+/**
+ * What one step of a load test measured
+ *
+ * @param targetRate       - Requests a second the schedule asked for
+ * @param requestsSent     - Requests handed to the client threads during the measured period
+ * @param requestsAnswered - How many of those had been answered when the step ended
+ * @param unexpected       - Valid requests that weren't accepted plus invalid ones that weren't rejected
+ * @param achievedRate     - Answers a second, from the start of the measured period to the last answer
+ * @param maxSendLagMicros - Furthest behind schedule the load generator got
+ * @param drained          - Whether every request was answered before the drain timeout
+ * @param latency          - Every answer's latency in microseconds, measured from when the request was due
+ * @param latencyByOutcome - The same, split by outcome
+ */
+public record StepResult(double targetRate, int durationSeconds, long requestsSent, long requestsAnswered, long unexpected,
+                         double achievedRate, long maxSendLagMicros, boolean drained, Histogram latency,
+                         Map<Target.Outcome, Histogram> latencyByOutcome) {
+
+    // Below this fraction of the target rate the service (or the load generator) wasn't keeping up
+    private static final double SUSTAINED_FRACTION = 0.95;
+
+    /**
+     * @return whether the service kept up with the rate - everything answered, at close to the rate asked for
+     */
+    public boolean isSustained() {
+        return drained && requestsAnswered == requestsSent && achievedRate >= targetRate * SUSTAINED_FRACTION;
+    }
+}
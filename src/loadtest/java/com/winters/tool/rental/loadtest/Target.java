@@ -0,0 +1,31 @@
+package com.winters.tool.rental.loadtest;
+
+/**
+ * Whatever the load test is checking out against. Called from many threads at once, so implementations must be
+ * thread safe.
+ */
+public interface Target extends AutoCloseable {
+
+    enum Outcome {
+        // An agreement was issued
+        ACCEPTED,
+        // The request failed validation
+        REJECTED,
+        // Anything else - an exception, a timeout or an unexpected HTTP status
+        ERROR
+    }
+
+    /**
+     * @return a short name for the report, i.e. "in-process"
+     */
+    String getName();
+
+    /**
+     * Checks out a single request, blocking until the service has answered
+     */
+    Outcome checkout(RequestMix.Entry entry) throws Exception;
+
+    @Override
+    default void close() throws Exception {
+    }
+}
@@ -1,12 +1,17 @@
 package com.winters.tool.rental;
 
+import com.winters.tool.rental.cli.HeadlessLauncher;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
 public class Application {
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws Exception {
+		// Commands run headless, there's no need to start Spring or the web server for them
+		if (HeadlessLauncher.isCommand(args)) {
+			System.exit(HeadlessLauncher.run(args, System.out, System.err));
+		}
 		SpringApplication.run(Application.class, args);
 	}
 
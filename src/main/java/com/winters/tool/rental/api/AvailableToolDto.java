@@ -0,0 +1,21 @@
+package com.winters.tool.rental.api;
+
+import com.winters.tool.rental.data.AvailableTool;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * JSON representation of an {@link AvailableTool}: how many units are free, and the agreement renting one would produce
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public @Data class AvailableToolDto {
+    // -1 when units aren't being tracked
+    int unitsAvailable;
+    RentalAgreementDto quote;
+
+    public static AvailableToolDto from(AvailableTool availableTool) {
+        return new AvailableToolDto(availableTool.getNumUnitsAvailable(), RentalAgreementDto.from(availableTool.getQuote()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.winters.tool.rental.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * JSON body for checking a unit back in. The return date is carried as an ISO-8601 string (i.e. "2020-07-09") for the
+ * same reason as {@link RentalRequestDto#getCheckoutDate()}.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public @Data class CheckInRequestDto {
+    // The unit as labelled on the agreement, i.e. "CHNS-2"
+    String unitId;
+    String returnDate;
+
+    /**
+     * @return the parsed return date, or null if it is missing
+     * @throws DateTimeParseException if the return date is present but not formatted as yyyy-MM-dd
+     */
+    public LocalDate parseReturnDate() {
+        return returnDate == null || returnDate.isBlank() ? null : LocalDate.parse(returnDate, DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+}
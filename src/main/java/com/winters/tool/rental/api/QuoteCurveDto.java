@@ -0,0 +1,50 @@
+package com.winters.tool.rental.api;
+
+import com.winters.tool.rental.data.QuoteCurve;
+import com.winters.tool.rental.data.RentalRequest;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON representation of a {@link QuoteCurve}. The tool, checkout date & requested discount are given once, followed
+ * by one entry per rental length with the discount actually applied to that length.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public @Data class QuoteCurveDto {
+    String toolCode;
+    String checkOutDate;
+    int discountPercent;
+    List<Point> points;
+
+    public static QuoteCurveDto from(QuoteCurve curve) {
+        RentalRequest req = curve.getRequest();
+        List<Point> points = new ArrayList<>(curve.getPoints().size());
+        for (QuoteCurve.Point point : curve.getPoints()) {
+            points.add(new Point(point.getNumDaysRented(), DateTimeFormatter.ISO_LOCAL_DATE.format(point.getDueDate()),
+                    point.getChargeDays(), point.getDiscountDays(), point.getDiscountPercent(), point.getPrice().getPreDiscountCharge(),
+                    point.getPrice().getDiscountAmount(), point.getPrice().getFinalCharge()));
+        }
+        return new QuoteCurveDto(req.getToolCode().toUpperCase(), DateTimeFormatter.ISO_LOCAL_DATE.format(req.getCheckoutLocalDate()),
+                req.getDiscountPercent(), points);
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static @Data class Point {
+        int numDaysRented;
+        String dueDate;
+        int chargeDays;
+        int discountDays;
+        int discountPercent;
+        BigDecimal preDiscountCharge;
+        BigDecimal discountAmount;
+        BigDecimal finalCharge;
+    }
+}
@@ -0,0 +1,52 @@
+package com.winters.tool.rental.api;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * JSON representation of a {@link RentalAgreement}. Dates are rendered as ISO-8601 strings (i.e. "2020-07-02").
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public @Data class RentalAgreementDto {
+    String toolCode;
+    String toolType;
+    String toolBrand;
+    int numDaysRented;
+    String checkOutDate;
+    String dueDate;
+    BigDecimal dailyRentalCharge;
+    int chargeDays;
+    int discountDays;
+    BigDecimal preDiscountCharge;
+    int discountPercent;
+    BigDecimal discountAmount;
+    BigDecimal finalCharge;
+    String unitId;
+
+    public static RentalAgreementDto from(RentalAgreement agreement) {
+        return RentalAgreementDto.builder()
+                .toolCode(agreement.getTool().getCode())
+                .toolType(agreement.getTool().getType().name())
+                .toolBrand(agreement.getTool().getBrand().name())
+                .numDaysRented(agreement.getNumDaysRented())
+                .checkOutDate(DateTimeFormatter.ISO_LOCAL_DATE.format(agreement.getCheckOutLocalDate()))
+                .dueDate(DateTimeFormatter.ISO_LOCAL_DATE.format(agreement.getDueLocalDate()))
+                .dailyRentalCharge(agreement.getDailyRentalCharge())
+                .chargeDays(agreement.getChargeDays())
+                .discountDays(agreement.getDiscountDays())
+                .preDiscountCharge(agreement.getPreDiscountCharge())
+                .discountPercent(agreement.getDiscountPercent())
+                .discountAmount(agreement.getDiscountAmount())
+                .finalCharge(agreement.getFinalCharge())
+                .unitId(agreement.getUnitId())
+                .build();
+    }
+}
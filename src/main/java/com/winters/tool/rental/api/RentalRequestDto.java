@@ -0,0 +1,50 @@
+package com.winters.tool.rental.api;
+
+import com.winters.tool.rental.data.RentalRequest;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * JSON representation of a {@link RentalRequest}. The checkout date is carried as an ISO-8601 string
+ * (i.e. "2020-07-02") so a malformed date can be reported alongside the rest of the validation errors
+ * instead of failing the whole body.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public @Data class RentalRequestDto {
+    String toolCode;
+    int numDaysToRent;
+    int discountPercent;
+    String checkoutDate;
+
+    /**
+     * @return the parsed checkout date, or null if it is missing
+     * @throws DateTimeParseException if the checkout date is present but not formatted as yyyy-MM-dd
+     */
+    public LocalDate parseCheckoutDate() {
+        return checkoutDate == null || checkoutDate.isBlank() ? null : LocalDate.parse(checkoutDate, DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+
+    /**
+     * @param checkoutDate - The already parsed checkout date, see {@link #parseCheckoutDate()}
+     */
+    public RentalRequest toRentalRequest(LocalDate checkoutDate) {
+        return RentalRequest.builder()
+                .toolCode(toolCode)
+                .numDaysToRent(numDaysToRent)
+                .discountPercent(discountPercent)
+                .checkoutLocalDate(checkoutDate)
+                .build();
+    }
+
+    public static String invalidCheckoutDateMessage(String checkoutDate) {
+        return "Checkout date must be formatted as yyyy-MM-dd. Request had a value of " + checkoutDate;
+    }
+}
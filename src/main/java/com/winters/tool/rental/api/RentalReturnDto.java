@@ -0,0 +1,36 @@
+package com.winters.tool.rental.api;
+
+import com.winters.tool.rental.data.RentalReturn;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * JSON representation of a {@link RentalReturn}: the agreement as it was issued, and what it came to on check-in
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public @Data class RentalReturnDto {
+    RentalAgreementDto agreement;
+    String returnDate;
+    int numDaysLate;
+    int lateChargeDays;
+    BigDecimal lateCharge;
+    BigDecimal totalCharge;
+
+    public static RentalReturnDto from(RentalReturn rentalReturn) {
+        return RentalReturnDto.builder()
+                .agreement(RentalAgreementDto.from(rentalReturn.getAgreement()))
+                .returnDate(DateTimeFormatter.ISO_LOCAL_DATE.format(rentalReturn.getReturnLocalDate()))
+                .numDaysLate(rentalReturn.getNumDaysLate())
+                .lateChargeDays(rentalReturn.getLateChargeDays())
+                .lateCharge(rentalReturn.getLateCharge())
+                .totalCharge(rentalReturn.getTotalCharge())
+                .build();
+    }
+}
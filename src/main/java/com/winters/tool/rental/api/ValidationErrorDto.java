@@ -0,0 +1,135 @@
+package com.winters.tool.rental.api;
+
+import com.winters.tool.rental.data.ValidationError;
+import com.winters.tool.rental.data.ValidationRule;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body returned for a request that failed validation. Lists every problem with the request at once, the same way
+ * {@code RentalService} does. {@code codes} carries the matching machine readable rule name for each message, so
+ * clients can react to a specific problem without parsing the text.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public @Data class ValidationErrorDto {
+    // Problems caught before a request reaches the service, reported alongside the ValidationRule names
+    public static final String UNREADABLE_REQUEST_CODE = "REQUEST_BODY_UNREADABLE";
+    public static final String INVALID_CHECKOUT_DATE_CODE = "CHECKOUT_DATE_INVALID_FORMAT";
+    public static final String QUOTE_CURVE_TOO_LONG_CODE = "QUOTE_CURVE_TOO_LONG";
+    public static final String UNIT_ID_MISSING_CODE = "UNIT_ID_MISSING";
+    public static final String RETURN_DATE_MISSING_CODE = "RETURN_DATE_MISSING";
+    public static final String INVALID_RETURN_DATE_CODE = "RETURN_DATE_INVALID_FORMAT";
+    public static final String NO_OPEN_RENTAL_CODE = "NO_OPEN_RENTAL";
+    public static final String OPEN_RENTALS_NOT_TRACKED_CODE = "OPEN_RENTALS_NOT_TRACKED";
+    public static final String INVALID_AS_OF_DATE_CODE = "AS_OF_DATE_INVALID_FORMAT";
+    public static final String LINE_TOO_LONG_CODE = "LINE_TOO_LONG";
+
+    List<String> errors;
+    List<String> codes;
+
+    public static ValidationErrorDto unreadableRequest() {
+        return new ValidationErrorDto(List.of("Request body is not a valid rental request."), List.of(UNREADABLE_REQUEST_CODE));
+    }
+
+    /**
+     * A malformed checkout date along with whatever else is wrong with the request
+     *
+     * @param checkoutDate - The checkout date exactly as it was sent
+     * @param errors       - Every validation error for the request with the checkout date left out. Its missing
+     *                     checkout date is reported as the malformed one, in the same place.
+     */
+    public static ValidationErrorDto invalidCheckoutDate(String checkoutDate, List<ValidationError> errors) {
+        List<String> messages = new ArrayList<>(errors.size());
+        List<String> codes = new ArrayList<>(errors.size());
+        boolean reported = false;
+        for (ValidationError error : errors) {
+            if (error.getRule() == ValidationRule.CHECKOUT_DATE_MISSING) {
+                messages.add(RentalRequestDto.invalidCheckoutDateMessage(checkoutDate));
+                codes.add(INVALID_CHECKOUT_DATE_CODE);
+                reported = true;
+            } else {
+                messages.add(error.getMessage());
+                codes.add(error.getRule().name());
+            }
+        }
+        if (!reported) {
+            messages.add(RentalRequestDto.invalidCheckoutDateMessage(checkoutDate));
+            codes.add(INVALID_CHECKOUT_DATE_CODE);
+        }
+        return new ValidationErrorDto(messages, codes);
+    }
+
+    /**
+     * @param maxLineLength - The longest line in bytes a bulk upload may contain
+     */
+    public static ValidationErrorDto lineTooLong(int maxLineLength) {
+        return new ValidationErrorDto(List.of("Line is longer than the " + maxLineLength + " bytes allowed and was skipped."),
+                List.of(LINE_TOO_LONG_CODE));
+    }
+
+    /**
+     * @param maxDays - The longest rental a single quote curve may cover
+     */
+    public static ValidationErrorDto quoteCurveTooLong(int numDaysToRent, int maxDays) {
+        return new ValidationErrorDto(List.of("Quote curves can cover at most " + maxDays + " days. Request had a value of " + numDaysToRent),
+                List.of(QUOTE_CURVE_TOO_LONG_CODE));
+    }
+
+    /**
+     * Every problem with a check-in body at once, like the rental request validation
+     *
+     * @param unitIdMissing      - Whether the unit id was left out
+     * @param returnDateMissing  - Whether the return date was left out
+     * @param invalidReturnDate  - The return date exactly as it was sent if it couldn't be parsed, otherwise null
+     * @return the problems, or null if there weren't any
+     */
+    public static ValidationErrorDto invalidCheckIn(boolean unitIdMissing, boolean returnDateMissing, String invalidReturnDate) {
+        List<String> messages = new ArrayList<>(2);
+        List<String> codes = new ArrayList<>(2);
+        if (unitIdMissing) {
+            messages.add("Unit id is required, i.e. CHNS-1.");
+            codes.add(UNIT_ID_MISSING_CODE);
+        }
+        if (returnDateMissing) {
+            messages.add("Return date is required.");
+            codes.add(RETURN_DATE_MISSING_CODE);
+        } else if (invalidReturnDate != null) {
+            messages.add("Return date must be formatted as yyyy-MM-dd. Request had a value of " + invalidReturnDate);
+            codes.add(INVALID_RETURN_DATE_CODE);
+        }
+        return messages.isEmpty() ? null : new ValidationErrorDto(messages, codes);
+    }
+
+    public static ValidationErrorDto noOpenRental(String unitId, String returnDate) {
+        return new ValidationErrorDto(List.of("Unit " + unitId + " has no open rental checked out on or before " + returnDate + "."),
+                List.of(NO_OPEN_RENTAL_CODE));
+    }
+
+    public static ValidationErrorDto invalidAsOfDate(String asOf) {
+        return new ValidationErrorDto(List.of("As of date must be formatted as yyyy-MM-dd. Request had a value of " + asOf),
+                List.of(INVALID_AS_OF_DATE_CODE));
+    }
+
+    public static ValidationErrorDto openRentalsNotTracked() {
+        return new ValidationErrorDto(List.of("Open rentals aren't being tracked, so units can't be checked in or listed as overdue."),
+                List.of(OPEN_RENTALS_NOT_TRACKED_CODE));
+    }
+
+    /**
+     * @param errors Every validation error for a request
+     */
+    public static ValidationErrorDto from(List<ValidationError> errors) {
+        List<String> messages = new ArrayList<>(errors.size());
+        List<String> codes = new ArrayList<>(errors.size());
+        for (ValidationError error : errors) {
+            messages.add(error.getMessage());
+            codes.add(error.getRule().name());
+        }
+        return new ValidationErrorDto(messages, codes);
+    }
+}
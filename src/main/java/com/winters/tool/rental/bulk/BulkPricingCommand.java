@@ -0,0 +1,73 @@
+package com.winters.tool.rental.bulk;
+
+import com.winters.tool.rental.cli.CommandLineOptions;
+import com.winters.tool.rental.pricing.QuoteCache;
+import com.winters.tool.rental.services.RentalService;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line front end for {@link BulkPricingJob}, run through {@code Application} without starting Spring or the
+ * web server:
+ * <pre>
+ *     java -jar tool-rental.jar bulk-price --input requests.ndjson --output agreements.ndjson
+ *         [--format ndjson|csv] [--workers N] [--quote-cache-size N]
+ * </pre>
+ * The format defaults to CSV for {@code .csv} input and NDJSON otherwise. Repricing history tends to repeat the same
+ * quotes, so a quote cache is used unless {@code --quote-cache-size 0} is given.
+ */
+public final class BulkPricingCommand {
+
+    public static final String NAME = "bulk-price";
+
+    private static final long DEFAULT_QUOTE_CACHE_SIZE = 100_000;
+    private static final String USAGE = "Usage: " + NAME + " --input <file> --output <file> [--format ndjson|csv] "
+            + "[--workers <count>] [--quote-cache-size <count>]";
+
+    private BulkPricingCommand() {
+    }
+
+    /**
+     * @param args - The arguments following the command name
+     * @param out  - Where the report is printed
+     * @param err  - Where usage errors are printed
+     * @return the process exit status - 0 on success, 2 for bad arguments
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) throws IOException, InterruptedException {
+        Map<String, String> options = CommandLineOptions.parse(args);
+        if (options == null || options.get("input") == null || options.get("output") == null) {
+            err.println(USAGE);
+            return 2;
+        }
+        String input = options.get("input");
+        String output = options.get("output");
+
+        RecordFormat format;
+        int numWorkers;
+        long quoteCacheSize;
+        try {
+            format = options.containsKey("format")
+                    ? RecordFormat.valueOf(options.get("format").toUpperCase(Locale.ROOT))
+                    : RecordFormat.forFileName(input);
+            numWorkers = Integer.parseInt(options.getOrDefault("workers", "0"));
+            quoteCacheSize = Long.parseLong(options.getOrDefault("quote-cache-size", String.valueOf(DEFAULT_QUOTE_CACHE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+
+        RentalService rentalService = RentalService.builder()
+                .quoteCache(quoteCacheSize > 0 ? new QuoteCache(quoteCacheSize) : null)
+                .build();
+        try (BulkPricingJob job = BulkPricingJob.builder().rentalService(rentalService).numWorkers(numWorkers).build()) {
+            BulkPricingReport report = job.run(Path.of(input), Path.of(output), format);
+            out.println(report.summary());
+        }
+        return 0;
+    }
+}
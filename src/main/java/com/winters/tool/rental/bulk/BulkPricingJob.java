@@ -0,0 +1,236 @@
+package com.winters.tool.rental.bulk;
+
+import com.winters.tool.rental.api.RentalAgreementDto;
+import com.winters.tool.rental.api.RentalRequestDto;
+import com.winters.tool.rental.api.ValidationErrorDto;
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.ValidationError;
+import com.winters.tool.rental.data.ValidationMode;
+import com.winters.tool.rental.services.RentalService;
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prices a flat file of rental requests into a flat file of agreements without ever holding more than a few
+ * batches of either in memory.
+ * <p>
+ * The input is read in chunks by a {@link ChunkedLineReader}, parsed, priced & rendered on a pool of workers by an
+ * {@link OrderedBatchPipeline}, and written out in the same order as the input. A line that can't be parsed or
+ * fails validation becomes an error record in the output rather than stopping the run.
+ * <p>
+ * The workers belong to the job rather than to a run, so one job can serve any number of runs, including several at
+ * once (i.e. concurrent uploads to the bulk checkout endpoint), which then take turns on the same threads. Close the
+ * job to stop them.
+ */
+public class BulkPricingJob implements AutoCloseable {
+
+    private static final int DEFAULT_BATCH_SIZE = 512;
+    private static final int BATCHES_IN_FLIGHT_PER_WORKER = 4;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+
+    private final RentalService rentalService;
+    private final int numWorkers;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+    private final int chunkSize;
+    private final int maxLineLength;
+    private final boolean issue;
+    private final boolean flushEachBatch;
+    private final ExecutorService workers;
+
+    /**
+     * Any setting left unset (null or zero) falls back to its default.
+     *
+     * @param rentalService      - Prices each request. Defaults to a plain {@link RentalService}
+     * @param numWorkers         - Threads parsing, pricing & rendering records. Defaults to one per available processor
+     * @param batchSize          - Records handed to a worker at a time. Defaults to 512
+     * @param maxBatchesInFlight - Batches read ahead of the writer before reading pauses. Defaults to 4 per worker
+     * @param chunkSize          - Bytes read from the input at a time. Defaults to {@link ChunkedLineReader#DEFAULT_CHUNK_SIZE}
+     * @param maxLineLength      - Longest input line in bytes. A longer one is skipped & reported as an error record
+     *                           rather than read into memory. Defaults to
+     *                           {@link ChunkedLineReader#DEFAULT_MAX_LINE_LENGTH}
+     * @param issue              - Issue every agreement (reserving a unit & passing it to the agreement sink) rather than
+     *                           only quoting it. Defaults to quoting
+     * @param flushEachBatch     - Flush the output after every batch, so results reach a streaming reader as soon as
+     *                           they're priced rather than whenever the output buffer fills. Defaults to off
+     */
+    @Builder
+    public BulkPricingJob(RentalService rentalService, int numWorkers, int batchSize, int maxBatchesInFlight, int chunkSize,
+                          int maxLineLength, boolean issue, boolean flushEachBatch) {
+        this.rentalService = rentalService != null ? rentalService : new RentalService();
+        this.numWorkers = numWorkers > 0 ? numWorkers : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        this.maxBatchesInFlight = maxBatchesInFlight > 0 ? maxBatchesInFlight : this.numWorkers * BATCHES_IN_FLIGHT_PER_WORKER;
+        this.chunkSize = chunkSize > 0 ? chunkSize : ChunkedLineReader.DEFAULT_CHUNK_SIZE;
+        this.maxLineLength = maxLineLength > 0 ? maxLineLength : ChunkedLineReader.DEFAULT_MAX_LINE_LENGTH;
+        this.issue = issue;
+        this.flushEachBatch = flushEachBatch;
+        // Threads are only started as batches arrive, so an idle job costs nothing
+        this.workers = Executors.newFixedThreadPool(this.numWorkers, new WorkerThreadFactory());
+    }
+
+    /**
+     * @param input  - Requests, one per line
+     * @param output - Where the agreements are written, replaced if it already exists
+     * @param format - Format of both files
+     */
+    public BulkPricingReport run(Path input, Path output, RecordFormat format) throws IOException, InterruptedException {
+        try (ReadableByteChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            return run(in, out, format);
+        }
+    }
+
+    /**
+     * @param input  - Requests, one per line. Not closed
+     * @param output - Where the agreements are written. Flushed but not closed
+     * @param format - Format of both the input & output
+     */
+    public BulkPricingReport run(ReadableByteChannel input, Writer output, RecordFormat format) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        // Sampled rather than read from the memory pools' peaks, which are shared by the whole JVM - resetting them
+        // would wipe out the peak of any other run in progress
+        long[] peakHeapBytes = {heapUsed()};
+
+        Writer out = output instanceof BufferedWriter ? output : new BufferedWriter(output, OUTPUT_BUFFER_SIZE);
+        String header = format.header();
+        if (header != null) {
+            out.write(header);
+            out.write('\n');
+        }
+
+        // The reader isn't closed here, the caller owns the channel
+        ChunkedLineReader reader = new ChunkedLineReader(input, chunkSize, maxLineLength);
+        long[] lineNumber = {0};
+        long[] numSucceeded = {0};
+        long[] numFailed = {0};
+        OrderedBatchPipeline.Source<InputLine> source = () -> {
+            while (true) {
+                String line;
+                try {
+                    line = reader.readLine();
+                } catch (LineTooLongException e) {
+                    // Already skipped, only its number goes on to be reported
+                    return new InputLine(++lineNumber[0], null);
+                }
+                if (line == null) {
+                    return null;
+                }
+                lineNumber[0]++;
+                if (!line.isBlank() && !(lineNumber[0] == 1 && format.isHeader(line))) {
+                    return new InputLine(lineNumber[0], line);
+                }
+            }
+        };
+        OrderedBatchPipeline.Sink<OutputLine> sink = priced -> {
+            if (priced.isSuccess()) {
+                numSucceeded[0]++;
+            } else {
+                numFailed[0]++;
+            }
+            out.write(priced.getText());
+            out.write('\n');
+            // Results arrive in input order, so every batchSize results is the end of a batch
+            if ((numSucceeded[0] + numFailed[0]) % batchSize == 0) {
+                peakHeapBytes[0] = Math.max(peakHeapBytes[0], heapUsed());
+                if (flushEachBatch) {
+                    out.flush();
+                }
+            }
+        };
+
+        new OrderedBatchPipeline<InputLine, OutputLine>(workers, batchSize, maxBatchesInFlight)
+                .run(source, line -> price(line, format), sink);
+        out.flush();
+
+        peakHeapBytes[0] = Math.max(peakHeapBytes[0], heapUsed());
+        return new BulkPricingReport(numSucceeded[0], numFailed[0], System.nanoTime() - start, peakHeapBytes[0]);
+    }
+
+    /**
+     * Runs on a worker - parse, price & render a single line
+     */
+    private OutputLine price(InputLine line, RecordFormat format) {
+        RentalRequestDto request;
+        LocalDate checkoutDate;
+        if (line.getText() == null) {
+            return new OutputLine(false, format.formatErrors(line.getNumber(), ValidationErrorDto.lineTooLong(maxLineLength)));
+        }
+        try {
+            request = format.parse(line.getText());
+        } catch (IllegalArgumentException e) {
+            return new OutputLine(false, format.formatErrors(line.getNumber(), ValidationErrorDto.unreadableRequest()));
+        }
+        try {
+            checkoutDate = request.parseCheckoutDate();
+        } catch (DateTimeParseException e) {
+            List<ValidationError> otherErrors = rentalService.validate(request.toRentalRequest(null), ValidationMode.ALL_ERRORS);
+            return new OutputLine(false, format.formatErrors(line.getNumber(), ValidationErrorDto.invalidCheckoutDate(request.getCheckoutDate(), otherErrors)));
+        }
+
+        RentalRequest rentalRequest = request.toRentalRequest(checkoutDate);
+        CheckoutResult result = issue ? rentalService.issue(rentalRequest) : rentalService.tryCheckout(rentalRequest);
+        if (!result.isSuccess()) {
+            return new OutputLine(false, format.formatErrors(line.getNumber(), ValidationErrorDto.from(result.getValidationErrors())));
+        }
+        return new OutputLine(true, format.formatAgreement(line.getNumber(), RentalAgreementDto.from(result.getAgreement())));
+    }
+
+    /**
+     * Stops the workers once any runs still in progress have finished with them. Nothing can be run afterwards.
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Daemon threads, so a job nobody closed never holds the JVM open
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger numThreads = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "bulk-pricing-" + numThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    @Value
+    private static class InputLine {
+        long number;
+        // Null for a line too long to have been read
+        String text;
+    }
+
+    @Value
+    private static class OutputLine {
+        boolean success;
+        String text;
+    }
+}
@@ -0,0 +1,38 @@
+package com.winters.tool.rental.bulk;
+
+import lombok.Value;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of a {@link BulkPricingJob} run.
+ */
+public @Value class BulkPricingReport {
+    long numSucceeded;
+    long numFailed;
+    // Wall clock time from opening the input until the output was flushed
+    long elapsedNanos;
+    // Highest heap usage sampled at the run's start, end & batch boundaries. Heap is shared by the whole process, so this
+    // includes whatever else was running at the time, i.e. other runs in the same server.
+    long peakHeapBytes;
+
+    public long getNumRecords() {
+        return numSucceeded + numFailed;
+    }
+
+    /**
+     * @return records priced per second of wall clock time, or zero for an empty input
+     */
+    public double getRecordsPerSecond() {
+        return elapsedNanos == 0 ? 0 : getNumRecords() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return a one line, human readable version of the report
+     */
+    public String summary() {
+        return String.format(Locale.US, "Priced %,d records (%,d succeeded, %,d failed) in %.2f s - %,.0f records/sec, peak heap %,d MB",
+                getNumRecords(), numSucceeded, numFailed, elapsedNanos / 1e9, getRecordsPerSecond(), peakHeapBytes >> 20);
+    }
+}
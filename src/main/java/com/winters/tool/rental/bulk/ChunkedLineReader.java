@@ -0,0 +1,153 @@
+package com.winters.tool.rental.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads UTF-8 lines from a channel a chunk at a time into a single reused buffer, so reading a file of any size only
+ * ever holds one chunk (plus the line currently being returned) in memory. Lines end with {@code \n} or
+ * {@code \r\n}, and the last line doesn't need a terminator. A line longer than the buffer grows it to fit, up to the
+ * maximum line length - past that the line is skipped without being held on to, and reported by a
+ * {@link LineTooLongException}, so input with no line breaks in it can't take up more memory than that.
+ * <p>
+ * Not thread safe, a reader belongs to whichever thread is pulling records from the file.
+ */
+public class ChunkedLineReader implements Closeable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    public static final int DEFAULT_MAX_LINE_LENGTH = 4 << 20;
+
+    private final ReadableByteChannel channel;
+    private final int maxLineLength;
+    private ByteBuffer buffer;
+    private boolean endOfInput;
+    // Partway through a line that's too long, whose remaining bytes are thrown away as they're read
+    private boolean skippingLine;
+
+    /**
+     * Lines can be up to {@link #DEFAULT_MAX_LINE_LENGTH} bytes long
+     *
+     * @param channel   - Where the lines are read from, closed along with the reader
+     * @param chunkSize - Bytes read from the channel at a time
+     */
+    public ChunkedLineReader(ReadableByteChannel channel, int chunkSize) {
+        this(channel, chunkSize, DEFAULT_MAX_LINE_LENGTH);
+    }
+
+    /**
+     * @param channel       - Where the lines are read from, closed along with the reader
+     * @param chunkSize     - Bytes read from the channel at a time
+     * @param maxLineLength - Longest line returned in bytes, terminator included. The buffer never grows past this
+     *                      or the chunk size, whichever is larger
+     */
+    public ChunkedLineReader(ReadableByteChannel channel, int chunkSize, int maxLineLength) {
+        if (maxLineLength < 1) {
+            throw new IllegalArgumentException("Maximum line length must be at least 1: " + maxLineLength);
+        }
+        this.channel = channel;
+        this.maxLineLength = maxLineLength;
+        this.buffer = ByteBuffer.allocate(chunkSize);
+        // Start out empty & in read mode
+        this.buffer.flip();
+    }
+
+    /**
+     * @return the next line without its terminator, or null once the channel is exhausted
+     * @throws LineTooLongException if the next line is longer than the maximum line length. It has been skipped, and
+     *                              the next call reads the line after it
+     */
+    public String readLine() throws IOException {
+        while (true) {
+            int newline = indexOf(buffer, (byte) '\n');
+            if (skippingLine) {
+                if (newline < 0 && !endOfInput) {
+                    // Only where the line ends matters, none of it is kept
+                    buffer.position(buffer.limit());
+                    fill();
+                    continue;
+                }
+                throw skipLine(newline >= 0 ? newline + 1 : buffer.limit());
+            }
+            if (newline >= 0) {
+                if (newline + 1 - buffer.position() > maxLineLength) {
+                    throw skipLine(newline + 1);
+                }
+                return takeLine(newline, newline + 1);
+            }
+            if (endOfInput) {
+                if (!buffer.hasRemaining()) {
+                    return null;
+                }
+                if (buffer.remaining() > maxLineLength) {
+                    throw skipLine(buffer.limit());
+                }
+                return takeLine(buffer.limit(), buffer.limit());
+            }
+            if (buffer.position() == 0 && buffer.limit() == buffer.capacity() && buffer.capacity() >= maxLineLength) {
+                // A whole buffer as long as the longest line allowed & still no end to it
+                skippingLine = true;
+                continue;
+            }
+            fill();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Tops the buffer up from the channel, keeping whatever partial line is left at the front of it
+     */
+    private void fill() throws IOException {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            // A single line fills the whole buffer, make room for the rest of it
+            ByteBuffer larger = ByteBuffer.allocate((int) Math.min((long) buffer.capacity() * 2, maxLineLength));
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        if (channel.read(buffer) < 0) {
+            endOfInput = true;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Moves past the end of a line that's too long
+     *
+     * @return the exception reporting it, for the caller to throw
+     */
+    private LineTooLongException skipLine(int next) {
+        buffer.position(next);
+        skippingLine = false;
+        return new LineTooLongException(maxLineLength);
+    }
+
+    private String takeLine(int end, int next) {
+        int start = buffer.position();
+        int length = end - start;
+        if (length > 0 && buffer.get(end - 1) == '\r') {
+            length--;
+        }
+        String line = new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        buffer.position(next);
+        return line;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte target) {
+        byte[] array = buffer.array();
+        int offset = buffer.arrayOffset();
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (array[offset + i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,15 @@
+package com.winters.tool.rental.bulk;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A rejected request in NDJSON output. The line number is the request's line in the input file.
+ */
+@Value
+class LineErrorDto {
+    long line;
+    List<String> errors;
+    List<String> codes;
+}
@@ -0,0 +1,21 @@
+package com.winters.tool.rental.bulk;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link ChunkedLineReader#readLine()} for a line longer than the reader will hold. The line has already
+ * been skipped, so reading can carry on with the one after it.
+ */
+public class LineTooLongException extends IOException {
+
+    private final int maxLineLength;
+
+    public LineTooLongException(int maxLineLength) {
+        super("Line is longer than " + maxLineLength + " bytes");
+        this.maxLineLength = maxLineLength;
+    }
+
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+}
@@ -0,0 +1,125 @@
+package com.winters.tool.rental.bulk;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Transforms a stream of records on a pool of workers while keeping the output in input order and the amount of
+ * work in memory bounded.
+ * <p>
+ * The calling thread reads records into batches and hands each batch to the workers. Once
+ * {@code maxBatchesInFlight} batches are outstanding it stops reading and waits for the oldest one, writes its
+ * results and only then reads another batch. A slow sink therefore slows the reader down rather than letting work
+ * pile up, and memory use is capped at roughly {@code batchSize * maxBatchesInFlight} records however long the
+ * input is.
+ *
+ * @param <I> - Type of the records read
+ * @param <O> - Type of the records written
+ */
+public class OrderedBatchPipeline<I, O> {
+
+    /**
+     * Supplies records, returning null once there are no more
+     */
+    @FunctionalInterface
+    public interface Source<I> {
+        I next() throws IOException;
+    }
+
+    /**
+     * Receives the transformed records, always on the thread that called {@link #run}
+     */
+    @FunctionalInterface
+    public interface Sink<O> {
+        void accept(O record) throws IOException;
+    }
+
+    private final ExecutorService workers;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+
+    /**
+     * @param workers            - Runs the transform, one task per batch
+     * @param batchSize          - Records per task, large enough that handing a batch to a worker is cheap by comparison
+     * @param maxBatchesInFlight - Batches read but not yet written before reading waits on the workers
+     */
+    public OrderedBatchPipeline(ExecutorService workers, int batchSize, int maxBatchesInFlight) {
+        if (batchSize < 1 || maxBatchesInFlight < 1) {
+            throw new IllegalArgumentException("Batch size & batches in flight must both be at least 1");
+        }
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxBatchesInFlight = maxBatchesInFlight;
+    }
+
+    /**
+     * @param source    - Where the records come from, only ever called from this thread
+     * @param transform - Applied to each record on a worker, must be thread safe
+     * @param sink      - Receives the results in the same order the records were read
+     * @return the number of records processed
+     * @throws IOException if the source or sink fail. A transform that throws fails the run with that exception
+     */
+    public long run(Source<I> source, Function<I, O> transform, Sink<O> sink) throws IOException, InterruptedException {
+        ArrayDeque<Future<List<O>>> inFlight = new ArrayDeque<>(maxBatchesInFlight);
+        long numRecords = 0;
+        try {
+            boolean exhausted = false;
+            while (!exhausted) {
+                List<I> batch = new ArrayList<>(batchSize);
+                I record;
+                while (batch.size() < batchSize && (record = source.next()) != null) {
+                    batch.add(record);
+                }
+                exhausted = batch.size() < batchSize;
+                if (!batch.isEmpty()) {
+                    numRecords += batch.size();
+                    inFlight.add(workers.submit(() -> transformAll(batch, transform)));
+                }
+                while (inFlight.size() >= maxBatchesInFlight || (exhausted && !inFlight.isEmpty())) {
+                    for (O result : await(inFlight.poll())) {
+                        sink.accept(result);
+                    }
+                }
+            }
+            return numRecords;
+        } finally {
+            // Only non-empty after a failure, nobody is going to read these results
+            for (Future<List<O>> abandoned : inFlight) {
+                abandoned.cancel(true);
+            }
+        }
+    }
+
+    private static <I, O> List<O> transformAll(List<I> batch, Function<I, O> transform) {
+        List<O> results = new ArrayList<>(batch.size());
+        for (I record : batch) {
+            results.add(transform.apply(record));
+        }
+        return results;
+    }
+
+    private static <O> List<O> await(Future<List<O>> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.winters.tool.rental.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.winters.tool.rental.api.RentalAgreementDto;
+import com.winters.tool.rental.api.RentalRequestDto;
+import com.winters.tool.rental.api.ValidationErrorDto;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * The flat file formats bulk pricing reads requests from and writes agreements to. Every method works on a single
+ * line and is thread safe, so lines can be parsed & rendered on any worker.
+ */
+public enum RecordFormat {
+
+    /**
+     * One JSON object per line, the same shape as the HTTP API's request & response bodies. A rejected request is
+     * written as {@code {"line":..., "errors":[...], "codes":[...]}}.
+     */
+    NDJSON {
+        @Override
+        boolean isHeader(String line) {
+            return false;
+        }
+
+        @Override
+        RentalRequestDto parse(String line) {
+            try {
+                return REQUEST_READER.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException(e.getOriginalMessage(), e);
+            }
+        }
+
+        @Override
+        String header() {
+            return null;
+        }
+
+        @Override
+        String formatAgreement(long lineNumber, RentalAgreementDto agreement) {
+            return toJson(agreement);
+        }
+
+        @Override
+        String formatErrors(long lineNumber, ValidationErrorDto errors) {
+            return toJson(new LineErrorDto(lineNumber, errors.getErrors(), errors.getCodes()));
+        }
+    },
+
+    /**
+     * Requests as {@code toolCode,numDaysToRent,discountPercent,checkoutDate}, with or without that header line.
+     * Agreements are written with a leading line number column and a trailing errors column, which is only filled in
+     * (and the agreement columns left empty) for a rejected request.
+     */
+    CSV {
+        @Override
+        boolean isHeader(String line) {
+            return line.regionMatches(true, 0, "toolCode", 0, "toolCode".length());
+        }
+
+        @Override
+        RentalRequestDto parse(String line) {
+            String[] fields = line.split(",", -1);
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Expected 4 fields but found " + fields.length);
+            }
+            return new RentalRequestDto(emptyToNull(unquote(fields[0])), Integer.parseInt(unquote(fields[1])),
+                    Integer.parseInt(unquote(fields[2])), emptyToNull(unquote(fields[3])));
+        }
+
+        @Override
+        String header() {
+            return "line,toolCode,toolType,toolBrand,numDaysRented,checkOutDate,dueDate,dailyRentalCharge,chargeDays,"
+                    + "discountDays,preDiscountCharge,discountPercent,discountAmount,finalCharge,errors";
+        }
+
+        @Override
+        String formatAgreement(long lineNumber, RentalAgreementDto agreement) {
+            return new StringBuilder(128).append(lineNumber)
+                    .append(',').append(agreement.getToolCode())
+                    .append(',').append(agreement.getToolType())
+                    .append(',').append(agreement.getToolBrand())
+                    .append(',').append(agreement.getNumDaysRented())
+                    .append(',').append(agreement.getCheckOutDate())
+                    .append(',').append(agreement.getDueDate())
+                    .append(',').append(plain(agreement.getDailyRentalCharge()))
+                    .append(',').append(agreement.getChargeDays())
+                    .append(',').append(agreement.getDiscountDays())
+                    .append(',').append(plain(agreement.getPreDiscountCharge()))
+                    .append(',').append(agreement.getDiscountPercent())
+                    .append(',').append(plain(agreement.getDiscountAmount()))
+                    .append(',').append(plain(agreement.getFinalCharge()))
+                    .append(',')
+                    .toString();
+        }
+
+        @Override
+        String formatErrors(long lineNumber, ValidationErrorDto errors) {
+            return lineNumber + ",,,,,,,,,,,,,," + quote(String.join("; ", errors.getErrors()));
+        }
+    };
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            // Same leniency as the HTTP API, historical files may carry extra fields
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final ObjectReader REQUEST_READER = MAPPER.readerFor(RentalRequestDto.class);
+    private static final ObjectWriter WRITER = MAPPER.writer();
+
+    /**
+     * @return true if the line is a column header rather than a record
+     */
+    abstract boolean isHeader(String line);
+
+    /**
+     * @throws IllegalArgumentException if the line can't be read as a request at all
+     */
+    abstract RentalRequestDto parse(String line);
+
+    /**
+     * @return the first line of the output, or null if the format doesn't have one
+     */
+    abstract String header();
+
+    abstract String formatAgreement(long lineNumber, RentalAgreementDto agreement);
+
+    abstract String formatErrors(long lineNumber, ValidationErrorDto errors);
+
+    /**
+     * @return CSV for a {@code .csv} file, otherwise NDJSON
+     */
+    public static RecordFormat forFileName(String fileName) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : NDJSON;
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return WRITER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String plain(BigDecimal amount) {
+        return amount.toPlainString();
+    }
+
+    private static String unquote(String field) {
+        String trimmed = field.trim();
+        if (trimmed.length() >= 2 && trimmed.charAt(0) == '"' && trimmed.charAt(trimmed.length() - 1) == '"') {
+            return trimmed.substring(1, trimmed.length() - 1).replace("\"\"", "\"");
+        }
+        return trimmed;
+    }
+
+    private static String emptyToNull(String field) {
+        return field.isEmpty() ? null : field;
+    }
+
+    private static String quote(String field) {
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
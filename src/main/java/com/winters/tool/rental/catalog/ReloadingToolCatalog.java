@@ -0,0 +1,159 @@
+package com.winters.tool.rental.catalog;
+
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ToolCatalogSource;
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ToolCatalogSource} backed by a {@link ToolCatalogFile} that picks up edits to the file without a restart.
+ * <p>
+ * The current catalog is an immutable snapshot behind a single volatile reference. A reload builds a whole new
+ * catalog off to the side and swaps the reference in one write, so checkouts never lock, never see a half-built
+ * catalog, and one that is mid-flight simply finishes against the snapshot it started with. A file that can't be read
+ * or isn't a valid catalog leaves the current snapshot in place, so a bad edit can't take checkout down - fix the file
+ * and the next poll picks it up.
+ * <p>
+ * Edits should replace the file in one step, i.e. write a temporary file next to it and move it over the original,
+ * otherwise a poll can land between the editor's writes and read half a file. The half file is rejected like any
+ * other invalid one, and the finished file loaded on the poll after.
+ */
+public final class ReloadingToolCatalog implements ToolCatalogSource, AutoCloseable {
+
+    public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(5);
+
+    private final Path file;
+    private final ScheduledExecutorService poller;
+    private volatile ToolCatalog catalog;
+    private volatile Exception lastFailure;
+    private volatile long numReloads;
+    // Only read & written while holding the lock on this, by the reload methods
+    private FileStamp loadedStamp;
+
+    /**
+     * Reads the file straight away, so a bad file fails startup rather than leaving nothing to check out against.
+     *
+     * @param file         - The catalog file
+     * @param pollInterval - How often to check the file for changes. Defaults to 5 seconds, {@link Duration#ZERO}
+     *                     turns polling off and leaves reloading to {@link #reload()}
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the file isn't a valid catalog
+     */
+    @Builder
+    public ReloadingToolCatalog(Path file, Duration pollInterval) throws IOException {
+        this.file = Objects.requireNonNull(file, "file");
+        this.loadedStamp = FileStamp.of(file);
+        this.catalog = ToolCatalogFile.read(file);
+        Duration interval = pollInterval != null ? pollInterval : DEFAULT_POLL_INTERVAL;
+        if (interval.isZero()) {
+            this.poller = null;
+        } else {
+            this.poller = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "tool-catalog-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.poller.scheduleWithFixedDelay(this::reloadIfChanged, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public ToolCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Reads the file if it has been modified, replaced or resized since it was last read
+     *
+     * @return true if a new catalog was swapped in
+     */
+    public synchronized boolean reloadIfChanged() {
+        FileStamp stamp;
+        try {
+            stamp = FileStamp.of(file);
+        } catch (IOException e) {
+            lastFailure = e;
+            return false;
+        }
+        return !stamp.equals(loadedStamp) && load(stamp);
+    }
+
+    /**
+     * Reads the file whether or not it looks changed
+     *
+     * @return true if a new catalog was swapped in, false if the file couldn't be read or wasn't valid, in which case
+     * the current catalog is kept and the reason is available from {@link #getLastFailure()}
+     */
+    public synchronized boolean reload() {
+        try {
+            return load(FileStamp.of(file));
+        } catch (IOException e) {
+            lastFailure = e;
+            return false;
+        }
+    }
+
+    /**
+     * @return why the most recent reload failed, or null if it succeeded or there hasn't been one
+     */
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * @return the number of catalogs swapped in since the first
+     */
+    public long getNumReloads() {
+        return numReloads;
+    }
+
+    /**
+     * Stops polling, the catalog last loaded stays current
+     */
+    @Override
+    public void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    private boolean load(FileStamp stamp) {
+        // Stamped before reading, so a write that lands during the read is seen as a change on the next poll
+        loadedStamp = stamp;
+        try {
+            ToolCatalog loaded = ToolCatalogFile.read(file);
+            catalog = loaded;
+            lastFailure = null;
+            numReloads++;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            lastFailure = e;
+            return false;
+        }
+    }
+
+    /**
+     * What a file looked like when it was read. The file key changes when the file is replaced by a move, even if the
+     * new file happens to have the same size & modification time.
+     */
+    private static @Value class FileStamp {
+        Object fileKey;
+        long lastModifiedNanos;
+        long size;
+
+        static FileStamp of(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileStamp(attributes.fileKey(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS), attributes.size());
+        }
+    }
+}
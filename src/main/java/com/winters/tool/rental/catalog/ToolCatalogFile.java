@@ -0,0 +1,123 @@
+package com.winters.tool.rental.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ToolPricing;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a {@link ToolCatalog} from a JSON file of the tool types & brands we carry:
+ * <pre>
+ * {
+ *   "types": [
+ *     {"type": "CHAINSAW", "code": "CHN", "dailyCharge": 1.49,
+ *      "chargedOnWeekdays": true, "chargedOnWeekends": false, "chargedOnHolidays": true}
+ *   ],
+ *   "brands": [
+ *     {"brand": "STIHL", "code": "S"}
+ *   ]
+ * }
+ * </pre>
+ * Types & brands are named by their enum constant. Every field is required, so a typo in a flag's name is an error
+ * rather than a tool that's suddenly free on weekends.
+ */
+public final class ToolCatalogFile {
+
+    // Charges are read exactly as written, so 1.499 is rejected as a fraction of a cent instead of rounding as a double
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private ToolCatalogFile() {
+    }
+
+    /**
+     * @throws IOException              if the file can't be read or isn't JSON
+     * @throws IllegalArgumentException if the JSON isn't a valid catalog, i.e. a field is missing or two types share
+     *                                  a code
+     */
+    public static ToolCatalog read(Path file) throws IOException {
+        return parse(Files.readAllBytes(file));
+    }
+
+    /**
+     * @see #read(Path)
+     */
+    public static ToolCatalog parse(byte[] json) throws IOException {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IOException("Tool catalog isn't valid JSON: " + e.getOriginalMessage(), e);
+        }
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("Tool catalog must be a JSON object with types & brands");
+        }
+        List<ToolCatalog.TypeListing> types = new ArrayList<>();
+        for (JsonNode type : array(root, "types")) {
+            types.add(new ToolCatalog.TypeListing(
+                    Tool.Type.valueOf(text(type, "type")),
+                    text(type, "code"),
+                    new ToolPricing(number(type, "dailyCharge"),
+                            flag(type, "chargedOnWeekdays"),
+                            flag(type, "chargedOnWeekends"),
+                            flag(type, "chargedOnHolidays"))));
+        }
+        List<ToolCatalog.BrandListing> brands = new ArrayList<>();
+        for (JsonNode brand : array(root, "brands")) {
+            brands.add(new ToolCatalog.BrandListing(Tool.Brand.valueOf(text(brand, "brand")), text(brand, "code")));
+        }
+        return ToolCatalog.of(types, brands);
+    }
+
+    private static JsonNode array(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        if (value == null || !value.isArray()) {
+            throw new IllegalArgumentException("Tool catalog needs a \"" + name + "\" array");
+        }
+        return value;
+    }
+
+    private static JsonNode field(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        if (value == null || value.isNull()) {
+            throw new IllegalArgumentException("Missing \"" + name + "\" in " + node);
+        }
+        if (!value.isNumber() && !value.isTextual() && !value.isBoolean()) {
+            throw new IllegalArgumentException("\"" + name + "\" must be a single value in " + node);
+        }
+        return value;
+    }
+
+    private static String text(JsonNode node, String name) {
+        JsonNode value = field(node, name);
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException("\"" + name + "\" must be a string in " + node);
+        }
+        return value.textValue();
+    }
+
+    private static BigDecimal number(JsonNode node, String name) {
+        JsonNode value = field(node, name);
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException("\"" + name + "\" must be a number in " + node);
+        }
+        return value.decimalValue();
+    }
+
+    private static boolean flag(JsonNode node, String name) {
+        JsonNode value = field(node, name);
+        if (!value.isBoolean()) {
+            throw new IllegalArgumentException("\"" + name + "\" must be true or false in " + node);
+        }
+        return value.booleanValue();
+    }
+}
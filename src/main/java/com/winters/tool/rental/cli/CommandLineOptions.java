@@ -0,0 +1,29 @@
+package com.winters.tool.rental.cli;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code --name value} options shared by every headless command
+ */
+public final class CommandLineOptions {
+
+    private CommandLineOptions() {
+    }
+
+    /**
+     * @param args - The arguments following the command name
+     * @return the value of each option by name (without the leading {@code --}), or null if the arguments aren't all
+     * {@code --name value} pairs
+     */
+    public static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                return null;
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,51 @@
+package com.winters.tool.rental.cli;
+
+import com.winters.tool.rental.bulk.BulkPricingCommand;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Runs the commands that build their pricing components directly instead of through Spring: no classpath scanning,
+ * auto-configuration or web server, so a command is done in the time it takes the JVM to start. {@code Application}
+ * hands off to this whenever its first argument names a command, and it can also be used as the main class on its
+ * own.
+ */
+public final class HeadlessLauncher {
+
+    @FunctionalInterface
+    interface Command {
+        int run(String[] args, PrintStream out, PrintStream err) throws Exception;
+    }
+
+    private static final Map<String, Command> COMMANDS = Map.of(
+            BulkPricingCommand.NAME, BulkPricingCommand::run,
+            QuoteCommand.NAME, QuoteCommand::run);
+
+    private HeadlessLauncher() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (!isCommand(args)) {
+            System.err.println("Usage: <" + String.join("|", COMMANDS.keySet()) + "> [options]");
+            System.exit(2);
+        }
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * @return whether the first argument names a headless command
+     */
+    public static boolean isCommand(String[] args) {
+        return args.length > 0 && COMMANDS.containsKey(args[0]);
+    }
+
+    /**
+     * @param args - The command name followed by its arguments
+     * @return the command's exit status
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) throws Exception {
+        return COMMANDS.get(args[0]).run(Arrays.copyOfRange(args, 1, args.length), out, err);
+    }
+}
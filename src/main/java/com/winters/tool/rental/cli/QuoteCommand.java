@@ -0,0 +1,74 @@
+package com.winters.tool.rental.cli;
+
+import com.winters.tool.rental.catalog.ToolCatalogFile;
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.services.RentalService;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Prices a single rental and prints its agreement, for scripts that need one quote and shouldn't pay for starting
+ * Spring to get it:
+ * <pre>
+ *     java -jar tool-rental.jar quote --tool-code CHNS --checkout-date 2015-07-02 --days 5 [--discount 25] [--catalog catalog.json]
+ * </pre>
+ * Only a quote is produced, nothing is issued. Prices come from the built-in catalog unless a catalog file is given.
+ */
+public final class QuoteCommand {
+
+    public static final String NAME = "quote";
+
+    private static final String USAGE = "Usage: " + NAME + " --tool-code <code> --checkout-date <yyyy-MM-dd> --days <count> "
+            + "[--discount <percent>] [--catalog <file>]";
+
+    private QuoteCommand() {
+    }
+
+    /**
+     * @param args - The arguments following the command name
+     * @param out  - Where the agreement is printed
+     * @param err  - Where usage & validation errors are printed
+     * @return the process exit status - 0 for a quote, 1 if the request failed validation, 2 for bad arguments
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Map<String, String> options = CommandLineOptions.parse(args);
+        if (options == null) {
+            err.println(USAGE);
+            return 2;
+        }
+
+        RentalRequest req;
+        ToolCatalog toolCatalog;
+        try {
+            String catalogFile = options.get("catalog");
+            toolCatalog = catalogFile != null ? ToolCatalogFile.read(Path.of(catalogFile)) : ToolCatalog.DEFAULT;
+            String checkoutDate = options.get("checkout-date");
+            req = RentalRequest.builder()
+                    .toolCode(options.get("tool-code"))
+                    .checkoutLocalDate(checkoutDate != null ? LocalDate.parse(checkoutDate) : null)
+                    .numDaysToRent(Integer.parseInt(options.getOrDefault("days", "0")))
+                    .discountPercent(Integer.parseInt(options.getOrDefault("discount", "0")))
+                    .build();
+        } catch (IOException | IllegalArgumentException | DateTimeException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+
+        // Nothing but the defaults besides the catalog, so this is only the pricing classes - no caches or threads
+        CheckoutResult result = RentalService.builder().toolCatalog(toolCatalog).build().tryCheckout(req);
+        if (!result.isSuccess()) {
+            result.getValidationMessages().forEach(err::println);
+            return 1;
+        }
+        out.println(result.getAgreement());
+        return 0;
+    }
+}
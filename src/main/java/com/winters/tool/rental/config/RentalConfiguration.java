@@ -0,0 +1,240 @@
+package com.winters.tool.rental.config;
+
+import com.winters.tool.rental.bulk.BulkPricingJob;
+import com.winters.tool.rental.catalog.ReloadingToolCatalog;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ToolCatalogSource;
+import com.winters.tool.rental.discount.CompiledDiscountRules;
+import com.winters.tool.rental.discount.DiscountRule;
+import com.winters.tool.rental.discount.DiscountRules;
+import com.winters.tool.rental.idempotency.IdempotencyCache;
+import com.winters.tool.rental.inventory.ToolInventory;
+import com.winters.tool.rental.journal.AgreementJournal;
+import com.winters.tool.rental.metrics.CheckoutMetrics;
+import com.winters.tool.rental.metrics.IdempotencyCacheMetrics;
+import com.winters.tool.rental.metrics.MicrometerCheckoutMetrics;
+import com.winters.tool.rental.metrics.OverdueTrackerMetrics;
+import com.winters.tool.rental.metrics.QuoteCacheMetrics;
+import com.winters.tool.rental.overdue.OverdueSweeper;
+import com.winters.tool.rental.overdue.OverdueTracker;
+import com.winters.tool.rental.pricing.QuoteCache;
+import com.winters.tool.rental.receipt.AgreementSink;
+import com.winters.tool.rental.receipt.AsyncAgreementSink;
+import com.winters.tool.rental.services.RentalService;
+import com.winters.tool.rental.util.RentalUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wires {@link RentalService} and its optional collaborators for the Spring Boot application.
+ */
+@Configuration
+public class RentalConfiguration {
+
+    /**
+     * Receipts are only printed when {@code rental.receipts.print=true}, and even then they are written to stdout
+     * from a background thread so checkout never waits on the console.
+     */
+    @Bean(destroyMethod = "close")
+    @Order(2)
+    @ConditionalOnProperty(name = "rental.receipts.print", havingValue = "true")
+    public AsyncAgreementSink receiptPrinter(@Value("${rental.receipts.queue-capacity:10000}") int queueCapacity) {
+        return new AsyncAgreementSink(System.out, queueCapacity);
+    }
+
+    /**
+     * Journals every issued agreement to {@code rental.journal.directory} when {@code rental.journal.enabled=true}.
+     * Ordered ahead of the receipt printer so a receipt is only ever printed for an agreement that is already durable.
+     * Replays take their tools from the catalog as it is at the time, so a reload that recodes tools doesn't break them.
+     */
+    @Bean(destroyMethod = "close")
+    @Order(1)
+    @ConditionalOnProperty(name = "rental.journal.enabled", havingValue = "true")
+    public AgreementJournal agreementJournal(@Value("${rental.journal.directory:journal}") Path directory,
+                                             @Value("${rental.journal.segment-size:64MB}") DataSize segmentSize,
+                                             ObjectProvider<ToolCatalogSource> toolCatalog) throws IOException {
+        return AgreementJournal.builder()
+                .directory(directory)
+                .segmentSize(segmentSize.toBytes())
+                .toolCatalog(toolCatalog.getIfAvailable())
+                .build();
+    }
+
+    /**
+     * Prices & codes from {@code rental.catalog.file} instead of the built-in catalog, checked for changes every
+     * {@code rental.catalog.poll-interval} and swapped in without a restart. A file that's invalid at startup fails
+     * startup, one that turns invalid later is ignored until it's fixed.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "rental.catalog.file")
+    public ReloadingToolCatalog toolCatalog(@Value("${rental.catalog.file}") Path file,
+                                            @Value("${rental.catalog.poll-interval:5s}") Duration pollInterval) throws IOException {
+        return ReloadingToolCatalog.builder()
+                .file(file)
+                .pollInterval(pollInterval)
+                .build();
+    }
+
+    /**
+     * Tracks physical units when {@code rental.inventory.enabled=true}: every tool in the catalog has
+     * {@code rental.inventory.units-per-tool} units, unless overridden per tool code with
+     * {@code rental.inventory.units.<toolCode>=<count>}. Units are stocked for the catalog as it is at startup, and are
+     * still found for a tool that a later reload recodes.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rental.inventory.enabled", havingValue = "true")
+    public ToolInventory toolInventory(Environment environment, ObjectProvider<ToolCatalogSource> toolCatalog,
+                                       @Value("${rental.inventory.units-per-tool:1}") int unitsPerTool) {
+        Map<String, Integer> overrides = Binder.get(environment)
+                .bind("rental.inventory.units", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of());
+        return ToolInventory.of(toolCatalog.getIfAvailable(() -> ToolCatalog.DEFAULT).getCatalog(), unitsPerTool, overrides);
+    }
+
+    /**
+     * Promotions applied at checkout, declared as {@code rental.discount-rules[n].<property>} entries with the same
+     * names as {@link DiscountRule}'s builder, i.e. {@code rental.discount-rules[0].tool-type=LADDER}. Compiled once
+     * here, a bad rule fails startup rather than a checkout.
+     */
+    @Bean
+    public DiscountRules discountRules(Environment environment) {
+        List<DiscountRule> rules = Binder.get(environment)
+                .bind("rental.discount-rules", Bindable.listOf(DiscountRule.class))
+                .orElse(List.of());
+        return new CompiledDiscountRules(rules);
+    }
+
+    /**
+     * Caches quotes for repeated (tool type, checkout day, days, discount) requests unless
+     * {@code rental.quote-cache.enabled=false}
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rental.quote-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public QuoteCache quoteCache(@Value("${rental.quote-cache.maximum-size:10000}") long maximumSize) {
+        return new QuoteCache(maximumSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rental.quote-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public QuoteCacheMetrics quoteCacheMetrics(QuoteCache quoteCache) {
+        return new QuoteCacheMetrics(quoteCache);
+    }
+
+    /**
+     * Remembers issued checkouts by idempotency key for {@code rental.idempotency.expire-after}, so a retried checkout
+     * gets the agreement it was already issued, unless {@code rental.idempotency.enabled=false}
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rental.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+    public IdempotencyCache idempotencyCache(@Value("${rental.idempotency.maximum-size:100000}") long maximumSize,
+                                             @Value("${rental.idempotency.expire-after:1h}") Duration expireAfter) {
+        return new IdempotencyCache(maximumSize, expireAfter);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rental.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+    public IdempotencyCacheMetrics idempotencyCacheMetrics(IdempotencyCache idempotencyCache) {
+        return new IdempotencyCacheMetrics(idempotencyCache);
+    }
+
+    /**
+     * Holds every issued agreement open until it's checked in when {@code rental.overdue.enabled=true}, which checking
+     * in by unit and listing overdue rentals both need. Open agreements are held in memory and start over on a
+     * restart.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rental.overdue.enabled", havingValue = "true")
+    public OverdueTracker overdueTracker() {
+        return new OverdueTracker(LocalDate.now(RentalUtil.rentalZone()));
+    }
+
+    /**
+     * Keeps the overdue tracker swept up to today every {@code rental.overdue.sweep-interval}, so units still out on
+     * overdue rentals are held back from checkout & availability searches
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "rental.overdue.enabled", havingValue = "true")
+    public OverdueSweeper overdueSweeper(OverdueTracker overdueTracker,
+                                         @Value("${rental.overdue.sweep-interval:10m}") Duration sweepInterval) {
+        return OverdueSweeper.builder()
+                .overdueTracker(overdueTracker)
+                .interval(sweepInterval)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rental.overdue.enabled", havingValue = "true")
+    public OverdueTrackerMetrics overdueTrackerMetrics(OverdueTracker overdueTracker) {
+        return new OverdueTrackerMetrics(overdueTracker);
+    }
+
+    /**
+     * Per-stage timers & checkout counters, published through Actuator's {@code /actuator/metrics}. Turned off with
+     * {@code rental.metrics.enabled=false}, in which case checkout doesn't so much as read the clock.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rental.metrics.enabled", havingValue = "true", matchIfMissing = true)
+    public CheckoutMetrics checkoutMetrics(MeterRegistry meterRegistry,
+                                           @Value("${rental.metrics.stage-sampling-interval:1}") int stageSamplingInterval) {
+        return new MicrometerCheckoutMetrics(meterRegistry, stageSamplingInterval);
+    }
+
+    /**
+     * Runs {@code POST /api/rentals/checkout/bulk}. Every upload shares the same {@code rental.bulk-checkout.workers}
+     * threads (one per processor by default), and each holds at most {@code batches-in-flight} batches of
+     * {@code batch-size} requests in memory however large the upload is. A line longer than {@code max-line-length}
+     * (4MB by default) is skipped & answered with an error record, so an upload without line breaks can't be
+     * read into memory whole.
+     */
+    @Bean(destroyMethod = "close")
+    public BulkPricingJob bulkCheckoutJob(RentalService rentalService,
+                                          @Value("${rental.bulk-checkout.workers:0}") int numWorkers,
+                                          @Value("${rental.bulk-checkout.batch-size:256}") int batchSize,
+                                          @Value("${rental.bulk-checkout.batches-in-flight:0}") int maxBatchesInFlight,
+                                          @Value("${rental.bulk-checkout.chunk-size:64KB}") DataSize chunkSize,
+                                          @Value("${rental.bulk-checkout.max-line-length:4MB}") DataSize maxLineLength) {
+        return BulkPricingJob.builder()
+                .rentalService(rentalService)
+                .numWorkers(numWorkers)
+                .batchSize(batchSize)
+                .maxBatchesInFlight(maxBatchesInFlight)
+                .chunkSize((int) chunkSize.toBytes())
+                .maxLineLength((int) maxLineLength.toBytes())
+                .issue(true)
+                .flushEachBatch(true)
+                .build();
+    }
+
+    @Bean
+    public RentalService rentalService(ObjectProvider<AgreementSink> agreementSinks, ObjectProvider<QuoteCache> quoteCache,
+                                       ObjectProvider<CheckoutMetrics> checkoutMetrics, ObjectProvider<ToolInventory> toolInventory,
+                                       ObjectProvider<ToolCatalogSource> toolCatalog, ObjectProvider<IdempotencyCache> idempotencyCache,
+                                       ObjectProvider<OverdueTracker> overdueTracker, DiscountRules discountRules) {
+        return RentalService.builder()
+                .toolCatalog(toolCatalog.getIfAvailable())
+                .agreementSink(AgreementSink.allOf(agreementSinks.orderedStream().toList()))
+                .quoteCache(quoteCache.getIfAvailable())
+                .checkoutMetrics(checkoutMetrics.getIfAvailable())
+                .toolInventory(toolInventory.getIfAvailable())
+                .discountRules(discountRules)
+                .idempotencyCache(idempotencyCache.getIfAvailable())
+                .overdueTracker(overdueTracker.getIfAvailable())
+                .build();
+    }
+}
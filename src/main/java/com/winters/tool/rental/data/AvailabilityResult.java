@@ -0,0 +1,35 @@
+package com.winters.tool.rental.data;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of an availability search. Either the request failed validation, or {@code availableTools} holds every
+ * matching tool with a unit free for the whole window (possibly none), cheapest first.
+ */
+public @Value class AvailabilityResult {
+    RentalRequest request;
+    List<AvailableTool> availableTools;
+    List<ValidationError> validationErrors;
+
+    public static AvailabilityResult success(RentalRequest request, List<AvailableTool> availableTools) {
+        return new AvailabilityResult(request, availableTools, List.of());
+    }
+
+    public static AvailabilityResult failure(RentalRequest request, List<ValidationError> validationErrors) {
+        return new AvailabilityResult(request, List.of(), validationErrors);
+    }
+
+    public boolean isSuccess() {
+        return validationErrors.isEmpty();
+    }
+
+    /**
+     * @return the human readable message for each validation error, built on demand
+     */
+    public List<String> getValidationMessages() {
+        return validationErrors.stream().map(ValidationError::getMessage).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,21 @@
+package com.winters.tool.rental.data;
+
+import lombok.Value;
+
+/**
+ * A tool with at least one unit free for a whole rental window, along with what renting it for that window costs.
+ */
+public @Value class AvailableTool {
+
+    // Reported when units aren't being tracked, in which case every tool in the catalog counts as available
+    public static final int UNITS_NOT_TRACKED = -1;
+
+    // Units free for every day of the window, or UNITS_NOT_TRACKED
+    int numUnitsAvailable;
+    // The agreement renting the tool for the window would produce. No unit is reserved until it is actually issued.
+    RentalAgreement quote;
+
+    public Tool getTool() {
+        return quote.getTool();
+    }
+}
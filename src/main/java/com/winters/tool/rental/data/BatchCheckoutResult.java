@@ -0,0 +1,32 @@
+package com.winters.tool.rental.data;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Builder
+public @Data class BatchCheckoutResult {
+    // One result per request, in the same order the requests were supplied
+    List<CheckoutResult> results;
+    int numSucceeded;
+    int numFailed;
+    // Number of chunks the batch was split into for the executor
+    int numChunks;
+    // Number of distinct executor threads that picked up at least one chunk
+    int numWorkerThreads;
+    // Wall clock time from submitting the first chunk until the last one finished
+    long elapsedNanos;
+
+    public int getNumRequests() {
+        return numSucceeded + numFailed;
+    }
+
+    /**
+     * @return requests priced per second of wall clock time, or zero for an empty batch
+     */
+    public double getRequestsPerSecond() {
+        return elapsedNanos == 0 ? 0 : getNumRequests() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
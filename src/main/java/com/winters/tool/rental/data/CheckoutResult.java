@@ -0,0 +1,37 @@
+package com.winters.tool.rental.data;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of pricing a single {@link RentalRequest} without throwing. Exactly one of {@code agreement} or
+ * {@code validationErrors} is populated.
+ */
+public @Value class CheckoutResult {
+    RentalRequest request;
+    // The priced agreement, or null if the request failed validation
+    RentalAgreement agreement;
+    // Every rule the request violated (or just the first one, when validated fail fast) - empty when the checkout succeeded
+    List<ValidationError> validationErrors;
+
+    public static CheckoutResult success(RentalRequest request, RentalAgreement agreement) {
+        return new CheckoutResult(request, agreement, List.of());
+    }
+
+    public static CheckoutResult failure(RentalRequest request, List<ValidationError> validationErrors) {
+        return new CheckoutResult(request, null, validationErrors);
+    }
+
+    public boolean isSuccess() {
+        return agreement != null;
+    }
+
+    /**
+     * @return the human readable message for each validation error, built on demand
+     */
+    public List<String> getValidationMessages() {
+        return validationErrors.stream().map(ValidationError::getMessage).collect(Collectors.toList());
+    }
+}
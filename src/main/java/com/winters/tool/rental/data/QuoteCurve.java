@@ -0,0 +1,51 @@
+package com.winters.tool.rental.data;
+
+import com.winters.tool.rental.pricing.PriceBreakdown;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * What renting one tool from one checkout date costs for every rental length from 1 day up to the request's
+ * {@code numDaysToRent}. Either the request failed validation, or there is one point per rental length, shortest first.
+ */
+public @Value class QuoteCurve {
+    RentalRequest request;
+    // points.get(n - 1) is the quote for renting n days
+    List<Point> points;
+    List<ValidationError> validationErrors;
+
+    public static QuoteCurve success(RentalRequest request, List<Point> points) {
+        return new QuoteCurve(request, points, List.of());
+    }
+
+    public static QuoteCurve failure(RentalRequest request, List<ValidationError> validationErrors) {
+        return new QuoteCurve(request, List.of(), validationErrors);
+    }
+
+    public boolean isSuccess() {
+        return validationErrors.isEmpty();
+    }
+
+    /**
+     * @return the human readable message for each validation error, built on demand
+     */
+    public List<String> getValidationMessages() {
+        return validationErrors.stream().map(ValidationError::getMessage).collect(Collectors.toList());
+    }
+
+    /**
+     * The same numbers checking the tool out for {@code numDaysRented} days would put on the agreement
+     */
+    public static @Value class Point {
+        int numDaysRented;
+        LocalDate dueDate;
+        int chargeDays;
+        int discountDays;
+        // The request's discount plus any promotions for this length
+        int discountPercent;
+        PriceBreakdown price;
+    }
+}
@@ -1,14 +1,13 @@
 package com.winters.tool.rental.data;
 
+import com.winters.tool.rental.receipt.ReceiptRenderer;
+import com.winters.tool.rental.util.RentalUtil;
 import lombok.Builder;
 import lombok.Data;
 
 import java.math.BigDecimal;
-import java.text.DateFormat;
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.Date;
-import java.util.Locale;
 
 @Builder
 public @Data class RentalAgreement {
@@ -16,9 +15,9 @@ public @Data class RentalAgreement {
     // Total number of days the tool is being rented - should always be at least one
     int numDaysRented;
     // The date in which the rental is beginning. This day is not charged to the renter.
-    Date checkOutDate;
+    LocalDate checkOutLocalDate;
     // The date in which the rental is due to be returned. A rental is not late until we have reached at least one day AFTER this due date
-    Date dueDate;
+    LocalDate dueLocalDate;
     // Daily cost of the piece of equipment being rented
     BigDecimal dailyRentalCharge;
     // Count of chargeable days, from day after checkout through & including due date, excluding "no charge" days as specified by the tool type
@@ -27,27 +26,54 @@ public @Data class RentalAgreement {
     int discountDays;
     // Gross rental amount before discounts
     BigDecimal preDiscountCharge;
-    // Discount amount represented as a whole number - i.e. 20 = 20% discount
+    // Discount amount represented as a whole number - i.e. 20 = 20% discount. The request's discount plus any promotions.
     int discountPercent;
     // Total discount amount represented in dollars. Rounded half up to nearest penny
     BigDecimal discountAmount;
     // preDiscountCharge - discountAmount = finalCharge
     BigDecimal finalCharge;
+    // The physical unit reserved for the rental, i.e. "CHNS-2", or null when units aren't being tracked
+    String unitId;
+
+    /**
+     * Adapter for callers still working in {@link Date}s
+     *
+     * @return the start of the checkout day in {@link RentalUtil#rentalZone()}
+     */
+    public Date getCheckOutDate() {
+        return RentalUtil.convertLocalDateToDate(checkOutLocalDate);
+    }
+
+    public void setCheckOutDate(Date checkOutDate) {
+        this.checkOutLocalDate = RentalUtil.convertDateToLocalDate(checkOutDate);
+    }
+
+    /**
+     * Adapter for callers still working in {@link Date}s
+     *
+     * @return the start of the due day in {@link RentalUtil#rentalZone()}
+     */
+    public Date getDueDate() {
+        return RentalUtil.convertLocalDateToDate(dueLocalDate);
+    }
+
+    public void setDueDate(Date dueDate) {
+        this.dueLocalDate = RentalUtil.convertDateToLocalDate(dueDate);
+    }
 
     @Override
     public String toString() {
-        DateFormat dateFormat = new SimpleDateFormat("MM/dd/yy");
-        String toolName = tool.getType().getFullName();
-        String formattedToolName = toolName.substring(0, 1).toUpperCase() + toolName.substring(1).toLowerCase();
-        NumberFormat usdFormat = NumberFormat.getCurrencyInstance(Locale.US);
-        return "Tool Data: " + System.lineSeparator()
-                + "\tType: " + formattedToolName + ", Brand: " + tool.getBrand() + ", Code: " + tool.getCode() + System.lineSeparator()
-                + "Rental data: " + System.lineSeparator()
-                + "\tRental Days: " + getNumDaysRented() + ", Discount Days: " + discountDays + ", Checkout Date: " + dateFormat.format(getCheckOutDate()) + ", Return Date: " + dateFormat.format(getDueDate()) + System.lineSeparator()
-                + "Charge Data: " + System.lineSeparator()
-                + "\tDaily Charge: " + usdFormat.format(getDailyRentalCharge()) + ", Days Charged: " + getChargeDays() + System.lineSeparator()
-                + "\tPre Discount Total: " + usdFormat.format(getPreDiscountCharge()) + ", Discount Percentage: " + getDiscountPercent() + "%, Discount Amount: " + usdFormat.format(getDiscountAmount()) + System.lineSeparator()
-                + "__________________________________________________________" + System.lineSeparator()
-                + "Total: " + usdFormat.format(getFinalCharge());
+        return ReceiptRenderer.DEFAULT.render(this);
+    }
+
+    public static class RentalAgreementBuilder {
+
+        public RentalAgreementBuilder checkOutDate(Date checkOutDate) {
+            return checkOutLocalDate(RentalUtil.convertDateToLocalDate(checkOutDate));
+        }
+
+        public RentalAgreementBuilder dueDate(Date dueDate) {
+            return dueLocalDate(RentalUtil.convertDateToLocalDate(dueDate));
+        }
     }
 }
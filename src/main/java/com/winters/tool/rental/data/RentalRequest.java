@@ -1,14 +1,52 @@
 package com.winters.tool.rental.data;
 
+import com.winters.tool.rental.util.RentalUtil;
 import lombok.Builder;
 import lombok.Data;
 
+import java.time.LocalDate;
 import java.util.Date;
 
 @Builder
 public @Data class RentalRequest {
+
+    /**
+     * Longer keys are refused by validation, since every key is held on to for a while once it's been issued
+     */
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     String toolCode;
     int numDaysToRent;
     int discountPercent;
-    Date checkoutDate;
+    // The day the rental starts. Only the day matters, there is no time of day or zone attached
+    LocalDate checkoutLocalDate;
+    // Chosen by the client & sent again with every retry of the same checkout, so a retry is never issued twice.
+    // Optional, requests without one are always issued.
+    String idempotencyKey;
+
+    /**
+     * Adapter for callers still working in {@link Date}s
+     *
+     * @return the start of the checkout day in {@link RentalUtil#rentalZone()}, or null if there is no checkout date
+     */
+    public Date getCheckoutDate() {
+        return RentalUtil.convertLocalDateToDate(checkoutLocalDate);
+    }
+
+    /**
+     * @param checkoutDate - Any instant during the checkout day in {@link RentalUtil#rentalZone()}, the time of day is ignored
+     */
+    public void setCheckoutDate(Date checkoutDate) {
+        this.checkoutLocalDate = RentalUtil.convertDateToLocalDate(checkoutDate);
+    }
+
+    public static class RentalRequestBuilder {
+
+        /**
+         * @param checkoutDate - Any instant during the checkout day in {@link RentalUtil#rentalZone()}, the time of day is ignored
+         */
+        public RentalRequestBuilder checkoutDate(Date checkoutDate) {
+            return checkoutLocalDate(RentalUtil.convertDateToLocalDate(checkoutDate));
+        }
+    }
 }
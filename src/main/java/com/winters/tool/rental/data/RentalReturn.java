@@ -0,0 +1,27 @@
+package com.winters.tool.rental.data;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * What an agreement came to once the tool was checked in. Returning early doesn't refund anything, returning late adds
+ * a late charge on top of the agreement's final charge.
+ */
+public @Value class RentalReturn {
+    RentalAgreement agreement;
+    LocalDate returnLocalDate;
+    // Days from the day after the due date through & including the return date, 0 if it came back on time
+    int numDaysLate;
+    // Late days the tool type charges for, by the same weekday / weekend / holiday rules as the rental itself
+    int lateChargeDays;
+    // Late charge days at the daily rental charge, the agreement's discount doesn't apply to them
+    BigDecimal lateCharge;
+    // The agreement's final charge plus the late charge
+    BigDecimal totalCharge;
+
+    public boolean isLate() {
+        return numDaysLate > 0;
+    }
+}
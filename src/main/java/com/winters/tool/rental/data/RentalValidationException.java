@@ -0,0 +1,24 @@
+package com.winters.tool.rental.data;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Thrown by {@code RentalService.checkout} for an invalid request. Callers that reject requests often should use
+ * {@code RentalService.tryCheckout} instead, which reports the same errors without throwing.
+ */
+public class RentalValidationException extends Exception {
+
+    private final transient List<ValidationError> validationErrors;
+
+    public RentalValidationException(List<ValidationError> validationErrors) {
+        super("Rental Request is not valid. Please fix the following error(s): " + validationErrors.stream()
+                .map(ValidationError::getMessage)
+                .collect(Collectors.joining(", ")));
+        this.validationErrors = validationErrors;
+    }
+
+    public List<ValidationError> getValidationErrors() {
+        return validationErrors;
+    }
+}
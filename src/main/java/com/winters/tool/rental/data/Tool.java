@@ -1,18 +1,42 @@
 package com.winters.tool.rental.data;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
 import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
 
 import java.math.BigDecimal;
 
-@Builder
-public @Data class Tool {
+/**
+ * A type of tool from a particular brand, along with its code & pricing in the catalog it came from. Tools are
+ * immutable, so the canonical instances held by a {@link ToolCatalog} are shared by every rental of that tool.
+ */
+public @Value class Tool {
     Type type;
     Brand brand;
+    // Cached so reading it never allocates
+    @ToString.Exclude
+    String code;
+    @ToString.Exclude
+    ToolPricing pricing;
 
-    @AllArgsConstructor
+    /**
+     * @param code    - The 4 character tool code. Defaults to the type's code followed by the brand's code
+     * @param pricing - What the tool costs. Defaults to the type's built-in pricing
+     */
+    @Builder
+    public Tool(Type type, Brand brand, String code, ToolPricing pricing) {
+        this.type = type;
+        this.brand = brand;
+        this.code = code != null || type == null || brand == null ? code : type.getTypeCode().concat(brand.getBrandCode());
+        this.pricing = pricing != null || type == null ? pricing : type.getDefaultPricing();
+    }
+
+    /**
+     * The types of tool we rent. The codes, charges & charge days here are the built-in catalog, {@link
+     * ToolCatalog#DEFAULT}; a catalog loaded from a file can override every one of them, so checkout prices from
+     * {@link Tool#getPricing()} rather than from the type.
+     */
     @Getter
     public enum Type {
         CHAINSAW("CHN", "CHAINSAW", BigDecimal.valueOf(1.49), true, false, true),
@@ -24,54 +48,72 @@ public @Data class Tool {
         private final String typeCode;
         private final String fullName;
         private final BigDecimal dailyCharge;
+        // The same daily charge as a whole number of cents, which is what pricing actually works with
+        private final long dailyChargeCents;
         private final boolean isChargedOnWeekdays;
         private final boolean isChargedOnWeekends;
         private final boolean isChargedOnHolidays;
+        private final ToolPricing defaultPricing;
+
+        Type(String typeCode, String fullName, BigDecimal dailyCharge, boolean isChargedOnWeekdays,
+             boolean isChargedOnWeekends, boolean isChargedOnHolidays) {
+            this.typeCode = typeCode;
+            this.fullName = fullName;
+            this.dailyCharge = dailyCharge;
+            // Throws if a charge is ever given in fractions of a cent, rather than silently rounding it
+            this.dailyChargeCents = dailyCharge.movePointRight(2).longValueExact();
+            this.isChargedOnWeekdays = isChargedOnWeekdays;
+            this.isChargedOnWeekends = isChargedOnWeekends;
+            this.isChargedOnHolidays = isChargedOnHolidays;
+            this.defaultPricing = new ToolPricing(dailyCharge, isChargedOnWeekdays, isChargedOnWeekends, isChargedOnHolidays);
+        }
 
         public static Type findByTypeCode(String typeCode) {
-            Type result = null;
-            for(Type type: values()) {
-                if(type.getTypeCode().equalsIgnoreCase(typeCode)) {
-                    result = type;
-                    break;
-                }
-            }
-            return result;
+            return ToolCatalog.DEFAULT.findType(typeCode);
         }
     }
 
+    /**
+     * The brands we carry. Codes are given explicitly rather than taken from the first letter of the name, so two
+     * brands sharing an initial can't collide, and a catalog file can assign different ones.
+     */
     public enum Brand {
-        STIHL,
-        WERNER,
-        DEWALT,
-        RIDGID;
+        STIHL("S"),
+        WERNER("W"),
+        DEWALT("D"),
+        RIDGID("R");
+
+        private final String brandCode;
+
+        Brand(String brandCode) {
+            this.brandCode = brandCode;
+        }
+
+        /**
+         * The single character code the brand has in the built-in catalog, i.e. Stihl brand code is "S"
+         */
+        public String getBrandCode() {
+            return brandCode;
+        }
 
         public static Brand findByBrandCode(char brandCode) {
-            Brand result = null;
-            for(Brand brand : values()) {
-                if(brand.name().charAt(0) == brandCode) {
-                    result = brand;
-                    break;
-                }
-            }
-            return result;
+            return ToolCatalog.DEFAULT.findBrand(brandCode);
         }
     }
 
     /**
-     * The overall rental code is a 4 character code derived from the type of tool being rented plus the brand of the tool
+     * The overall rental code is a 4 character code made of the type code of the tool being rented plus the brand code
      * i.e. A Stihl Chainsaw being rented would have a tool code of "CHNS"
      */
     public String getCode() {
-        return this.type.getTypeCode().concat(getBrandCode());
+        return this.code;
     }
 
     /**
-     * The Brand code is simply the first character from the Tool brand name
-     * i.e. Stihl brand code is "S"
+     * The last character of the tool code, i.e. Stihl brand code is "S"
      */
     public String getBrandCode() {
-        return this.brand.name().toUpperCase().substring(0, 1);
+        return code != null ? code.substring(3) : brand.getBrandCode();
     }
 
 }
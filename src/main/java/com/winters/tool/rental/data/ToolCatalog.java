@@ -0,0 +1,251 @@
+package com.winters.tool.rental.data;
+
+import com.winters.tool.rental.util.PackedCodeIndex;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Index of every rentable tool, built once from the tool types & brands we carry.
+ * <p>
+ * Each type/brand combination is represented by a single canonical, immutable {@link Tool} instance, and looking one
+ * up by its 4 character tool code is a constant time probe of a {@link PackedCodeIndex} - no substrings, no case
+ * conversion and no new {@code Tool} per checkout. Catalogs never change once built; a new price list is a new
+ * catalog, see {@link ToolCatalogSource}.
+ */
+public final class ToolCatalog implements ToolCatalogSource {
+
+    // Initialized ahead of DEFAULT, whose constructor needs them
+    public static final int NUM_TOOL_ORDINALS = Tool.Type.values().length * Tool.Brand.values().length;
+    private static final int NUM_BRANDS = Tool.Brand.values().length;
+
+    public static final ToolCatalog DEFAULT = new ToolCatalog(List.of(Tool.Type.values()), List.of(Tool.Brand.values()));
+
+    private final PackedCodeIndex<Tool> toolsByCode;
+    private final PackedCodeIndex<Tool.Type> typesByCode;
+    // Indexed directly by the brand code character, only ASCII codes are supported
+    private final Tool.Brand[] brandsByCode = new Tool.Brand[128];
+    // Indexed by type ordinal, null for types that aren't carried
+    private final ToolPricing[] pricingByType = new ToolPricing[Tool.Type.values().length];
+    // Indexed by toolOrdinal(type, brand), null for combinations that aren't carried
+    private final Tool[] toolsByTypeAndBrand = new Tool[NUM_TOOL_ORDINALS];
+    private final List<Tool> tools;
+
+    /**
+     * Carries the types & brands with their built-in codes and pricing
+     *
+     * @throws IllegalArgumentException if a type or brand is listed twice
+     */
+    public ToolCatalog(List<Tool.Type> types, List<Tool.Brand> brands) {
+        this(types.stream().map(TypeListing::of).toArray(TypeListing[]::new),
+                brands.stream().map(BrandListing::of).toArray(BrandListing[]::new));
+    }
+
+    private ToolCatalog(TypeListing[] types, BrandListing[] brands) {
+        PackedCodeIndex.Builder<Tool.Type> typeIndex = PackedCodeIndex.builder(types.length);
+        Map<String, Tool.Type> typeCodes = new HashMap<>();
+        for (TypeListing listing : types) {
+            Tool.Type type = listing.getType();
+            if (pricingByType[type.ordinal()] != null) {
+                throw new IllegalArgumentException("Tool type " + type + " is listed more than once");
+            }
+            // Type codes are looked up regardless of case, so two codes that only differ in case are the same code
+            Tool.Type clash = typeCodes.putIfAbsent(listing.getCode().toUpperCase(Locale.ROOT), type);
+            if (clash != null) {
+                throw new IllegalArgumentException("Tool types " + clash + " and " + type + " both have the code " + listing.getCode());
+            }
+            typeIndex.putIfAbsent(listing.getCode(), type);
+            pricingByType[type.ordinal()] = listing.getPricing();
+        }
+        Map<Tool.Brand, String> brandCodes = new HashMap<>();
+        for (BrandListing listing : brands) {
+            Tool.Brand brand = listing.getBrand();
+            if (brandCodes.putIfAbsent(brand, listing.getCode()) != null) {
+                throw new IllegalArgumentException("Brand " + brand + " is listed more than once");
+            }
+            char brandCode = listing.getCode().charAt(0);
+            // Tool codes are looked up regardless of case, so "S" and "s" would be the same tool code's last letter
+            Tool.Brand clash = brandsByCode[Character.toUpperCase(brandCode)] != null
+                    ? brandsByCode[Character.toUpperCase(brandCode)] : brandsByCode[Character.toLowerCase(brandCode)];
+            if (clash != null) {
+                throw new IllegalArgumentException("Brands " + clash + " and " + brand + " both have the code " + brandCode);
+            }
+            brandsByCode[brandCode] = brand;
+        }
+
+        PackedCodeIndex.Builder<Tool> toolIndex = PackedCodeIndex.builder(types.length * brands.length);
+        List<Tool> allTools = new ArrayList<>(types.length * brands.length);
+        for (TypeListing type : types) {
+            for (BrandListing brand : brands) {
+                Tool tool = Tool.builder()
+                        .type(type.getType())
+                        .brand(brand.getBrand())
+                        .code(type.getCode().concat(brand.getCode()))
+                        .pricing(type.getPricing())
+                        .build();
+                toolIndex.putIfAbsent(tool.getCode(), tool);
+                toolsByTypeAndBrand[toolOrdinal(tool.getType(), tool.getBrand())] = tool;
+                allTools.add(tool);
+            }
+        }
+        this.typesByCode = typeIndex.build();
+        this.toolsByCode = toolIndex.build();
+        this.tools = Collections.unmodifiableList(allTools);
+    }
+
+    /**
+     * Carries the types & brands with whatever codes and pricing the listings give them, i.e. from a catalog file
+     *
+     * @throws IllegalArgumentException if a type or brand is listed twice, or two of them share a code
+     */
+    public static ToolCatalog of(List<TypeListing> types, List<BrandListing> brands) {
+        return new ToolCatalog(types.toArray(TypeListing[]::new), brands.toArray(BrandListing[]::new));
+    }
+
+    /**
+     * @return this catalog, which never changes
+     */
+    @Override
+    public ToolCatalog getCatalog() {
+        return this;
+    }
+
+    /**
+     * @param toolCode - 4 character tool code, i.e. "CHNS". Case-insensitive.
+     * @return the canonical tool for the code, or null if either the type or the brand is unknown
+     */
+    public Tool findTool(CharSequence toolCode) {
+        // Type codes match regardless of case but brand codes never have, so check the brand before the index
+        if (toolCode == null || toolCode.length() != 4 || findBrand(toolCode.charAt(3)) == null) {
+            return null;
+        }
+        return toolsByCode.get(toolCode);
+    }
+
+    /**
+     * Finds a tool by what it is rather than by what it's called, for anything that has to outlive a change of codes
+     *
+     * @return the canonical tool for the type & brand, or null if the catalog doesn't carry both
+     */
+    public Tool findTool(Tool.Type type, Tool.Brand brand) {
+        return toolsByTypeAndBrand[toolOrdinal(type, brand)];
+    }
+
+    /**
+     * @param typeCode - 3 character tool type code, i.e. "CHN". Case-insensitive.
+     * @return the matching tool type, or null if there isn't one
+     */
+    public Tool.Type findType(CharSequence typeCode) {
+        return typesByCode.get(typeCode);
+    }
+
+    /**
+     * Looks up a tool type from part of a longer sequence, i.e. the first 3 characters of a tool code, without
+     * having to cut out a substring first.
+     *
+     * @param start - index of the first character of the type code
+     * @param end   - index after the last character of the type code
+     * @return the matching tool type, or null if there isn't one
+     */
+    public Tool.Type findType(CharSequence sequence, int start, int end) {
+        return typesByCode.get(sequence, start, end);
+    }
+
+    /**
+     * @param brandCode - The single character brand code, i.e. 'S' for Stihl
+     * @return the matching brand, or null if there isn't one
+     */
+    public Tool.Brand findBrand(char brandCode) {
+        return brandCode < brandsByCode.length ? brandsByCode[brandCode] : null;
+    }
+
+    /**
+     * @return what the type costs in this catalog, or null if the type isn't carried
+     */
+    public ToolPricing getPricing(Tool.Type type) {
+        return pricingByType[type.ordinal()];
+    }
+
+    /**
+     * @return every type/brand combination in the catalog
+     */
+    public List<Tool> getTools() {
+        return tools;
+    }
+
+    /**
+     * @return a distinct number for every type/brand combination there could be, from 0 up to
+     * {@link #NUM_TOOL_ORDINALS}, whatever codes a catalog gives them
+     */
+    public static int toolOrdinal(Tool.Type type, Tool.Brand brand) {
+        return type.ordinal() * NUM_BRANDS + brand.ordinal();
+    }
+
+    /**
+     * A tool type as a catalog carries it
+     */
+    public static @Value class TypeListing {
+        Tool.Type type;
+        String code;
+        ToolPricing pricing;
+
+        /**
+         * @param code - 3 ASCII character type code, i.e. "CHN"
+         * @throws IllegalArgumentException if the code isn't 3 ASCII characters
+         */
+        public TypeListing(Tool.Type type, String code, ToolPricing pricing) {
+            if (type == null || pricing == null) {
+                throw new IllegalArgumentException("Type listing for code " + code + " needs both a type and pricing");
+            }
+            if (code == null || code.length() != 3 || !code.chars().allMatch(c -> c > ' ' && c < 0x7F)) {
+                throw new IllegalArgumentException("Type code for " + type + " must be 3 ASCII characters, found: " + code);
+            }
+            this.type = type;
+            this.code = code;
+            this.pricing = pricing;
+        }
+
+        /**
+         * @return the type with its built-in code & pricing
+         */
+        public static TypeListing of(Tool.Type type) {
+            return new TypeListing(type, type.getTypeCode(), type.getDefaultPricing());
+        }
+    }
+
+    /**
+     * A brand as a catalog carries it
+     */
+    public static @Value class BrandListing {
+        Tool.Brand brand;
+        String code;
+
+        /**
+         * @param code - Single ASCII character brand code, i.e. "S". Case-sensitive for {@link ToolCatalog#findBrand},
+         *             but tool codes ignore case, so no two brands in a catalog may differ only in the case of theirs.
+         * @throws IllegalArgumentException if the code isn't a single ASCII character
+         */
+        public BrandListing(Tool.Brand brand, String code) {
+            if (brand == null) {
+                throw new IllegalArgumentException("Brand listing for code " + code + " needs a brand");
+            }
+            if (code == null || code.length() != 1 || code.charAt(0) <= ' ' || code.charAt(0) >= 0x7F) {
+                throw new IllegalArgumentException("Brand code for " + brand + " must be a single ASCII character, found: " + code);
+            }
+            this.brand = brand;
+            this.code = code;
+        }
+
+        /**
+         * @return the brand with its built-in code
+         */
+        public static BrandListing of(Tool.Brand brand) {
+            return new BrandListing(brand, brand.getBrandCode());
+        }
+    }
+}
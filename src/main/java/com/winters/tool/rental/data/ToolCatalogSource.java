@@ -0,0 +1,16 @@
+package com.winters.tool.rental.data;
+
+/**
+ * Where the current {@link ToolCatalog} comes from. A catalog is its own source, one reloaded from a file hands out
+ * whichever snapshot is current.
+ * <p>
+ * Callers should ask once per operation and use that catalog throughout, so an operation never sees half of one
+ * catalog and half of the next.
+ */
+public interface ToolCatalogSource {
+
+    /**
+     * @return the current catalog, never null
+     */
+    ToolCatalog getCatalog();
+}
@@ -0,0 +1,45 @@
+package com.winters.tool.rental.data;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * What a tool type costs and which days it's charged for. The built-in values live on {@link Tool.Type}, but the
+ * catalog a checkout is priced from can give a type different ones, i.e. from a catalog file, so pricing always reads
+ * them from the rented {@link Tool}.
+ * <p>
+ * Pricings are equal when they charge the same, which is what lets quotes be cached by pricing: a quote computed
+ * before a price change is never handed out after it.
+ */
+public @Value class ToolPricing {
+    // Compared as dailyChargeCents, so 1.5 and 1.50 are the same price
+    @EqualsAndHashCode.Exclude
+    BigDecimal dailyCharge;
+    // The same daily charge as a whole number of cents, which is what pricing actually works with
+    long dailyChargeCents;
+    boolean chargedOnWeekdays;
+    boolean chargedOnWeekends;
+    boolean chargedOnHolidays;
+
+    /**
+     * @param dailyCharge - Charge per chargeable day, in dollars, a whole number of cents
+     * @throws IllegalArgumentException if the charge is negative or given in fractions of a cent
+     */
+    public ToolPricing(BigDecimal dailyCharge, boolean chargedOnWeekdays, boolean chargedOnWeekends, boolean chargedOnHolidays) {
+        if (dailyCharge.signum() < 0) {
+            throw new IllegalArgumentException("Daily charge can't be negative: " + dailyCharge);
+        }
+        try {
+            // Throws if a charge is ever given in fractions of a cent, rather than silently rounding it
+            this.dailyChargeCents = dailyCharge.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Daily charge must be a whole number of cents: " + dailyCharge, e);
+        }
+        this.dailyCharge = dailyCharge;
+        this.chargedOnWeekdays = chargedOnWeekdays;
+        this.chargedOnWeekends = chargedOnWeekends;
+        this.chargedOnHolidays = chargedOnHolidays;
+    }
+}
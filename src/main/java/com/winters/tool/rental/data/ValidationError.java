@@ -0,0 +1,21 @@
+package com.winters.tool.rental.data;
+
+import lombok.Value;
+
+/**
+ * A single rule violated by a rental request. Holding on to the request rather than a formatted message means
+ * rejecting a request costs one small object per violation - the message is only built by {@link #getMessage()}.
+ */
+public @Value class ValidationError {
+    ValidationRule rule;
+    RentalRequest request;
+
+    public String getMessage() {
+        return rule.formatMessage(request);
+    }
+
+    @Override
+    public String toString() {
+        return rule + ": " + getMessage();
+    }
+}
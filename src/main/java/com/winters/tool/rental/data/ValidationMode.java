@@ -0,0 +1,8 @@
+package com.winters.tool.rental.data;
+
+public enum ValidationMode {
+    // Check every rule so the requester can fix everything in one go
+    ALL_ERRORS,
+    // Stop at the first violated rule, for callers that only need to know whether the request is valid
+    FAIL_FAST
+}
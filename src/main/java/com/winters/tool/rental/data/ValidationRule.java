@@ -0,0 +1,40 @@
+package com.winters.tool.rental.data;
+
+import java.util.function.Function;
+
+/**
+ * Every rule a {@link RentalRequest} is validated against, in the order they are checked. Each rule knows how to
+ * describe a violation, but the message is only built if somebody actually asks for it.
+ */
+public enum ValidationRule {
+    RENTAL_DAYS_BELOW_ONE(req -> "Number of rental days must be at least one. Request had a value of " + req.getNumDaysToRent()),
+    DISCOUNT_PERCENT_OUT_OF_RANGE(req -> "Discount percentage must be between 0 and 100. Request had a value of " + req.getDiscountPercent()),
+    CHECKOUT_DATE_MISSING(req -> "Checkout date is required."),
+    TOOL_CODE_MISSING(req -> "Tool Code is required (ex: CHNS)."),
+    TOOL_CODE_WRONG_LENGTH(req -> "Tool Codes should only be 4 characters long (ex: CHNS). Request had a value of " + req.getToolCode()),
+    TOOL_TYPE_NOT_FOUND(req -> "No Tool Type found for requested type. Ensure the Tool Code requested has a " +
+            "valid tool type for the first three characters. Request had a value of " + req.getToolCode()),
+    TOOL_BRAND_NOT_FOUND(req -> "No Brand type found for the requested type. Ensure the Tool Code requested has a " +
+            "valid brand code for the last character. Request had a value of " + req.getToolCode()),
+    // Only checked when an agreement is actually issued against a tool inventory, never by validation on its own
+    TOOL_UNAVAILABLE(req -> "No " + req.getToolCode() + " is available from " + req.getCheckoutLocalDate() + " through "
+            + req.getCheckoutLocalDate().plusDays(req.getNumDaysToRent()) + ". Try another brand or different dates."),
+    IDEMPOTENCY_KEY_INVALID(req -> "Idempotency keys must be 1 to " + RentalRequest.MAX_IDEMPOTENCY_KEY_LENGTH + " characters and not blank."),
+    // Only checked when an agreement is actually issued, against the requests issued before it
+    IDEMPOTENCY_KEY_REUSED(req -> "Idempotency key " + req.getIdempotencyKey() + " was already used for a different request. "
+            + "Send a new key for a new checkout.");
+
+    private final Function<RentalRequest, String> messageFormatter;
+
+    ValidationRule(Function<RentalRequest, String> messageFormatter) {
+        this.messageFormatter = messageFormatter;
+    }
+
+    /**
+     * @param req The request that violated this rule
+     * @return a human readable description of the violation, including the offending value
+     */
+    public String formatMessage(RentalRequest req) {
+        return messageFormatter.apply(req);
+    }
+}
@@ -0,0 +1,208 @@
+package com.winters.tool.rental.discount;
+
+import com.winters.tool.rental.data.Tool;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * {@link DiscountRules} compiled once, when the rules are loaded, into a decision table so that checkout never looks
+ * at a rule.
+ * <p>
+ * The table has one entry per tool type & brand. Each entry splits rental lengths into bands wherever one of its
+ * rules starts or stops applying, and each band holds the combined percentage as a step function of the checkout
+ * date, again split wherever a rule's window starts or ends. Answering a checkout is an array index and two binary
+ * searches, so going from a handful of rules to thousands only adds a couple of steps to each search. Bands that end
+ * up with the same set of rules share one step function.
+ */
+public final class CompiledDiscountRules implements DiscountRules {
+
+    private static final Tool.Type[] TYPES = Tool.Type.values();
+    private static final Tool.Brand[] BRANDS = Tool.Brand.values();
+
+    private final List<DiscountRule> rules;
+    // Indexed by type ordinal * number of brands + brand ordinal
+    private final ToolTable[] tables = new ToolTable[TYPES.length * BRANDS.length];
+
+    /**
+     * @throws NullPointerException if any rule is null
+     */
+    public CompiledDiscountRules(List<DiscountRule> rules) {
+        this.rules = List.copyOf(rules);
+        // Rules are referred to by their index in the list, so identical bands in different tables share their steps too
+        Map<List<Integer>, DateSteps> stepsByRules = new HashMap<>();
+        for (Tool.Type type : TYPES) {
+            for (Tool.Brand brand : BRANDS) {
+                List<Integer> applicable = new ArrayList<>();
+                for (int i = 0; i < this.rules.size(); i++) {
+                    DiscountRule rule = this.rules.get(i);
+                    if ((rule.getToolType() == null || rule.getToolType() == type) && (rule.getBrand() == null || rule.getBrand() == brand)) {
+                        applicable.add(i);
+                    }
+                }
+                tables[type.ordinal() * BRANDS.length + brand.ordinal()] = compileTable(applicable, stepsByRules);
+            }
+        }
+    }
+
+    public List<DiscountRule> getRules() {
+        return rules;
+    }
+
+    @Override
+    public int discountPercent(Tool tool, long checkoutEpochDay, int numDaysToRent) {
+        ToolTable table = tables[tool.getType().ordinal() * BRANDS.length + tool.getBrand().ordinal()];
+        DateSteps steps = table.steps[upperBound(table.bandStarts, numDaysToRent) - 1];
+        return steps.percents[upperBound(steps.dateStarts, checkoutEpochDay) - 1];
+    }
+
+    /**
+     * Sweeps the rental lengths from 1 upwards, adding each rule to the active set at its first band and dropping it
+     * after its last
+     */
+    private ToolTable compileTable(List<Integer> applicable, Map<List<Integer>, DateSteps> stepsByRules) {
+        TreeSet<Integer> boundaries = new TreeSet<>();
+        boundaries.add(1);
+        for (int i : applicable) {
+            DiscountRule rule = rules.get(i);
+            boundaries.add(rule.getMinDays());
+            if (rule.getMaxDays() < Integer.MAX_VALUE) {
+                boundaries.add(rule.getMaxDays() + 1);
+            }
+        }
+        int[] bandStarts = boundaries.stream().mapToInt(Integer::intValue).toArray();
+
+        List<Integer> byMinDays = new ArrayList<>(applicable);
+        byMinDays.sort((a, b) -> Integer.compare(rules.get(a).getMinDays(), rules.get(b).getMinDays()));
+        List<Integer> byMaxDays = new ArrayList<>(applicable);
+        byMaxDays.sort((a, b) -> Integer.compare(rules.get(a).getMaxDays(), rules.get(b).getMaxDays()));
+
+        DateSteps[] steps = new DateSteps[bandStarts.length];
+        TreeSet<Integer> active = new TreeSet<>();
+        int entering = 0;
+        int leaving = 0;
+        for (int band = 0; band < bandStarts.length; band++) {
+            int bandStart = bandStarts[band];
+            while (entering < byMinDays.size() && rules.get(byMinDays.get(entering)).getMinDays() <= bandStart) {
+                active.add(byMinDays.get(entering++));
+            }
+            while (leaving < byMaxDays.size() && rules.get(byMaxDays.get(leaving)).getMaxDays() < bandStart) {
+                active.remove(byMaxDays.get(leaving++));
+            }
+            steps[band] = stepsByRules.computeIfAbsent(List.copyOf(active), this::compileSteps);
+        }
+        return new ToolTable(bandStarts, steps);
+    }
+
+    /**
+     * Sweeps the checkout dates in order, keeping the best exclusive percentage & the stackable total current as each
+     * rule's window opens and closes
+     */
+    private DateSteps compileSteps(List<Integer> active) {
+        // Epoch day -> change to apply on that day, rule index + 1 to start applying a rule, -(rule index + 1) to stop
+        TreeMap<Long, List<Integer>> events = new TreeMap<>();
+        events.put(Long.MIN_VALUE, new ArrayList<>());
+        for (int i : active) {
+            DiscountRule rule = rules.get(i);
+            LocalDate first = rule.getFirstCheckoutDate();
+            LocalDate last = rule.getLastCheckoutDate();
+            events.computeIfAbsent(first == null ? Long.MIN_VALUE : first.toEpochDay(), day -> new ArrayList<>()).add(i + 1);
+            if (last != null) {
+                events.computeIfAbsent(last.toEpochDay() + 1, day -> new ArrayList<>()).add(-(i + 1));
+            }
+        }
+
+        long[] dateStarts = new long[events.size()];
+        int[] percents = new int[events.size()];
+        int numSteps = 0;
+        // Percentage -> number of exclusive rules currently giving it
+        TreeMap<Integer, Integer> exclusive = new TreeMap<>();
+        int stackable = 0;
+        for (Map.Entry<Long, List<Integer>> event : events.entrySet()) {
+            for (int change : event.getValue()) {
+                DiscountRule rule = rules.get(Math.abs(change) - 1);
+                int direction = change > 0 ? 1 : -1;
+                if (rule.isStackable()) {
+                    stackable += direction * rule.getPercent();
+                } else {
+                    exclusive.merge(rule.getPercent(), direction, (count, delta) -> count + delta == 0 ? null : count + delta);
+                }
+            }
+            int percent = Math.min(100, stackable + (exclusive.isEmpty() ? 0 : exclusive.lastKey()));
+            // Only a change of percentage needs a new step
+            if (numSteps == 0 || percents[numSteps - 1] != percent) {
+                dateStarts[numSteps] = event.getKey();
+                percents[numSteps++] = percent;
+            }
+        }
+        return new DateSteps(Arrays.copyOf(dateStarts, numSteps), Arrays.copyOf(percents, numSteps));
+    }
+
+    /**
+     * @return index of the first entry strictly greater than the key
+     */
+    private static int upperBound(int[] table, int key) {
+        int low = 0;
+        int high = table.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (table[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index of the first entry strictly greater than the key
+     */
+    private static int upperBound(long[] table, long key) {
+        int low = 0;
+        int high = table.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (table[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The rental length bands for one type & brand. bandStarts[0] is always 1, and steps[i] applies from
+     * bandStarts[i] up to the next band's start.
+     */
+    private static final class ToolTable {
+        final int[] bandStarts;
+        final DateSteps[] steps;
+
+        ToolTable(int[] bandStarts, DateSteps[] steps) {
+            this.bandStarts = bandStarts;
+            this.steps = steps;
+        }
+    }
+
+    /**
+     * The combined percentage for one band, by checkout date. dateStarts[0] is always Long.MIN_VALUE, and percents[i]
+     * applies from dateStarts[i] up to the next start.
+     */
+    private static final class DateSteps {
+        final long[] dateStarts;
+        final int[] percents;
+
+        DateSteps(long[] dateStarts, int[] percents) {
+            this.dateStarts = dateStarts;
+            this.percents = percents;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.winters.tool.rental.discount;
+
+import com.winters.tool.rental.data.Tool;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * A single promotion, i.e. "10% off ladders rented for a week or more" or "5% off anything Stihl checked out over the
+ * 4th of July week". Every condition that is left unset matches everything. Rules are only ever evaluated while
+ * {@link CompiledDiscountRules} builds its tables, so nothing here is on the checkout path.
+ * <p>
+ * When several rules match a rental, the best exclusive rule is taken and every stackable rule is added on top of it
+ * (and on top of the request's own discount), capped at 100%.
+ */
+public @Value class DiscountRule {
+    String name;
+    // Null for every type
+    Tool.Type toolType;
+    // Null for every brand
+    Tool.Brand brand;
+    // The rental lengths the rule applies to, inclusive on both ends
+    int minDays;
+    int maxDays;
+    // Checkout dates the rule applies to, inclusive on both ends. Null leaves that end open.
+    LocalDate firstCheckoutDate;
+    LocalDate lastCheckoutDate;
+    // Whole percentage taken off
+    int percent;
+    // Whether the rule adds to other discounts, or only competes with the other exclusive rules
+    boolean stackable;
+
+    /**
+     * @param name              - Shown in errors, i.e. "Long term ladders"
+     * @param toolType          - The only type the rule applies to, or null for all of them
+     * @param brand             - The only brand the rule applies to, or null for all of them
+     * @param minDays           - Shortest rental the rule applies to. Defaults to 1
+     * @param maxDays           - Longest rental the rule applies to. Defaults to no limit
+     * @param firstCheckoutDate - First checkout date the rule applies to, or null for no start
+     * @param lastCheckoutDate  - Last checkout date the rule applies to, or null for no end
+     * @param percent           - Whole percentage taken off, between 0 and 100
+     * @param stackable         - Whether the percentage is added to other discounts rather than competing with them
+     * @throws IllegalArgumentException if the percentage is out of range or a window ends before it starts
+     */
+    @Builder
+    public DiscountRule(String name, Tool.Type toolType, Tool.Brand brand, int minDays, int maxDays,
+                        LocalDate firstCheckoutDate, LocalDate lastCheckoutDate, int percent, boolean stackable) {
+        this.name = name;
+        this.toolType = toolType;
+        this.brand = brand;
+        this.minDays = minDays > 0 ? minDays : 1;
+        this.maxDays = maxDays > 0 ? maxDays : Integer.MAX_VALUE;
+        this.firstCheckoutDate = firstCheckoutDate;
+        this.lastCheckoutDate = lastCheckoutDate;
+        this.percent = percent;
+        this.stackable = stackable;
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("Discount rule " + name + " must take off between 0 and 100 percent, not " + percent);
+        }
+        if (this.maxDays < this.minDays) {
+            throw new IllegalArgumentException("Discount rule " + name + " ends at " + maxDays + " days, before it starts at " + minDays);
+        }
+        if (firstCheckoutDate != null && lastCheckoutDate != null && lastCheckoutDate.isBefore(firstCheckoutDate)) {
+            throw new IllegalArgumentException("Discount rule " + name + " ends on " + lastCheckoutDate + ", before it starts on " + firstCheckoutDate);
+        }
+    }
+
+    /**
+     * @param checkoutEpochDay - Checkout day, as a count of days since 1970-01-01
+     * @return true if the rule applies to the rental. Only a reference for checking the compiled tables against,
+     * checkout never calls it.
+     */
+    public boolean matches(Tool tool, long checkoutEpochDay, int numDaysToRent) {
+        return (toolType == null || toolType == tool.getType())
+                && (brand == null || brand == tool.getBrand())
+                && numDaysToRent >= minDays && numDaysToRent <= maxDays
+                && (firstCheckoutDate == null || checkoutEpochDay >= firstCheckoutDate.toEpochDay())
+                && (lastCheckoutDate == null || checkoutEpochDay <= lastCheckoutDate.toEpochDay());
+    }
+}
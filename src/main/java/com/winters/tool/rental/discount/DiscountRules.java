@@ -0,0 +1,24 @@
+package com.winters.tool.rental.discount;
+
+import com.winters.tool.rental.data.Tool;
+
+/**
+ * The promotions checkout applies on top of a request's own discount. Like {@link
+ * com.winters.tool.rental.holiday.HolidayCalendar}, everything is asked in epoch days so checkout never builds a date
+ * object to ask.
+ */
+public interface DiscountRules {
+
+    /**
+     * No promotions, every rental is charged the request's discount and nothing more
+     */
+    DiscountRules NONE = (tool, checkoutEpochDay, numDaysToRent) -> 0;
+
+    /**
+     * @param tool             - The tool being rented
+     * @param checkoutEpochDay - Checkout day, as a count of days since 1970-01-01
+     * @param numDaysToRent    - Length of the rental, at least 1
+     * @return the whole percentage the promotions take off the rental, between 0 and 100
+     */
+    int discountPercent(Tool tool, long checkoutEpochDay, int numDaysToRent);
+}
@@ -0,0 +1,161 @@
+package com.winters.tool.rental.holiday;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link HolidayCalendar} that evaluates its rules once per year into a sorted table of epoch days.
+ * <p>
+ * Tables for years inside the cached window are built lazily the first time a year is asked about and published
+ * with a compare-and-set, so readers never lock. If two threads race to build the same year they both produce an
+ * identical table and whichever loses simply adopts the winner's. Years outside the window are still answered, just
+ * without caching.
+ * <p>
+ * Once a year is compiled, counting holidays within it is a pair of binary searches, so the number of rules on the
+ * calendar has no effect on the cost of a checkout.
+ */
+public final class CompiledHolidayCalendar implements HolidayCalendar {
+
+    static final int MIN_CACHED_YEAR = 1900;
+    static final int MAX_CACHED_YEAR = 2299;
+
+    private final HolidayRule[] rules;
+    private final AtomicReferenceArray<int[]> yearTables = new AtomicReferenceArray<>(MAX_CACHED_YEAR - MIN_CACHED_YEAR + 1);
+
+    public CompiledHolidayCalendar(List<HolidayRule> rules) {
+        this.rules = rules.toArray(new HolidayRule[0]);
+        for (HolidayRule rule : this.rules) {
+            Objects.requireNonNull(rule, "Holiday rules cannot be null");
+        }
+    }
+
+    public List<HolidayRule> getRules() {
+        return List.of(rules);
+    }
+
+    @Override
+    public int countHolidays(long firstEpochDay, long lastEpochDay) {
+        if (lastEpochDay < firstEpochDay) {
+            return 0;
+        }
+        int startingYear = yearOfEpochDay(firstEpochDay);
+        int endingYear = yearOfEpochDay(lastEpochDay);
+
+        if (startingYear == endingYear) {
+            int[] table = tableForYear(startingYear);
+            return upperBound(table, lastEpochDay) - lowerBound(table, firstEpochDay);
+        }
+
+        // Partial first & last years need a search, any full years in between count every entry in their table
+        int[] firstYear = tableForYear(startingYear);
+        int numHolidays = firstYear.length - lowerBound(firstYear, firstEpochDay);
+        for (int year = startingYear + 1; year < endingYear; year++) {
+            numHolidays += tableForYear(year).length;
+        }
+        return numHolidays + upperBound(tableForYear(endingYear), lastEpochDay);
+    }
+
+    @Override
+    public boolean isHoliday(long epochDay) {
+        return Arrays.binarySearch(tableForYear(yearOfEpochDay(epochDay)), (int) epochDay) >= 0;
+    }
+
+    private int[] tableForYear(int year) {
+        if (year < MIN_CACHED_YEAR || year > MAX_CACHED_YEAR) {
+            return compileYear(year);
+        }
+        int index = year - MIN_CACHED_YEAR;
+        int[] table = yearTables.get(index);
+        if (table == null) {
+            table = compileYear(year);
+            if (!yearTables.compareAndSet(index, null, table)) {
+                table = yearTables.get(index);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Evaluates every rule into a sorted, de-duplicated table of the epoch days observed within the given year. A
+     * holiday can be observed in a different year than its own, i.e. New Year's Day on a Saturday is observed on the
+     * Friday before, so the rules are evaluated for the years either side as well and each day is filed under the
+     * year it actually falls in.
+     */
+    private int[] compileYear(int year) {
+        long firstDay = LocalDate.of(year, 1, 1).toEpochDay();
+        long lastDay = LocalDate.of(year, 12, 31).toEpochDay();
+        int[] table = new int[rules.length * 3];
+        int size = 0;
+        for (int ruleYear = year - 1; ruleYear <= year + 1; ruleYear++) {
+            for (HolidayRule rule : rules) {
+                LocalDate observed = rule.observedDateForYear(ruleYear);
+                if (observed != null && observed.toEpochDay() >= firstDay && observed.toEpochDay() <= lastDay) {
+                    table[size++] = Math.toIntExact(observed.toEpochDay());
+                }
+            }
+        }
+        Arrays.sort(table, 0, size);
+
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || table[distinct - 1] != table[i]) {
+                table[distinct++] = table[i];
+            }
+        }
+        return Arrays.copyOf(table, distinct);
+    }
+
+    /**
+     * @return index of the first entry greater than or equal to the key
+     */
+    private static int lowerBound(int[] table, long key) {
+        int low = 0;
+        int high = table.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (table[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index of the first entry strictly greater than the key
+     */
+    private static int upperBound(int[] table, long key) {
+        int low = 0;
+        int high = table.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (table[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Proleptic Gregorian year containing the given epoch day, computed arithmetically so we don't have to build a
+     * {@link LocalDate} just to find out which table to look in. The year is shifted to start on March 1st so that the
+     * leap day is always the last day of the shifted year.
+     */
+    static int yearOfEpochDay(long epochDay) {
+        long daysSinceMarchFirstYearZero = epochDay + 719468;
+        long era = Math.floorDiv(daysSinceMarchFirstYearZero, 146097);
+        long dayOfEra = daysSinceMarchFirstYearZero - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        // Shifted months 10 & 11 are January & February, which belong to the following calendar year
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long year = yearOfEra + era * 400;
+        return (int) (shiftedMonth >= 10 ? year + 1 : year);
+    }
+}
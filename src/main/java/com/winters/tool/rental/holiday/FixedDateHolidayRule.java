@@ -0,0 +1,32 @@
+package com.winters.tool.rental.holiday;
+
+import lombok.Value;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+
+/**
+ * Because a fixed date holiday like the 4th of July can fall on the weekend, we optionally only want the actual
+ * observed date of the holiday. If the holiday is on Saturday, Friday becomes the observed date. If it's on Sunday,
+ * Monday becomes the observed date.
+ */
+public @Value class FixedDateHolidayRule implements HolidayRule {
+    String name;
+    Month month;
+    int dayOfMonth;
+    boolean observedOnNearestWeekday;
+
+    @Override
+    public LocalDate observedDateForYear(int year) {
+        LocalDate holiday = LocalDate.of(year, month, dayOfMonth);
+        if (observedOnNearestWeekday) {
+            if (holiday.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                return holiday.plusDays(1);
+            } else if (holiday.getDayOfWeek() == DayOfWeek.SATURDAY) {
+                return holiday.minusDays(1);
+            }
+        }
+        return holiday;
+    }
+}
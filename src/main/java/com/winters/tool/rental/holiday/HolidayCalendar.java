@@ -0,0 +1,35 @@
+package com.winters.tool.rental.holiday;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.List;
+
+/**
+ * The set of days on which a rental may be exempt from charges, as configured by the tool type.
+ * Everything is expressed in epoch days (days since 1970-01-01) so that callers on the checkout path
+ * never have to construct a date object to ask a question.
+ */
+public interface HolidayCalendar {
+
+    /**
+     * The holidays we have always honored: Independence Day (observed on the closest weekday when it falls on a
+     * weekend) and Labor Day (first Monday of September)
+     */
+    HolidayCalendar US_RENTAL_HOLIDAYS = new CompiledHolidayCalendar(List.of(
+            HolidayRule.fixedDate("Independence Day", Month.JULY, 4, true),
+            HolidayRule.nthWeekdayOfMonth("Labor Day", 1, DayOfWeek.MONDAY, Month.SEPTEMBER)
+    ));
+
+    /**
+     * @param firstEpochDay - The first day of the range, as a count of days since 1970-01-01
+     * @param lastEpochDay  - The last day of the range (inclusive), as a count of days since 1970-01-01
+     * @return total number of observed holidays within the range, or zero if the range is empty
+     */
+    int countHolidays(long firstEpochDay, long lastEpochDay);
+
+    /**
+     * @param epochDay - The day to check, as a count of days since 1970-01-01
+     * @return true if a holiday is observed on the given day
+     */
+    boolean isHoliday(long epochDay);
+}
@@ -0,0 +1,43 @@
+package com.winters.tool.rental.holiday;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+
+/**
+ * A single holiday definition. Rules are only ever evaluated while a {@link CompiledHolidayCalendar} builds the
+ * table for a year, so they are free to use {@link LocalDate} without costing anything on the checkout path.
+ */
+public interface HolidayRule {
+
+    /**
+     * @return a human readable name for the holiday, i.e. "Labor Day"
+     */
+    String getName();
+
+    /**
+     * @param year - The year in which we are calculating the holiday
+     * @return the date the holiday is observed in the given year, or null if it is not observed that year
+     */
+    LocalDate observedDateForYear(int year);
+
+    /**
+     * A holiday that lands on the same date every year, i.e. the 4th of July.
+     *
+     * @param observedOnNearestWeekday - when true, a Saturday holiday is observed the Friday before and a Sunday
+     *                                 holiday is observed the Monday after
+     */
+    static HolidayRule fixedDate(String name, Month month, int dayOfMonth, boolean observedOnNearestWeekday) {
+        return new FixedDateHolidayRule(name, month, dayOfMonth, observedOnNearestWeekday);
+    }
+
+    /**
+     * A holiday that lands on the nth occurrence of a weekday within a month, i.e. Labor Day is the first Monday of
+     * September.
+     *
+     * @param ordinal - Which occurrence of the weekday, starting from 1. A value of -1 means the last occurrence.
+     */
+    static HolidayRule nthWeekdayOfMonth(String name, int ordinal, DayOfWeek dayOfWeek, Month month) {
+        return new NthWeekdayOfMonthHolidayRule(name, ordinal, dayOfWeek, month);
+    }
+}
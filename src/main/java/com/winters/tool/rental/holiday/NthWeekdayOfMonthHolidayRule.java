@@ -0,0 +1,27 @@
+package com.winters.tool.rental.holiday;
+
+import lombok.Value;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Holidays like Labor Day are not on a set date. Instead, they are the nth given weekday of a month
+ * (Labor Day is the first Monday of each September).
+ */
+public @Value class NthWeekdayOfMonthHolidayRule implements HolidayRule {
+    String name;
+    // Which occurrence of the weekday, starting from 1. A value of -1 means the last occurrence within the month.
+    int ordinal;
+    DayOfWeek dayOfWeek;
+    Month month;
+
+    @Override
+    public LocalDate observedDateForYear(int year) {
+        LocalDate holiday = LocalDate.of(year, month, 1).with(TemporalAdjusters.dayOfWeekInMonth(ordinal, dayOfWeek));
+        // A fifth occurrence doesn't exist in every month, in which case the adjuster rolls into the next month
+        return holiday.getMonth() == month ? holiday : null;
+    }
+}
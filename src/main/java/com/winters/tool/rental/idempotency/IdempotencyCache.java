@@ -0,0 +1,155 @@
+package com.winters.tool.rental.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.ValidationError;
+import com.winters.tool.rental.data.ValidationRule;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Remembers recently issued checkouts by {@link RentalRequest#getIdempotencyKey() idempotency key}, so a client
+ * retrying a checkout it never got an answer for is handed the agreement it was already issued instead of a second
+ * one.
+ * <p>
+ * The first request for a key claims it with a single atomic insert and issues the checkout outside of any lock.
+ * Duplicates that arrive while it's still being issued wait on that one computation and get the very same
+ * result, however many of them there are, and duplicates after it are answered straight from the cache. Only the
+ * first request's thread does any work, so a client hammering retries costs a map lookup per retry.
+ * <p>
+ * Backed by Caffeine, bounded both in entries and in time: results are forgotten {@code expireAfter} after they were
+ * issued, and the least valuable are evicted once there are more than {@code maximumSize}. A checkout still being
+ * issued is never evicted for size, since a retry would then issue it again.
+ */
+public class IdempotencyCache {
+
+    private final Cache<String, Entry> entries;
+    private final ConcurrentMap<String, Entry> map;
+    private final LongAdder numIssued = new LongAdder();
+    private final LongAdder numDeduplicated = new LongAdder();
+    private final LongAdder numConflicts = new LongAdder();
+
+    /**
+     * @param maximumSize - Upper bound on the number of checkouts remembered, must be positive
+     * @param expireAfter - How long a checkout is remembered for after it was issued, must be positive
+     */
+    public IdempotencyCache(long maximumSize, Duration expireAfter) {
+        this(maximumSize, expireAfter, Ticker.systemTicker());
+    }
+
+    IdempotencyCache(long maximumSize, Duration expireAfter, Ticker ticker) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Idempotency cache size must be positive. Was " + maximumSize);
+        }
+        if (expireAfter.isNegative() || expireAfter.isZero()) {
+            throw new IllegalArgumentException("Idempotency cache expiry must be positive. Was " + expireAfter);
+        }
+        this.entries = Caffeine.newBuilder()
+                // Weighed again when the result is in, so in flight checkouts weigh nothing & can't be evicted for size
+                .maximumWeight(maximumSize)
+                .weigher((String key, Entry entry) -> entry.result.isDone() ? 1 : 0)
+                .expireAfterWrite(expireAfter)
+                .ticker(ticker)
+                // Evictions are applied on the calling thread rather than handed to the common pool
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        this.map = entries.asMap();
+    }
+
+    /**
+     * Issues the request, unless a request with the same key has already been issued or is being issued right now,
+     * in which case that result is returned instead. A key sent again with a different request fails with
+     * {@link ValidationRule#IDEMPOTENCY_KEY_REUSED} rather than being issued or answered with the other request's
+     * agreement.
+     * <p>
+     * If issuing throws, the key is forgotten again so that a retry gets to try again, and any duplicates that were
+     * waiting on it get the same exception.
+     *
+     * @param req    - A request with an idempotency key
+     * @param issuer - Issues the request, only ever called once per key while the key is remembered
+     * @return the result of issuing the first request with the key
+     */
+    public CheckoutResult issue(RentalRequest req, Function<RentalRequest, CheckoutResult> issuer) {
+        String key = req.getIdempotencyKey();
+        Entry claim = new Entry(req);
+        Entry existing = map.putIfAbsent(key, claim);
+        if (existing != null) {
+            if (!existing.request.equals(req)) {
+                numConflicts.increment();
+                return CheckoutResult.failure(req, List.of(new ValidationError(ValidationRule.IDEMPOTENCY_KEY_REUSED, req)));
+            }
+            numDeduplicated.increment();
+            return existing.await();
+        }
+
+        numIssued.increment();
+        CheckoutResult result;
+        try {
+            result = issuer.apply(req);
+        } catch (RuntimeException | Error e) {
+            map.remove(key, claim);
+            claim.result.completeExceptionally(e);
+            throw e;
+        }
+        claim.result.complete(result);
+        // Puts the same entry back, only so that it's weighed now that it's done
+        map.replace(key, claim, claim);
+        return result;
+    }
+
+    /**
+     * Forgets every remembered checkout
+     */
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    /**
+     * Applies any pending evictions & expiries now rather than on a later write
+     */
+    void cleanUp() {
+        entries.cleanUp();
+    }
+
+    public IdempotencyCacheStats getStats() {
+        return new IdempotencyCacheStats(numIssued.sum(), numDeduplicated.sum(), numConflicts.sum(),
+                entries.stats().evictionCount(), entries.estimatedSize());
+    }
+
+    /**
+     * The first request made with a key, and what issuing it came to
+     */
+    private static final class Entry {
+        final RentalRequest request;
+        final CompletableFuture<CheckoutResult> result = new CompletableFuture<>();
+
+        Entry(RentalRequest request) {
+            this.request = request;
+        }
+
+        CheckoutResult await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.winters.tool.rental.idempotency;
+
+import lombok.Value;
+
+/**
+ * Point in time counters for an {@link IdempotencyCache}. Counts are cumulative since the cache was created.
+ */
+public @Value class IdempotencyCacheStats {
+    // Requests that were actually issued, one per key
+    long issuedCount;
+    // Retries answered with an earlier request's result, including those that waited for it to be issued
+    long deduplicatedCount;
+    // Keys sent again with a different request, rejected as IDEMPOTENCY_KEY_REUSED
+    long conflictCount;
+    long evictionCount;
+    // Approximate number of checkouts currently remembered
+    long size;
+}
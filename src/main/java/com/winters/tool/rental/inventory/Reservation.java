@@ -0,0 +1,52 @@
+package com.winters.tool.rental.inventory;
+
+import com.winters.tool.rental.data.Tool;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * A physical unit of a tool booked from the checkout day through the due day, both inclusive.
+ */
+public @Value class Reservation {
+    Tool tool;
+    // Zero based index of the unit within the tool's stock
+    int unit;
+    long startEpochDay;
+    long endEpochDay;
+
+    /**
+     * @return the unit as it's labelled on the shelf, i.e. "CHNS-1" for the first chainsaw
+     */
+    public String getUnitId() {
+        return unitId(tool, unit);
+    }
+
+    public LocalDate getStartDate() {
+        return LocalDate.ofEpochDay(startEpochDay);
+    }
+
+    public LocalDate getEndDate() {
+        return LocalDate.ofEpochDay(endEpochDay);
+    }
+
+    static String unitId(Tool tool, int unit) {
+        return tool.getCode() + "-" + (unit + 1);
+    }
+
+    /**
+     * @return the zero based unit a {@link #unitId(Tool, int)} label stands for, or -1 if it isn't a label for the tool
+     */
+    static int unitIndex(Tool tool, String unitId) {
+        String prefix = tool.getCode() + "-";
+        if (unitId == null || !unitId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            int unit = Integer.parseInt(unitId, prefix.length(), unitId.length(), 10) - 1;
+            return unit >= 0 ? unit : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
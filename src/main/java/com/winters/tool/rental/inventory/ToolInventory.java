@@ -0,0 +1,150 @@
+package com.winters.tool.rental.inventory;
+
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The physical units we own of each tool, and which days each of them is booked.
+ * <p>
+ * Stock is looked up by the tool's type & brand, see {@link ToolCatalog#toolOrdinal}, so a reloaded catalog that
+ * recodes or reprices a tool still finds the same units; unit labels keep the codes the inventory was built with. Each
+ * tool's units are guarded by their own lock, so a run on the last chainsaw never holds up anybody renting a ladder.
+ * Checking availability doesn't lock at all - every unit's bookings are published copy-on-write, see
+ * {@link UnitSchedule}. The set of tools & unit counts is fixed once the inventory is built.
+ */
+public final class ToolInventory {
+
+    // Indexed by ToolCatalog.toolOrdinal, null for tools that aren't stocked
+    private final ToolStock[] stockByTool = new ToolStock[ToolCatalog.NUM_TOOL_ORDINALS];
+
+    /**
+     * @param toolCatalog - The catalog the tool codes are looked up in
+     * @param unitCounts  - Number of units held, by tool code. Tools that aren't listed aren't stocked at all.
+     * @throws IllegalArgumentException if a code isn't in the catalog or a count is negative
+     */
+    public ToolInventory(ToolCatalog toolCatalog, Map<String, Integer> unitCounts) {
+        for (Map.Entry<String, Integer> entry : unitCounts.entrySet()) {
+            Tool tool = toolCatalog.findTool(entry.getKey());
+            if (tool == null) {
+                throw new IllegalArgumentException("Can't stock unknown tool code " + entry.getKey());
+            }
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Unit count for " + entry.getKey() + " can't be negative: " + entry.getValue());
+            }
+            int ordinal = ToolCatalog.toolOrdinal(tool.getType(), tool.getBrand());
+            if (stockByTool[ordinal] == null) {
+                stockByTool[ordinal] = new ToolStock(tool, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * @param unitsPerTool - Units held of every tool in the catalog
+     * @param overrides    - Unit counts, by tool code, for tools that don't have the usual number of units
+     */
+    public static ToolInventory of(ToolCatalog toolCatalog, int unitsPerTool, Map<String, Integer> overrides) {
+        Map<String, Integer> unitCounts = new LinkedHashMap<>();
+        for (Tool tool : toolCatalog.getTools()) {
+            unitCounts.put(tool.getCode(), unitsPerTool);
+        }
+        overrides.forEach((code, units) -> {
+            Tool tool = toolCatalog.findTool(code);
+            unitCounts.put(tool != null ? tool.getCode() : code, units);
+        });
+        return new ToolInventory(toolCatalog, unitCounts);
+    }
+
+    /**
+     * Books a unit of the tool for every day from the start day through the end day. Only bookings of the same tool
+     * are serialized against each other.
+     *
+     * @return the reservation, or null if the tool isn't stocked or no single unit is free for the whole window
+     */
+    public Reservation reserve(Tool tool, long startEpochDay, long endEpochDay) {
+        return reserve(tool, startEpochDay, endEpochDay, null);
+    }
+
+    /**
+     * Same as {@link #reserve(Tool, long, long)}, except the units a check says are held are passed over even when
+     * their bookings leave them free, i.e. units still out on an overdue rental
+     *
+     * @param isHeld - Asked about each unit by its label, null to hold none. Asked while the tool's stock is locked,
+     *               so it mustn't lock anything itself
+     */
+    public Reservation reserve(Tool tool, long startEpochDay, long endEpochDay, Predicate<String> isHeld) {
+        if (endEpochDay < startEpochDay) {
+            throw new IllegalArgumentException("Reservation can't end (" + endEpochDay + ") before it starts (" + startEpochDay + ")");
+        }
+        ToolStock toolStock = getStock(tool);
+        return toolStock == null ? null : toolStock.reserve(startEpochDay, endEpochDay, isHeld);
+    }
+
+    /**
+     * Frees the unit for the reservation's window
+     *
+     * @return false if the reservation wasn't held, i.e. it was already released
+     */
+    public boolean release(Reservation reservation) {
+        ToolStock toolStock = getStock(reservation.getTool());
+        return toolStock != null && toolStock.release(reservation);
+    }
+
+    /**
+     * Frees the window booked on a unit by its label, for when the {@link Reservation} itself wasn't held on to, i.e.
+     * a tool being checked in against its agreement
+     *
+     * @param unitId - The unit as labelled by {@link Reservation#getUnitId()}
+     * @return false if the unit isn't one of the tool's or had no such booking
+     */
+    public boolean release(Tool tool, String unitId, long startEpochDay, long endEpochDay) {
+        ToolStock toolStock = getStock(tool);
+        if (toolStock == null) {
+            return false;
+        }
+        // Labelled with the code the tool had when the inventory was built, which the tool may no longer have
+        int unit = Reservation.unitIndex(toolStock.getTool(), unitId);
+        return unit >= 0 && toolStock.release(new Reservation(toolStock.getTool(), unit, startEpochDay, endEpochDay));
+    }
+
+    /**
+     * Never blocks, so the answer may already be out of date by the time it's returned if bookings are being made
+     * for the same tool.
+     *
+     * @return how many units of the tool are free for every day of the window
+     */
+    public int countAvailable(Tool tool, long startEpochDay, long endEpochDay) {
+        return countAvailable(tool, startEpochDay, endEpochDay, null);
+    }
+
+    /**
+     * @param isHeld - Asked about each free unit by its label, the ones it matches aren't counted. Null to hold none.
+     * @see #reserve(Tool, long, long, Predicate)
+     */
+    public int countAvailable(Tool tool, long startEpochDay, long endEpochDay, Predicate<String> isHeld) {
+        ToolStock toolStock = getStock(tool);
+        return toolStock == null ? 0 : toolStock.countAvailable(startEpochDay, endEpochDay, isHeld);
+    }
+
+    /**
+     * @return the number of units held of the tool, 0 if it isn't stocked
+     */
+    public int getNumUnits(Tool tool) {
+        ToolStock toolStock = getStock(tool);
+        return toolStock == null ? 0 : toolStock.getNumUnits();
+    }
+
+    /**
+     * @return a snapshot of every booking held for one unit, as {@code [start, end]} epoch day pairs
+     */
+    long[] getBookings(Tool tool, int unit) {
+        return getStock(tool).getUnit(unit).getBookings();
+    }
+
+    ToolStock getStock(Tool tool) {
+        return stockByTool[ToolCatalog.toolOrdinal(tool.getType(), tool.getBrand())];
+    }
+}
@@ -0,0 +1,68 @@
+package com.winters.tool.rental.inventory;
+
+import com.winters.tool.rental.data.Tool;
+
+import java.util.function.Predicate;
+
+/**
+ * Every unit held of one tool. Booking & releasing lock the stock itself, so they are serialized per tool
+ * and never contend with bookings for any other tool. Availability checks don't lock at all.
+ */
+final class ToolStock {
+
+    private final Tool tool;
+    private final UnitSchedule[] units;
+
+    ToolStock(Tool tool, int numUnits) {
+        this.tool = tool;
+        this.units = new UnitSchedule[numUnits];
+        for (int i = 0; i < numUnits; i++) {
+            units[i] = new UnitSchedule();
+        }
+    }
+
+    /**
+     * Books the lowest numbered unit that is free for the whole window
+     *
+     * @param isHeld - Passes over the units it matches by label, whatever their bookings say. Null for none.
+     * @return the reservation, or null if every unit is booked at some point in the window or held
+     */
+    synchronized Reservation reserve(long startEpochDay, long endEpochDay, Predicate<String> isHeld) {
+        for (int unit = 0; unit < units.length; unit++) {
+            if ((isHeld == null || !isHeld.test(Reservation.unitId(tool, unit))) && units[unit].book(startEpochDay, endEpochDay)) {
+                return new Reservation(tool, unit, startEpochDay, endEpochDay);
+            }
+        }
+        return null;
+    }
+
+    synchronized boolean release(Reservation reservation) {
+        return reservation.getUnit() < units.length
+                && units[reservation.getUnit()].release(reservation.getStartEpochDay(), reservation.getEndEpochDay());
+    }
+
+    /**
+     * @return how many units are free for the whole window, as of the last published bookings
+     */
+    int countAvailable(long startEpochDay, long endEpochDay, Predicate<String> isHeld) {
+        int available = 0;
+        for (int unit = 0; unit < units.length; unit++) {
+            if (units[unit].isFree(startEpochDay, endEpochDay) && (isHeld == null || !isHeld.test(Reservation.unitId(tool, unit)))) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    Tool getTool() {
+        return tool;
+    }
+
+    int getNumUnits() {
+        return units.length;
+    }
+
+    UnitSchedule getUnit(int unit) {
+        return units[unit];
+    }
+}
@@ -0,0 +1,103 @@
+package com.winters.tool.rental.inventory;
+
+import java.util.Arrays;
+
+/**
+ * The windows a single physical unit is booked for, as a sorted array of {@code [start, end]} epoch day pairs (both
+ * days inclusive). Bookings on one unit never overlap, so sorting by start sorts the ends as well, and checking a
+ * window against the whole schedule is one binary search.
+ * <p>
+ * The array is copy-on-write: changes build a new array and publish it through a volatile field, so any number of
+ * threads can check availability without locking while one thread at a time (the owning {@link ToolStock}'s lock
+ * holder) books or releases windows.
+ */
+final class UnitSchedule {
+
+    private static final long[] NO_BOOKINGS = new long[0];
+
+    // start0, end0, start1, end1, ... sorted by start, never modified once published
+    private volatile long[] bookings = NO_BOOKINGS;
+
+    /**
+     * Never blocks, answers from whichever version of the schedule was last published
+     */
+    boolean isFree(long startEpochDay, long endEpochDay) {
+        return isFree(bookings, startEpochDay, endEpochDay);
+    }
+
+    /**
+     * Books the window if it is free. Callers must hold the owning stock's lock.
+     *
+     * @return false if the window overlaps an existing booking
+     */
+    boolean book(long startEpochDay, long endEpochDay) {
+        long[] current = bookings;
+        int index = firstEndingOnOrAfter(current, startEpochDay);
+        if (index < numBookings(current) && current[index * 2] <= endEpochDay) {
+            return false;
+        }
+        long[] updated = new long[current.length + 2];
+        System.arraycopy(current, 0, updated, 0, index * 2);
+        updated[index * 2] = startEpochDay;
+        updated[index * 2 + 1] = endEpochDay;
+        System.arraycopy(current, index * 2, updated, index * 2 + 2, current.length - index * 2);
+        bookings = updated;
+        return true;
+    }
+
+    /**
+     * Releases a window booked with exactly these days. Callers must hold the owning stock's lock.
+     *
+     * @return false if there was no such booking
+     */
+    boolean release(long startEpochDay, long endEpochDay) {
+        long[] current = bookings;
+        int index = firstEndingOnOrAfter(current, startEpochDay);
+        if (index == numBookings(current) || current[index * 2] != startEpochDay || current[index * 2 + 1] != endEpochDay) {
+            return false;
+        }
+        long[] updated = current.length == 2 ? NO_BOOKINGS : new long[current.length - 2];
+        System.arraycopy(current, 0, updated, 0, index * 2);
+        System.arraycopy(current, index * 2 + 2, updated, index * 2, current.length - index * 2 - 2);
+        bookings = updated;
+        return true;
+    }
+
+    int numBookings() {
+        return numBookings(bookings);
+    }
+
+    /**
+     * @return a copy of the schedule as {@code [start, end]} pairs, oldest first
+     */
+    long[] getBookings() {
+        return Arrays.copyOf(bookings, bookings.length);
+    }
+
+    private static boolean isFree(long[] bookings, long startEpochDay, long endEpochDay) {
+        int index = firstEndingOnOrAfter(bookings, startEpochDay);
+        // The first booking still running on the start day is the only one that can overlap, as long as it starts by the end
+        return index == numBookings(bookings) || bookings[index * 2] > endEpochDay;
+    }
+
+    private static int numBookings(long[] bookings) {
+        return bookings.length / 2;
+    }
+
+    /**
+     * @return the index of the first booking that ends on or after the day, or the number of bookings if there isn't one
+     */
+    private static int firstEndingOnOrAfter(long[] bookings, long epochDay) {
+        int low = 0;
+        int high = numBookings(bookings);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bookings[mid * 2 + 1] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
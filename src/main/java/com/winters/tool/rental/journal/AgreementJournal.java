@@ -0,0 +1,299 @@
+package com.winters.tool.rental.journal;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ToolCatalogSource;
+import com.winters.tool.rental.receipt.AgreementSink;
+import lombok.Builder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable, append-only record of every agreement issued, kept in a directory of segment files on local disk.
+ * <p>
+ * {@link #append(RentalAgreement)} only returns once the agreement has been forced to disk, but checkout threads
+ * never force anything themselves. Each one encodes its agreement and queues it for a single writer thread, which
+ * takes everything queued while the previous force was in progress, writes it in as few writes as the buffer
+ * allows and forces the file once for the lot (group commit). The busier checkout gets, the more agreements share
+ * each force, so throughput scales with the number of concurrent checkouts rather than with how many forces the disk can do.
+ * <p>
+ * When a segment reaches the segment size a new one is started. Opening a journal checks the records at the end of
+ * the last segment and cuts off anything left half written by a crash, so sequence numbers carry on from the last
+ * durable agreement. {@link #openReader(long)} replays what has been written.
+ */
+public final class AgreementJournal implements AgreementSink, AutoCloseable {
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final ToolCatalogSource toolCatalog;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasPending = lock.newCondition();
+    private final Condition becameDurable = lock.newCondition();
+    // Guarded by lock
+    private List<byte[]> pending = new ArrayList<>();
+    private long lastSequence;
+    private long durableSequence;
+    private long numSyncs;
+    private IOException failure;
+    private boolean closed;
+
+    // Only touched by the writer thread once it has started
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private FileChannel segment;
+    private long segmentBytes;
+    private final Thread writer;
+
+    /**
+     * Opens the journal in {@code directory}, creating it if needed and recovering from wherever the last run
+     * stopped.
+     *
+     * @param directory   - Where the segment files live
+     * @param segmentSize - Size in bytes a segment can grow to before a new one is started. Defaults to 64MB
+     * @param toolCatalog - Supplies the tools of agreements read back, from the catalog as it is when a reader is
+     *                    opened. Defaults to {@link ToolCatalog#DEFAULT}
+     */
+    @Builder
+    public AgreementJournal(Path directory, long segmentSize, ToolCatalogSource toolCatalog) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize > 0 ? segmentSize : DEFAULT_SEGMENT_SIZE;
+        this.toolCatalog = toolCatalog != null ? toolCatalog : ToolCatalog.DEFAULT;
+        Files.createDirectories(directory);
+        recover();
+        this.writer = new Thread(this::writeLoop, "agreement-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Journals the agreement, waiting until it is durable
+     *
+     * @throws UncheckedIOException if the journal can't be written
+     * @see #append(RentalAgreement)
+     */
+    @Override
+    public void accept(RentalAgreement agreement) {
+        append(agreement);
+    }
+
+    /**
+     * Queues the agreement for the writer and waits until it has been forced to disk
+     *
+     * @return the agreement's sequence number in the journal
+     * @throws UncheckedIOException  if the journal couldn't be written, in which case the agreement may not be durable
+     * @throws IllegalStateException if the journal has been closed
+     */
+    public long append(RentalAgreement agreement) {
+        // Encoding happens on the checkout thread so the writer only has to stamp & copy records
+        byte[] record = JournalRecords.encode(agreement);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Agreement journal is closed");
+            }
+            long sequence = ++lastSequence;
+            pending.add(record);
+            hasPending.signal();
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Agreement journal write failed", failure);
+                }
+                becameDurable.awaitUninterruptibly();
+            }
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param fromSequence - The first sequence number to return, 1 to replay everything
+     * @see JournalReader
+     */
+    public JournalReader openReader(long fromSequence) throws IOException {
+        return JournalReader.open(directory, toolCatalog, fromSequence);
+    }
+
+    /**
+     * @return the sequence number of the last agreement forced to disk, 0 if there haven't been any
+     */
+    public long getDurableSequence() {
+        lock.lock();
+        try {
+            return durableSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return how many times the writer has forced a batch of agreements to disk since the journal was opened
+     */
+    public long getNumSyncs() {
+        lock.lock();
+        try {
+            return numSyncs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting agreements, writes & forces everything already queued and closes the current segment
+     */
+    @Override
+    public void close() throws IOException, InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            hasPending.signal();
+        } finally {
+            lock.unlock();
+        }
+        writer.join();
+        segment.close();
+    }
+
+    /**
+     * Finds where the journal left off: the last segment is checked record by record, truncated after its last intact
+     * record and reopened for appending. Earlier segments were forced in full before the next one was started, so
+     * they are left alone.
+     */
+    private void recover() throws IOException {
+        List<Path> segments = JournalSegments.list(directory);
+        if (segments.isEmpty()) {
+            startSegment(1);
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        long validEnd;
+        try (SegmentReader reader = new SegmentReader(last)) {
+            while (reader.skip()) {
+                // Just checking every record
+            }
+            validEnd = reader.getValidEnd();
+            lastSequence = reader.getNextSequence() - 1;
+        }
+        durableSequence = lastSequence;
+        segment = FileChannel.open(last, StandardOpenOption.WRITE);
+        if (validEnd < JournalSegments.HEADER_SIZE) {
+            // Crashed while the segment was being created
+            segment.truncate(0);
+            JournalSegments.writeHeader(segment, JournalSegments.firstSequence(last));
+            validEnd = JournalSegments.HEADER_SIZE;
+        } else if (segment.size() > validEnd) {
+            segment.truncate(validEnd);
+        }
+        segment.position(validEnd);
+        segment.force(true);
+        segmentBytes = validEnd;
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>();
+        while (true) {
+            long firstSequence;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    hasPending.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                // Swap lists so checkout threads can keep queueing while this batch is written
+                List<byte[]> queued = pending;
+                pending = batch;
+                batch = queued;
+                firstSequence = durableSequence + 1;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException writeFailure = null;
+            try {
+                write(batch, firstSequence);
+            } catch (IOException e) {
+                writeFailure = e;
+            }
+
+            lock.lock();
+            try {
+                if (writeFailure != null) {
+                    // Nothing after this point can be trusted to be durable, so fail every waiting & future append
+                    failure = writeFailure;
+                    closed = true;
+                } else {
+                    durableSequence = firstSequence + batch.size() - 1;
+                    numSyncs++;
+                }
+                becameDurable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (writeFailure != null) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Stamps the batch with its sequence numbers, writes it and forces it, starting a new segment part way through if
+     * the current one fills up
+     */
+    private void write(List<byte[]> batch, long firstSequence) throws IOException {
+        long sequence = firstSequence;
+        for (byte[] record : batch) {
+            long bytesInSegment = segmentBytes + writeBuffer.position();
+            if (bytesInSegment + record.length > segmentSize && bytesInSegment > JournalSegments.HEADER_SIZE) {
+                flush();
+                segment.force(false);
+                segment.close();
+                startSegment(sequence);
+            }
+            JournalRecords.seal(record, sequence++, crc);
+            if (writeBuffer.remaining() < record.length) {
+                flush();
+            }
+            writeBuffer.put(record);
+        }
+        flush();
+        // Appends change the file size as well as its contents, but force(false) (fdatasync) still persists whatever
+        // metadata is needed to read the data back, which includes the size
+        segment.force(false);
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            segmentBytes += segment.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void startSegment(long firstSequence) throws IOException {
+        Path path = JournalSegments.path(directory, firstSequence);
+        segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        JournalSegments.writeHeader(segment, firstSequence);
+        segment.force(true);
+        JournalSegments.syncDirectory(directory);
+        segmentBytes = JournalSegments.HEADER_SIZE;
+    }
+}
@@ -0,0 +1,92 @@
+package com.winters.tool.rental.journal;
+
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ToolCatalogSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Replays a journal from a given sequence number onwards, one segment at a time. Only the segments that existed when
+ * the reader was opened are read, and the last of them is read up to its last intact record, so a reader opened
+ * on a live journal sees (at least) every agreement that was durable at the time.
+ * <p>
+ * Not thread safe, a reader belongs to whichever thread is replaying the journal.
+ */
+public final class JournalReader implements Closeable {
+
+    private final List<Path> segments;
+    private final ToolCatalog toolCatalog;
+    private final long fromSequence;
+    private int segmentIndex;
+    private SegmentReader segment;
+
+    /**
+     * @param directory    - The journal's directory
+     * @param toolCatalog  - Supplies the tools of journaled agreements, from the catalog as it is now
+     * @param fromSequence - The first sequence number to return, 1 to replay everything
+     */
+    public static JournalReader open(Path directory, ToolCatalogSource toolCatalog, long fromSequence) throws IOException {
+        List<Path> segments = JournalSegments.list(directory);
+        // Start from the last segment that begins at or before the requested sequence
+        int first = 0;
+        for (int i = 1; i < segments.size() && JournalSegments.firstSequence(segments.get(i)) <= fromSequence; i++) {
+            first = i;
+        }
+        return new JournalReader(segments.subList(first, segments.size()), toolCatalog.getCatalog(), fromSequence);
+    }
+
+    private JournalReader(List<Path> segments, ToolCatalog toolCatalog, long fromSequence) {
+        this.segments = segments;
+        this.toolCatalog = toolCatalog;
+        this.fromSequence = fromSequence;
+    }
+
+    /**
+     * @return the next agreement in the journal, or null once every segment has been read
+     * @throws IOException if a segment other than the last is damaged, or doesn't carry on from where the one before
+     *                     it left off. Damage at the end of the last segment is a write in progress (or one that a
+     *                     crash interrupted) and just ends the replay.
+     */
+    public JournalRecord next() throws IOException {
+        while (true) {
+            if (segment == null) {
+                if (segmentIndex == segments.size()) {
+                    return null;
+                }
+                segment = new SegmentReader(segments.get(segmentIndex++));
+            }
+            JournalRecord record = segment.next(toolCatalog);
+            if (record == null) {
+                finishSegment();
+                continue;
+            }
+            if (record.getSequence() >= fromSequence) {
+                return record;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segment != null) {
+            segment.close();
+            segment = null;
+        }
+    }
+
+    private void finishSegment() throws IOException {
+        SegmentReader finished = segment;
+        segment = null;
+        finished.close();
+        if (segmentIndex < segments.size()) {
+            long nextFirstSequence = JournalSegments.firstSequence(segments.get(segmentIndex));
+            if (!finished.isCleanEnd() || nextFirstSequence != finished.getNextSequence()) {
+                throw new IOException("Journal segment " + segments.get(segmentIndex - 1) + " is damaged after sequence "
+                        + (finished.getNextSequence() - 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.winters.tool.rental.journal;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import lombok.Value;
+
+/**
+ * An agreement read back from an {@link AgreementJournal}, along with the sequence number it was written under.
+ * Sequence numbers start at 1 and never skip, so they double as a count of every agreement ever journaled.
+ */
+public @Value class JournalRecord {
+    long sequence;
+    RentalAgreement agreement;
+}
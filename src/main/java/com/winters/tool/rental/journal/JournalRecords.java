@@ -0,0 +1,148 @@
+package com.winters.tool.rental.journal;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.pricing.CentsPricing;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.zip.Checksum;
+
+/**
+ * The binary layout of a journaled agreement. Every record is a fixed 16 byte header followed by its payload:
+ * <pre>
+ *     int  payloadLength
+ *     int  crc            CRC32C of the sequence & payload
+ *     long sequence
+ *     --- payload (55 bytes) ---
+ *     byte tool type     Tool.Type ordinal
+ *     byte brand         Tool.Brand ordinal
+ *     int  numDaysRented
+ *     int  checkout epoch day
+ *     int  due epoch day
+ *     long dailyRentalCharge in cents
+ *     int  chargeDays
+ *     int  discountDays
+ *     long preDiscountCharge in cents
+ *     byte discountPercent
+ *     long discountAmount in cents
+ *     long finalCharge in cents
+ * </pre>
+ * All numbers are big-endian. The length is stored even though every payload is the same size today, so a reader can
+ * step over a record it doesn't understand if the payload ever grows.
+ * <p>
+ * The tool is recorded as what it is rather than by its code, since a reloaded catalog can give it a different code
+ * (or give the code to a different tool) after the agreement was journaled. New types & brands must therefore only
+ * ever be added after the existing ones.
+ */
+final class JournalRecords {
+
+    static final int HEADER_SIZE = 16;
+    static final int PAYLOAD_SIZE = 55;
+    // Anything claiming to be bigger than this is a torn or garbage header rather than a real record
+    static final int MAX_PAYLOAD_SIZE = 1 << 16;
+
+    private static final int CRC_OFFSET = 4;
+    private static final int SEQUENCE_OFFSET = 8;
+
+    private JournalRecords() {
+    }
+
+    /**
+     * Encodes everything but the sequence & CRC, which are only known once the writer has put the record in order
+     *
+     * @see #seal(byte[], long, Checksum)
+     */
+    static byte[] encode(RentalAgreement agreement) {
+        byte[] record = new byte[HEADER_SIZE + PAYLOAD_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.putInt(PAYLOAD_SIZE);
+        buffer.position(HEADER_SIZE);
+        buffer.put((byte) agreement.getTool().getType().ordinal());
+        buffer.put((byte) agreement.getTool().getBrand().ordinal());
+        buffer.putInt(agreement.getNumDaysRented());
+        buffer.putInt(Math.toIntExact(agreement.getCheckOutLocalDate().toEpochDay()));
+        buffer.putInt(Math.toIntExact(agreement.getDueLocalDate().toEpochDay()));
+        buffer.putLong(cents(agreement.getDailyRentalCharge()));
+        buffer.putInt(agreement.getChargeDays());
+        buffer.putInt(agreement.getDiscountDays());
+        buffer.putLong(cents(agreement.getPreDiscountCharge()));
+        buffer.put((byte) agreement.getDiscountPercent());
+        buffer.putLong(cents(agreement.getDiscountAmount()));
+        buffer.putLong(cents(agreement.getFinalCharge()));
+        return record;
+    }
+
+    /**
+     * Stamps an encoded record with its sequence number and the checksum covering it
+     */
+    static void seal(byte[] record, long sequence, Checksum crc) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.putLong(SEQUENCE_OFFSET, sequence);
+        crc.reset();
+        crc.update(record, SEQUENCE_OFFSET, record.length - SEQUENCE_OFFSET);
+        buffer.putInt(CRC_OFFSET, (int) crc.getValue());
+    }
+
+    /**
+     * @param record - A buffer holding a whole record (header & payload) starting at {@code offset}
+     * @return whether the stored checksum matches the record's contents
+     */
+    static boolean isIntact(byte[] record, int offset, int payloadLength, Checksum crc) {
+        crc.reset();
+        crc.update(record, offset + SEQUENCE_OFFSET, HEADER_SIZE - SEQUENCE_OFFSET + payloadLength);
+        return (int) crc.getValue() == ByteBuffer.wrap(record).getInt(offset + CRC_OFFSET);
+    }
+
+    static int payloadLength(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset);
+    }
+
+    static long sequence(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + SEQUENCE_OFFSET);
+    }
+
+    /**
+     * @param buffer      - Positioned at the start of the payload, left positioned after it
+     * @param toolCatalog - The catalog the agreement's tool is taken from, with its code & pricing as of now. The
+     *                    agreement's charges are always the ones it was issued with.
+     * @throws IOException if the record's tool isn't one we know of, or the catalog doesn't carry it
+     */
+    static RentalAgreement decode(ByteBuffer buffer, ToolCatalog toolCatalog) throws IOException {
+        int typeOrdinal = buffer.get();
+        int brandOrdinal = buffer.get();
+        Tool.Type[] types = Tool.Type.values();
+        Tool.Brand[] brands = Tool.Brand.values();
+        if (typeOrdinal < 0 || typeOrdinal >= types.length || brandOrdinal < 0 || brandOrdinal >= brands.length) {
+            throw new IOException("Journaled agreement has unknown tool type " + typeOrdinal + " / brand " + brandOrdinal);
+        }
+        Tool tool = toolCatalog.findTool(types[typeOrdinal], brands[brandOrdinal]);
+        if (tool == null) {
+            throw new IOException("Journaled agreement's tool " + types[typeOrdinal] + " " + brands[brandOrdinal]
+                    + " isn't in the catalog");
+        }
+        return RentalAgreement.builder()
+                .tool(tool)
+                .numDaysRented(buffer.getInt())
+                .checkOutLocalDate(LocalDate.ofEpochDay(buffer.getInt()))
+                .dueLocalDate(LocalDate.ofEpochDay(buffer.getInt()))
+                .dailyRentalCharge(CentsPricing.toBigDecimal(buffer.getLong()))
+                .chargeDays(buffer.getInt())
+                .discountDays(buffer.getInt())
+                .preDiscountCharge(CentsPricing.toBigDecimal(buffer.getLong()))
+                .discountPercent(buffer.get())
+                .discountAmount(CentsPricing.toBigDecimal(buffer.getLong()))
+                .finalCharge(CentsPricing.toBigDecimal(buffer.getLong()))
+                .build();
+    }
+
+    /**
+     * @throws ArithmeticException for an amount in fractions of a cent, which checkout never produces
+     */
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+}
@@ -0,0 +1,81 @@
+package com.winters.tool.rental.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Naming & header handling for journal segment files. A segment is named after the sequence number of its first
+ * record, zero padded so the names sort in journal order, i.e. {@code agreements-00000000000000000001.journal}, and
+ * starts with a 16 byte header of {@code int magic, int version, long firstSequence}.
+ */
+final class JournalSegments {
+
+    static final int HEADER_SIZE = 16;
+
+    private static final int MAGIC = 0x52414A4E; // "RAJN"
+    private static final int VERSION = 1;
+    private static final String PREFIX = "agreements-";
+    private static final String SUFFIX = ".journal";
+
+    private JournalSegments() {
+    }
+
+    static Path path(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+    }
+
+    static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * @return every segment in the directory, oldest first
+     */
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            files.forEach(segments::add);
+        }
+        segments.sort(Comparator.comparingLong(JournalSegments::firstSequence));
+        return segments;
+    }
+
+    static void writeHeader(FileChannel channel, long firstSequence) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(firstSequence).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.position(HEADER_SIZE);
+    }
+
+    /**
+     * @param header - The first {@link #HEADER_SIZE} bytes of a segment
+     */
+    static boolean isValidHeader(ByteBuffer header, long firstSequence) {
+        return header.getInt(0) == MAGIC && header.getInt(4) == VERSION && header.getLong(8) == firstSequence;
+    }
+
+    /**
+     * Makes a newly created segment's directory entry durable. Not every platform lets a directory be opened & forced,
+     * where it can't be the file system is trusted to get it right on its own.
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Best effort, see above
+        }
+    }
+}
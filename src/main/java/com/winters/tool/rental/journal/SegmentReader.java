@@ -0,0 +1,145 @@
+package com.winters.tool.rental.journal;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.ToolCatalog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads the records of a single segment in order, checking each one's length, checksum & sequence number. Reading
+ * stops at the first record that fails any of those checks - after a crash that is the torn tail of the last write,
+ * and {@link #getValidEnd()} is where the segment should be truncated to.
+ */
+final class SegmentReader implements Closeable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final long firstSequence;
+    private final CRC32C crc = new CRC32C();
+    // Kept in read mode, records are checked & decoded straight out of the backing array
+    private final ByteBuffer buffer = ByteBuffer.allocate(Math.max(READ_BUFFER_SIZE, JournalRecords.HEADER_SIZE + JournalRecords.MAX_PAYLOAD_SIZE));
+    private final boolean validHeader;
+    private boolean endOfFile;
+    private boolean cleanEnd;
+    private long validEnd;
+    private long nextSequence;
+
+    SegmentReader(Path segment) throws IOException {
+        this.channel = FileChannel.open(segment, StandardOpenOption.READ);
+        this.firstSequence = JournalSegments.firstSequence(segment);
+        this.nextSequence = firstSequence;
+        this.buffer.flip();
+        this.validHeader = ensure(JournalSegments.HEADER_SIZE) && JournalSegments.isValidHeader(buffer.slice(), firstSequence);
+        if (validHeader) {
+            buffer.position(buffer.position() + JournalSegments.HEADER_SIZE);
+            validEnd = JournalSegments.HEADER_SIZE;
+        }
+    }
+
+    /**
+     * Steps over the next record after checking it, without decoding it
+     *
+     * @return false once there are no more intact records
+     */
+    boolean skip() throws IOException {
+        int recordSize = checkNext();
+        if (recordSize < 0) {
+            return false;
+        }
+        advance(recordSize);
+        return true;
+    }
+
+    /**
+     * @return the next intact record, or null once there are none left
+     * @throws IOException if the record can't be read, or names a tool that isn't in the catalog
+     */
+    JournalRecord next(ToolCatalog toolCatalog) throws IOException {
+        int recordSize = checkNext();
+        if (recordSize < 0) {
+            return null;
+        }
+        ByteBuffer payload = buffer.duplicate().position(buffer.position() + JournalRecords.HEADER_SIZE);
+        RentalAgreement agreement = JournalRecords.decode(payload, toolCatalog);
+        long sequence = nextSequence;
+        advance(recordSize);
+        return new JournalRecord(sequence, agreement);
+    }
+
+    long getFirstSequence() {
+        return firstSequence;
+    }
+
+    /**
+     * @return the sequence number the next record is expected to have
+     */
+    long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * @return the file offset just past the last intact record, or 0 if the segment header itself is unusable
+     */
+    long getValidEnd() {
+        return validEnd;
+    }
+
+    /**
+     * @return whether reading stopped at the end of the file, rather than at a damaged or partially written record
+     */
+    boolean isCleanEnd() {
+        return cleanEnd;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Buffers the whole of the next record and checks it, leaving the buffer positioned at its start
+     *
+     * @return the size of the record including its header, or -1 if there isn't an intact one
+     */
+    private int checkNext() throws IOException {
+        if (!validHeader || !ensure(JournalRecords.HEADER_SIZE)) {
+            cleanEnd = validHeader && !buffer.hasRemaining();
+            return -1;
+        }
+        int payloadLength = JournalRecords.payloadLength(buffer, buffer.position());
+        if (payloadLength < 0 || payloadLength > JournalRecords.MAX_PAYLOAD_SIZE
+                || !ensure(JournalRecords.HEADER_SIZE + payloadLength)
+                || JournalRecords.sequence(buffer, buffer.position()) != nextSequence
+                || !JournalRecords.isIntact(buffer.array(), buffer.position(), payloadLength, crc)) {
+            return -1;
+        }
+        return JournalRecords.HEADER_SIZE + payloadLength;
+    }
+
+    private void advance(int recordSize) {
+        buffer.position(buffer.position() + recordSize);
+        validEnd += recordSize;
+        nextSequence++;
+    }
+
+    /**
+     * Reads until at least {@code size} bytes are buffered, moving any unread bytes to the front of the buffer first
+     *
+     * @return false if the file ends before that many bytes are available
+     */
+    private boolean ensure(int size) throws IOException {
+        while (buffer.remaining() < size && !endOfFile) {
+            buffer.compact();
+            endOfFile = channel.read(buffer) < 0;
+            buffer.flip();
+        }
+        return buffer.remaining() >= size;
+    }
+}
@@ -0,0 +1,20 @@
+package com.winters.tool.rental.metrics;
+
+/**
+ * The steps of a checkout that are timed separately, in the order they run.
+ */
+public enum CheckoutStage {
+    // Finding the catalog tool for the request's tool code
+    TOOL_LOOKUP,
+    // Checking the request against every ValidationRule
+    VALIDATION,
+    // Getting the charge days & charges, either from the quote cache or by computing them. Includes DISCOUNT_DAYS &
+    // CHARGES whenever the quote had to be computed
+    QUOTE,
+    // Counting the weekdays, weekend days & holidays that aren't charged for
+    DISCOUNT_DAYS,
+    // Pricing the charge days in cents
+    CHARGES,
+    // Converting to BigDecimal & building the RentalAgreement
+    AGREEMENT
+}
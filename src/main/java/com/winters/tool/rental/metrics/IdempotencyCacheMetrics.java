@@ -0,0 +1,40 @@
+package com.winters.tool.rental.metrics;
+
+import com.winters.tool.rental.idempotency.IdempotencyCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes an {@link IdempotencyCache}'s counters as {@code rental.idempotency.issued}, {@code .deduplicated},
+ * {@code .conflicts}, {@code .evictions} and {@code .size}. The counters are read from the cache when the registry is scraped, never on
+ * the checkout path.
+ */
+public class IdempotencyCacheMetrics implements MeterBinder {
+
+    private final IdempotencyCache idempotencyCache;
+
+    public IdempotencyCacheMetrics(IdempotencyCache idempotencyCache) {
+        this.idempotencyCache = idempotencyCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rental.idempotency.issued", idempotencyCache, cache -> cache.getStats().getIssuedCount())
+                .description("Checkouts with an idempotency key that were issued")
+                .register(registry);
+        FunctionCounter.builder("rental.idempotency.deduplicated", idempotencyCache, cache -> cache.getStats().getDeduplicatedCount())
+                .description("Retried checkouts answered with the result already issued for their key")
+                .register(registry);
+        FunctionCounter.builder("rental.idempotency.conflicts", idempotencyCache, cache -> cache.getStats().getConflictCount())
+                .description("Checkouts rejected for reusing a key already issued for a different request")
+                .register(registry);
+        FunctionCounter.builder("rental.idempotency.evictions", idempotencyCache, cache -> cache.getStats().getEvictionCount())
+                .description("Issued checkouts forgotten to stay within the maximum size")
+                .register(registry);
+        Gauge.builder("rental.idempotency.size", idempotencyCache, cache -> cache.getStats().getSize())
+                .description("Approximate number of issued checkouts remembered")
+                .register(registry);
+    }
+}
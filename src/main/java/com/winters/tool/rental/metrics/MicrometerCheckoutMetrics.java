@@ -0,0 +1,120 @@
+package com.winters.tool.rental.metrics;
+
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ValidationError;
+import com.winters.tool.rental.data.ValidationRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CheckoutMetrics} recorded to a Micrometer registry:
+ * <ul>
+ *     <li>{@code rental.checkout.stage} - timer per {@link CheckoutStage}, tagged {@code stage}</li>
+ *     <li>{@code rental.checkout.validation.failures} - counter per violated {@link ValidationRule}, tagged {@code rule}</li>
+ *     <li>{@code rental.checkouts} - counter of issued agreements per {@link Tool.Type}, tagged {@code type}</li>
+ *     <li>{@code rental.checkout.rental.days} - distribution of rental lengths</li>
+ * </ul>
+ * Every meter is registered up front, so recording never has to look anything up in the registry. Timers and the
+ * rental length publish histogram buckets, so percentiles can be aggregated across instances.
+ * <p>
+ * Reading the clock is most of what the stage timers cost, so they can be limited to a random sample of checkouts
+ * with {@code stageSamplingInterval}. Counters and the rental length distribution always see every checkout.
+ */
+public class MicrometerCheckoutMetrics implements CheckoutMetrics {
+
+    // Start time handed out for a checkout whose stages aren't being timed, carried through every stage of it
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private final Map<CheckoutStage, Timer> stageTimers = new EnumMap<>(CheckoutStage.class);
+    private final Map<ValidationRule, Counter> validationFailures = new EnumMap<>(ValidationRule.class);
+    private final Map<Tool.Type, Counter> checkouts = new EnumMap<>(Tool.Type.class);
+    private final DistributionSummary rentalDays;
+    private final int stageSamplingInterval;
+
+    /**
+     * Times every stage of every checkout
+     */
+    public MicrometerCheckoutMetrics(MeterRegistry registry) {
+        this(registry, 1);
+    }
+
+    /**
+     * @param registry              - Where the meters are registered
+     * @param stageSamplingInterval - Stage timers record roughly one in this many checkouts, 1 times every checkout
+     */
+    public MicrometerCheckoutMetrics(MeterRegistry registry, int stageSamplingInterval) {
+        if (stageSamplingInterval < 1) {
+            throw new IllegalArgumentException("Stage sampling interval must be at least 1. Was " + stageSamplingInterval);
+        }
+        this.stageSamplingInterval = stageSamplingInterval;
+        for (CheckoutStage stage : CheckoutStage.values()) {
+            stageTimers.put(stage, Timer.builder("rental.checkout.stage")
+                    .description("Time spent in each stage of a checkout")
+                    .tag("stage", stage.name())
+                    .publishPercentileHistogram()
+                    // Stages run in the sub-microsecond range, well below the default histogram floor of a millisecond
+                    .minimumExpectedValue(Duration.ofNanos(100))
+                    .maximumExpectedValue(Duration.ofMillis(100))
+                    .register(registry));
+        }
+        for (ValidationRule rule : ValidationRule.values()) {
+            validationFailures.put(rule, Counter.builder("rental.checkout.validation.failures")
+                    .description("Rental requests rejected for violating a validation rule")
+                    .tag("rule", rule.name())
+                    .register(registry));
+        }
+        for (Tool.Type type : Tool.Type.values()) {
+            checkouts.put(type, Counter.builder("rental.checkouts")
+                    .description("Rental agreements issued")
+                    .tag("type", type.name())
+                    .register(registry));
+        }
+        rentalDays = DistributionSummary.builder("rental.checkout.rental.days")
+                .description("Length of issued rentals")
+                .baseUnit("days")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(3650.0)
+                .register(registry);
+    }
+
+    @Override
+    public long startNanos() {
+        if (stageSamplingInterval > 1 && ThreadLocalRandom.current().nextInt(stageSamplingInterval) != 0) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    @Override
+    public long stageCompleted(CheckoutStage stage, long startNanos) {
+        if (startNanos == NOT_SAMPLED) {
+            return NOT_SAMPLED;
+        }
+        long now = System.nanoTime();
+        stageTimers.get(stage).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    @Override
+    public void validationFailed(List<ValidationError> validationErrors) {
+        for (ValidationError error : validationErrors) {
+            validationFailures.get(error.getRule()).increment();
+        }
+    }
+
+    @Override
+    public void checkedOut(Tool.Type toolType, int numDaysRented) {
+        checkouts.get(toolType).increment();
+        rentalDays.record(numDaysRented);
+    }
+}
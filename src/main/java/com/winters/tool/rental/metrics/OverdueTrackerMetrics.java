@@ -0,0 +1,29 @@
+package com.winters.tool.rental.metrics;
+
+import com.winters.tool.rental.overdue.OverdueTracker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes an {@link OverdueTracker}'s counts as {@code rental.open} and {@code rental.overdue}. The overdue count is
+ * as of the tracker's last sweep, scraping never sweeps.
+ */
+public class OverdueTrackerMetrics implements MeterBinder {
+
+    private final OverdueTracker overdueTracker;
+
+    public OverdueTrackerMetrics(OverdueTracker overdueTracker) {
+        this.overdueTracker = overdueTracker;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("rental.open", overdueTracker, tracker -> tracker.getStats().getNumOpen())
+                .description("Issued agreements not yet checked in")
+                .register(registry);
+        Gauge.builder("rental.overdue", overdueTracker, tracker -> tracker.getStats().getNumOverdue())
+                .description("Open agreements past their due date, as of the last sweep")
+                .register(registry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.winters.tool.rental.metrics;
+
+import com.winters.tool.rental.pricing.QuoteCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes a {@link QuoteCache}'s counters as {@code rental.quote-cache.hits}, {@code .misses}, {@code .evictions}
+ * and {@code .size}. The counters are read from the cache when the registry is scraped, never on the checkout path.
+ */
+public class QuoteCacheMetrics implements MeterBinder {
+
+    private final QuoteCache quoteCache;
+
+    public QuoteCacheMetrics(QuoteCache quoteCache) {
+        this.quoteCache = quoteCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("rental.quote-cache.hits", quoteCache, cache -> cache.getStats().getHitCount())
+                .description("Quotes answered from the cache")
+                .register(registry);
+        FunctionCounter.builder("rental.quote-cache.misses", quoteCache, cache -> cache.getStats().getMissCount())
+                .description("Quotes that had to be computed")
+                .register(registry);
+        FunctionCounter.builder("rental.quote-cache.evictions", quoteCache, cache -> cache.getStats().getEvictionCount())
+                .description("Quotes evicted to stay within the maximum size")
+                .register(registry);
+        Gauge.builder("rental.quote-cache.size", quoteCache, cache -> cache.getStats().getSize())
+                .description("Approximate number of cached quotes")
+                .register(registry);
+    }
+}
@@ -0,0 +1,53 @@
+package com.winters.tool.rental.overdue;
+
+import com.winters.tool.rental.util.RentalUtil;
+import lombok.Builder;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sweeps an {@link OverdueTracker} up to today, in the rental time zone, on a fixed interval. Without it the tracker
+ * only learns what is overdue when somebody asks for the overdue list, and until then a unit that never came back is
+ * still offered to the next renter.
+ */
+public final class OverdueSweeper implements AutoCloseable {
+
+    public static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(10);
+
+    private final OverdueTracker overdueTracker;
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Sweeps once straight away, then every interval after
+     *
+     * @param interval - How often to sweep. Defaults to 10 minutes, which is how late into a new day an overdue unit
+     *                 can still be offered
+     */
+    @Builder
+    public OverdueSweeper(OverdueTracker overdueTracker, Duration interval) {
+        this.overdueTracker = overdueTracker;
+        Duration sweepInterval = interval != null && !interval.isZero() ? interval : DEFAULT_INTERVAL;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "overdue-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleWithFixedDelay(this::sweep, 0, sweepInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sweeping, the tracker keeps whatever it was last swept up to
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    private void sweep() {
+        overdueTracker.sweep(LocalDate.now(RentalUtil.rentalZone()));
+    }
+}
@@ -0,0 +1,277 @@
+package com.winters.tool.rental.overdue;
+
+import com.winters.tool.rental.data.RentalAgreement;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Every agreement that has been issued but not yet checked in, and which of them are overdue. An agreement is overdue
+ * from the day after its due date, the same as the late charge on check-in.
+ * <p>
+ * Agreements that aren't overdue yet wait in a {@link TimingWheel} keyed by the day they become overdue, so the daily
+ * {@link #sweep} only touches the agreements coming due on the days it covers, however many rentals are open.
+ * Checking an agreement in unlinks it from wherever it is in O(1), except for the few other agreements booked on the
+ * same unit.
+ * <p>
+ * Every method locks the tracker, and none of them does more than a few pointer updates per agreement, so tracking
+ * on the checkout path doesn't hold up other checkouts for long. A sweep holds the lock while it fires the day's
+ * agreements. The exception is {@link #isOutOverdue}, which the inventory asks about every unit it books or counts:
+ * the units out overdue are published as an immutable snapshot whenever they change, so it never locks and never
+ * waits on a sweep.
+ */
+public final class OverdueTracker {
+
+    private static final Comparator<Entry> BY_DAY = Comparator.comparingLong(entry -> entry.day);
+
+    private final TimingWheel<Entry> wheel;
+    private final Map<RentalAgreement, Entry> entries = new IdentityHashMap<>();
+    // Open agreements on each unit, earliest checkout first. Agreements without a unit aren't in here.
+    private final Map<String, Entry> entriesByUnit = new HashMap<>();
+    // Overdue since before the last sweep, in the order they became overdue
+    private final Set<Entry> overdue = new LinkedHashSet<>();
+    // Overdue, but not yet handed out by a sweep - either fired by the wheel mid-sweep or tracked already overdue
+    private final List<Entry> comingDue = new ArrayList<>();
+    // Every unit with an entry in overdue or comingDue, replaced rather than changed so it can be read without locking
+    private volatile Set<String> unitsOutOverdue = Set.of();
+
+    /**
+     * @param today - The day overdue agreements are first swept for. Agreements tracked with an earlier due date are
+     *              overdue straight away
+     */
+    public OverdueTracker(LocalDate today) {
+        this.wheel = new TimingWheel<>(today.toEpochDay());
+    }
+
+    /**
+     * Starts tracking a newly issued agreement until it's checked in
+     *
+     * @throws IllegalArgumentException if the agreement is already being tracked
+     */
+    public synchronized void track(RentalAgreement agreement) {
+        Entry entry = new Entry(agreement);
+        if (entries.putIfAbsent(agreement, entry) != null) {
+            throw new IllegalArgumentException("Agreement for " + agreement.getUnitId() + " due " + agreement.getDueLocalDate() + " is already tracked");
+        }
+        if (agreement.getUnitId() != null) {
+            entriesByUnit.put(agreement.getUnitId(), insertByCheckout(entriesByUnit.get(agreement.getUnitId()), entry));
+        }
+        if (!wheel.schedule(entry)) {
+            comingDue.add(entry);
+            if (agreement.getUnitId() != null) {
+                publishUnitsOutOverdue();
+            }
+        }
+    }
+
+    /**
+     * Stops tracking an agreement that has been checked in
+     *
+     * @return false if the agreement wasn't being tracked, i.e. it has already been checked in
+     */
+    public synchronized boolean remove(RentalAgreement agreement) {
+        Entry entry = entries.get(agreement);
+        if (entry == null) {
+            return false;
+        }
+        untrack(entry);
+        return true;
+    }
+
+    /**
+     * Stops tracking whichever agreement has the unit out on the return date: the open agreement on the unit with the
+     * earliest checkout, as long as it was checked out by then. Later bookings of the same unit can't have been
+     * handed over before it came back.
+     *
+     * @return the agreement checked in, or null if the unit has no open agreement checked out on or before the date
+     */
+    public synchronized RentalAgreement checkIn(String unitId, LocalDate returnDate) {
+        Entry entry = entriesByUnit.get(unitId);
+        if (entry == null || entry.checkOutEpochDay > returnDate.toEpochDay()) {
+            return null;
+        }
+        untrack(entry);
+        return entry.agreement;
+    }
+
+    /**
+     * Whether the unit is still out on a rental that was overdue as of the last sweep. The unit's booking ended on the
+     * due date, so without this it would look free to the inventory while it's still with the renter.
+     *
+     * Doesn't lock, so it's safe to ask while holding other locks.
+     *
+     * @param unitId - The unit as labelled by {@link com.winters.tool.rental.inventory.Reservation#getUnitId()}
+     */
+    public boolean isOutOverdue(String unitId) {
+        return unitsOutOverdue.contains(unitId);
+    }
+
+    /**
+     * @return every unit that {@link #isOutOverdue} as of now, as an immutable snapshot that later sweeps & check-ins
+     * don't change. Doesn't lock.
+     */
+    public Set<String> getUnitsOutOverdue() {
+        return unitsOutOverdue;
+    }
+
+    /**
+     * Advances to the day, marking every agreement that is overdue by then. A day that has already been swept is a
+     * no-op apart from any agreements tracked since that were already overdue.
+     *
+     * @return the agreements that became overdue since the previous sweep, in the order they fell due
+     */
+    public synchronized List<RentalAgreement> sweep(LocalDate today) {
+        wheel.advance(today.toEpochDay(), comingDue::add);
+        List<RentalAgreement> newlyOverdue = new ArrayList<>(comingDue.size());
+        for (Entry entry : comingDue) {
+            // Checked in before the sweep got to it
+            if (entries.get(entry.agreement) == entry) {
+                overdue.add(entry);
+                newlyOverdue.add(entry.agreement);
+            }
+        }
+        comingDue.clear();
+        if (!newlyOverdue.isEmpty()) {
+            publishUnitsOutOverdue();
+        }
+        return newlyOverdue;
+    }
+
+    /**
+     * Lists every open agreement that is overdue as of the day, without sweeping - only the sweeps advance the tracker,
+     * so asking about a day that hasn't come yet doesn't mark anything overdue ahead of time. Agreements overdue by the
+     * last sweep are read straight off the overdue list, and only a day past it has the open agreements scanned for
+     * the ones falling due in between.
+     *
+     * @return the overdue agreements, in the order they fell due
+     */
+    public synchronized List<RentalAgreement> getOverdue(LocalDate asOf) {
+        long asOfEpochDay = asOf.toEpochDay();
+        List<Entry> overdueEntries = new ArrayList<>();
+        for (Entry entry : overdue) {
+            if (entry.day <= asOfEpochDay) {
+                overdueEntries.add(entry);
+            }
+        }
+        // Tracked already overdue since the last sweep, or not due by the last sweep but by the day asked about
+        for (Entry entry : comingDue) {
+            if (entry.day <= asOfEpochDay && entries.get(entry.agreement) == entry) {
+                overdueEntries.add(entry);
+            }
+        }
+        if (asOfEpochDay > wheel.getCurrentDay()) {
+            for (Entry entry : entries.values()) {
+                if (entry.day > wheel.getCurrentDay() && entry.day <= asOfEpochDay) {
+                    overdueEntries.add(entry);
+                }
+            }
+        }
+        // Stable, so agreements falling due on the same day keep the order they were swept in
+        overdueEntries.sort(BY_DAY);
+        List<RentalAgreement> overdueAgreements = new ArrayList<>(overdueEntries.size());
+        for (Entry entry : overdueEntries) {
+            overdueAgreements.add(entry.agreement);
+        }
+        return overdueAgreements;
+    }
+
+    public synchronized OverdueTrackerStats getStats() {
+        return new OverdueTrackerStats(entries.size(), overdue.size(), LocalDate.ofEpochDay(wheel.getCurrentDay()));
+    }
+
+    private void untrack(Entry entry) {
+        entries.remove(entry.agreement);
+        boolean wasOverdue = !wheel.remove(entry);
+        if (wasOverdue) {
+            // Either overdue already, or waiting in comingDue to be skipped by the next sweep
+            overdue.remove(entry);
+        }
+        String unitId = entry.agreement.getUnitId();
+        if (unitId != null) {
+            Entry first = removeFromUnit(entriesByUnit.get(unitId), entry);
+            if (first == null) {
+                entriesByUnit.remove(unitId);
+            } else {
+                entriesByUnit.put(unitId, first);
+            }
+            if (wasOverdue) {
+                publishUnitsOutOverdue();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot from the overdue agreements, which are few next to the open ones, so a sweep or overdue
+     * check-in pays for it rather than every check of a unit
+     */
+    private void publishUnitsOutOverdue() {
+        Set<String> unitIds = new HashSet<>();
+        for (Entry entry : overdue) {
+            if (entry.agreement.getUnitId() != null) {
+                unitIds.add(entry.agreement.getUnitId());
+            }
+        }
+        for (Entry entry : comingDue) {
+            if (entry.agreement.getUnitId() != null && entries.get(entry.agreement) == entry) {
+                unitIds.add(entry.agreement.getUnitId());
+            }
+        }
+        unitsOutOverdue = Set.copyOf(unitIds);
+    }
+
+    /**
+     * @return the new first entry on the unit
+     */
+    private static Entry insertByCheckout(Entry first, Entry entry) {
+        if (first == null || entry.checkOutEpochDay < first.checkOutEpochDay) {
+            entry.nextOnUnit = first;
+            return entry;
+        }
+        Entry previous = first;
+        while (previous.nextOnUnit != null && previous.nextOnUnit.checkOutEpochDay <= entry.checkOutEpochDay) {
+            previous = previous.nextOnUnit;
+        }
+        entry.nextOnUnit = previous.nextOnUnit;
+        previous.nextOnUnit = entry;
+        return first;
+    }
+
+    /**
+     * @return the new first entry on the unit, or null if there are none left
+     */
+    private static Entry removeFromUnit(Entry first, Entry entry) {
+        if (first == entry) {
+            return entry.nextOnUnit;
+        }
+        for (Entry previous = first; previous != null; previous = previous.nextOnUnit) {
+            if (previous.nextOnUnit == entry) {
+                previous.nextOnUnit = entry.nextOnUnit;
+                break;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * An open agreement, scheduled on the day after it's due
+     */
+    private static final class Entry extends TimingWheel.Node {
+        final RentalAgreement agreement;
+        final long checkOutEpochDay;
+        Entry nextOnUnit;
+
+        Entry(RentalAgreement agreement) {
+            super(agreement.getDueLocalDate().toEpochDay() + 1);
+            this.agreement = agreement;
+            this.checkOutEpochDay = agreement.getCheckOutLocalDate().toEpochDay();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.winters.tool.rental.overdue;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Point in time counts for an {@link OverdueTracker}
+ */
+public @Value class OverdueTrackerStats {
+    // Issued & not yet checked in, overdue or not
+    long numOpen;
+    // Open & overdue as of the last sweep
+    long numOverdue;
+    // The last day swept, or the day the tracker started on if it hasn't been swept since
+    LocalDate sweptThrough;
+}
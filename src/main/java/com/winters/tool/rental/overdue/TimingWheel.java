@@ -0,0 +1,222 @@
+package com.winters.tool.rental.overdue;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel of epoch days. Every scheduled node fires once the wheel has been advanced to its day.
+ * <p>
+ * Level 0 has a slot for each day of the current 64 day block, level 1 a slot for each 64 day block of the current
+ * 4096 day block, and so on up - a node sits at the lowest level whose block it shares with the current day. Reaching
+ * the start of a block cascades that block's slot down a level, so each node is moved at most once per level on its
+ * way to firing, and firing a day only touches the nodes due that day. Each level's occupied slots are kept as the
+ * bits of one {@code long}, so {@link #advance} jumps straight over days with nothing to fire or cascade rather than
+ * stepping through them one at a time.
+ * <p>
+ * Scheduling and removing a node are O(1). Not thread safe, callers serialize access.
+ */
+final class TimingWheel<N extends TimingWheel.Node> {
+
+    // 64 slots per level, so a level's occupancy fits in a single long
+    private static final int SLOT_BITS = 6;
+    private static final int NUM_SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = NUM_SLOTS - 1;
+    // Reaches 64^4 days (over 45,000 years) ahead, anything further waits in the overflow list until it's in range
+    private static final int NUM_LEVELS = 4;
+    private static final int TOP_BLOCK_BITS = SLOT_BITS * NUM_LEVELS;
+    private static final int OVERFLOW = NUM_LEVELS * NUM_SLOTS;
+    private static final int UNSCHEDULED = -1;
+
+    // One sentinel per slot, level by level, plus the overflow list's at the end. Each list is circular & doubly linked
+    private final Node[] lists = new Node[OVERFLOW + 1];
+    private final long[] occupied = new long[NUM_LEVELS];
+    private long currentDay;
+    private int size;
+
+    /**
+     * @param currentDay - The last day to have fired, nodes can only be scheduled after it
+     */
+    TimingWheel(long currentDay) {
+        this.currentDay = currentDay;
+        for (int i = 0; i < lists.length; i++) {
+            Node sentinel = new Node(0);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            lists[i] = sentinel;
+        }
+    }
+
+    long getCurrentDay() {
+        return currentDay;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return false, leaving the node unscheduled, if its day isn't after the current day
+     * @throws IllegalStateException if the node is already scheduled
+     */
+    boolean schedule(N scheduled) {
+        Node node = scheduled;
+        if (node.list != UNSCHEDULED) {
+            throw new IllegalStateException("Node for day " + node.day + " is already scheduled");
+        }
+        if (node.day <= currentDay) {
+            return false;
+        }
+        place(node);
+        size++;
+        return true;
+    }
+
+    /**
+     * @return false if the node wasn't scheduled, i.e. it has already fired or been removed
+     */
+    boolean remove(N scheduled) {
+        Node node = scheduled;
+        if (node.list == UNSCHEDULED) {
+            return false;
+        }
+        unlink(node);
+        size--;
+        return true;
+    }
+
+    /**
+     * Fires every node due on or before the day, in day order. Only the days something is due on or cascades from are
+     * visited, and a day that isn't after the current day is a no-op.
+     *
+     * @param fired - Handed each node as it fires, by which point it is no longer scheduled
+     */
+    void advance(long toDay, Consumer<? super N> fired) {
+        while (currentDay < toDay) {
+            long nextDay = nextEventDay();
+            if (nextDay > toDay) {
+                currentDay = toDay;
+                return;
+            }
+            currentDay = nextDay;
+            cascade(nextDay);
+            fire(lists[slotIndex(0, nextDay)], fired);
+        }
+    }
+
+    /**
+     * @return the first day after the current day that has a slot to fire or cascade, or {@link Long#MAX_VALUE}
+     */
+    private long nextEventDay() {
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            int digit = (int) (currentDay >> shift) & SLOT_MASK;
+            // Only the slots after the current day's are ever occupied
+            long ahead = digit == SLOT_MASK ? 0 : occupied[level] & (-1L << (digit + 1));
+            if (ahead != 0) {
+                long blockStart = (currentDay >> (shift + SLOT_BITS)) << (shift + SLOT_BITS);
+                return blockStart + ((long) Long.numberOfTrailingZeros(ahead) << shift);
+            }
+        }
+        if (lists[OVERFLOW].next != lists[OVERFLOW]) {
+            return ((currentDay >> TOP_BLOCK_BITS) + 1) << TOP_BLOCK_BITS;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Moves the nodes of every block that starts on the day down to the levels they belong at now, highest level first
+     * so that a block cascaded into a lower level's starting slot is cascaded again from there
+     */
+    private void cascade(long day) {
+        if ((day & ((1L << TOP_BLOCK_BITS) - 1)) == 0) {
+            replaceAll(OVERFLOW);
+        }
+        for (int level = NUM_LEVELS - 1; level > 0; level--) {
+            if ((day & ((1L << (level * SLOT_BITS)) - 1)) == 0) {
+                replaceAll(slotIndex(level, day));
+            }
+        }
+    }
+
+    /**
+     * Detaches the whole list before placing any of it, since a node still out of range goes straight back into overflow
+     */
+    private void replaceAll(int list) {
+        Node sentinel = lists[list];
+        if (sentinel.next == sentinel) {
+            return;
+        }
+        Node node = sentinel.next;
+        sentinel.prev.next = null;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        if (list != OVERFLOW) {
+            occupied[list / NUM_SLOTS] &= ~(1L << (list & SLOT_MASK));
+        }
+        while (node != null) {
+            Node next = node.next;
+            place(node);
+            node = next;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fire(Node sentinel, Consumer<? super N> fired) {
+        while (sentinel.next != sentinel) {
+            Node node = sentinel.next;
+            unlink(node);
+            size--;
+            fired.accept((N) node);
+        }
+    }
+
+    /**
+     * Links the node into the lowest level whose block it shares with the current day. A node due on the current day
+     * itself goes in the current day's level 0 slot, which is only done while cascading into the day about to fire.
+     */
+    private void place(Node node) {
+        long differingBits = node.day ^ currentDay;
+        int level = differingBits == 0 ? 0 : (63 - Long.numberOfLeadingZeros(differingBits)) / SLOT_BITS;
+        int list = level < NUM_LEVELS ? slotIndex(level, node.day) : OVERFLOW;
+        Node sentinel = lists[list];
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+        node.list = list;
+        if (list != OVERFLOW) {
+            occupied[level] |= 1L << (list & SLOT_MASK);
+        }
+    }
+
+    private void unlink(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        int list = node.list;
+        if (list != OVERFLOW && lists[list].next == lists[list]) {
+            occupied[list / NUM_SLOTS] &= ~(1L << (list & SLOT_MASK));
+        }
+        node.prev = null;
+        node.next = null;
+        node.list = UNSCHEDULED;
+    }
+
+    private static int slotIndex(int level, long day) {
+        return level * NUM_SLOTS + ((int) (day >> (level * SLOT_BITS)) & SLOT_MASK);
+    }
+
+    /**
+     * Something to fire on a day. Extended by whatever is being scheduled, so a scheduled item costs no more than its
+     * own object.
+     */
+    static class Node {
+        final long day;
+        private Node prev;
+        private Node next;
+        // The list the node is linked into, or UNSCHEDULED
+        private int list = UNSCHEDULED;
+
+        Node(long day) {
+            this.day = day;
+        }
+    }
+}
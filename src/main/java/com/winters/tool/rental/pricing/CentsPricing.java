@@ -0,0 +1,65 @@
+package com.winters.tool.rental.pricing;
+
+import java.math.BigDecimal;
+
+/**
+ * Rental pricing done in whole cents with {@code long} arithmetic. Produces exactly the amounts the original
+ * {@link BigDecimal} math did:
+ * <pre>
+ *     preDiscountCharge = dailyCharge * chargeDays                        (scale 2, HALF_UP)
+ *     discountAmount    = preDiscountCharge * (discountPercent / 100)     (scale 2, HALF_UP)
+ *     finalCharge       = preDiscountCharge - discountAmount
+ * </pre>
+ * Daily charges are whole cents and discounts whole percentages, so the pre-discount charge is always exact and the
+ * discount is the only amount that ever needs rounding. Converting back to {@link BigDecimal} is left to whoever
+ * builds the agreement, via {@link #toBigDecimal(long)}.
+ */
+public final class CentsPricing {
+
+    private CentsPricing() {
+    }
+
+    /**
+     * @param dailyChargeCents - The tool type's charge per chargeable day, in cents
+     * @param chargeDays       - Number of days being charged for
+     * @param discountPercent  - Whole percentage taken off the pre-discount charge
+     * @return every amount on the agreement, in cents
+     * @throws ArithmeticException if an amount doesn't fit in a long, which would take tens of millions of years of rental
+     */
+    public static PriceBreakdown price(long dailyChargeCents, int chargeDays, int discountPercent) {
+        long preDiscountCents = Math.multiplyExact(dailyChargeCents, chargeDays);
+        long discountCents = discountCents(preDiscountCents, discountPercent);
+        return new PriceBreakdown(preDiscountCents, discountCents, preDiscountCents - discountCents);
+    }
+
+    /**
+     * The discount on a charge, rounded HALF_UP (ties away from zero) to the nearest cent
+     *
+     * @param preDiscountCents - The charge the discount is taken from, in cents
+     * @param discountPercent  - Whole percentage of the charge to take off
+     */
+    public static long discountCents(long preDiscountCents, int discountPercent) {
+        return divideHalfUp(Math.multiplyExact(preDiscountCents, discountPercent), 100);
+    }
+
+    /**
+     * @param cents - An amount in cents
+     * @return the same amount in dollars, with a scale of 2 like every other charge on the agreement
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Integer division rounding ties away from zero, the same as {@link java.math.RoundingMode#HALF_UP}
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        // Compare |remainder| to half the divisor without dividing so odd divisors round correctly too
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,242 @@
+package com.winters.tool.rental.pricing;
+
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ToolCatalogSource;
+import com.winters.tool.rental.data.ToolPricing;
+import com.winters.tool.rental.holiday.HolidayCalendar;
+import com.winters.tool.rental.util.RentalUtil;
+import lombok.Builder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Prices whole batches of rentals held in {@link PricingColumns}, i.e. for nightly re-pricing of every open agreement,
+ * with the same results as {@link com.winters.tool.rental.services.RentalService#checkout} down to the cent. The
+ * columns don't carry a brand, so discount rules aren't applied here - a rental they apply to should have its
+ * discount column include them already.
+ * <p>
+ * Nothing is allocated per row. The tool type's charge flags & daily charge are read from small tables indexed by
+ * ordinal, built from the current catalog once per batch, weekend days are counted arithmetically, and holidays come
+ * from a running count built once per batch over every day the batch covers, so pricing a row is straight-line
+ * arithmetic and a handful of array reads with no calls the JIT can't inline. Batches larger than {@code rowsPerTask}
+ * are split in halves on a fork-join pool.
+ */
+public final class ColumnarPricer {
+
+    /**
+     * Written to every output column of a row that checkout would have rejected: rental days below one, a discount
+     * outside 0 - 100 or a tool type ordinal that doesn't exist or isn't carried by the catalog. Also written for a
+     * row whose charge doesn't fit in a long, which checkout fails with an {@link ArithmeticException}.
+     */
+    public static final int INVALID = -1;
+
+    public static final int DEFAULT_ROWS_PER_TASK = 8192;
+
+    // The running holiday count costs 4 bytes per day, beyond ~2800 years of days the calendar is asked per row instead
+    static final long MAX_HOLIDAY_TABLE_DAYS = 1 << 20;
+
+    private static final Tool.Type[] TYPES = Tool.Type.values();
+
+    private final HolidayCalendar holidayCalendar;
+    private final ToolCatalogSource toolCatalog;
+    private final ForkJoinPool pool;
+    private final int rowsPerTask;
+
+    /**
+     * @param holidayCalendar - Decides which days count as holidays, must be the rental service's calendar for the
+     *                        results to match its checkouts. Defaults to {@link HolidayCalendar#US_RENTAL_HOLIDAYS}
+     * @param toolCatalog     - What each tool type costs, read once per batch so a reload never lands halfway through
+     *                        one. Defaults to {@link ToolCatalog#DEFAULT}
+     * @param pool            - Runs the split up batch. Defaults to the common fork-join pool
+     * @param rowsPerTask     - Batches up to this many rows are priced on the calling thread, larger ones are split
+     *                        until each task has no more than this many. Defaults to 8192
+     */
+    @Builder
+    public ColumnarPricer(HolidayCalendar holidayCalendar, ToolCatalogSource toolCatalog, ForkJoinPool pool, int rowsPerTask) {
+        this.holidayCalendar = holidayCalendar != null ? holidayCalendar : HolidayCalendar.US_RENTAL_HOLIDAYS;
+        this.toolCatalog = toolCatalog != null ? toolCatalog : ToolCatalog.DEFAULT;
+        this.pool = pool != null ? pool : ForkJoinPool.commonPool();
+        this.rowsPerTask = rowsPerTask > 0 ? rowsPerTask : DEFAULT_ROWS_PER_TASK;
+    }
+
+    /**
+     * Prices every row, overwriting the output columns. An invalid row is marked {@link #INVALID} and never stops the
+     * rest of the batch.
+     *
+     * @return the number of invalid rows
+     */
+    public int price(PricingColumns columns) {
+        TypeTable types = new TypeTable(toolCatalog.getCatalog());
+        HolidayTable holidays = HolidayTable.covering(columns, holidayCalendar);
+        PriceRows task = new PriceRows(columns, types, holidays, 0, columns.getNumRows());
+        return columns.getNumRows() <= rowsPerTask ? task.compute() : pool.invoke(task);
+    }
+
+    private static int priceRows(PricingColumns columns, TypeTable types, HolidayTable holidays, int from, int to) {
+        int[] toolTypes = columns.getToolTypes();
+        long[] checkoutEpochDays = columns.getCheckoutEpochDays();
+        int[] numDaysToRent = columns.getNumDaysToRent();
+        int[] discountPercents = columns.getDiscountPercents();
+        int[] chargeDays = columns.getChargeDays();
+        int[] discountDays = columns.getDiscountDays();
+        long[] finalCents = columns.getFinalCents();
+
+        int numInvalid = 0;
+        for (int i = from; i < to; i++) {
+            int type = toolTypes[i];
+            int numDays = numDaysToRent[i];
+            int discountPercent = discountPercents[i];
+            if (!isValid(types, type, numDays, discountPercent)) {
+                markInvalid(chargeDays, discountDays, finalCents, i);
+                numInvalid++;
+                continue;
+            }
+            // The checkout day itself is never charged, the due day always counts
+            long firstEpochDay = checkoutEpochDays[i] + 1;
+            long lastEpochDay = checkoutEpochDays[i] + numDays;
+            int weekendDays = RentalUtil.countWeekendDays(firstEpochDay, lastEpochDay);
+            int rowDiscountDays = holidays.count(firstEpochDay, lastEpochDay) * types.holidayDiscount[type]
+                    + weekendDays * types.weekendDiscount[type]
+                    + (numDays - weekendDays) * types.weekdayDiscount[type];
+            int rowChargeDays = Math.max(1, numDays - rowDiscountDays);
+            // Checked the same as CentsPricing, since a catalog's daily charge has no upper limit. Both amounts are
+            // positive, so HALF_UP is adding half the divisor before dividing.
+            long preDiscountCents;
+            long discountCents;
+            try {
+                preDiscountCents = Math.multiplyExact(types.dailyChargeCents[type], rowChargeDays);
+                discountCents = Math.addExact(Math.multiplyExact(preDiscountCents, discountPercent), 50) / 100;
+            } catch (ArithmeticException e) {
+                markInvalid(chargeDays, discountDays, finalCents, i);
+                numInvalid++;
+                continue;
+            }
+            chargeDays[i] = rowChargeDays;
+            discountDays[i] = rowDiscountDays;
+            finalCents[i] = preDiscountCents - discountCents;
+        }
+        return numInvalid;
+    }
+
+    private static void markInvalid(int[] chargeDays, int[] discountDays, long[] finalCents, int row) {
+        chargeDays[row] = INVALID;
+        discountDays[row] = INVALID;
+        finalCents[row] = INVALID;
+    }
+
+    /**
+     * The same rules as checkout's validation, for the fields a row has
+     */
+    private static boolean isValid(TypeTable types, int type, int numDays, int discountPercent) {
+        return numDays >= 1 && discountPercent >= 0 && discountPercent <= 100 && type >= 0 && type < TYPES.length
+                && types.carried[type];
+    }
+
+    /**
+     * Prices its range of rows, splitting it in half first while it's larger than {@code rowsPerTask}
+     */
+    private final class PriceRows extends RecursiveTask<Integer> {
+
+        private final PricingColumns columns;
+        private final TypeTable types;
+        private final HolidayTable holidays;
+        private final int from;
+        private final int to;
+
+        PriceRows(PricingColumns columns, TypeTable types, HolidayTable holidays, int from, int to) {
+            this.columns = columns;
+            this.types = types;
+            this.holidays = holidays;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= rowsPerTask) {
+                return priceRows(columns, types, holidays, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            PriceRows left = new PriceRows(columns, types, holidays, from, middle);
+            left.fork();
+            int numInvalid = new PriceRows(columns, types, holidays, middle, to).compute();
+            return numInvalid + left.join();
+        }
+    }
+
+    /**
+     * One catalog's pricing for every tool type, indexed by type ordinal
+     */
+    private static final class TypeTable {
+
+        final boolean[] carried = new boolean[TYPES.length];
+        final long[] dailyChargeCents = new long[TYPES.length];
+        // 1 where the type isn't charged for that kind of day, so discount days can be summed without branching
+        final int[] weekdayDiscount = new int[TYPES.length];
+        final int[] weekendDiscount = new int[TYPES.length];
+        final int[] holidayDiscount = new int[TYPES.length];
+
+        TypeTable(ToolCatalog catalog) {
+            for (Tool.Type type : TYPES) {
+                ToolPricing pricing = catalog.getPricing(type);
+                if (pricing != null) {
+                    carried[type.ordinal()] = true;
+                    dailyChargeCents[type.ordinal()] = pricing.getDailyChargeCents();
+                    weekdayDiscount[type.ordinal()] = pricing.isChargedOnWeekdays() ? 0 : 1;
+                    weekendDiscount[type.ordinal()] = pricing.isChargedOnWeekends() ? 0 : 1;
+                    holidayDiscount[type.ordinal()] = pricing.isChargedOnHolidays() ? 0 : 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts holidays for any range of days in a batch. Built from the days the batch actually covers, so counting is
+     * two array reads instead of a trip through the calendar. A batch spread over too many years to tabulate falls
+     * back to asking the calendar.
+     */
+    private static final class HolidayTable {
+
+        private final HolidayCalendar holidayCalendar;
+        private final long firstEpochDay;
+        // holidaysBefore[i] is the number of holidays from firstEpochDay up to, not including, firstEpochDay + i
+        private final int[] holidaysBefore;
+
+        private HolidayTable(HolidayCalendar holidayCalendar, long firstEpochDay, int[] holidaysBefore) {
+            this.holidayCalendar = holidayCalendar;
+            this.firstEpochDay = firstEpochDay;
+            this.holidaysBefore = holidaysBefore;
+        }
+
+        static HolidayTable covering(PricingColumns columns, HolidayCalendar holidayCalendar) {
+            long[] checkoutEpochDays = columns.getCheckoutEpochDays();
+            int[] numDaysToRent = columns.getNumDaysToRent();
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            for (int i = 0; i < columns.getNumRows(); i++) {
+                if (numDaysToRent[i] >= 1) {
+                    first = Math.min(first, checkoutEpochDays[i] + 1);
+                    last = Math.max(last, checkoutEpochDays[i] + numDaysToRent[i]);
+                }
+            }
+            if (first > last || last - first >= MAX_HOLIDAY_TABLE_DAYS) {
+                return new HolidayTable(holidayCalendar, 0, null);
+            }
+            int numDays = (int) (last - first + 1);
+            int[] holidaysBefore = new int[numDays + 1];
+            for (int i = 0; i < numDays; i++) {
+                holidaysBefore[i + 1] = holidaysBefore[i] + (holidayCalendar.isHoliday(first + i) ? 1 : 0);
+            }
+            return new HolidayTable(holidayCalendar, first, holidaysBefore);
+        }
+
+        int count(long firstEpochDay, long lastEpochDay) {
+            if (holidaysBefore == null) {
+                return holidayCalendar.countHolidays(firstEpochDay, lastEpochDay);
+            }
+            return holidaysBefore[(int) (lastEpochDay - this.firstEpochDay + 1)] - holidaysBefore[(int) (firstEpochDay - this.firstEpochDay)];
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.winters.tool.rental.pricing;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * The charges for a single rental in cents, as produced by {@link CentsPricing#price}. The {@link BigDecimal}
+ * getters are for building a {@code RentalAgreement} and allocate on every call.
+ */
+public @Value class PriceBreakdown {
+    long preDiscountCents;
+    long discountCents;
+    long finalCents;
+
+    public BigDecimal getPreDiscountCharge() {
+        return CentsPricing.toBigDecimal(preDiscountCents);
+    }
+
+    public BigDecimal getDiscountAmount() {
+        return CentsPricing.toBigDecimal(discountCents);
+    }
+
+    public BigDecimal getFinalCharge() {
+        return CentsPricing.toBigDecimal(finalCents);
+    }
+}
@@ -0,0 +1,52 @@
+package com.winters.tool.rental.pricing;
+
+import com.winters.tool.rental.data.Tool;
+import lombok.Getter;
+
+/**
+ * A batch of rentals laid out column by column, one primitive array per field, for {@link ColumnarPricer}. Row
+ * {@code i} of the batch is index {@code i} of every array. The input columns are filled in by the caller, either
+ * through {@link #set(int, Tool.Type, long, int, int)} or by writing the arrays directly, and the output columns are
+ * overwritten on every pricing run, so one set of columns can be reused batch after batch.
+ */
+@Getter
+public final class PricingColumns {
+
+    private final int numRows;
+
+    // Inputs
+    // Ordinal of the rental's Tool.Type
+    private final int[] toolTypes;
+    // Checkout day, as a count of days since 1970-01-01
+    private final long[] checkoutEpochDays;
+    private final int[] numDaysToRent;
+    private final int[] discountPercents;
+
+    // Outputs, ColumnarPricer.INVALID in every column for a row that failed validation
+    private final int[] chargeDays;
+    private final int[] discountDays;
+    private final long[] finalCents;
+
+    public PricingColumns(int numRows) {
+        this.numRows = numRows;
+        this.toolTypes = new int[numRows];
+        this.checkoutEpochDays = new long[numRows];
+        this.numDaysToRent = new int[numRows];
+        this.discountPercents = new int[numRows];
+        this.chargeDays = new int[numRows];
+        this.discountDays = new int[numRows];
+        this.finalCents = new long[numRows];
+    }
+
+    /**
+     * Fills in every input column of one row
+     *
+     * @param checkoutEpochDay - Checkout day, as a count of days since 1970-01-01
+     */
+    public void set(int row, Tool.Type toolType, long checkoutEpochDay, int numDaysToRent, int discountPercent) {
+        this.toolTypes[row] = toolType.ordinal();
+        this.checkoutEpochDays[row] = checkoutEpochDay;
+        this.numDaysToRent[row] = numDaysToRent;
+        this.discountPercents[row] = discountPercent;
+    }
+}
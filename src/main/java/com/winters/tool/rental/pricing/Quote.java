@@ -0,0 +1,15 @@
+package com.winters.tool.rental.pricing;
+
+import lombok.Value;
+
+/**
+ * Everything about a rental's price that depends only on the tool type, the rental days and the discount - the
+ * part of a checkout that {@link QuoteCache} can reuse between requests.
+ */
+public @Value class Quote {
+    // Count of chargeable days, never less than one
+    int chargeDays;
+    // Count of days within the rental that are not charged for
+    int discountDays;
+    PriceBreakdown price;
+}
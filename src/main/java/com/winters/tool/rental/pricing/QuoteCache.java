@@ -0,0 +1,66 @@
+package com.winters.tool.rental.pricing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.function.Function;
+
+/**
+ * Size bounded cache of {@link Quote}s, for storefronts that ask for the same handful of quotes over and over.
+ * <p>
+ * Backed by Caffeine, so reads never take a global lock and eviction uses W-TinyLFU, which keeps the popular quotes
+ * around even when a burst of one-off quotes passes through. A missing quote is computed once, concurrent lookups
+ * for the same key wait for that computation rather than repeating it.
+ * <p>
+ * Quotes are only as good as the tool prices & holiday rules they were computed with. Entries are keyed on the
+ * holiday calendar, so a service built with a different calendar never sees them, and anything that changes prices
+ * in place must call {@link #invalidateAll()}.
+ */
+public class QuoteCache {
+
+    private final Cache<QuoteKey, Quote> quotes;
+
+    /**
+     * @param maximumSize - Upper bound on the number of quotes held, must be positive
+     */
+    public QuoteCache(long maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Quote cache size must be positive. Was " + maximumSize);
+        }
+        this.quotes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                // Evictions are applied on the calling thread rather than handed to the common pool
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param key    - Identifies the quote
+     * @param pricer - Computes the quote if it isn't cached yet. Must not modify the cache
+     * @return the cached quote, or the newly computed one
+     */
+    public Quote get(QuoteKey key, Function<QuoteKey, Quote> pricer) {
+        return quotes.get(key, pricer);
+    }
+
+    /**
+     * Drops every cached quote. Call whenever tool prices or holiday rules change.
+     */
+    public void invalidateAll() {
+        quotes.invalidateAll();
+    }
+
+    /**
+     * Applies any pending evictions now rather than on a later write
+     */
+    void cleanUp() {
+        quotes.cleanUp();
+    }
+
+    public QuoteCacheStats getStats() {
+        CacheStats stats = quotes.stats();
+        return new QuoteCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), quotes.estimatedSize());
+    }
+}
@@ -0,0 +1,22 @@
+package com.winters.tool.rental.pricing;
+
+import lombok.Value;
+
+/**
+ * Point in time counters for a {@link QuoteCache}. Counts are cumulative since the cache was created.
+ */
+public @Value class QuoteCacheStats {
+    long hitCount;
+    long missCount;
+    long evictionCount;
+    // Approximate number of quotes currently held
+    long size;
+
+    /**
+     * @return fraction of lookups answered from the cache, or 1 if there haven't been any lookups yet
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+}
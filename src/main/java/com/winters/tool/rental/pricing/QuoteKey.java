@@ -0,0 +1,21 @@
+package com.winters.tool.rental.pricing;
+
+import com.winters.tool.rental.data.ToolPricing;
+import com.winters.tool.rental.holiday.HolidayCalendar;
+import lombok.Value;
+
+/**
+ * Identifies a {@link Quote}. The brand is deliberately left out, since only the tool's pricing affects the price, so
+ * "LADW" and "LADR" for the same days share an entry. Keying by pricing rather than tool type means a quote computed
+ * from one catalog is never served once a reloaded catalog has changed the type's charges. The holiday calendar is part of the key (compared by
+ * identity, calendars don't override equals) so a quote can never be served against a calendar it wasn't computed
+ * with.
+ */
+public @Value class QuoteKey {
+    HolidayCalendar holidayCalendar;
+    ToolPricing pricing;
+    // Checkout day, as a count of days since 1970-01-01
+    long checkoutEpochDay;
+    int numDaysToRent;
+    int discountPercent;
+}
@@ -0,0 +1,39 @@
+package com.winters.tool.rental.receipt;
+
+import com.winters.tool.rental.data.RentalAgreement;
+
+import java.util.List;
+
+/**
+ * Receives every agreement issued by {@code RentalService.checkout}. The checkout path calls the sink inline, so
+ * anything slower than handing the agreement off (like console I/O) belongs behind an {@link AsyncAgreementSink}.
+ * The exception is a sink that has to finish before the agreement is handed back, like the durable
+ * {@code AgreementJournal}, which makes checkout wait until the agreement is on disk.
+ */
+@FunctionalInterface
+public interface AgreementSink {
+
+    AgreementSink NONE = agreement -> {
+    };
+
+    void accept(RentalAgreement agreement);
+
+    /**
+     * @param sinks - Called in order for every agreement. If one throws, the sinks after it never see the agreement
+     * @return a single sink feeding all of them
+     */
+    static AgreementSink allOf(List<? extends AgreementSink> sinks) {
+        return switch (sinks.size()) {
+            case 0 -> NONE;
+            case 1 -> sinks.get(0);
+            default -> {
+                AgreementSink[] all = sinks.toArray(new AgreementSink[0]);
+                yield agreement -> {
+                    for (AgreementSink sink : all) {
+                        sink.accept(agreement);
+                    }
+                };
+            }
+        };
+    }
+}
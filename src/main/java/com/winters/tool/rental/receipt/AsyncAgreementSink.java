@@ -0,0 +1,105 @@
+package com.winters.tool.rental.receipt;
+
+import com.winters.tool.rental.data.RentalAgreement;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders & writes receipts on a single background thread so checkout threads never wait on the output stream.
+ * <p>
+ * Checkout threads only pay for a non-blocking offer onto a bounded queue. If the writer falls far enough behind
+ * that the queue fills up, new receipts are dropped (and counted) rather than slowing checkout down - the receipt
+ * output is informational, the agreement itself has already been returned to the caller.
+ */
+public final class AsyncAgreementSink implements AgreementSink, AutoCloseable {
+
+    private static final int DRAIN_BATCH_SIZE = 256;
+
+    private final BlockingQueue<RentalAgreement> queue;
+    private final PrintStream out;
+    private final ReceiptRenderer renderer;
+    private final Thread writer;
+    private final AtomicLong numDropped = new AtomicLong();
+    private volatile boolean closed;
+
+    public AsyncAgreementSink(PrintStream out, int capacity) {
+        this(out, capacity, ReceiptRenderer.DEFAULT);
+    }
+
+    public AsyncAgreementSink(PrintStream out, int capacity, ReceiptRenderer renderer) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.out = out;
+        this.renderer = renderer;
+        this.writer = new Thread(this::drain, "agreement-receipt-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void accept(RentalAgreement agreement) {
+        if (closed || !queue.offer(agreement)) {
+            numDropped.incrementAndGet();
+            return;
+        }
+        // Closed since the check above, so the writer may already have drained the queue for the last time. Whatever
+        // it didn't take is taken back out & counted, so every receipt is either written or dropped.
+        if (closed && queue.remove(agreement)) {
+            numDropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of receipts that were never written because the queue was full or the sink was closed
+     */
+    public long getNumDropped() {
+        return numDropped.get();
+    }
+
+    /**
+     * Stops accepting receipts, writes out everything already queued and waits for the writer thread to finish
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        writer.interrupt();
+        writer.join();
+    }
+
+    private void drain() {
+        // Only this thread ever touches the builder, so it is reused for every receipt
+        StringBuilder receipts = new StringBuilder(DRAIN_BATCH_SIZE * 512);
+        List<RentalAgreement> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                RentalAgreement first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // close() interrupts us to stop waiting, the loop condition decides whether anything is left to write
+                continue;
+            }
+            queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+            write(batch, receipts);
+        }
+    }
+
+    private void write(List<RentalAgreement> batch, StringBuilder receipts) {
+        receipts.setLength(0);
+        for (RentalAgreement agreement : batch) {
+            renderer.render(agreement, receipts);
+            receipts.append(System.lineSeparator());
+        }
+        batch.clear();
+        // One write (and one PrintStream lock) per batch of receipts
+        out.append(receipts);
+        out.flush();
+    }
+}
@@ -0,0 +1,193 @@
+package com.winters.tool.rental.receipt;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.Tool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Renders the human readable receipt for a {@link RentalAgreement}.
+ * <p>
+ * The renderer holds no per-call state, so a single instance can be shared by every thread. Dates & dollar amounts
+ * are written digit by digit straight into the destination rather than going through {@code SimpleDateFormat} /
+ * {@code NumberFormat}, which keeps bulk receipt generation from allocating a formatter (or a String) per field.
+ */
+public final class ReceiptRenderer {
+
+    public static final ReceiptRenderer DEFAULT = new ReceiptRenderer(System.lineSeparator());
+
+    private static final String TOTAL_DIVIDER = "__________________________________________________________";
+    private static final Map<Tool.Type, String> DISPLAY_NAMES = new EnumMap<>(Tool.Type.class);
+
+    static {
+        // i.e. "CHAINSAW" is displayed as "Chainsaw"
+        for (Tool.Type type : Tool.Type.values()) {
+            String fullName = type.getFullName();
+            DISPLAY_NAMES.put(type, fullName.substring(0, 1).toUpperCase() + fullName.substring(1).toLowerCase());
+        }
+    }
+
+    private final String lineSeparator;
+
+    public ReceiptRenderer(String lineSeparator) {
+        this.lineSeparator = lineSeparator;
+    }
+
+    public String render(RentalAgreement agreement) {
+        StringBuilder receipt = new StringBuilder(512);
+        render(agreement, receipt);
+        return receipt.toString();
+    }
+
+    /**
+     * Writes the receipt into the given buffer as US-ASCII, starting at its current position.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer does not have room for the whole receipt
+     */
+    public void render(RentalAgreement agreement, ByteBuffer out) {
+        try {
+            render(agreement, new AsciiByteBufferAppendable(out));
+        } catch (IOException e) {
+            // Writing to a ByteBuffer never does any I/O
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void render(RentalAgreement agreement, StringBuilder out) {
+        try {
+            render(agreement, (Appendable) out);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void render(RentalAgreement agreement, Appendable out) throws IOException {
+        Tool tool = agreement.getTool();
+        out.append("Tool Data: ").append(lineSeparator)
+                .append("\tType: ").append(DISPLAY_NAMES.get(tool.getType()))
+                .append(", Brand: ").append(tool.getBrand().name())
+                .append(", Code: ").append(tool.getCode()).append(lineSeparator)
+                .append("Rental data: ").append(lineSeparator)
+                .append("\tRental Days: ");
+        appendInt(out, agreement.getNumDaysRented());
+        out.append(", Discount Days: ");
+        appendInt(out, agreement.getDiscountDays());
+        out.append(", Checkout Date: ");
+        appendDate(out, agreement.getCheckOutLocalDate());
+        out.append(", Return Date: ");
+        appendDate(out, agreement.getDueLocalDate());
+        out.append(lineSeparator)
+                .append("Charge Data: ").append(lineSeparator)
+                .append("\tDaily Charge: ");
+        appendUsd(out, agreement.getDailyRentalCharge());
+        out.append(", Days Charged: ");
+        appendInt(out, agreement.getChargeDays());
+        out.append(lineSeparator)
+                .append("\tPre Discount Total: ");
+        appendUsd(out, agreement.getPreDiscountCharge());
+        out.append(", Discount Percentage: ");
+        appendInt(out, agreement.getDiscountPercent());
+        out.append("%, Discount Amount: ");
+        appendUsd(out, agreement.getDiscountAmount());
+        out.append(lineSeparator)
+                .append(TOTAL_DIVIDER).append(lineSeparator)
+                .append("Total: ");
+        appendUsd(out, agreement.getFinalCharge());
+    }
+
+    /**
+     * Dates are displayed as MM/dd/yy
+     */
+    private static void appendDate(Appendable out, LocalDate localDate) throws IOException {
+        appendTwoDigits(out, localDate.getMonthValue());
+        out.append('/');
+        appendTwoDigits(out, localDate.getDayOfMonth());
+        out.append('/');
+        appendTwoDigits(out, Math.floorMod(localDate.getYear(), 100));
+    }
+
+    /**
+     * Dollar amounts are displayed the same way {@code NumberFormat.getCurrencyInstance(Locale.US)} would, i.e.
+     * "$1,234.50", rounded half even to the penny.
+     */
+    private static void appendUsd(Appendable out, BigDecimal amount) throws IOException {
+        long cents = amount.setScale(2, RoundingMode.HALF_EVEN).movePointRight(2).longValueExact();
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        out.append('$');
+        appendGroupedDollars(out, cents / 100);
+        out.append('.');
+        appendTwoDigits(out, (int) (cents % 100));
+    }
+
+    private static void appendGroupedDollars(Appendable out, long dollars) throws IOException {
+        if (dollars >= 1000) {
+            appendGroupedDollars(out, dollars / 1000);
+            out.append(',');
+            int group = (int) (dollars % 1000);
+            out.append((char) ('0' + group / 100));
+            appendTwoDigits(out, group % 100);
+        } else {
+            appendInt(out, (int) dollars);
+        }
+    }
+
+    private static void appendTwoDigits(Appendable out, int value) throws IOException {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static void appendInt(Appendable out, int value) throws IOException {
+        if (value < 0) {
+            out.append('-');
+            if (value == Integer.MIN_VALUE) {
+                out.append("2147483648");
+                return;
+            }
+            value = -value;
+        }
+        if (value >= 10) {
+            appendInt(out, value / 10);
+        }
+        out.append((char) ('0' + value % 10));
+    }
+
+    /**
+     * Every character on a receipt is ASCII, anything that isn't is written as '?'
+     */
+    private static final class AsciiByteBufferAppendable implements Appendable {
+        private final ByteBuffer out;
+
+        private AsciiByteBufferAppendable(ByteBuffer out) {
+            this.out = out;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            out.put(c < 0x80 ? (byte) c : (byte) '?');
+            return this;
+        }
+    }
+}
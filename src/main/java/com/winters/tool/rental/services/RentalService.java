@@ -1,106 +1,673 @@
 package com.winters.tool.rental.services;
 
+import com.winters.tool.rental.discount.DiscountRules;
+import com.winters.tool.rental.holiday.HolidayCalendar;
+import com.winters.tool.rental.idempotency.IdempotencyCache;
+import com.winters.tool.rental.inventory.Reservation;
+import com.winters.tool.rental.inventory.ToolInventory;
+import com.winters.tool.rental.metrics.CheckoutMetrics;
+import com.winters.tool.rental.metrics.CheckoutStage;
+import com.winters.tool.rental.overdue.OverdueTracker;
+import com.winters.tool.rental.pricing.CentsPricing;
+import com.winters.tool.rental.pricing.PriceBreakdown;
+import com.winters.tool.rental.pricing.Quote;
+import com.winters.tool.rental.pricing.QuoteCache;
+import com.winters.tool.rental.pricing.QuoteKey;
+import com.winters.tool.rental.receipt.AgreementSink;
+import com.winters.tool.rental.util.DayCounts;
 import com.winters.tool.rental.util.RentalUtil;
+import com.winters.tool.rental.data.AvailabilityResult;
+import com.winters.tool.rental.data.AvailableTool;
+import com.winters.tool.rental.data.BatchCheckoutResult;
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.QuoteCurve;
 import com.winters.tool.rental.data.RentalAgreement;
 import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.RentalReturn;
 import com.winters.tool.rental.data.Tool;
-import org.springframework.stereotype.Service;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ToolCatalogSource;
+import com.winters.tool.rental.data.ToolPricing;
+import com.winters.tool.rental.data.RentalValidationException;
+import com.winters.tool.rental.data.ValidationError;
+import com.winters.tool.rental.data.ValidationMode;
+import com.winters.tool.rental.data.ValidationRule;
+import lombok.Builder;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Service
 public class RentalService {
 
+    // Cached copy of ValidationRule.values(), which clones the array on every call
+    private static final ValidationRule[] VALIDATION_RULES = ValidationRule.values();
+    // The rules an availability search is checked against, the tool code is checked separately since it can be partial
+    private static final ValidationRule[] SEARCH_RULES = {ValidationRule.RENTAL_DAYS_BELOW_ONE,
+            ValidationRule.DISCOUNT_PERCENT_OUT_OF_RANGE, ValidationRule.CHECKOUT_DATE_MISSING};
+    // Cheapest first, ties broken by tool code so the order is stable
+    private static final Comparator<AvailableTool> BY_FINAL_CHARGE = Comparator
+            .comparing((AvailableTool available) -> available.getQuote().getFinalCharge())
+            .thenComparing(available -> available.getTool().getCode());
+    // Aim for a few chunks per worker so a slow chunk doesn't leave the rest of the pool idle at the end of a batch
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final HolidayCalendar holidayCalendar;
+    private final ExecutorService batchExecutor;
+    private final AgreementSink agreementSink;
+    private final ToolCatalogSource toolCatalog;
+    private final QuoteCache quoteCache;
+    private final CheckoutMetrics checkoutMetrics;
+    private final ToolInventory toolInventory;
+    private final DiscountRules discountRules;
+    private final IdempotencyCache idempotencyCache;
+    private final OverdueTracker overdueTracker;
+    // Held so that a cache miss doesn't allocate a new method reference on every checkout
+    private final Function<QuoteKey, Quote> quotePricer = this::price;
+    private final Function<RentalRequest, CheckoutResult> issuer = this::issueOnce;
+
+    public RentalService() {
+        this(null, null, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Any collaborator that is left unset falls back to the default used by the no-argument constructor.
+     *
+     * @param holidayCalendar - Decides which days count as holidays. Defaults to {@link HolidayCalendar#US_RENTAL_HOLIDAYS}
+     * @param batchExecutor   - Runs {@link #checkoutBatch(List)} chunks. Defaults to the common fork-join pool, any
+     *                        executor works, including a virtual thread per task executor on newer JVMs
+     * @param agreementSink   - Receives every agreement issued by {@link #checkout(RentalRequest)}, i.e. to print the
+     *                        receipt. Defaults to {@link AgreementSink#NONE}
+     * @param toolCatalog     - The tools that can be rented & what they cost. Read once per call, so a catalog that
+     *                        is reloaded while a request is being priced never mixes two versions. Defaults to
+     *                        {@link ToolCatalog#DEFAULT}
+     * @param quoteCache      - Reuses the charge day & price computation between requests for the same tool type,
+     *                        days and discount. Defaults to no caching
+     * @param checkoutMetrics - Times each stage of a checkout and counts its outcome. Defaults to {@link CheckoutMetrics#NONE}
+     * @param toolInventory   - The units that can be booked. Every issued agreement reserves a unit for its whole
+     *                        window, and is refused if none is free. Defaults to not tracking units at all
+     * @param discountRules   - Promotions added to each request's own discount, capped at 100%. Defaults to
+     *                        {@link DiscountRules#NONE}
+     * @param idempotencyCache - Remembers issued checkouts by idempotency key, so a retried request is answered with
+     *                         the agreement it was already issued. Defaults to issuing every request, key or not
+     * @param overdueTracker  - Holds every issued agreement until it's checked in, and sweeps for the overdue ones.
+     *                        Defaults to not tracking open agreements, in which case units can only be checked in
+     *                        with their agreement in hand
+     */
+    @Builder
+    public RentalService(HolidayCalendar holidayCalendar, ExecutorService batchExecutor, AgreementSink agreementSink,
+                         ToolCatalogSource toolCatalog, QuoteCache quoteCache, CheckoutMetrics checkoutMetrics,
+                         ToolInventory toolInventory, DiscountRules discountRules, IdempotencyCache idempotencyCache,
+                         OverdueTracker overdueTracker) {
+        this.holidayCalendar = holidayCalendar != null ? holidayCalendar : HolidayCalendar.US_RENTAL_HOLIDAYS;
+        this.batchExecutor = batchExecutor != null ? batchExecutor : ForkJoinPool.commonPool();
+        this.agreementSink = agreementSink != null ? agreementSink : AgreementSink.NONE;
+        this.toolCatalog = toolCatalog != null ? toolCatalog : ToolCatalog.DEFAULT;
+        this.quoteCache = quoteCache;
+        this.checkoutMetrics = checkoutMetrics != null ? checkoutMetrics : CheckoutMetrics.NONE;
+        this.toolInventory = toolInventory;
+        this.discountRules = discountRules != null ? discountRules : DiscountRules.NONE;
+        this.idempotencyCache = idempotencyCache;
+        this.overdueTracker = overdueTracker;
+    }
+
     public RentalAgreement checkout(RentalRequest req) throws Exception {
+        CheckoutResult result = issue(req);
+        // if the request had validation errors, throw exception with info
+        if (!result.isSuccess()) {
+            throw new RentalValidationException(result.getValidationErrors());
+        }
+
+        return result.getAgreement();
+    }
+
+    /**
+     * Same as {@link #checkout(RentalRequest)}, except validation failures are handed back as part of the result rather
+     * than thrown. A successful agreement is passed to the agreement sink before it is returned, so this is the one to
+     * use for agreements that are actually being issued, and {@link #tryCheckout(RentalRequest)} for quotes.
+     * <p>
+     * With a tool inventory, a unit is reserved from the checkout date through the due date once the request has been
+     * priced. If no unit is free the request fails with {@link ValidationRule#TOOL_UNAVAILABLE}, and if the agreement
+     * sink throws the unit is released again before the exception is passed on.
+     * <p>
+     * With an idempotency cache, a request carrying an idempotency key is only issued the first time the key is seen.
+     * Repeats of it, including ones sent while the first is still being issued, get the first one's result - the
+     * same agreement, without pricing, reserving or passing anything to the sink again.
+     *
+     * @param req The rental request to validate & price
+     * @return the issued agreement, or every validation error for the request
+     */
+    public CheckoutResult issue(RentalRequest req) {
+        // An unusable key is left for validation to reject, rather than being held on to by the cache
+        if (idempotencyCache != null && req.getIdempotencyKey() != null && isValidIdempotencyKey(req.getIdempotencyKey())) {
+            return idempotencyCache.issue(req, issuer);
+        }
+        return issueOnce(req);
+    }
+
+    private CheckoutResult issueOnce(RentalRequest req) {
+        CheckoutResult result = tryCheckout(req);
+        if (!result.isSuccess()) {
+            return result;
+        }
+        RentalAgreement agreement = result.getAgreement();
+        Reservation reservation = null;
+        if (toolInventory != null) {
+            reservation = toolInventory.reserve(agreement.getTool(), agreement.getCheckOutLocalDate().toEpochDay(),
+                    agreement.getDueLocalDate().toEpochDay(), unitsOutOverdue());
+            if (reservation == null) {
+                List<ValidationError> unavailable = List.of(new ValidationError(ValidationRule.TOOL_UNAVAILABLE, req));
+                checkoutMetrics.validationFailed(unavailable);
+                return CheckoutResult.failure(req, unavailable);
+            }
+            agreement.setUnitId(reservation.getUnitId());
+        }
+        try {
+            agreementSink.accept(agreement);
+        } catch (RuntimeException e) {
+            if (reservation != null) {
+                toolInventory.release(reservation);
+            }
+            throw e;
+        }
+        // Only once nothing can fail the checkout any more, so a failed one is never left open
+        if (overdueTracker != null) {
+            overdueTracker.track(agreement);
+        }
+        // Counted here rather than when priced, so quotes and checkouts refused a unit aren't counted as issued
+        checkoutMetrics.checkedOut(agreement.getTool().getType(), agreement.getNumDaysRented());
+        return result;
+    }
+
+    /**
+     * Checks the tool back in and works out what the agreement came to. A tool returned on or before its due date costs
+     * the agreement's final charge and nothing more. Every day after the due date through the return date is late, and
+     * the late days the tool type charges for - by the same weekday, weekend & holiday rules as the rental, and the
+     * pricing the agreement was issued with - are added at the full daily charge. Unlike the rental itself a late
+     * return that only runs over free days costs nothing extra.
+     * <p>
+     * The unit's booking is released, and the agreement is no longer open or overdue.
+     *
+     * @param agreement  - An agreement issued by {@link #issue(RentalRequest)}
+     * @param returnDate - The day the tool came back
+     * @return what the rental came to, or null if the overdue tracker doesn't hold the agreement open, i.e. it has
+     * already been checked in
+     * @throws IllegalArgumentException if the return date is before the checkout date
+     */
+    public RentalReturn checkIn(RentalAgreement agreement, LocalDate returnDate) {
+        validateReturnDate(agreement, returnDate);
+        if (overdueTracker != null && !overdueTracker.remove(agreement)) {
+            return null;
+        }
+        return returnRental(agreement, returnDate);
+    }
+
+    /**
+     * Same as {@link #checkIn(RentalAgreement, LocalDate)}, for the agreement the unit is out on - the open agreement on
+     * it with the earliest checkout date. Needs both a tool inventory, for units to be labelled, and an overdue tracker.
+     *
+     * @param unitId     - The unit as labelled on the agreement, i.e. "CHNS-2"
+     * @param returnDate - The day the unit came back
+     * @return what the rental came to, or null if the unit has no open agreement checked out on or before the return date
+     * @throws IllegalStateException if open rentals aren't being tracked
+     */
+    public RentalReturn checkIn(String unitId, LocalDate returnDate) {
+        if (overdueTracker == null) {
+            throw new IllegalStateException("Open rentals aren't tracked, units can't be checked in without their agreement");
+        }
+        RentalAgreement agreement = overdueTracker.checkIn(unitId, returnDate);
+        return agreement == null ? null : returnRental(agreement, returnDate);
+    }
+
+    /**
+     * Read only, the tracker is left as it was last swept - so a day in the future doesn't hold back units that may
+     * well be returned on time.
+     *
+     * @return every open agreement overdue as of the day, in the order they fell due
+     * @throws IllegalStateException if open rentals aren't being tracked
+     */
+    public List<RentalAgreement> findOverdue(LocalDate today) {
+        if (overdueTracker == null) {
+            throw new IllegalStateException("Open rentals aren't tracked");
+        }
+        return overdueTracker.getOverdue(today);
+    }
+
+    /**
+     * @return whether issued agreements are held open until they're checked in, which checking in by unit and
+     * {@link #findOverdue(LocalDate)} both need
+     */
+    public boolean isTrackingOpenRentals() {
+        return overdueTracker != null;
+    }
+
+    /**
+     * A unit's booking ends on its agreement's due date, but a unit that hasn't come back by then can't be handed to
+     * the next renter. Null, holding nothing back, without an overdue tracker to say which units are late.
+     * <p>
+     * Taken from the tracker's published snapshot before the inventory is asked, so testing a unit while its tool's
+     * stock is locked is a set lookup and never waits on the tracker.
+     */
+    private Predicate<String> unitsOutOverdue() {
+        return overdueTracker != null ? overdueTracker.getUnitsOutOverdue()::contains : null;
+    }
+
+    private static void validateReturnDate(RentalAgreement agreement, LocalDate returnDate) {
+        if (returnDate.isBefore(agreement.getCheckOutLocalDate())) {
+            throw new IllegalArgumentException("Return date " + returnDate + " is before the checkout date " + agreement.getCheckOutLocalDate());
+        }
+    }
+
+    private RentalReturn returnRental(RentalAgreement agreement, LocalDate returnDate) {
+        long checkoutEpochDay = agreement.getCheckOutLocalDate().toEpochDay();
+        long dueEpochDay = agreement.getDueLocalDate().toEpochDay();
+        long returnEpochDay = returnDate.toEpochDay();
+        if (toolInventory != null && agreement.getUnitId() != null) {
+            toolInventory.release(agreement.getTool(), agreement.getUnitId(), checkoutEpochDay, dueEpochDay);
+        }
+        ToolPricing pricing = agreement.getTool().getPricing();
+        int numDaysLate = (int) Math.max(0, returnEpochDay - dueEpochDay);
+        int lateChargeDays = countLateChargeDays(pricing, dueEpochDay, returnEpochDay);
+        long lateChargeCents = Math.multiplyExact(pricing.getDailyChargeCents(), lateChargeDays);
+        return new RentalReturn(agreement, returnDate, numDaysLate, lateChargeDays, CentsPricing.toBigDecimal(lateChargeCents),
+                agreement.getFinalCharge().add(CentsPricing.toBigDecimal(lateChargeCents)));
+    }
+
+    /**
+     * Late days are charged the way the type's rental days are, except that a day is only ever skipped once - a
+     * holiday on a day the type doesn't charge for anyway isn't taken off again, so the count never goes negative.
+     * Walked a day at a time, since the days a tool is kept past its due day are few.
+     */
+    private int countLateChargeDays(ToolPricing pricing, long dueEpochDay, long returnEpochDay) {
+        int lateChargeDays = 0;
+        for (long epochDay = dueEpochDay + 1; epochDay <= returnEpochDay; epochDay++) {
+            boolean chargedToday = RentalUtil.isWeekend(epochDay) ? pricing.isChargedOnWeekends() : pricing.isChargedOnWeekdays();
+            if (chargedToday && (pricing.isChargedOnHolidays() || !holidayCalendar.isHoliday(epochDay))) {
+                lateChargeDays++;
+            }
+        }
+        return lateChargeDays;
+    }
+
+    /**
+     * Same as {@link #checkout(RentalRequest)}, except validation failures are handed back as part of the result
+     * rather than thrown, and the agreement is not passed to the agreement sink.
+     *
+     * @param req The rental request to validate & price
+     * @return the priced agreement, or every validation error for the request
+     */
+    public CheckoutResult tryCheckout(RentalRequest req) {
+        return tryCheckout(req, ValidationMode.ALL_ERRORS);
+    }
+
+    /**
+     * @param req  The rental request to validate & price
+     * @param mode Whether to report every validation error or stop at the first
+     * @return the priced agreement, or the validation error(s) for the request
+     */
+    public CheckoutResult tryCheckout(RentalRequest req, ValidationMode mode) {
+
+        long stageStart = checkoutMetrics.startNanos();
+
+        // Null unless the whole tool code is valid, in which case it is the catalog's shared instance for the code
+        ToolCatalog catalog = toolCatalog.getCatalog();
+        Tool rentedTool = catalog.findTool(req.getToolCode());
+        stageStart = checkoutMetrics.stageCompleted(CheckoutStage.TOOL_LOOKUP, stageStart);
 
         // Validate Rental info
-        List<String> validationErrors = validateRentalRequest(req);
-        // if list is not empty, throw exception with info
+        List<ValidationError> validationErrors = validateRentalRequest(catalog, req, rentedTool, mode);
+        stageStart = checkoutMetrics.stageCompleted(CheckoutStage.VALIDATION, stageStart);
         if (!validationErrors.isEmpty()) {
-            throw new Exception("Rental Request is not valid. Please fix the following error(s): " + String.join(", ", validationErrors));
+            checkoutMetrics.validationFailed(validationErrors);
+            return CheckoutResult.failure(req, validationErrors);
         }
-        Tool rentedTool = RentalUtil.assembleToolFromToolCode(req.getToolCode());
-        Date dueDate = deriveRentalDueDate(req.getCheckoutDate(), req.getNumDaysToRent());
+        // Everything from here on works in whole days, the only conversion is back to LocalDate for the agreement
+        long checkoutEpochDay = req.getCheckoutLocalDate().toEpochDay();
+        int discountPercent = discountPercent(rentedTool, req, checkoutEpochDay, req.getNumDaysToRent());
+        QuoteKey quoteKey = new QuoteKey(holidayCalendar, rentedTool.getPricing(), checkoutEpochDay, req.getNumDaysToRent(), discountPercent);
+        Quote quote = quote(quoteKey);
+        stageStart = checkoutMetrics.stageCompleted(CheckoutStage.QUOTE, stageStart);
 
-        Tool.Type toolType = rentedTool.getType();
-        BigDecimal dailyCharge = toolType.getDailyCharge();
-        int totalDiscountDays = calculateNumDiscountDays(toolType, req.getCheckoutDate(), dueDate);
-        // In situations where a rental is has multiple days that do not qualify for a charge, we want to ensure we charge for at least the one day
-        int chargeDays = Math.max(1, req.getNumDaysToRent() - totalDiscountDays);
-        BigDecimal preDiscountCharge = dailyCharge.multiply(BigDecimal.valueOf(chargeDays)).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal discountPercentageAsDecimal = BigDecimal.valueOf(req.getDiscountPercent()).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        RentalAgreement agreement = buildAgreement(rentedTool, req, checkoutEpochDay, discountPercent, quote);
+        checkoutMetrics.stageCompleted(CheckoutStage.AGREEMENT, stageStart);
 
-        BigDecimal discountAmount = preDiscountCharge.multiply(discountPercentageAsDecimal).setScale(2, RoundingMode.HALF_UP);
+        return CheckoutResult.success(req, agreement);
+    }
 
-        RentalAgreement agreement = RentalAgreement.builder()
-                .tool(rentedTool)
-                .numDaysRented(req.getNumDaysToRent())
-                .checkOutDate(req.getCheckoutDate())
-                .dueDate(dueDate)
-                .dailyRentalCharge(dailyCharge)
-                .chargeDays(chargeDays)
-                .discountDays(totalDiscountDays)
-                .preDiscountCharge(preDiscountCharge)
-                .discountPercent(req.getDiscountPercent())
-                .discountAmount(discountAmount)
-                .finalCharge(preDiscountCharge.subtract(discountAmount))
+    /**
+     * Answers "which tools can I rent for this window?" - every tool matching the request's tool code with a unit free
+     * from the checkout date through the due date, priced for the request's days & discount and sorted cheapest first.
+     * The tool code can be left out to search every tool, be a 3 character type code (i.e. "LAD" for any ladder) or
+     * a full 4 character code.
+     * <p>
+     * Availability is read without locking, so searching never holds up (or waits for) a checkout, and nothing is
+     * reserved until one of the tools is actually issued. Without a tool inventory every matching tool is returned
+     * with {@link AvailableTool#UNITS_NOT_TRACKED} units.
+     *
+     * @param req The window & discount to search for, along with an optional (partial) tool code
+     * @return the available tools, or every validation error for the request
+     */
+    public AvailabilityResult findAvailable(RentalRequest req) {
+        ToolCatalog catalog = toolCatalog.getCatalog();
+        List<ValidationError> validationErrors = validateSearch(catalog, req);
+        if (!validationErrors.isEmpty()) {
+            return AvailabilityResult.failure(req, validationErrors);
+        }
+        String toolCode = req.getToolCode();
+        Tool.Type typeFilter = toolCode != null && toolCode.length() >= 3 ? catalog.findType(toolCode, 0, 3) : null;
+        Tool toolFilter = toolCode != null && toolCode.length() == 4 ? catalog.findTool(toolCode) : null;
+        long checkoutEpochDay = req.getCheckoutLocalDate().toEpochDay();
+        long dueEpochDay = checkoutEpochDay + req.getNumDaysToRent();
+
+        // Price only depends on the pricing & discount, so brands of the same type on the same promotions share a quote
+        Map<QuoteKey, Quote> quotes = new HashMap<>();
+        List<AvailableTool> availableTools = new ArrayList<>();
+        for (Tool tool : catalog.getTools()) {
+            if ((typeFilter != null && tool.getType() != typeFilter) || (toolFilter != null && tool != toolFilter)) {
+                continue;
+            }
+            int numUnitsAvailable = toolInventory != null
+                    ? toolInventory.countAvailable(tool, checkoutEpochDay, dueEpochDay, unitsOutOverdue())
+                    : AvailableTool.UNITS_NOT_TRACKED;
+            if (numUnitsAvailable == 0) {
+                continue;
+            }
+            int discountPercent = discountPercent(tool, req, checkoutEpochDay, req.getNumDaysToRent());
+            Quote quote = quotes.computeIfAbsent(new QuoteKey(holidayCalendar, tool.getPricing(), checkoutEpochDay,
+                    req.getNumDaysToRent(), discountPercent), this::quote);
+            availableTools.add(new AvailableTool(numUnitsAvailable, buildAgreement(tool, req, checkoutEpochDay, discountPercent, quote)));
+        }
+        availableTools.sort(BY_FINAL_CHARGE);
+        return AvailabilityResult.success(req, availableTools);
+    }
+
+    /**
+     * Prices every rental length from 1 day up to the request's {@code numDaysToRent} for the request's tool,
+     * checkout date & discount, i.e. to fill in a "how much for how long" table. Each length extends the one before it
+     * by its due day, so the whole curve costs one pass over the days rather than a checkout per length, and every
+     * point matches what {@link #tryCheckout(RentalRequest)} would charge for that length to the cent.
+     *
+     * @param req The tool, checkout date & discount to quote, with {@code numDaysToRent} as the longest rental wanted
+     * @return one point per rental length, or every validation error for the request
+     */
+    public QuoteCurve quoteCurve(RentalRequest req) {
+        ToolCatalog catalog = toolCatalog.getCatalog();
+        Tool rentedTool = catalog.findTool(req.getToolCode());
+        List<ValidationError> validationErrors = validateRentalRequest(catalog, req, rentedTool, ValidationMode.ALL_ERRORS);
+        if (!validationErrors.isEmpty()) {
+            return QuoteCurve.failure(req, validationErrors);
+        }
+        ToolPricing pricing = rentedTool.getPricing();
+        long checkoutEpochDay = req.getCheckoutLocalDate().toEpochDay();
+        int maxDays = req.getNumDaysToRent();
+
+        List<QuoteCurve.Point> points = new ArrayList<>(maxDays);
+        int discountDays = 0;
+        for (int numDays = 1; numDays <= maxDays; numDays++) {
+            // Renting one more day only adds the new due day to the charge period
+            long dueEpochDay = checkoutEpochDay + numDays;
+            discountDays += discountDaysOn(pricing, dueEpochDay);
+            int chargeDays = Math.max(1, numDays - discountDays);
+            // Promotions can depend on the rental length, so the discount is looked up again for every point
+            int discountPercent = discountPercent(rentedTool, req, checkoutEpochDay, numDays);
+            points.add(new QuoteCurve.Point(numDays, LocalDate.ofEpochDay(dueEpochDay), chargeDays, discountDays, discountPercent,
+                    CentsPricing.price(pricing.getDailyChargeCents(), chargeDays, discountPercent)));
+        }
+        return QuoteCurve.success(req, points);
+    }
+
+    /**
+     * @see #checkoutBatch(List, ExecutorService)
+     */
+    public BatchCheckoutResult checkoutBatch(List<RentalRequest> requests) {
+        return checkoutBatch(requests, batchExecutor);
+    }
+
+    /**
+     * @see #checkoutBatch(List, ExecutorService)
+     */
+    public BatchCheckoutResult checkoutBatch(Stream<RentalRequest> requests) {
+        return checkoutBatch(requests.collect(Collectors.toList()), batchExecutor);
+    }
+
+    /**
+     * Prices a large number of requests at once by splitting them into contiguous chunks and running the chunks on the
+     * given executor. Every request is priced with {@link #tryCheckout(RentalRequest)}, so an invalid request only
+     * produces a failed result for that entry and never aborts the rest of the batch.
+     *
+     * @param requests The requests to price
+     * @param executor The executor the chunks are submitted to
+     * @return one result per request in the same order as the input, plus timing stats for the batch as a whole
+     */
+    public BatchCheckoutResult checkoutBatch(List<RentalRequest> requests, ExecutorService executor) {
+        int numRequests = requests.size();
+        CheckoutResult[] results = new CheckoutResult[numRequests];
+        Set<Thread> workerThreads = ConcurrentHashMap.newKeySet();
+
+        int parallelism = executor instanceof ForkJoinPool ? ((ForkJoinPool) executor).getParallelism() : Runtime.getRuntime().availableProcessors();
+        int chunkSize = Math.max(1, (numRequests + parallelism * CHUNKS_PER_WORKER - 1) / (parallelism * CHUNKS_PER_WORKER));
+
+        long start = System.nanoTime();
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int chunkStart = 0; chunkStart < numRequests; chunkStart += chunkSize) {
+            int from = chunkStart;
+            int to = Math.min(numRequests, chunkStart + chunkSize);
+            chunks.add(executor.submit(() -> {
+                workerThreads.add(Thread.currentThread());
+                for (int i = from; i < to; i++) {
+                    results[i] = tryCheckout(requests.get(i));
+                }
+            }));
+        }
+        awaitAll(chunks);
+        long elapsedNanos = System.nanoTime() - start;
+
+        int numSucceeded = 0;
+        for (CheckoutResult result : results) {
+            if (result.isSuccess()) {
+                numSucceeded++;
+            }
+        }
+        return BatchCheckoutResult.builder()
+                .results(Arrays.asList(results))
+                .numSucceeded(numSucceeded)
+                .numFailed(numRequests - numSucceeded)
+                .numChunks(chunks.size())
+                .numWorkerThreads(workerThreads.size())
+                .elapsedNanos(elapsedNanos)
                 .build();
+    }
+
+    private static void awaitAll(List<Future<?>> chunks) {
+        try {
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for batch checkout to finish");
+        } catch (ExecutionException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            throw new IllegalStateException("Batch checkout chunk failed", e.getCause());
+        }
+    }
+
+    /**
+     * @param req  A rental request that contains the data to be validated
+     * @param mode Whether to report every validation error or stop at the first
+     * @return every rule the request violates (at most one in {@link ValidationMode#FAIL_FAST} mode), or an empty list
+     */
+    public List<ValidationError> validate(RentalRequest req, ValidationMode mode) {
+        ToolCatalog catalog = toolCatalog.getCatalog();
+        return validateRentalRequest(catalog, req, catalog.findTool(req.getToolCode()), mode);
+    }
 
-        System.out.println(agreement);
+    /**
+     * The same validation {@link #findAvailable(RentalRequest)} does, without searching
+     *
+     * @return every rule the search violates, or an empty list
+     */
+    public List<ValidationError> validateSearch(RentalRequest req) {
+        return validateSearch(toolCatalog.getCatalog(), req);
+    }
 
-        return agreement;
+    /**
+     * Cheapest way to find out whether a request would be accepted - stops at the first violated rule and never
+     * builds an error message.
+     */
+    public boolean isValid(RentalRequest req) {
+        return validate(req, ValidationMode.FAIL_FAST).isEmpty();
     }
 
     /**
      * We need to be sure that the data being passed into the checkout function is valid. But we don't just want to display
      * one error at a time until the requesting person finally gets the request correct. We are going to assemble a list
      * of validation reasons and display them in one go to avoid having to make multiple requests with only one issue
-     * fixed each time.
+     * fixed each time. Callers that only need a yes / no can ask for {@link ValidationMode#FAIL_FAST} instead.
      *
-     * @param req A rental Request that contains the data to be validated
+     * @param catalog    The catalog the request's tool code was looked up in
+     * @param req        A rental Request that contains the data to be validated
+     * @param rentedTool The tool looked up from the request's tool code, or null if the code didn't match a tool
+     * @param mode       Whether to report every validation error or stop at the first
      * @return The list of errors that ocurred when attempting to validate the request data
      */
-    private List<String> validateRentalRequest(RentalRequest req) {
-        List<String> validationErrors = new ArrayList<>();
-        if (req.getNumDaysToRent() < 1) {
-            validationErrors.add("Number of rental days must be at least one. Request had a value of " + req.getNumDaysToRent());
-        }
-        if (req.getDiscountPercent() < 0 || req.getDiscountPercent() > 100) {
-            validationErrors.add("Discount percentage must be between 0 and 100. Request had a value of " + req.getDiscountPercent());
+    private List<ValidationError> validateRentalRequest(ToolCatalog catalog, RentalRequest req, Tool rentedTool, ValidationMode mode) {
+        List<ValidationError> validationErrors = null;
+        for (ValidationRule rule : VALIDATION_RULES) {
+            if (violates(catalog, rule, req, rentedTool)) {
+                if (mode == ValidationMode.FAIL_FAST) {
+                    return List.of(new ValidationError(rule, req));
+                }
+                if (validationErrors == null) {
+                    validationErrors = new ArrayList<>(VALIDATION_RULES.length);
+                }
+                validationErrors.add(new ValidationError(rule, req));
+            }
         }
-        if (req.getToolCode().length() != 4) {
-            validationErrors.add("Tool Codes should only be 4 characters long (ex: CHNS). Request had a value of " + req.getToolCode());
-        } else {
-            Tool tool = RentalUtil.assembleToolFromToolCode(req.getToolCode());
+        return validationErrors == null ? List.of() : validationErrors;
+    }
 
-            if (tool.getType() == null) {
-                validationErrors.add("No Tool Type found for requested type. Ensure the Tool Code requested has a " +
-                        "valid tool type for the first three characters. Request had a value of " + req.getToolCode());
-            }
-            if (tool.getBrand() == null) {
-                validationErrors.add("No Brand type found for the requested type. Ensure the Tool Code requested has a " +
-                        "valid brand code for the last character. Request had a value of " + req.getToolCode());
+    private boolean violates(ToolCatalog catalog, ValidationRule rule, RentalRequest req, Tool rentedTool) {
+        String toolCode = req.getToolCode();
+        // The type & brand halves of the code are only worth checking separately when the code as a whole didn't match
+        boolean unknownFourCharacterCode = rentedTool == null && toolCode != null && toolCode.length() == 4;
+        return switch (rule) {
+            case RENTAL_DAYS_BELOW_ONE -> req.getNumDaysToRent() < 1;
+            case DISCOUNT_PERCENT_OUT_OF_RANGE -> req.getDiscountPercent() < 0 || req.getDiscountPercent() > 100;
+            case CHECKOUT_DATE_MISSING -> req.getCheckoutLocalDate() == null;
+            case TOOL_CODE_MISSING -> toolCode == null;
+            case TOOL_CODE_WRONG_LENGTH -> toolCode != null && toolCode.length() != 4;
+            case TOOL_TYPE_NOT_FOUND -> unknownFourCharacterCode && catalog.findType(toolCode, 0, 3) == null;
+            case TOOL_BRAND_NOT_FOUND -> unknownFourCharacterCode && catalog.findBrand(toolCode.charAt(3)) == null;
+            case IDEMPOTENCY_KEY_INVALID -> req.getIdempotencyKey() != null && !isValidIdempotencyKey(req.getIdempotencyKey());
+            // Depend on what else has been booked or issued, so they're only ever decided by issue()
+            case TOOL_UNAVAILABLE, IDEMPOTENCY_KEY_REUSED -> false;
+        };
+    }
+
+    private static boolean isValidIdempotencyKey(String idempotencyKey) {
+        return idempotencyKey.length() <= RentalRequest.MAX_IDEMPOTENCY_KEY_LENGTH && !idempotencyKey.isBlank();
+    }
+
+    /**
+     * Validates a search's window & discount the same way checkout would. The tool code is optional and may be a
+     * bare type code, so only the parts that are there are looked up.
+     */
+    private List<ValidationError> validateSearch(ToolCatalog catalog, RentalRequest req) {
+        List<ValidationError> validationErrors = new ArrayList<>();
+        for (ValidationRule rule : SEARCH_RULES) {
+            if (violates(catalog, rule, req, null)) {
+                validationErrors.add(new ValidationError(rule, req));
             }
         }
+        String toolCode = req.getToolCode();
+        if (toolCode == null || toolCode.isEmpty()) {
+            return validationErrors;
+        }
+        if (toolCode.length() != 3 && toolCode.length() != 4) {
+            validationErrors.add(new ValidationError(ValidationRule.TOOL_CODE_WRONG_LENGTH, req));
+            return validationErrors;
+        }
+        if (catalog.findType(toolCode, 0, 3) == null) {
+            validationErrors.add(new ValidationError(ValidationRule.TOOL_TYPE_NOT_FOUND, req));
+        }
+        if (toolCode.length() == 4 && catalog.findBrand(toolCode.charAt(3)) == null) {
+            validationErrors.add(new ValidationError(ValidationRule.TOOL_BRAND_NOT_FOUND, req));
+        }
         return validationErrors;
     }
 
+    private Quote quote(QuoteKey key) {
+        return quoteCache != null ? quoteCache.get(key, quotePricer) : price(key);
+    }
+
     /**
-     * Converts to an easily manipulated calendar then adds our rental days to calculate the return date.
-     *
-     * @param checkoutDate  - First day of rental (NOT first day of rental charge)
-     * @param numDaysToRent
-     * @return the date the rental is due to be returned
+     * The request's own discount plus whatever promotions apply to the rental
+     */
+    private int discountPercent(Tool tool, RentalRequest req, long checkoutEpochDay, int numDaysToRent) {
+        return Math.min(100, req.getDiscountPercent() + discountRules.discountPercent(tool, checkoutEpochDay, numDaysToRent));
+    }
+
+    /**
+     * @param discountPercent - The discount the quote was priced with, including promotions
+     */
+    private RentalAgreement buildAgreement(Tool tool, RentalRequest req, long checkoutEpochDay, int discountPercent, Quote quote) {
+        PriceBreakdown price = quote.getPrice();
+        return RentalAgreement.builder()
+                .tool(tool)
+                .numDaysRented(req.getNumDaysToRent())
+                .checkOutLocalDate(req.getCheckoutLocalDate())
+                .dueLocalDate(LocalDate.ofEpochDay(checkoutEpochDay + req.getNumDaysToRent()))
+                .dailyRentalCharge(tool.getPricing().getDailyCharge())
+                .chargeDays(quote.getChargeDays())
+                .discountDays(quote.getDiscountDays())
+                .preDiscountCharge(price.getPreDiscountCharge())
+                .discountPercent(discountPercent)
+                .discountAmount(price.getDiscountAmount())
+                .finalCharge(price.getFinalCharge())
+                .build();
+    }
+
+    /**
+     * The charge days & charges for a rental, which only depend on the tool's pricing, the days rented and the discount
+     */
+    private Quote price(QuoteKey key) {
+        long stageStart = checkoutMetrics.startNanos();
+        long dueEpochDay = key.getCheckoutEpochDay() + key.getNumDaysToRent();
+        int totalDiscountDays = calculateNumDiscountDays(key.getPricing(), key.getCheckoutEpochDay(), dueEpochDay);
+        stageStart = checkoutMetrics.stageCompleted(CheckoutStage.DISCOUNT_DAYS, stageStart);
+        // In situations where a rental is has multiple days that do not qualify for a charge, we want to ensure we charge for at least the one day
+        int chargeDays = Math.max(1, key.getNumDaysToRent() - totalDiscountDays);
+        // Priced in cents, only converted to BigDecimal for the agreement itself
+        PriceBreakdown price = CentsPricing.price(key.getPricing().getDailyChargeCents(), chargeDays, key.getDiscountPercent());
+        checkoutMetrics.stageCompleted(CheckoutStage.CHARGES, stageStart);
+        return new Quote(chargeDays, totalDiscountDays, price);
+    }
+
+    /**
+     * A single day's contribution to {@link #calculateNumDiscountDays}, counted the same way: a holiday the type isn't
+     * charged for counts on top of the weekday / weekend day it falls on.
      */
-    private Date deriveRentalDueDate(Date checkoutDate, int numDaysToRent) {
-        Calendar c = RentalUtil.convertDateToCalendar(checkoutDate);
-        c.add(Calendar.DATE, numDaysToRent);
-        return c.getTime();
+    private int discountDaysOn(ToolPricing pricing, long epochDay) {
+        int discountDays = !pricing.isChargedOnHolidays() && holidayCalendar.isHoliday(epochDay) ? 1 : 0;
+        boolean chargedToday = RentalUtil.isWeekend(epochDay) ? pricing.isChargedOnWeekends() : pricing.isChargedOnWeekdays();
+        return chargedToday ? discountDays : discountDays + 1;
     }
 
     /**
@@ -108,18 +675,16 @@ public class RentalService {
      * Different types of tools charge on different days, so we need to check the type of tool to determine if we
      * even need to provide the discount on the given type of day or not.
      *
-     * @param toolType
-     * @param checkoutDate - First day of rental (NOT first day of rental charge)
-     * @param dueDate      - Last day of rental (this day is normally a charge, unless one of the below conditions is met for that day)
+     * @param pricing
+     * @param checkoutEpochDay - First day of rental (NOT first day of rental charge), as a count of days since 1970-01-01
+     * @param dueEpochDay      - Last day of rental (this day is normally a charge, unless one of the below conditions is met for that day)
      * @return
      */
-    private int calculateNumDiscountDays(Tool.Type toolType, Date checkoutDate, Date dueDate) {
-        Calendar firstChargeDay = RentalUtil.convertDateToCalendar(checkoutDate);
-        firstChargeDay.add(Calendar.DATE, 1);
-        Date firstChargeDate = firstChargeDay.getTime();
-        int numHolidaysToDiscount = toolType.isChargedOnHolidays() ? 0 : RentalUtil.calculateNumHolidays(firstChargeDate, dueDate);
-        int numWeekendDaysToDiscount = toolType.isChargedOnWeekends() ? 0 : RentalUtil.calculateNumWeekendDays(firstChargeDate, dueDate);
-        int numWeekDaysToDiscount = toolType.isChargedOnWeekdays() ? 0 : RentalUtil.calculateNumWeekDays(firstChargeDate, dueDate);
+    private int calculateNumDiscountDays(ToolPricing pricing, long checkoutEpochDay, long dueEpochDay) {
+        DayCounts dayCounts = RentalUtil.countDays(checkoutEpochDay + 1, dueEpochDay, holidayCalendar);
+        int numHolidaysToDiscount = pricing.isChargedOnHolidays() ? 0 : dayCounts.getHolidays();
+        int numWeekendDaysToDiscount = pricing.isChargedOnWeekends() ? 0 : dayCounts.getWeekendDays();
+        int numWeekDaysToDiscount = pricing.isChargedOnWeekdays() ? 0 : dayCounts.getWeekDays();
         return numHolidaysToDiscount + numWeekendDaysToDiscount + numWeekDaysToDiscount;
     }
 
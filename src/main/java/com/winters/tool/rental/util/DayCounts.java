@@ -0,0 +1,17 @@
+package com.winters.tool.rental.util;
+
+import lombok.Value;
+
+/**
+ * Breakdown of the days within a rental's charge period, as produced by {@link RentalUtil#countDays}.
+ * Holidays are counted independently of the weekday / weekend split, so an observed holiday is included in both
+ * {@code holidays} and {@code weekDays}.
+ */
+public @Value class DayCounts {
+    // Count of Monday through Friday days
+    int weekDays;
+    // Count of Saturdays & Sundays
+    int weekendDays;
+    // Count of observed holidays
+    int holidays;
+}
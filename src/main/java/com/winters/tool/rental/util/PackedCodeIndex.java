@@ -0,0 +1,152 @@
+package com.winters.tool.rental.util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash table keyed by short (up to 4 character) ASCII codes such as "CHNS" or "LAD".
+ * <p>
+ * Each code is packed into a single int, one byte per character and upper-cased on the way in, so a lookup never
+ * allocates a substring or a boxed key and is case-insensitive for free. The table is sized to at most half full,
+ * keeping the linear probe sequence short no matter how many codes are indexed. Instances are immutable once built
+ * and safe to share between threads.
+ *
+ * @param <V> the value stored against each code
+ */
+public final class PackedCodeIndex<V> {
+
+    // Packed codes only ever use the low 7 bits of each byte, so a negative key can never collide with a real code
+    private static final int NOT_PACKABLE = -1;
+
+    private final int[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int size;
+
+    private PackedCodeIndex(int[] keys, Object[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    public static <V> Builder<V> builder(int expectedSize) {
+        return new Builder<>(expectedSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public V get(CharSequence code) {
+        return code == null ? null : get(code, 0, code.length());
+    }
+
+    /**
+     * @param start - index of the first character of the code within the sequence
+     * @param end   - index after the last character of the code within the sequence
+     * @return the value for the code, or null if there isn't one
+     */
+    @SuppressWarnings("unchecked")
+    public V get(CharSequence sequence, int start, int end) {
+        int key = pack(sequence, start, end);
+        if (key == NOT_PACKABLE) {
+            return null;
+        }
+        for (int slot = mix(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Packs up to four ASCII characters into an int, upper-casing letters as it goes
+     *
+     * @return the packed code, or {@link #NOT_PACKABLE} if the code is empty, too long or contains non ASCII characters
+     */
+    static int pack(CharSequence sequence, int start, int end) {
+        int length = end - start;
+        if (length < 1 || length > 4) {
+            return NOT_PACKABLE;
+        }
+        int key = 0;
+        for (int i = start; i < end; i++) {
+            char c = sequence.charAt(i);
+            if (c == 0 || c > 0x7F) {
+                return NOT_PACKABLE;
+            }
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            }
+            key = (key << 8) | c;
+        }
+        return key;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    public static final class Builder<V> {
+        private int[] keys;
+        private Object[] values;
+        private int size;
+
+        private Builder(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+            keys = new int[capacity];
+            values = new Object[capacity];
+        }
+
+        /**
+         * Adds the code unless it is already present - the first value registered for a code wins
+         *
+         * @throws IllegalArgumentException if the code is not 1-4 ASCII characters
+         */
+        public Builder<V> putIfAbsent(CharSequence code, V value) {
+            int key = pack(code, 0, code.length());
+            if (key == NOT_PACKABLE) {
+                throw new IllegalArgumentException("Codes must be 1-4 ASCII characters, found: " + code);
+            }
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (values[slot] != null) {
+                if (keys[slot] == key) {
+                    return this;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+            return this;
+        }
+
+        public PackedCodeIndex<V> build() {
+            return new PackedCodeIndex<>(Arrays.copyOf(keys, keys.length), Arrays.copyOf(values, values.length), size);
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new Object[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = mix(oldKeys[i]) & mask;
+                    while (values[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -1,32 +1,62 @@
 package com.winters.tool.rental.util;
 
 import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.holiday.HolidayCalendar;
 
-import java.time.DayOfWeek;
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.GregorianCalendar;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
+import java.util.TimeZone;
 
 public final class RentalUtil {
 
     private RentalUtil() {
     }
 
+    /**
+     * The zone used to turn a {@link Date} into a calendar day (and back) wherever the API still accepts or returns
+     * {@link Date}s. Resolved once, the first time it's needed, from the {@code rental.zone} system property, falling
+     * back to the JVM's default zone. Pricing itself only ever sees whole days, so this is the only place a zone comes
+     * into it.
+     */
+    public static ZoneId rentalZone() {
+        return RentalZone.ZONE;
+    }
+
     public static Calendar convertDateToCalendar(Date dateToConvert) {
-        Calendar c = Calendar.getInstance();
+        Calendar c = Calendar.getInstance(TimeZone.getTimeZone(rentalZone()));
         c.setTime(dateToConvert);
         return c;
     }
 
+    /**
+     * @return the day the given instant falls on in the {@link #rentalZone()}, or null for a null date
+     */
     public static LocalDate convertDateToLocalDate(Date dateToConvert) {
-        return Instant.ofEpochMilli(dateToConvert.getTime())
-                .atZone(ZoneId.systemDefault())
-                .toLocalDate();
+        return convertDateToLocalDate(dateToConvert, rentalZone());
+    }
+
+    public static LocalDate convertDateToLocalDate(Date dateToConvert, ZoneId zone) {
+        if (dateToConvert == null) {
+            return null;
+        }
+        return LocalDate.ofInstant(dateToConvert.toInstant(), zone);
+    }
+
+    /**
+     * @return the start of the given day in the {@link #rentalZone()}, or null for a null date
+     */
+    public static Date convertLocalDateToDate(LocalDate dateToConvert) {
+        return convertLocalDateToDate(dateToConvert, rentalZone());
+    }
+
+    public static Date convertLocalDateToDate(LocalDate dateToConvert, ZoneId zone) {
+        if (dateToConvert == null) {
+            return null;
+        }
+        return Date.from(dateToConvert.atStartOfDay(zone).toInstant());
     }
 
     /**
@@ -39,115 +69,144 @@ public final class RentalUtil {
      * @return total number of days that meet the given criteria
      */
     public static int calculateNumHolidays(Date firstChargeDate, Date dueDate) {
-        Calendar checkoutDateCalendar = RentalUtil.convertDateToCalendar(firstChargeDate);
-        Calendar dueDateCalendar = RentalUtil.convertDateToCalendar(dueDate);
+        return countHolidays(RentalUtil.convertDateToLocalDate(firstChargeDate).toEpochDay(),
+                RentalUtil.convertDateToLocalDate(dueDate).toEpochDay());
+    }
 
-        int startingYear = checkoutDateCalendar.get(Calendar.YEAR);
-        int endingYear = dueDateCalendar.get(Calendar.YEAR);
-        AtomicInteger numHolidays = new AtomicInteger(0);
+    /**
+     * @param firstEpochDay - The first day of the range, as a count of days since 1970-01-01
+     * @param lastEpochDay  - The last day of the range (inclusive), as a count of days since 1970-01-01
+     * @return total number of observed holidays within the range, or zero if the range is empty
+     */
+    public static int countHolidays(long firstEpochDay, long lastEpochDay) {
+        return HolidayCalendar.US_RENTAL_HOLIDAYS.countHolidays(firstEpochDay, lastEpochDay);
+    }
 
-        IntStream.rangeClosed(startingYear, endingYear).forEach(year -> {
-            Date observedFourthOfJuly = calculateObservedIndependenceDayForYear(year);
-            Date laborDay = calculateLaborDayForYear(year);
-            if (isDateInRange(observedFourthOfJuly, firstChargeDate, dueDate)) {
-                numHolidays.getAndIncrement();
-            }
-            if (isDateInRange(laborDay, firstChargeDate, dueDate)) {
-                numHolidays.getAndIncrement();
-            }
-        });
+    /**
+     * @param firstChargeDate - The first possible date we will charge the renter
+     * @param dueDate         - Date the item is due back, which is a normally charged day
+     * @return total number of days that meet the given criteria
+     */
+    public static int calculateNumWeekendDays(Date firstChargeDate, Date dueDate) {
+        return countWeekendDays(RentalUtil.convertDateToLocalDate(firstChargeDate).toEpochDay(),
+                RentalUtil.convertDateToLocalDate(dueDate).toEpochDay());
+    }
 
-        return numHolidays.get();
+    /**
+     * With the currently present products, we are always charging on weekdays, but a time
+     * may come when a new tool is exempt on weekdays, so we already have that in place.
+     *
+     * @param firstChargeDate - The first possible date we will charge the renter
+     * @param dueDate         - Date the item is due back, which is a normally charged day
+     * @return total number of days that meet the given criteria
+     */
+    public static int calculateNumWeekDays(Date firstChargeDate, Date dueDate) {
+        return countWeekDays(RentalUtil.convertDateToLocalDate(firstChargeDate).toEpochDay(),
+                RentalUtil.convertDateToLocalDate(dueDate).toEpochDay());
     }
 
     /**
-     * Because 4th of July can fall on the weekend, we only want the actual observed date of the holiday.
-     * If the holiday is on Saturday, Friday becomes the observed date. If it's on Sunday, Monday becomes the observed date.
+     * Counts every weekday, weekend day and holiday in the range in one go, so callers that need more than one of
+     * the counts only have to convert their dates a single time.
      *
-     * @param year - The year in which we are checking
-     * @return Date that indicates the observed holiday for the given year
+     * @param firstChargeDay - The first possible day we will charge the renter
+     * @param dueDay         - Day the item is due back, which is a normally charged day
+     * @return the weekday, weekend day and holiday counts for the range (inclusive on both ends)
      */
-    private static Date calculateObservedIndependenceDayForYear(int year) {
-        GregorianCalendar c = new GregorianCalendar(year, Calendar.JULY, 4);
+    public static DayCounts countDays(LocalDate firstChargeDay, LocalDate dueDay) {
+        return countDays(firstChargeDay, dueDay, HolidayCalendar.US_RENTAL_HOLIDAYS);
+    }
 
-        if (c.get(Calendar.DAY_OF_WEEK) == Calendar.SUNDAY) {
-            c.add(Calendar.DATE, 1);
-        } else if (c.get(Calendar.DAY_OF_WEEK) == Calendar.SATURDAY) {
-            c.add(Calendar.DATE, -1);
-        }
-        return c.getTime();
+    /**
+     * @param firstChargeDay  - The first possible day we will charge the renter
+     * @param dueDay          - Day the item is due back, which is a normally charged day
+     * @param holidayCalendar - The calendar that decides which days are holidays
+     * @return the weekday, weekend day and holiday counts for the range (inclusive on both ends)
+     */
+    public static DayCounts countDays(LocalDate firstChargeDay, LocalDate dueDay, HolidayCalendar holidayCalendar) {
+        return countDays(firstChargeDay.toEpochDay(), dueDay.toEpochDay(), holidayCalendar);
     }
 
     /**
-     * Labor day is not on a set day. Instead, it is the first Monday of each September. The Calendar class has
-     * an easy-to-use API to calculate the first Monday of a given month + year, so we'll use that here.
+     * @param firstEpochDay   - The first day of the range, as a count of days since 1970-01-01
+     * @param lastEpochDay    - The last day of the range (inclusive), as a count of days since 1970-01-01
+     * @param holidayCalendar - The calendar that decides which days are holidays
+     * @return the weekday, weekend day and holiday counts for the range (inclusive on both ends)
+     */
+    public static DayCounts countDays(long firstEpochDay, long lastEpochDay, HolidayCalendar holidayCalendar) {
+        return new DayCounts(countWeekDays(firstEpochDay, lastEpochDay), countWeekendDays(firstEpochDay, lastEpochDay),
+                holidayCalendar.countHolidays(firstEpochDay, lastEpochDay));
+    }
+
+    /**
+     * Rather than walking each day of the rental, we count how many Saturdays & Sundays sit in front of each end of
+     * the range and take the difference, so a ten-year rental costs the same as a one day rental.
      *
-     * @param year - the year in which we are calculating the holiday
-     * @return Date that indicates labor day for the given year
+     * @param firstEpochDay - The first day of the range, as a count of days since 1970-01-01
+     * @param lastEpochDay  - The last day of the range (inclusive), as a count of days since 1970-01-01
+     * @return total number of Saturdays & Sundays within the range, or zero if the range is empty
      */
-    private static Date calculateLaborDayForYear(int year) {
-        Calendar c = Calendar.getInstance();
-        c.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
-        c.set(Calendar.DAY_OF_WEEK_IN_MONTH, 1);
-        // Setting calendar to September, but Calendar.MONTH is zero-indexed, so 8 instead of 9
-        c.set(Calendar.MONTH, 8);
-        c.set(Calendar.YEAR, year);
-        return c.getTime();
+    public static int countWeekendDays(long firstEpochDay, long lastEpochDay) {
+        if (lastEpochDay < firstEpochDay) {
+            return 0;
+        }
+        return (int) (weekendDaysBefore(lastEpochDay + 1) - weekendDaysBefore(firstEpochDay));
     }
 
-    private static boolean isDateInRange(Date dateToCheck, Date startDate, Date endDate) {
-        return (dateToCheck.after(startDate) && dateToCheck.before(endDate)) || dateToCheck.equals(startDate) || dateToCheck.equals(endDate);
+    /**
+     * @param firstEpochDay - The first day of the range, as a count of days since 1970-01-01
+     * @param lastEpochDay  - The last day of the range (inclusive), as a count of days since 1970-01-01
+     * @return total number of Monday through Friday days within the range, or zero if the range is empty
+     */
+    public static int countWeekDays(long firstEpochDay, long lastEpochDay) {
+        if (lastEpochDay < firstEpochDay) {
+            return 0;
+        }
+        return (int) (lastEpochDay - firstEpochDay + 1) - countWeekendDays(firstEpochDay, lastEpochDay);
     }
 
     /**
-     * @param firstChargeDate - The first possible date we will charge the renter
-     * @param dueDate         - Date the item is due back, which is a normally charged day
-     * @return total number of days that meet the given criteria
+     * @param epochDay - The day to check, as a count of days since 1970-01-01
+     * @return true for a Saturday or Sunday, consistent with {@link #countWeekendDays(long, long)}
      */
-    public static int calculateNumWeekendDays(Date firstChargeDate, Date dueDate) {
-        AtomicInteger numWeekendDays = new AtomicInteger();
-        LocalDate start = RentalUtil.convertDateToLocalDate(firstChargeDate);
-        LocalDate end = RentalUtil.convertDateToLocalDate(dueDate);
-        start.datesUntil(end.plusDays(1)).forEach(day -> {
-            if (day.getDayOfWeek() == DayOfWeek.SATURDAY
-                    || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
-                numWeekendDays.getAndIncrement();
-            }
-        });
-        return numWeekendDays.get();
+    public static boolean isWeekend(long epochDay) {
+        // Same Monday-aligned shift as weekendDaysBefore
+        return Math.floorMod(epochDay + 3, 7) >= 5;
     }
 
     /**
-     * With the currently present products, we are always charging on weekdays, but a time
-     * may come when a new tool is exempt on weekdays, so we already have that in place.
-     *
-     * @param firstChargeDate - The first possible date we will charge the renter
-     * @param dueDate         - Date the item is due back, which is a normally charged day
-     * @return total number of days that meet the given criteria
+     * Number of weekend days from an arbitrary Monday origin up to (but not including) the given epoch day. Only the
+     * difference between two calls is meaningful. Epoch day 0 (1970-01-01) was a Thursday, so shifting by 3 lines
+     * Monday up with a remainder of 0 and leaves Saturday & Sunday as remainders 5 & 6.
      */
-    public static int calculateNumWeekDays(Date firstChargeDate, Date dueDate) {
-        AtomicInteger numWeekendDays = new AtomicInteger();
-        LocalDate start = RentalUtil.convertDateToLocalDate(firstChargeDate);
-        LocalDate end = RentalUtil.convertDateToLocalDate(dueDate);
-        start.datesUntil(end.plusDays(1)).forEach(day -> {
-            if (day.getDayOfWeek() == DayOfWeek.MONDAY
-                    || day.getDayOfWeek() == DayOfWeek.TUESDAY
-                    || day.getDayOfWeek() == DayOfWeek.WEDNESDAY
-                    || day.getDayOfWeek() == DayOfWeek.THURSDAY
-                    || day.getDayOfWeek() == DayOfWeek.FRIDAY
-            ) {
-                numWeekendDays.getAndIncrement();
-            }
-        });
-        return numWeekendDays.get();
+    private static long weekendDaysBefore(long epochDay) {
+        long shifted = epochDay + 3;
+        return 2 * Math.floorDiv(shifted, 7) + Math.max(0, Math.floorMod(shifted, 7) - 5);
     }
 
+    /**
+     * @param toolCode - 4 character tool code, i.e. "CHNS"
+     * @return the shared catalog instance for a valid code. For a code where only the type or only the brand is
+     * valid, a new Tool with the unknown half left null.
+     */
     public static Tool assembleToolFromToolCode(String toolCode) {
-        String toolType = toolCode.substring(0, 3);
+        Tool tool = ToolCatalog.DEFAULT.findTool(toolCode);
+        if (tool != null) {
+            return tool;
+        }
         char toolBrand = toolCode.charAt(toolCode.length() - 1);
         return Tool.builder()
-                .type(Tool.Type.findByTypeCode(toolType))
-                .brand(Tool.Brand.findByBrandCode(toolBrand))
+                .type(ToolCatalog.DEFAULT.findType(toolCode, 0, 3))
+                .brand(ToolCatalog.DEFAULT.findBrand(toolBrand))
                 .build();
     }
+
+    /**
+     * Looking up a zone region loads the time zone database and scans the classpath for zone providers, which is a
+     * good part of a headless run's startup. Holding the zone in its own class means only the callers that actually
+     * convert {@link Date}s pay for that, not everything that counts days.
+     */
+    private static final class RentalZone {
+        static final ZoneId ZONE = ZoneId.of(System.getProperty("rental.zone", ZoneId.systemDefault().getId()));
+    }
 }
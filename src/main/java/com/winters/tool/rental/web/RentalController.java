@@ -0,0 +1,237 @@
+package com.winters.tool.rental.web;
+
+import com.winters.tool.rental.api.AvailableToolDto;
+import com.winters.tool.rental.api.CheckInRequestDto;
+import com.winters.tool.rental.api.QuoteCurveDto;
+import com.winters.tool.rental.api.RentalAgreementDto;
+import com.winters.tool.rental.api.RentalRequestDto;
+import com.winters.tool.rental.api.RentalReturnDto;
+import com.winters.tool.rental.api.ValidationErrorDto;
+import com.winters.tool.rental.bulk.BulkPricingJob;
+import com.winters.tool.rental.bulk.RecordFormat;
+import com.winters.tool.rental.data.AvailabilityResult;
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.QuoteCurve;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.RentalReturn;
+import com.winters.tool.rental.data.ValidationError;
+import com.winters.tool.rental.data.ValidationMode;
+import com.winters.tool.rental.services.RentalService;
+import com.winters.tool.rental.util.RentalUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * HTTP front end for {@link RentalService}. Validation failures are returned as a 400 with the full list of errors
+ * rather than thrown, so a rejected request never pays for an exception or a stack trace.
+ */
+@RestController
+@RequestMapping("/api/rentals")
+public class RentalController {
+
+    // Ten years of daily quotes, any longer and a single response gets unreasonably large
+    private static final int MAX_QUOTE_CURVE_DAYS = 3650;
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    // Small enough that a batch of results goes out as soon as it's priced instead of waiting for more to fill the buffer
+    private static final int BULK_RESPONSE_BUFFER_SIZE = 8 * 1024;
+
+    private final RentalService rentalService;
+    private final BulkPricingJob bulkCheckoutJob;
+
+    /**
+     * @param bulkCheckoutJob - Issues the agreements for {@code /checkout/bulk}, must be built with the same rental service
+     */
+    public RentalController(RentalService rentalService, BulkPricingJob bulkCheckoutJob) {
+        this.rentalService = rentalService;
+        this.bulkCheckoutJob = bulkCheckoutJob;
+    }
+
+    /**
+     * Issues an agreement. A client that may retry should send an {@code Idempotency-Key} header, unique to the
+     * checkout and the same on every retry of it, and is then answered with the agreement the first attempt was issued
+     * rather than being issued another.
+     */
+    @PostMapping("/checkout")
+    public ResponseEntity<?> checkout(@RequestBody RentalRequestDto body,
+                                      @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return price(body, idempotencyKey, true);
+    }
+
+    /**
+     * Checks out every request in a newline delimited JSON body, one request per line, and streams back one line per
+     * request in the same order: the agreement, or {@code {"line":..., "errors":[...], "codes":[...]}} for a line that
+     * couldn't be read or failed validation.
+     * <p>
+     * The body is read a chunk at a time and only as fast as the results are written, so neither a huge upload nor a
+     * client that is slow to read the response is ever buffered in full - once the job's batches in flight are full,
+     * reading stops and TCP flow control pushes back on the sender.
+     */
+    @PostMapping(value = "/checkout/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void bulkCheckout(HttpServletRequest request, HttpServletResponse response) throws IOException, InterruptedException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        // Neither stream is closed here, the container owns them
+        Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), BULK_RESPONSE_BUFFER_SIZE);
+        bulkCheckoutJob.run(Channels.newChannel(request.getInputStream()), out, RecordFormat.NDJSON);
+    }
+
+    /**
+     * Same pricing as checkout, but with the request passed as query parameters so quotes can be fetched with a GET.
+     * A quote isn't an issued agreement, so it never reaches the agreement sink.
+     */
+    @GetMapping("/quote")
+    public ResponseEntity<?> quote(@RequestParam(required = false) String toolCode,
+                                   @RequestParam(required = false) String checkoutDate,
+                                   @RequestParam(defaultValue = "0") int numDaysToRent,
+                                   @RequestParam(defaultValue = "0") int discountPercent) {
+        return price(new RentalRequestDto(toolCode, numDaysToRent, discountPercent, checkoutDate), null, false);
+    }
+
+    /**
+     * Every tool with a unit free for the whole window, priced & sorted cheapest first. {@code toolCode} narrows the
+     * search to a tool type (i.e. "LAD") or a single tool (i.e. "LADW"), and can be left out to search everything.
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<?> availability(@RequestParam(required = false) String toolCode,
+                                          @RequestParam(required = false) String checkoutDate,
+                                          @RequestParam(defaultValue = "0") int numDaysToRent,
+                                          @RequestParam(defaultValue = "0") int discountPercent) {
+        return withRequest(new RentalRequestDto(toolCode, numDaysToRent, discountPercent, checkoutDate), rentalService::validateSearch, req -> {
+            AvailabilityResult result = rentalService.findAvailable(req);
+            if (!result.isSuccess()) {
+                return ResponseEntity.badRequest().body(ValidationErrorDto.from(result.getValidationErrors()));
+            }
+            return ResponseEntity.ok(result.getAvailableTools().stream().map(AvailableToolDto::from).toList());
+        });
+    }
+
+    /**
+     * What the tool costs from the checkout date for every rental length from 1 to {@code maxDays} days
+     */
+    @GetMapping("/quote-curve")
+    public ResponseEntity<?> quoteCurve(@RequestParam(required = false) String toolCode,
+                                        @RequestParam(required = false) String checkoutDate,
+                                        @RequestParam(defaultValue = "0") int maxDays,
+                                        @RequestParam(defaultValue = "0") int discountPercent) {
+        if (maxDays > MAX_QUOTE_CURVE_DAYS) {
+            return ResponseEntity.badRequest().body(ValidationErrorDto.quoteCurveTooLong(maxDays, MAX_QUOTE_CURVE_DAYS));
+        }
+        return withRequest(new RentalRequestDto(toolCode, maxDays, discountPercent, checkoutDate), req -> rentalService.validate(req, ValidationMode.ALL_ERRORS), req -> {
+            QuoteCurve curve = rentalService.quoteCurve(req);
+            if (!curve.isSuccess()) {
+                return ResponseEntity.badRequest().body(ValidationErrorDto.from(curve.getValidationErrors()));
+            }
+            return ResponseEntity.ok(QuoteCurveDto.from(curve));
+        });
+    }
+
+    /**
+     * Checks a unit back in on the return date and answers with what its rental came to, including any late charge.
+     * Units are only labelled when inventory is tracked, and only open rentals can be checked in, so this needs both
+     * the tool inventory and the overdue tracker - a 404 otherwise, the same as for a unit with no open rental.
+     */
+    @PostMapping("/check-in")
+    public ResponseEntity<?> checkIn(@RequestBody CheckInRequestDto body) {
+        LocalDate returnDate = null;
+        String invalidReturnDate = null;
+        try {
+            returnDate = body.parseReturnDate();
+        } catch (DateTimeParseException e) {
+            invalidReturnDate = body.getReturnDate();
+        }
+        boolean unitIdMissing = body.getUnitId() == null || body.getUnitId().isBlank();
+        ValidationErrorDto invalid = ValidationErrorDto.invalidCheckIn(unitIdMissing, returnDate == null && invalidReturnDate == null, invalidReturnDate);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(invalid);
+        }
+        if (!rentalService.isTrackingOpenRentals()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ValidationErrorDto.openRentalsNotTracked());
+        }
+        RentalReturn rentalReturn = rentalService.checkIn(body.getUnitId(), returnDate);
+        if (rentalReturn == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ValidationErrorDto.noOpenRental(body.getUnitId(), body.getReturnDate()));
+        }
+        return ResponseEntity.ok(RentalReturnDto.from(rentalReturn));
+    }
+
+    /**
+     * Every open rental that is overdue as of {@code asOf} (today in the rental time zone if it's left out), the
+     * longest overdue first
+     */
+    @GetMapping("/overdue")
+    public ResponseEntity<?> overdue(@RequestParam(required = false) String asOf) {
+        LocalDate day;
+        try {
+            day = asOf == null || asOf.isBlank() ? LocalDate.now(RentalUtil.rentalZone()) : LocalDate.parse(asOf);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(ValidationErrorDto.invalidAsOfDate(asOf));
+        }
+        if (!rentalService.isTrackingOpenRentals()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ValidationErrorDto.openRentalsNotTracked());
+        }
+        return ResponseEntity.ok(rentalService.findOverdue(day).stream().map(RentalAgreementDto::from).toList());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ValidationErrorDto> handleUnreadableBody(HttpMessageNotReadableException e) {
+        return ResponseEntity.badRequest().body(ValidationErrorDto.unreadableRequest());
+    }
+
+    /**
+     * @param idempotencyKey - Identifies retries of the same checkout, or null
+     * @param issue          - Whether the agreement is being issued (and so passed to the agreement sink) or only quoted
+     */
+    private ResponseEntity<?> price(RentalRequestDto body, String idempotencyKey, boolean issue) {
+        return withRequest(body, req -> rentalService.validate(req, ValidationMode.ALL_ERRORS), req -> {
+            req.setIdempotencyKey(idempotencyKey);
+            CheckoutResult result = issue ? rentalService.issue(req) : rentalService.tryCheckout(req);
+            if (!result.isSuccess()) {
+                return ResponseEntity.badRequest().body(ValidationErrorDto.from(result.getValidationErrors()));
+            }
+            return ResponseEntity.ok(RentalAgreementDto.from(result.getAgreement()));
+        });
+    }
+
+    /**
+     * Parses the checkout date before handing the request on, so a malformed date is reported the same way by every
+     * endpoint - along with everything else wrong with the request, as the endpoint would validate it without a date
+     *
+     * @param validator - The endpoint's validation, handed the request with its checkout date left out
+     */
+    private ResponseEntity<?> withRequest(RentalRequestDto body, Function<RentalRequest, List<ValidationError>> validator,
+                                          Function<RentalRequest, ResponseEntity<?>> handler) {
+        LocalDate checkoutDate;
+        try {
+            checkoutDate = body.parseCheckoutDate();
+        } catch (DateTimeParseException e) {
+            List<ValidationError> otherErrors = validator.apply(body.toRentalRequest(null));
+            return ResponseEntity.badRequest().body(ValidationErrorDto.invalidCheckoutDate(body.getCheckoutDate(), otherErrors));
+        }
+        return handler.apply(body.toRentalRequest(checkoutDate));
+    }
+}
@@ -0,0 +1,206 @@
+package com.winters.tool.rental.bulk;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.services.RentalService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkPricingJobTest {
+
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR", "SCRP"};
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    private final RentalService rentalService = new RentalService();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testNdjsonMatchesCheckout() throws Exception {
+        List<RentalRequest> requests = randomRequests(20_000);
+        List<String> lines = new ArrayList<>();
+        for (RentalRequest req : requests) {
+            lines.add("{\"toolCode\":\"" + req.getToolCode() + "\",\"numDaysToRent\":" + req.getNumDaysToRent()
+                    + ",\"discountPercent\":" + req.getDiscountPercent() + ",\"checkoutDate\":\"" + req.getCheckoutLocalDate() + "\"}");
+        }
+        Path input = tempDir.resolve("requests.ndjson");
+        Path output = tempDir.resolve("agreements.ndjson");
+        Files.write(input, lines);
+
+        BulkPricingReport report = BulkPricingJob.builder().numWorkers(4).batchSize(100).chunkSize(4096).build()
+                .run(input, output, RecordFormat.NDJSON);
+
+        List<String> outputLines = Files.readAllLines(output);
+        assertEquals(requests.size(), outputLines.size());
+        assertEquals(requests.size(), report.getNumRecords());
+        long numFailed = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            CheckoutResult expected = rentalService.tryCheckout(requests.get(i));
+            JsonNode actual = mapper.readTree(outputLines.get(i));
+            if (expected.isSuccess()) {
+                assertEquals(0, expected.getAgreement().getFinalCharge().compareTo(actual.get("finalCharge").decimalValue()));
+                assertEquals(expected.getAgreement().getDueLocalDate().toString(), actual.get("dueDate").asText());
+                assertEquals(requests.get(i).getToolCode(), actual.get("toolCode").asText());
+            } else {
+                numFailed++;
+                assertEquals(i + 1, actual.get("line").asLong());
+                assertEquals(expected.getValidationErrors().get(0).getRule().name(), actual.get("codes").get(0).asText());
+            }
+        }
+        assertEquals(numFailed, report.getNumFailed());
+        assertTrue(report.getRecordsPerSecond() > 0);
+        assertTrue(report.getPeakHeapBytes() > 0);
+    }
+
+    @Test
+    void testCsvWithHeaderAndUnreadableLines() throws Exception {
+        Path input = tempDir.resolve("requests.csv");
+        Path output = tempDir.resolve("agreements.csv");
+        Files.write(input, List.of(
+                "toolCode,numDaysToRent,discountPercent,checkoutDate",
+                "CHNS,5,25,2015-07-02",
+                "",
+                "JAKR,five,0,2015-07-02",
+                "LADW,3,10,07/02/20",
+                "\"LADW\", 3 ,10,2020-07-02",
+                "JAKR,0,101,2015-09-03"));
+
+        BulkPricingReport report = BulkPricingJob.builder().build().run(input, output, RecordFormat.forFileName(input.toString()));
+
+        assertEquals(List.of(
+                RecordFormat.CSV.header(),
+                "2,CHNS,CHAINSAW,STIHL,5,2015-07-02,2015-07-07,1.49,3,2,4.47,25,1.12,3.35,",
+                "4,,,,,,,,,,,,,,\"Request body is not a valid rental request.\"",
+                "5,,,,,,,,,,,,,,\"Checkout date must be formatted as yyyy-MM-dd. Request had a value of 07/02/20\"",
+                "6,LADW,LADDER,WERNER,3,2020-07-02,2020-07-05,1.99,2,1,3.98,10,0.40,3.58,",
+                "7,,,,,,,,,,,,,,\"Number of rental days must be at least one. Request had a value of 0; "
+                        + "Discount percentage must be between 0 and 100. Request had a value of 101\""
+        ), Files.readAllLines(output));
+        assertEquals(2, report.getNumSucceeded());
+        assertEquals(3, report.getNumFailed());
+    }
+
+    @Test
+    void testLineTooLongIsSkippedAndReported() throws Exception {
+        String request = "{\"toolCode\":\"LADW\",\"numDaysToRent\":3,\"checkoutDate\":\"2020-07-02\"}";
+        // Far longer than the limit, and with no line break for the reader to stop at
+        String endless = "{\"toolCode\":\"" + "L".repeat(100_000);
+        byte[] input = (request + "\n" + endless + "\n" + request + "\n" + endless).getBytes(StandardCharsets.UTF_8);
+        StringWriter output = new StringWriter();
+
+        BulkPricingReport report = BulkPricingJob.builder().numWorkers(1).chunkSize(64).maxLineLength(256).build()
+                .run(Channels.newChannel(new ByteArrayInputStream(input)), output, RecordFormat.NDJSON);
+
+        List<String> outputLines = output.toString().lines().toList();
+        assertEquals(4, outputLines.size());
+        assertEquals("LADW", mapper.readTree(outputLines.get(0)).get("toolCode").asText());
+        assertEquals("{\"line\":2,\"errors\":[\"Line is longer than the 256 bytes allowed and was skipped.\"],\"codes\":[\"LINE_TOO_LONG\"]}",
+                outputLines.get(1));
+        assertEquals("LADW", mapper.readTree(outputLines.get(2)).get("toolCode").asText());
+        assertEquals(4, mapper.readTree(outputLines.get(3)).get("line").asLong());
+        assertEquals(2, report.getNumSucceeded());
+        assertEquals(2, report.getNumFailed());
+    }
+
+    @Test
+    void testCommand() throws Exception {
+        Path input = tempDir.resolve("requests.ndjson");
+        Path output = tempDir.resolve("agreements.ndjson");
+        Files.write(input, List.of("{\"toolCode\":\"LADW\",\"numDaysToRent\":3,\"discountPercent\":10,\"checkoutDate\":\"2020-07-02\",\"note\":\"ignored\"}",
+                "{not json"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        int status = BulkPricingCommand.run(new String[]{"--input", input.toString(), "--output", output.toString(), "--workers", "2"},
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+
+        assertEquals(0, status);
+        assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("Priced 2 records (1 succeeded, 1 failed)"));
+        List<String> outputLines = Files.readAllLines(output);
+        assertEquals(0, new BigDecimal("3.58").compareTo(mapper.readTree(outputLines.get(0)).get("finalCharge").decimalValue()));
+        assertEquals("REQUEST_BODY_UNREADABLE", mapper.readTree(outputLines.get(1)).get("codes").get(0).asText());
+
+        assertEquals(2, BulkPricingCommand.run(new String[]{"--input", input.toString()},
+                new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testConcurrentRunsShareOneJobAndIssueEveryAgreement() throws Exception {
+        List<RentalAgreement> issued = new CopyOnWriteArrayList<>();
+        RentalService issuingService = RentalService.builder().agreementSink(issued::add).build();
+        List<RentalRequest> requests = randomRequests(5_000);
+        StringBuilder body = new StringBuilder();
+        long numValid = 0;
+        for (RentalRequest req : requests) {
+            body.append("{\"toolCode\":\"").append(req.getToolCode()).append("\",\"numDaysToRent\":").append(req.getNumDaysToRent())
+                    .append(",\"discountPercent\":").append(req.getDiscountPercent())
+                    .append(",\"checkoutDate\":\"").append(req.getCheckoutLocalDate()).append("\"}\n");
+            numValid += rentalService.isValid(req) ? 1 : 0;
+        }
+        byte[] input = body.toString().getBytes(StandardCharsets.UTF_8);
+
+        try (BulkPricingJob job = BulkPricingJob.builder().rentalService(issuingService).numWorkers(2).batchSize(50)
+                .chunkSize(1024).issue(true).flushEachBatch(true).build()) {
+            List<Future<String>> uploads = new ArrayList<>();
+            ExecutorService clients = Executors.newFixedThreadPool(4);
+            try {
+                for (int i = 0; i < 4; i++) {
+                    uploads.add(clients.submit(() -> {
+                        StringWriter output = new StringWriter();
+                        job.run(Channels.newChannel(new ByteArrayInputStream(input)), output, RecordFormat.NDJSON);
+                        return output.toString();
+                    }));
+                }
+                String first = uploads.get(0).get();
+                assertEquals(requests.size(), first.split("\n").length);
+                for (Future<String> upload : uploads) {
+                    assertEquals(first, upload.get());
+                }
+            } finally {
+                clients.shutdownNow();
+            }
+        }
+        assertEquals(4 * numValid, issued.size());
+    }
+
+    private static List<RentalRequest> randomRequests(int count) {
+        Random random = new Random(823L);
+        LocalDate origin = LocalDate.of(2015, 1, 1);
+        List<RentalRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(RentalRequest.builder()
+                    .toolCode(TOOL_CODES[random.nextInt(TOOL_CODES.length)])
+                    .numDaysToRent(random.nextInt(40))
+                    .discountPercent(random.nextInt(110))
+                    .checkoutLocalDate(origin.plusDays(random.nextInt(3650)))
+                    .build());
+        }
+        return requests;
+    }
+}
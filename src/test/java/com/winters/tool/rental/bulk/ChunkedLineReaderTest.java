@@ -0,0 +1,87 @@
+package com.winters.tool.rental.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkedLineReaderTest {
+
+    @Test
+    void testLinesSpanningChunks() throws IOException {
+        assertEquals(List.of("first line", "second", "", "third line is the longest of them all", "last"),
+                readAll("first line\nsecond\n\nthird line is the longest of them all\r\nlast", 8));
+    }
+
+    @Test
+    void testTrailingNewlineDoesNotAddALine() throws IOException {
+        assertEquals(List.of("a", "b"), readAll("a\nb\n", 4));
+        assertEquals(List.of(), readAll("", 4));
+    }
+
+    @Test
+    void testMultiByteCharactersSplitAcrossChunks() throws IOException {
+        assertEquals(List.of("héllo wörld €", "naïve"), readAll("héllo wörld €\nnaïve", 3));
+    }
+
+    @Test
+    void testMatchesSplittingTheWholeInput() throws IOException {
+        StringBuilder input = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String line = "{\"toolCode\":\"LADW\",\"numDaysToRent\":" + i + "}";
+            expected.add(line);
+            input.append(line).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        assertEquals(expected, readAll(input.toString(), 1000));
+    }
+
+    @Test
+    void testLinesLongerThanTheLimitAreSkipped() throws IOException {
+        String tooLong = "x".repeat(50);
+        ChunkedLineReader reader = new ChunkedLineReader(Channels.newChannel(new ByteArrayInputStream(
+                ("short\n" + tooLong + "\n" + "x".repeat(15) + "\r\n" + tooLong + "\r\n" + "after\n" + tooLong)
+                        .getBytes(StandardCharsets.UTF_8))), 4, 17);
+
+        assertEquals("short", reader.readLine());
+        assertThrows(LineTooLongException.class, reader::readLine);
+        // Exactly the limit, terminator included
+        assertEquals("x".repeat(15), reader.readLine());
+        LineTooLongException e = assertThrows(LineTooLongException.class, reader::readLine);
+        assertEquals(17, e.getMaxLineLength());
+        assertEquals("after", reader.readLine());
+        assertThrows(LineTooLongException.class, reader::readLine);
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    void testLimitShorterThanAChunkStillApplies() throws IOException {
+        ChunkedLineReader reader = new ChunkedLineReader(Channels.newChannel(new ByteArrayInputStream(
+                "abcdefgh\nabc\nabcdefgh".getBytes(StandardCharsets.UTF_8))), 64, 4);
+
+        assertThrows(LineTooLongException.class, reader::readLine);
+        assertEquals("abc", reader.readLine());
+        assertThrows(LineTooLongException.class, reader::readLine);
+        assertNull(reader.readLine());
+    }
+
+    private static List<String> readAll(String input, int chunkSize) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (ChunkedLineReader reader = new ChunkedLineReader(
+                Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))), chunkSize)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
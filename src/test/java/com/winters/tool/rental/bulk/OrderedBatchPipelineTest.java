@@ -0,0 +1,88 @@
+package com.winters.tool.rental.bulk;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderedBatchPipelineTest {
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void testOutputKeepsInputOrder() throws Exception {
+        int[] next = {0};
+        List<Integer> output = new ArrayList<>();
+
+        long numRecords = new OrderedBatchPipeline<Integer, Integer>(workers, 7, 3).run(
+                () -> next[0] < 10_000 ? next[0]++ : null,
+                record -> {
+                    // Uneven work so batches finish out of order
+                    LockSupport.parkNanos(ThreadLocalRandom.current().nextInt(1_000));
+                    return record * 2;
+                },
+                output::add);
+
+        assertEquals(10_000, numRecords);
+        for (int i = 0; i < output.size(); i++) {
+            assertEquals(i * 2, output.get(i));
+        }
+    }
+
+    @Test
+    void testReadingStaysBoundedAheadOfWriting() throws Exception {
+        int batchSize = 10;
+        int maxBatchesInFlight = 3;
+        AtomicInteger read = new AtomicInteger();
+        int[] written = {0};
+        int[] maxAhead = {0};
+
+        new OrderedBatchPipeline<Integer, Integer>(workers, batchSize, maxBatchesInFlight).run(
+                () -> {
+                    maxAhead[0] = Math.max(maxAhead[0], read.get() - written[0]);
+                    return read.get() < 1_000 ? read.getAndIncrement() : null;
+                },
+                record -> record,
+                record -> written[0]++);
+
+        assertEquals(1_000, written[0]);
+        assertTrue(maxAhead[0] <= batchSize * maxBatchesInFlight, "read " + maxAhead[0] + " records ahead");
+    }
+
+    @Test
+    void testTransformFailureFailsTheRun() {
+        int[] next = {0};
+        assertThrows(IllegalStateException.class, () -> new OrderedBatchPipeline<Integer, Integer>(workers, 5, 2).run(
+                () -> next[0] < 100 ? next[0]++ : null,
+                record -> {
+                    if (record == 42) {
+                        throw new IllegalStateException("bad record");
+                    }
+                    return record;
+                },
+                record -> {
+                }));
+    }
+
+    @Test
+    void testEmptySource() throws Exception {
+        List<Integer> output = new ArrayList<>();
+        assertEquals(0, new OrderedBatchPipeline<Integer, Integer>(workers, 5, 2).run(() -> null, record -> record, output::add));
+        assertEquals(List.of(), output);
+    }
+}
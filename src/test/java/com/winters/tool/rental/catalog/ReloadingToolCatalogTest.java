@@ -0,0 +1,220 @@
+package com.winters.tool.rental.catalog;
+
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.pricing.QuoteCache;
+import com.winters.tool.rental.services.RentalService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReloadingToolCatalogTest {
+
+    // The built-in catalog, as a file
+    private static final String VERSION_A = """
+            {"types": [
+              {"type": "CHAINSAW", "code": "CHN", "dailyCharge": 1.49, "chargedOnWeekdays": true, "chargedOnWeekends": false, "chargedOnHolidays": true},
+              {"type": "LADDER", "code": "LAD", "dailyCharge": 1.99, "chargedOnWeekdays": true, "chargedOnWeekends": true, "chargedOnHolidays": false},
+              {"type": "JACKHAMMER", "code": "JAK", "dailyCharge": 2.99, "chargedOnWeekdays": true, "chargedOnWeekends": false, "chargedOnHolidays": false}
+            ],
+            "brands": [
+              {"brand": "STIHL", "code": "S"}, {"brand": "WERNER", "code": "W"}, {"brand": "DEWALT", "code": "D"}, {"brand": "RIDGID", "code": "R"}
+            ]}
+            """;
+    // New prices & charge days, jackhammers withdrawn
+    private static final String VERSION_B = """
+            {"types": [
+              {"type": "CHAINSAW", "code": "CHN", "dailyCharge": 1.79, "chargedOnWeekdays": true, "chargedOnWeekends": true, "chargedOnHolidays": true},
+              {"type": "LADDER", "code": "LAD", "dailyCharge": 2.50, "chargedOnWeekdays": true, "chargedOnWeekends": false, "chargedOnHolidays": true}
+            ],
+            "brands": [
+              {"brand": "STIHL", "code": "S"}, {"brand": "WERNER", "code": "W"}, {"brand": "DEWALT", "code": "D"}, {"brand": "RIDGID", "code": "R"}
+            ]}
+            """;
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "LADR", "JAKD", "JAKR"};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReadsCatalogFile() throws IOException {
+        ToolCatalog catalog = ToolCatalogFile.read(write(VERSION_B));
+
+        Tool ladder = catalog.findTool("LADW");
+        assertEquals(250, ladder.getPricing().getDailyChargeCents());
+        assertFalse(ladder.getPricing().isChargedOnWeekends());
+        assertTrue(ladder.getPricing().isChargedOnHolidays());
+        assertNull(catalog.findTool("JAKR"));
+        assertEquals(8, catalog.getTools().size());
+
+        // Version B charges ladders on holidays but not weekends, so Fri 2020-07-03 (Independence Day observed) is charged
+        // along with Mon & Tue, and the weekend between is free
+        RentalAgreement agreement = RentalService.builder().toolCatalog(catalog).build()
+                .tryCheckout(request("LADW", LocalDate.of(2020, Month.JULY, 2), 5)).getAgreement();
+        assertEquals(3, agreement.getChargeDays());
+        assertEquals(new BigDecimal("7.50"), agreement.getPreDiscountCharge());
+        assertEquals(new BigDecimal("6.75"), agreement.getFinalCharge());
+    }
+
+    @Test
+    void testInvalidFilesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ToolCatalogFile.read(write(VERSION_A.replace("\"chargedOnHolidays\": false", "\"chargedOnHoliday\": false"))));
+        assertThrows(IllegalArgumentException.class, () -> ToolCatalogFile.read(write(VERSION_A.replace("1.49", "1.495"))));
+        assertThrows(IllegalArgumentException.class, () -> ToolCatalogFile.read(write(VERSION_A.replace("1.49", "\"1.49\""))));
+        assertThrows(IllegalArgumentException.class, () -> ToolCatalogFile.read(write(VERSION_A.replace("\"JAK\"", "\"LAD\""))));
+        assertThrows(IllegalArgumentException.class, () -> ToolCatalogFile.read(write(VERSION_A.replace("\"DEWALT\"", "\"BOSCH\""))));
+        assertThrows(IllegalArgumentException.class, () -> ToolCatalogFile.read(write("[]")));
+        assertThrows(IOException.class, () -> ToolCatalogFile.read(write(VERSION_A.substring(0, 100))));
+    }
+
+    @Test
+    void testInvalidEditKeepsLastGoodCatalog() throws IOException {
+        Path file = write(VERSION_A);
+        try (ReloadingToolCatalog reloading = ReloadingToolCatalog.builder().file(file).pollInterval(Duration.ZERO).build()) {
+            ToolCatalog original = reloading.getCatalog();
+            assertEquals(Tool.Type.JACKHAMMER, original.findTool("JAKR").getType());
+
+            replace(file, VERSION_B.substring(0, 100));
+            assertFalse(reloading.reloadIfChanged());
+            assertSame(original, reloading.getCatalog());
+            assertNotNull(reloading.getLastFailure());
+            // Nothing has changed since the failed read, so there's nothing to retry until the file is fixed
+            assertFalse(reloading.reloadIfChanged());
+
+            replace(file, VERSION_B);
+            assertTrue(reloading.reloadIfChanged());
+            assertNull(reloading.getCatalog().findTool("JAKR"));
+            assertNull(reloading.getLastFailure());
+            assertEquals(1, reloading.getNumReloads());
+
+            Files.delete(file);
+            assertFalse(reloading.reloadIfChanged());
+            assertNotNull(reloading.getCatalog().findTool("LADW"));
+        }
+    }
+
+    @Test
+    void testPollingPicksUpReplacedFile() throws Exception {
+        Path file = write(VERSION_A);
+        try (ReloadingToolCatalog reloading = ReloadingToolCatalog.builder().file(file).pollInterval(Duration.ofMillis(10)).build()) {
+            replace(file, VERSION_B);
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (reloading.getCatalog().findTool("JAKR") != null && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertNull(reloading.getCatalog().findTool("JAKR"));
+            assertEquals(new BigDecimal("1.79"), reloading.getCatalog().findTool("CHNS").getPricing().getDailyCharge());
+        }
+    }
+
+    /**
+     * Checkouts racing a stream of reloads must each be priced entirely from one version of the file - never one
+     * version's charge with the other's charge days, and never a quote cached from the other version
+     */
+    @Test
+    void testCheckoutsDuringReloadsSeeOneWholeCatalog() throws Exception {
+        Path file = write(VERSION_A);
+        RentalService serviceA = RentalService.builder().toolCatalog(ToolCatalogFile.parse(VERSION_A.getBytes())).build();
+        RentalService serviceB = RentalService.builder().toolCatalog(ToolCatalogFile.parse(VERSION_B.getBytes())).build();
+        int numThreads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads + 1);
+        try (ReloadingToolCatalog reloading = ReloadingToolCatalog.builder().file(file).pollInterval(Duration.ZERO).build()) {
+            RentalService service = RentalService.builder().toolCatalog(reloading).quoteCache(new QuoteCache(1_000)).build();
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicInteger numFromA = new AtomicInteger();
+            AtomicInteger numFromB = new AtomicInteger();
+
+            List<Future<?>> checkouts = new ArrayList<>();
+            for (int thread = 0; thread < numThreads; thread++) {
+                long seed = thread;
+                checkouts.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20_000; i++) {
+                        RentalRequest req = request(TOOL_CODES[random.nextInt(TOOL_CODES.length)],
+                                LocalDate.of(2020, Month.JUNE, 25).plusDays(random.nextInt(20)), 1 + random.nextInt(10));
+                        RentalAgreement actual = agreementOrNull(service.tryCheckout(req));
+                        RentalAgreement fromA = agreementOrNull(serviceA.tryCheckout(req));
+                        RentalAgreement fromB = agreementOrNull(serviceB.tryCheckout(req));
+                        if (Objects.equals(actual, fromA)) {
+                            numFromA.incrementAndGet();
+                        } else if (Objects.equals(actual, fromB)) {
+                            numFromB.incrementAndGet();
+                        } else {
+                            throw new AssertionError(req + " priced as " + actual + ", expected " + fromA + " or " + fromB);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> reloader = executor.submit(() -> {
+                for (int i = 0; running.get(); i++) {
+                    replace(file, i % 2 == 0 ? VERSION_B : VERSION_A);
+                    assertTrue(reloading.reload(), () -> "Reload failed: " + reloading.getLastFailure());
+                }
+                return null;
+            });
+
+            for (Future<?> checkout : checkouts) {
+                checkout.get();
+            }
+            running.set(false);
+            reloader.get();
+            assertTrue(reloading.getNumReloads() > 1);
+            assertTrue(numFromA.get() > 0 && numFromB.get() > 0, numFromA + " from A, " + numFromB + " from B");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static RentalAgreement agreementOrNull(CheckoutResult result) {
+        return result.isSuccess() ? result.getAgreement() : null;
+    }
+
+    private static RentalRequest request(String toolCode, LocalDate checkoutDate, int numDays) {
+        return RentalRequest.builder()
+                .toolCode(toolCode)
+                .checkoutLocalDate(checkoutDate)
+                .numDaysToRent(numDays)
+                .discountPercent(10)
+                .build();
+    }
+
+    private Path write(String json) throws IOException {
+        return Files.writeString(Files.createTempFile(directory, "catalog", ".json"), json);
+    }
+
+    /**
+     * Replaces the file the way an edit should be made, so a reload never reads a half written file
+     */
+    private void replace(Path file, String json) throws IOException {
+        Files.move(write(json), file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
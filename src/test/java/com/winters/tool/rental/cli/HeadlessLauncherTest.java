@@ -0,0 +1,55 @@
+package com.winters.tool.rental.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadlessLauncherTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    void testQuote() throws Exception {
+        assertEquals(0, run("quote", "--tool-code", "CHNS", "--checkout-date", "2015-07-02", "--days", "5", "--discount", "25"));
+        String receipt = out.toString(StandardCharsets.UTF_8);
+        assertTrue(receipt.contains("Days Charged: 3"));
+        assertTrue(receipt.contains("Total: $3.35"));
+        assertEquals("", err.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testQuoteValidationFailure() throws Exception {
+        assertEquals(1, run("quote", "--tool-code", "JAKR", "--checkout-date", "2015-09-03", "--discount", "101"));
+        assertEquals("", out.toString(StandardCharsets.UTF_8));
+        String errors = err.toString(StandardCharsets.UTF_8);
+        assertTrue(errors.contains("Number of rental days must be at least one"));
+        assertTrue(errors.contains("Discount percentage must be between 0 and 100"));
+    }
+
+    @Test
+    void testBadArguments() throws Exception {
+        assertEquals(2, run("quote", "--tool-code"));
+        assertEquals(2, run("quote", "--tool-code", "CHNS", "--checkout-date", "07/02/15", "--days", "5"));
+        assertEquals(2, run("quote", "--tool-code", "CHNS", "--checkout-date", "2015-07-02", "--days", "five"));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Usage: quote"));
+    }
+
+    @Test
+    void testIsCommand() {
+        assertTrue(HeadlessLauncher.isCommand(new String[]{"quote"}));
+        assertTrue(HeadlessLauncher.isCommand(new String[]{"bulk-price", "--input", "in.csv"}));
+        assertFalse(HeadlessLauncher.isCommand(new String[]{"--server.port=8080"}));
+        assertFalse(HeadlessLauncher.isCommand(new String[0]));
+    }
+
+    private int run(String... args) throws Exception {
+        return HeadlessLauncher.run(args, new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+}
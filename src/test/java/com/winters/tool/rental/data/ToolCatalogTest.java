@@ -0,0 +1,107 @@
+package com.winters.tool.rental.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ToolCatalogTest {
+
+    private final ToolCatalog catalog = ToolCatalog.DEFAULT;
+
+    @Test
+    void testFindToolReturnsSharedInstance() {
+        Tool tool = catalog.findTool("CHNS");
+
+        assertEquals(Tool.Type.CHAINSAW, tool.getType());
+        assertEquals(Tool.Brand.STIHL, tool.getBrand());
+        assertSame(tool, catalog.findTool("CHNS"));
+        assertSame(tool.getCode(), catalog.findTool(new StringBuilder("CHNS")).getCode());
+    }
+
+    @Test
+    void testEveryTypeAndBrandCombinationIsIndexed() {
+        assertEquals(Tool.Type.values().length * Tool.Brand.values().length, catalog.getTools().size());
+        for (Tool tool : catalog.getTools()) {
+            assertSame(tool, catalog.findTool(tool.getCode()));
+            assertEquals(Tool.builder().type(tool.getType()).brand(tool.getBrand()).build(), tool);
+        }
+    }
+
+    @Test
+    void testTypeCodesAreCaseInsensitiveButBrandCodesAreNot() {
+        assertSame(catalog.findTool("LADW"), catalog.findTool("ladW"));
+        assertEquals(Tool.Type.LADDER, catalog.findType("lad"));
+        assertNull(catalog.findTool("LADw"));
+        assertNull(catalog.findBrand('w'));
+    }
+
+    @Test
+    void testUnknownCodes() {
+        assertNull(catalog.findTool(null));
+        assertNull(catalog.findTool("CHN"));
+        assertNull(catalog.findTool("CHNSS"));
+        assertNull(catalog.findTool("SCRD"));
+        assertNull(catalog.findTool("CHNP"));
+        assertNull(catalog.findTool("CHNé"));
+        assertNull(catalog.findBrand('é'));
+    }
+
+    @Test
+    void testFindTypeWithinToolCode() {
+        assertEquals(Tool.Type.JACKHAMMER, catalog.findType("JAKR", 0, 3));
+        assertNull(catalog.findType("JAKR", 1, 4));
+    }
+
+    @Test
+    void testBrandCode() {
+        assertEquals("S", Tool.Brand.STIHL.getBrandCode());
+        assertEquals(Tool.Brand.WERNER, Tool.Brand.findByBrandCode('W'));
+        assertEquals(Tool.Type.CHAINSAW, Tool.Type.findByTypeCode("chn"));
+    }
+
+    @Test
+    void testListingsOverrideCodesAndPricing() {
+        ToolPricing freeOnWeekends = new ToolPricing(new BigDecimal("2.25"), true, false, false);
+        ToolCatalog listed = ToolCatalog.of(
+                List.of(new ToolCatalog.TypeListing(Tool.Type.LADDER, "LDR", freeOnWeekends)),
+                List.of(new ToolCatalog.BrandListing(Tool.Brand.WERNER, "X"), ToolCatalog.BrandListing.of(Tool.Brand.RIDGID)));
+
+        Tool ladder = listed.findTool("LDRX");
+        assertEquals(Tool.Type.LADDER, ladder.getType());
+        assertEquals(Tool.Brand.WERNER, ladder.getBrand());
+        assertEquals("X", ladder.getBrandCode());
+        assertSame(freeOnWeekends, ladder.getPricing());
+        assertSame(freeOnWeekends, listed.getPricing(Tool.Type.LADDER));
+        assertEquals(Tool.Brand.RIDGID, listed.findTool("LDRR").getBrand());
+        assertEquals(2, listed.getTools().size());
+        // Only what's listed is carried
+        assertNull(listed.findTool("LADW"));
+        assertNull(listed.findTool("CHNX"));
+        assertNull(listed.getPricing(Tool.Type.CHAINSAW));
+    }
+
+    @Test
+    void testDuplicateListingsAreRejected() {
+        ToolCatalog.TypeListing chainsaw = ToolCatalog.TypeListing.of(Tool.Type.CHAINSAW);
+        ToolCatalog.BrandListing stihl = ToolCatalog.BrandListing.of(Tool.Brand.STIHL);
+
+        assertThrows(IllegalArgumentException.class, () -> ToolCatalog.of(List.of(chainsaw, chainsaw), List.of(stihl)));
+        assertThrows(IllegalArgumentException.class, () -> ToolCatalog.of(List.of(chainsaw,
+                new ToolCatalog.TypeListing(Tool.Type.LADDER, "chn", Tool.Type.LADDER.getDefaultPricing())), List.of(stihl)));
+        assertThrows(IllegalArgumentException.class, () -> ToolCatalog.of(List.of(chainsaw), List.of(stihl, stihl)));
+        assertThrows(IllegalArgumentException.class, () -> ToolCatalog.of(List.of(chainsaw),
+                List.of(stihl, new ToolCatalog.BrandListing(Tool.Brand.DEWALT, "S"))));
+        // Tool codes ignore case, so CHNs would be a second CHNS
+        assertThrows(IllegalArgumentException.class, () -> ToolCatalog.of(List.of(chainsaw),
+                List.of(stihl, new ToolCatalog.BrandListing(Tool.Brand.DEWALT, "s"))));
+        assertThrows(IllegalArgumentException.class, () -> new ToolCatalog.TypeListing(Tool.Type.LADDER, "LADR", Tool.Type.LADDER.getDefaultPricing()));
+        assertThrows(IllegalArgumentException.class, () -> new ToolCatalog.BrandListing(Tool.Brand.DEWALT, "DW"));
+        assertThrows(IllegalArgumentException.class, () -> new ToolPricing(new BigDecimal("1.995"), true, true, true));
+    }
+}
@@ -0,0 +1,121 @@
+package com.winters.tool.rental.discount;
+
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompiledDiscountRulesTest {
+
+    private static final Tool.Type[] TYPES = Tool.Type.values();
+    private static final Tool.Brand[] BRANDS = Tool.Brand.values();
+    private static final long ORIGIN = LocalDate.of(2020, Month.JANUARY, 1).toEpochDay();
+
+    @Test
+    void testMatchesEvaluatingEveryRule() {
+        Random random = new Random(823L);
+        for (int numRules : new int[]{0, 1, 5, 50, 2000}) {
+            List<DiscountRule> rules = randomRules(random, numRules);
+            CompiledDiscountRules compiled = new CompiledDiscountRules(rules);
+            for (int i = 0; i < 20_000; i++) {
+                Tool tool = ToolCatalog.DEFAULT.getTools().get(random.nextInt(ToolCatalog.DEFAULT.getTools().size()));
+                long checkoutEpochDay = ORIGIN - 30 + random.nextInt(800);
+                int numDays = 1 + random.nextInt(random.nextBoolean() ? 40 : 4000);
+
+                assertEquals(evaluateEveryRule(rules, tool, checkoutEpochDay, numDays),
+                        compiled.discountPercent(tool, checkoutEpochDay, numDays),
+                        numRules + " rules, " + tool.getCode() + " on " + checkoutEpochDay + " for " + numDays);
+            }
+        }
+    }
+
+    @Test
+    void testBestExclusiveRuleWinsAndStackableRulesAdd() {
+        Tool chainsaw = ToolCatalog.DEFAULT.findTool("CHNS");
+        Tool jackhammer = ToolCatalog.DEFAULT.findTool("JAKR");
+        CompiledDiscountRules rules = new CompiledDiscountRules(List.of(
+                DiscountRule.builder().name("Week").minDays(7).percent(10).build(),
+                DiscountRule.builder().name("Month").minDays(30).percent(25).build(),
+                DiscountRule.builder().name("Stihl").brand(Tool.Brand.STIHL).percent(5).stackable(true).build(),
+                DiscountRule.builder().name("Members").percent(3).stackable(true).build(),
+                DiscountRule.builder().name("Spring clean").toolType(Tool.Type.CHAINSAW).maxDays(3)
+                        .firstCheckoutDate(LocalDate.of(2020, Month.MARCH, 20)).lastCheckoutDate(LocalDate.of(2020, Month.APRIL, 19))
+                        .percent(95).stackable(true).build()
+        ));
+        long winter = LocalDate.of(2020, Month.JANUARY, 15).toEpochDay();
+        long spring = LocalDate.of(2020, Month.APRIL, 19).toEpochDay();
+
+        assertEquals(3, rules.discountPercent(jackhammer, winter, 6));
+        assertEquals(13, rules.discountPercent(jackhammer, winter, 7));
+        assertEquals(28, rules.discountPercent(jackhammer, winter, 30));
+        assertEquals(33, rules.discountPercent(chainsaw, winter, 30));
+        assertEquals(8, rules.discountPercent(chainsaw, winter, 3));
+        // Spring clean ends on the 19th, and stacks past 100%
+        assertEquals(100, rules.discountPercent(chainsaw, spring, 3));
+        assertEquals(8, rules.discountPercent(chainsaw, spring + 1, 3));
+        assertEquals(8, rules.discountPercent(chainsaw, spring, 4));
+    }
+
+    @Test
+    void testNoRules() {
+        Tool ladder = ToolCatalog.DEFAULT.findTool("LADW");
+        assertEquals(0, new CompiledDiscountRules(List.of()).discountPercent(ladder, ORIGIN, 1));
+        assertEquals(0, new CompiledDiscountRules(List.of()).discountPercent(ladder, ORIGIN, Integer.MAX_VALUE));
+        assertEquals(0, DiscountRules.NONE.discountPercent(ladder, ORIGIN, 1));
+    }
+
+    @Test
+    void testInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> DiscountRule.builder().name("Too much").percent(101).build());
+        assertThrows(IllegalArgumentException.class, () -> DiscountRule.builder().name("Negative").percent(-1).build());
+        assertThrows(IllegalArgumentException.class, () -> DiscountRule.builder().name("Backwards").minDays(10).maxDays(9).build());
+        assertThrows(IllegalArgumentException.class, () -> DiscountRule.builder().name("Backwards").percent(5)
+                .firstCheckoutDate(LocalDate.of(2020, Month.JULY, 2)).lastCheckoutDate(LocalDate.of(2020, Month.JULY, 1)).build());
+    }
+
+    /**
+     * The rules as they're described, one at a time
+     */
+    private static int evaluateEveryRule(List<DiscountRule> rules, Tool tool, long checkoutEpochDay, int numDays) {
+        int bestExclusive = 0;
+        int stackable = 0;
+        for (DiscountRule rule : rules) {
+            if (rule.matches(tool, checkoutEpochDay, numDays)) {
+                if (rule.isStackable()) {
+                    stackable += rule.getPercent();
+                } else {
+                    bestExclusive = Math.max(bestExclusive, rule.getPercent());
+                }
+            }
+        }
+        return Math.min(100, bestExclusive + stackable);
+    }
+
+    private static List<DiscountRule> randomRules(Random random, int numRules) {
+        List<DiscountRule> rules = new ArrayList<>(numRules);
+        for (int i = 0; i < numRules; i++) {
+            int minDays = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(60);
+            LocalDate first = random.nextInt(3) == 0 ? null : LocalDate.ofEpochDay(ORIGIN + random.nextInt(730));
+            rules.add(DiscountRule.builder()
+                    .name("Rule " + i)
+                    .toolType(random.nextInt(3) == 0 ? null : TYPES[random.nextInt(TYPES.length)])
+                    .brand(random.nextInt(2) == 0 ? null : BRANDS[random.nextInt(BRANDS.length)])
+                    .minDays(minDays)
+                    .maxDays(random.nextInt(3) == 0 ? 0 : Math.max(1, minDays) + random.nextInt(90))
+                    .firstCheckoutDate(first)
+                    .lastCheckoutDate(random.nextInt(3) == 0 ? null : (first != null ? first : LocalDate.ofEpochDay(ORIGIN)).plusDays(random.nextInt(30)))
+                    .percent(random.nextInt(30))
+                    .stackable(random.nextInt(4) == 0)
+                    .build());
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,132 @@
+package com.winters.tool.rental.holiday;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledHolidayCalendarTest {
+
+    private final HolidayCalendar calendar = HolidayCalendar.US_RENTAL_HOLIDAYS;
+
+    @Test
+    void testIndependenceDayObservedOnFridayWhenOnSaturday() {
+        // July 4th, 2020 was a Saturday
+        assertTrue(calendar.isHoliday(LocalDate.of(2020, Month.JULY, 3).toEpochDay()));
+        assertFalse(calendar.isHoliday(LocalDate.of(2020, Month.JULY, 4).toEpochDay()));
+    }
+
+    @Test
+    void testIndependenceDayObservedOnMondayWhenOnSunday() {
+        // July 4th, 2021 was a Sunday
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, Month.JULY, 5).toEpochDay()));
+        assertFalse(calendar.isHoliday(LocalDate.of(2021, Month.JULY, 4).toEpochDay()));
+    }
+
+    @Test
+    void testLaborDay() {
+        assertTrue(calendar.isHoliday(LocalDate.of(2023, Month.SEPTEMBER, 4).toEpochDay()));
+        assertFalse(calendar.isHoliday(LocalDate.of(2023, Month.SEPTEMBER, 11).toEpochDay()));
+    }
+
+    @Test
+    void testEmptyRangeHasNoHolidays() {
+        long laborDay = LocalDate.of(2023, Month.SEPTEMBER, 4).toEpochDay();
+        assertEquals(0, calendar.countHolidays(laborDay, laborDay - 1));
+    }
+
+    @Test
+    void testCountsOutsideCachedWindow() {
+        long start = LocalDate.of(CompiledHolidayCalendar.MAX_CACHED_YEAR - 1, Month.JANUARY, 1).toEpochDay();
+        long end = LocalDate.of(CompiledHolidayCalendar.MAX_CACHED_YEAR + 2, Month.DECEMBER, 31).toEpochDay();
+        // Four full years, each with two holidays, half of them beyond the cached tables
+        assertEquals(8, calendar.countHolidays(start, end));
+    }
+
+    @Test
+    void testCountsMatchPerDayWalk() {
+        // New Year's Day on a Saturday is observed in the year before, which the walk has to cross as well
+        CompiledHolidayCalendar withNewYears = new CompiledHolidayCalendar(List.of(
+                HolidayRule.fixedDate("New Year's Day", Month.JANUARY, 1, true),
+                HolidayRule.fixedDate("Independence Day", Month.JULY, 4, true),
+                HolidayRule.nthWeekdayOfMonth("Labor Day", 1, DayOfWeek.MONDAY, Month.SEPTEMBER),
+                HolidayRule.fixedDate("New Year's Eve", Month.DECEMBER, 31, true)
+        ));
+        Random random = new Random(823L);
+        LocalDate origin = LocalDate.of(1880, 1, 1);
+        for (int i = 0; i < 1000; i++) {
+            LocalDate start = origin.plusDays(random.nextInt(365 * 440));
+            LocalDate end = start.plusDays(random.nextInt(i % 10 == 0 ? 365 * 30 : 90));
+
+            // Straight from the rules rather than the calendar's own tables
+            Set<LocalDate> observed = new HashSet<>();
+            for (int year = start.getYear() - 1; year <= end.getYear() + 1; year++) {
+                for (HolidayRule rule : withNewYears.getRules()) {
+                    observed.add(rule.observedDateForYear(year));
+                }
+            }
+            List<LocalDate> days = start.datesUntil(end.plusDays(1)).toList();
+            assertEquals(days.stream().filter(observed::contains).count(),
+                    withNewYears.countHolidays(start.toEpochDay(), end.toEpochDay()), start + " - " + end);
+            for (LocalDate day : days) {
+                assertEquals(observed.contains(day), withNewYears.isHoliday(day.toEpochDay()), day.toString());
+            }
+        }
+    }
+
+    @Test
+    void testNewYearsDayObservedOnTheLastDayOfTheYearBefore() {
+        HolidayCalendar newYears = new CompiledHolidayCalendar(List.of(HolidayRule.fixedDate("New Year's Day", Month.JANUARY, 1, true)));
+        // January 1st, 2022 was a Saturday
+        long newYearsEve = LocalDate.of(2021, Month.DECEMBER, 31).toEpochDay();
+
+        assertTrue(newYears.isHoliday(newYearsEve));
+        assertFalse(newYears.isHoliday(LocalDate.of(2022, Month.JANUARY, 1).toEpochDay()));
+        assertEquals(1, newYears.countHolidays(LocalDate.of(2021, Month.DECEMBER, 1).toEpochDay(), newYearsEve));
+        assertEquals(1, newYears.countHolidays(newYearsEve, LocalDate.of(2022, Month.JANUARY, 2).toEpochDay()));
+        assertEquals(0, newYears.countHolidays(LocalDate.of(2022, Month.JANUARY, 1).toEpochDay(), LocalDate.of(2022, Month.DECEMBER, 31).toEpochDay()));
+        assertEquals(2, newYears.countHolidays(LocalDate.of(2021, Month.JANUARY, 1).toEpochDay(), newYearsEve));
+    }
+
+    @Test
+    void testAdditionalRegionalHoliday() {
+        HolidayCalendar withThanksgiving = new CompiledHolidayCalendar(List.of(
+                HolidayRule.fixedDate("Independence Day", Month.JULY, 4, true),
+                HolidayRule.nthWeekdayOfMonth("Labor Day", 1, DayOfWeek.MONDAY, Month.SEPTEMBER),
+                HolidayRule.nthWeekdayOfMonth("Thanksgiving", 4, DayOfWeek.THURSDAY, Month.NOVEMBER)
+        ));
+        long start = LocalDate.of(2023, Month.JANUARY, 1).toEpochDay();
+        long end = LocalDate.of(2023, Month.DECEMBER, 31).toEpochDay();
+
+        assertTrue(withThanksgiving.isHoliday(LocalDate.of(2023, Month.NOVEMBER, 23).toEpochDay()));
+        assertEquals(3, withThanksgiving.countHolidays(start, end));
+        assertEquals(2, calendar.countHolidays(start, end));
+    }
+
+    @Test
+    void testMissingFifthWeekdayIsNotObserved() {
+        // February 2023 only had four Mondays
+        assertNull(HolidayRule.nthWeekdayOfMonth("Fifth Monday", 5, DayOfWeek.MONDAY, Month.FEBRUARY).observedDateForYear(2023));
+    }
+
+    @Test
+    void testYearOfEpochDayMatchesLocalDate() {
+        for (long epochDay = LocalDate.of(1600, 1, 1).toEpochDay(); epochDay <= LocalDate.of(2400, 12, 31).toEpochDay(); epochDay += 7) {
+            assertEquals(LocalDate.ofEpochDay(epochDay).getYear(), CompiledHolidayCalendar.yearOfEpochDay(epochDay));
+        }
+        // Year boundaries on both sides of a leap day
+        assertEquals(2024, CompiledHolidayCalendar.yearOfEpochDay(LocalDate.of(2024, 12, 31).toEpochDay()));
+        assertEquals(2025, CompiledHolidayCalendar.yearOfEpochDay(LocalDate.of(2025, 1, 1).toEpochDay()));
+        assertEquals(2024, CompiledHolidayCalendar.yearOfEpochDay(LocalDate.of(2024, 2, 29).toEpochDay()));
+    }
+}
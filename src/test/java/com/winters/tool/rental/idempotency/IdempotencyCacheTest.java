@@ -0,0 +1,263 @@
+package com.winters.tool.rental.idempotency;
+
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ValidationError;
+import com.winters.tool.rental.data.ValidationRule;
+import com.winters.tool.rental.inventory.ToolInventory;
+import com.winters.tool.rental.receipt.AgreementSink;
+import com.winters.tool.rental.services.RentalService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyCacheTest {
+
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2020, Month.JULY, 2);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final IdempotencyCache idempotencyCache = new IdempotencyCache(1_000, Duration.ofMinutes(10), nanos::get);
+    private final List<RentalAgreement> issued = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testRetriesGetTheAgreementAlreadyIssued() {
+        RentalService rentalService = service(issued::add);
+
+        RentalAgreement first = rentalService.issue(request("LADW", "order-1")).getAgreement();
+        assertSame(first, rentalService.issue(request("LADW", "order-1")).getAgreement());
+        assertNotSame(first, rentalService.issue(request("LADW", "order-2")).getAgreement());
+        // Without a key every request is a new checkout
+        rentalService.issue(request("LADW", null));
+        rentalService.issue(request("LADW", null));
+
+        assertEquals(4, issued.size());
+        assertEquals(new IdempotencyCacheStats(2, 1, 0, 0, 2), idempotencyCache.getStats());
+    }
+
+    @Test
+    void testKeyReusedForADifferentRequestIsRejected() {
+        RentalService rentalService = service(issued::add);
+        rentalService.issue(request("LADW", "order-1"));
+
+        CheckoutResult reused = rentalService.issue(request("CHNS", "order-1"));
+
+        assertEquals(List.of(ValidationRule.IDEMPOTENCY_KEY_REUSED), reused.getValidationErrors().stream().map(ValidationError::getRule).toList());
+        assertEquals(1, issued.size());
+        // A conflict, not a retry answered from the cache
+        assertEquals(new IdempotencyCacheStats(1, 0, 1, 0, 1), idempotencyCache.getStats());
+    }
+
+    @Test
+    void testUnusableKeysAreRejectedWithoutBeingCached() {
+        RentalService rentalService = service(issued::add);
+
+        for (String key : new String[]{" ", "k".repeat(RentalRequest.MAX_IDEMPOTENCY_KEY_LENGTH + 1)}) {
+            CheckoutResult result = rentalService.issue(request("LADW", key));
+            assertEquals(ValidationRule.IDEMPOTENCY_KEY_INVALID, result.getValidationErrors().get(0).getRule());
+        }
+        assertTrue(rentalService.issue(request("LADW", "k".repeat(RentalRequest.MAX_IDEMPOTENCY_KEY_LENGTH))).isSuccess());
+        assertEquals(1, issued.size());
+        assertEquals(1, idempotencyCache.getStats().getSize());
+    }
+
+    @Test
+    void testFailedCheckoutIsForgottenSoTheRetryCanIssueIt() {
+        AtomicBoolean sinkDown = new AtomicBoolean(true);
+        RentalService rentalService = service(agreement -> {
+            if (sinkDown.get()) {
+                throw new IllegalStateException("Receipt printer jammed");
+            }
+            issued.add(agreement);
+        });
+
+        assertThrows(IllegalStateException.class, () -> rentalService.issue(request("LADW", "order-1")));
+        sinkDown.set(false);
+
+        assertTrue(rentalService.issue(request("LADW", "order-1")).isSuccess());
+        assertEquals(1, issued.size());
+    }
+
+    @Test
+    void testKeysExpire() {
+        RentalService rentalService = service(issued::add);
+        RentalAgreement first = rentalService.issue(request("LADW", "order-1")).getAgreement();
+
+        nanos.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertSame(first, rentalService.issue(request("LADW", "order-1")).getAgreement());
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertNotSame(first, rentalService.issue(request("LADW", "order-1")).getAgreement());
+        assertEquals(2, issued.size());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        IdempotencyCache smallCache = new IdempotencyCache(100, Duration.ofHours(1));
+        RentalService rentalService = RentalService.builder().idempotencyCache(smallCache).build();
+
+        for (int i = 0; i < 10_000; i++) {
+            rentalService.issue(request("LADW", "order-" + i));
+        }
+        smallCache.cleanUp();
+
+        IdempotencyCacheStats stats = smallCache.getStats();
+        assertTrue(stats.getSize() <= 100, "size " + stats.getSize());
+        assertTrue(stats.getEvictionCount() >= 9_900, "evictions " + stats.getEvictionCount());
+        assertEquals(10_000, stats.getIssuedCount());
+    }
+
+    @Test
+    void testCheckoutBeingIssuedIsNeverEvicted() throws Exception {
+        IdempotencyCache smallCache = new IdempotencyCache(10, Duration.ofHours(1));
+        CountDownLatch flooded = new CountDownLatch(1);
+        RentalService rentalService = RentalService.builder()
+                .idempotencyCache(smallCache)
+                .agreementSink(agreement -> {
+                    if (agreement.getTool().getCode().equals("CHNS")) {
+                        await(flooded);
+                    }
+                    issued.add(agreement);
+                })
+                .build();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CheckoutResult> slow = executor.submit(() -> rentalService.issue(request("CHNS", "slow")));
+            while (smallCache.getStats().getIssuedCount() == 0) {
+                Thread.onSpinWait();
+            }
+            for (int i = 0; i < 1_000; i++) {
+                rentalService.issue(request("LADW", "order-" + i));
+            }
+            smallCache.cleanUp();
+            flooded.countDown();
+
+            assertSame(slow.get().getAgreement(), rentalService.issue(request("CHNS", "slow")).getAgreement());
+            assertEquals(1, issued.stream().filter(agreement -> agreement.getTool().getCode().equals("CHNS")).count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Every retry arrives while the first attempt is still being issued - they must all wait for it and share its
+     * agreement, and the last unit must only be booked once
+     */
+    @Test
+    void testConcurrentRetriesCoalesceOntoOneCheckout() throws Exception {
+        int numThreads = 32;
+        RentalService rentalService = RentalService.builder()
+                .idempotencyCache(idempotencyCache)
+                .toolInventory(ToolInventory.of(ToolCatalog.DEFAULT, 1, Map.of()))
+                .agreementSink(agreement -> {
+                    // Holds the first attempt open until every retry is waiting on it
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (idempotencyCache.getStats().getDeduplicatedCount() < numThreads - 1 && System.nanoTime() < deadline) {
+                        Thread.onSpinWait();
+                    }
+                    issued.add(agreement);
+                })
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<CheckoutResult>> retries = new ArrayList<>();
+            for (int thread = 0; thread < numThreads; thread++) {
+                retries.add(executor.submit(() -> {
+                    await(start);
+                    return rentalService.issue(request("JAKR", "order-1"));
+                }));
+            }
+            start.countDown();
+
+            RentalAgreement agreement = retries.get(0).get().getAgreement();
+            for (Future<CheckoutResult> retry : retries) {
+                assertSame(agreement, retry.get().getAgreement());
+            }
+            assertEquals(List.of(agreement), issued);
+            assertEquals(new IdempotencyCacheStats(1, numThreads - 1, 0, 0, 1), idempotencyCache.getStats());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testManyThreadsRetryingTheSameKeys() throws Exception {
+        int numThreads = 16;
+        int numKeys = 50;
+        RentalService rentalService = service(issued::add);
+        Map<String, RentalAgreement> agreementsByKey = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int thread = 0; thread < numThreads; thread++) {
+                long seed = thread;
+                workers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 5_000; i++) {
+                        String key = "order-" + random.nextInt(numKeys);
+                        RentalAgreement agreement = rentalService.issue(request("LADR", key)).getAgreement();
+                        RentalAgreement first = agreementsByKey.putIfAbsent(key, agreement);
+                        if (first != null && first != agreement) {
+                            throw new AssertionError(key + " was issued twice");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(numKeys, issued.size());
+        assertEquals(numKeys, idempotencyCache.getStats().getIssuedCount());
+        assertEquals(numThreads * 5_000 - numKeys, idempotencyCache.getStats().getDeduplicatedCount());
+    }
+
+    private RentalService service(AgreementSink agreementSink) {
+        return RentalService.builder().idempotencyCache(idempotencyCache).agreementSink(agreementSink).build();
+    }
+
+    private static RentalRequest request(String toolCode, String idempotencyKey) {
+        return RentalRequest.builder()
+                .toolCode(toolCode)
+                .checkoutLocalDate(CHECKOUT_DATE)
+                .numDaysToRent(3)
+                .discountPercent(10)
+                .idempotencyKey(idempotencyKey)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.winters.tool.rental.inventory;
+
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolInventoryTest {
+
+    private static final int NUM_THREADS = 32;
+
+    private final Tool chainsaw = ToolCatalog.DEFAULT.findTool("CHNS");
+    private final Tool ladder = ToolCatalog.DEFAULT.findTool("LADW");
+
+    @Test
+    void testWindowsIncludeBothEnds() {
+        ToolInventory inventory = new ToolInventory(ToolCatalog.DEFAULT, Map.of("CHNS", 1));
+
+        Reservation first = inventory.reserve(chainsaw, 10, 12);
+        assertEquals("CHNS-1", first.getUnitId());
+        assertNull(inventory.reserve(chainsaw, 12, 14));
+        assertNull(inventory.reserve(chainsaw, 8, 10));
+        assertNull(inventory.reserve(chainsaw, 0, 100));
+        assertNotNull(inventory.reserve(chainsaw, 13, 14));
+        assertNotNull(inventory.reserve(chainsaw, 5, 9));
+        assertEquals(0, inventory.countAvailable(chainsaw, 9, 10));
+        assertEquals(1, inventory.countAvailable(chainsaw, 15, 20));
+
+        assertTrue(inventory.release(first));
+        assertFalse(inventory.release(first));
+        assertEquals(1, inventory.countAvailable(chainsaw, 10, 12));
+        assertNotNull(inventory.reserve(chainsaw, 10, 12));
+    }
+
+    @Test
+    void testStockIsFoundForAToolARecodedCatalogCarries() {
+        ToolInventory inventory = new ToolInventory(ToolCatalog.DEFAULT, Map.of("CHNS", 1));
+        // A reload that gives chainsaws a new code, and the old code to nothing
+        ToolCatalog recoded = ToolCatalog.of(
+                List.of(new ToolCatalog.TypeListing(Tool.Type.CHAINSAW, "SAW", Tool.Type.CHAINSAW.getDefaultPricing())),
+                List.of(ToolCatalog.BrandListing.of(Tool.Brand.STIHL)));
+        Tool recodedChainsaw = recoded.findTool("SAWS");
+
+        Reservation reservation = inventory.reserve(recodedChainsaw, 10, 12);
+        // Units keep the labels they were stocked with
+        assertEquals("CHNS-1", reservation.getUnitId());
+        assertEquals(0, inventory.countAvailable(chainsaw, 10, 12));
+        assertEquals(1, inventory.getNumUnits(recodedChainsaw));
+        assertTrue(inventory.release(recodedChainsaw, "CHNS-1", 10, 12));
+        assertEquals(1, inventory.countAvailable(recodedChainsaw, 10, 12));
+    }
+
+    @Test
+    void testUnitsAreBookedLowestFirstAndToolsDontShare() {
+        ToolInventory inventory = ToolInventory.of(ToolCatalog.DEFAULT, 2, Map.of("ladW", 1));
+
+        assertEquals("CHNS-1", inventory.reserve(chainsaw, 1, 5).getUnitId());
+        assertEquals("CHNS-2", inventory.reserve(chainsaw, 3, 7).getUnitId());
+        assertNull(inventory.reserve(chainsaw, 4, 4));
+        assertEquals("CHNS-1", inventory.reserve(chainsaw, 6, 6).getUnitId());
+
+        assertEquals(1, inventory.getNumUnits(ladder));
+        assertEquals("LADW-1", inventory.reserve(ladder, 1, 5).getUnitId());
+        assertNull(inventory.reserve(ladder, 1, 5));
+    }
+
+    @Test
+    void testUnstockedAndUnknownTools() {
+        ToolInventory inventory = new ToolInventory(ToolCatalog.DEFAULT, Map.of("CHNS", 1));
+        assertNull(inventory.reserve(ladder, 1, 5));
+        assertEquals(0, inventory.countAvailable(ladder, 1, 5));
+        assertThrows(IllegalArgumentException.class, () -> new ToolInventory(ToolCatalog.DEFAULT, Map.of("XXXX", 1)));
+        assertThrows(IllegalArgumentException.class, () -> new ToolInventory(ToolCatalog.DEFAULT, Map.of("CHNS", -1)));
+        assertThrows(IllegalArgumentException.class, () -> inventory.reserve(chainsaw, 5, 4));
+    }
+
+    @Test
+    void testLastUnitGoesToExactlyOneThread() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            for (int round = 0; round < 100; round++) {
+                ToolInventory inventory = new ToolInventory(ToolCatalog.DEFAULT, Map.of("CHNS", 1));
+                CyclicBarrier start = new CyclicBarrier(NUM_THREADS);
+                AtomicInteger numReserved = new AtomicInteger();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < NUM_THREADS; t++) {
+                    long offset = t % 3;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        // Every window covers day 12, so at most one of them can have the unit
+                        if (inventory.reserve(chainsaw, 10 + offset, 12 + offset) != null) {
+                            numReserved.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                assertEquals(1, numReserved.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testNoOverbookingWhileReservingAndReleasingConcurrently() throws Exception {
+        int numUnits = 3;
+        int numDays = 120;
+        ToolInventory inventory = new ToolInventory(ToolCatalog.DEFAULT, Map.of("CHNS", numUnits, "LADW", numUnits));
+        ConcurrentLinkedQueue<Reservation> held = new ConcurrentLinkedQueue<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < NUM_THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    List<Reservation> mine = new ArrayList<>();
+                    for (int i = 0; i < 5_000; i++) {
+                        Tool tool = random.nextBoolean() ? chainsaw : ladder;
+                        long start = random.nextInt(numDays);
+                        if (!mine.isEmpty() && random.nextInt(3) == 0) {
+                            assertTrue(inventory.release(mine.remove(random.nextInt(mine.size()))));
+                        } else {
+                            // Readers never block, and can't see more free units than exist
+                            assertTrue(inventory.countAvailable(tool, start, start + 5) <= numUnits);
+                            Reservation reservation = inventory.reserve(tool, start, start + random.nextInt(10));
+                            if (reservation != null) {
+                                mine.add(reservation);
+                            }
+                        }
+                    }
+                    held.addAll(mine);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (Tool tool : new Tool[]{chainsaw, ladder}) {
+            int[] unitsOutPerDay = new int[numDays + 10];
+            for (Reservation reservation : held) {
+                if (reservation.getTool() == tool) {
+                    for (long day = reservation.getStartEpochDay(); day <= reservation.getEndEpochDay(); day++) {
+                        unitsOutPerDay[(int) day]++;
+                    }
+                }
+            }
+            int numBookings = 0;
+            for (int unit = 0; unit < numUnits; unit++) {
+                long[] bookings = inventory.getBookings(tool, unit);
+                for (int i = 2; i < bookings.length; i += 2) {
+                    assertTrue(bookings[i] > bookings[i - 1], "unit " + unit + " double booked on day " + bookings[i]);
+                }
+                numBookings += bookings.length / 2;
+            }
+            for (int day = 0; day < unitsOutPerDay.length; day++) {
+                assertTrue(unitsOutPerDay[day] <= numUnits, unitsOutPerDay[day] + " " + tool.getCode() + " out on day " + day);
+            }
+            assertEquals(held.stream().filter(reservation -> reservation.getTool() == tool).count(), numBookings);
+        }
+    }
+
+    @Test
+    void testAvailabilityReadsDontWaitForBookings() throws Exception {
+        ToolInventory inventory = new ToolInventory(ToolCatalog.DEFAULT, Map.of("CHNS", 2));
+        inventory.reserve(chainsaw, 10, 20);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch unlock = new CountDownLatch(1);
+        Thread booker = new Thread(() -> {
+            // Stands in for a booking that is part way through
+            synchronized (inventory.getStock(chainsaw)) {
+                locked.countDown();
+                try {
+                    unlock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        booker.start();
+        try {
+            locked.await();
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assertEquals(1, inventory.countAvailable(chainsaw, 15, 25));
+                assertEquals(2, inventory.countAvailable(chainsaw, 21, 25));
+            });
+        } finally {
+            unlock.countDown();
+            booker.join();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.winters.tool.rental.journal;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ToolPricing;
+import com.winters.tool.rental.services.RentalService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AgreementJournalTest {
+
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+    private static final int RECORD_SIZE = JournalRecords.HEADER_SIZE + JournalRecords.PAYLOAD_SIZE;
+
+    private final RentalService rentalService = new RentalService();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testConcurrentAppendsShareForcesAndReplayInSequenceOrder() throws Exception {
+        int numThreads = 16;
+        int appendsPerThread = 200;
+        List<RentalAgreement> agreements = agreements(numThreads * appendsPerThread);
+        RentalAgreement[] bySequence = new RentalAgreement[agreements.size() + 1];
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try (AgreementJournal journal = AgreementJournal.builder().directory(directory).build()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < numThreads; t++) {
+                List<RentalAgreement> slice = agreements.subList(t * appendsPerThread, (t + 1) * appendsPerThread);
+                futures.add(executor.submit(() -> {
+                    for (RentalAgreement agreement : slice) {
+                        long sequence = journal.append(agreement);
+                        // Durable as soon as append returns
+                        assertTrue(journal.getDurableSequence() >= sequence);
+                        bySequence[(int) sequence] = agreement;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertEquals(agreements.size(), journal.getDurableSequence());
+            assertTrue(journal.getNumSyncs() < agreements.size(), journal.getNumSyncs() + " forces for " + agreements.size() + " appends");
+        } finally {
+            executor.shutdown();
+        }
+
+        try (JournalReader reader = JournalReader.open(directory, ToolCatalog.DEFAULT, 1)) {
+            for (int sequence = 1; sequence <= agreements.size(); sequence++) {
+                JournalRecord record = reader.next();
+                assertEquals(sequence, record.getSequence());
+                assertEquals(bySequence[sequence], record.getAgreement());
+            }
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testRollsSegmentsAndCarriesOnAfterReopening() throws Exception {
+        List<RentalAgreement> agreements = agreements(120);
+        try (AgreementJournal journal = AgreementJournal.builder().directory(directory).segmentSize(JournalSegments.HEADER_SIZE + 10 * RECORD_SIZE).build()) {
+            for (RentalAgreement agreement : agreements.subList(0, 100)) {
+                journal.append(agreement);
+            }
+        }
+        List<Path> segments = JournalSegments.list(directory);
+        assertEquals(10, segments.size());
+        assertEquals(91, JournalSegments.firstSequence(segments.get(9)));
+
+        try (AgreementJournal journal = AgreementJournal.builder().directory(directory).segmentSize(JournalSegments.HEADER_SIZE + 10 * RECORD_SIZE).build()) {
+            assertEquals(100, journal.getDurableSequence());
+            for (RentalAgreement agreement : agreements.subList(100, 120)) {
+                journal.append(agreement);
+            }
+            assertEquals(12, JournalSegments.list(directory).size());
+
+            try (JournalReader reader = journal.openReader(57)) {
+                for (int sequence = 57; sequence <= 120; sequence++) {
+                    JournalRecord record = reader.next();
+                    assertEquals(sequence, record.getSequence());
+                    assertEquals(agreements.get(sequence - 1), record.getAgreement());
+                }
+                assertNull(reader.next());
+            }
+        }
+    }
+
+    @Test
+    void testRecoveryCutsOffATornWrite() throws Exception {
+        List<RentalAgreement> agreements = agreements(11);
+        try (AgreementJournal journal = AgreementJournal.builder().directory(directory).build()) {
+            for (RentalAgreement agreement : agreements.subList(0, 10)) {
+                journal.append(agreement);
+            }
+        }
+        Path segment = JournalSegments.list(directory).get(0);
+        long intactSize = Files.size(segment);
+        // Half of an 11th record, as if the process died part way through writing it
+        byte[] record = JournalRecords.encode(agreements.get(10));
+        JournalRecords.seal(record, 11, new CRC32C());
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(record, 0, record.length / 2));
+        }
+
+        try (AgreementJournal journal = AgreementJournal.builder().directory(directory).build()) {
+            assertEquals(10, journal.getDurableSequence());
+            assertEquals(intactSize, Files.size(segment));
+            assertEquals(11, journal.append(agreements.get(10)));
+        }
+        assertEquals(11, countRecords());
+    }
+
+    @Test
+    void testRecoveryStopsAtACorruptRecord() throws Exception {
+        try (AgreementJournal journal = AgreementJournal.builder().directory(directory).build()) {
+            for (RentalAgreement agreement : agreements(10)) {
+                journal.append(agreement);
+            }
+        }
+        flipByte(JournalSegments.list(directory).get(0), JournalSegments.HEADER_SIZE + 6 * RECORD_SIZE + 30);
+
+        try (AgreementJournal journal = AgreementJournal.builder().directory(directory).build()) {
+            assertEquals(6, journal.getDurableSequence());
+        }
+        assertEquals(6, countRecords());
+    }
+
+    @Test
+    void testDamageBeforeTheLastSegmentFailsReplay() throws Exception {
+        try (AgreementJournal journal = AgreementJournal.builder().directory(directory).segmentSize(JournalSegments.HEADER_SIZE + 10 * RECORD_SIZE).build()) {
+            for (RentalAgreement agreement : agreements(25)) {
+                journal.append(agreement);
+            }
+        }
+        flipByte(JournalSegments.list(directory).get(0), JournalSegments.HEADER_SIZE + 3 * RECORD_SIZE + 40);
+
+        assertThrows(IOException.class, this::countRecords);
+    }
+
+    @Test
+    void testReplayTakesToolsFromTheCatalogAsItIsNow() throws Exception {
+        AtomicReference<ToolCatalog> catalog = new AtomicReference<>(ToolCatalog.DEFAULT);
+        RentalAgreement ladder = agreements(2).get(1);
+        try (AgreementJournal journal = AgreementJournal.builder().directory(directory).toolCatalog(catalog::get).build()) {
+            journal.append(ladder);
+
+            // Reloaded with ladders renamed and repriced, and LADW no longer a code at all
+            ToolPricing repriced = new ToolPricing(new BigDecimal("5.00"), true, true, true);
+            catalog.set(ToolCatalog.of(List.of(new ToolCatalog.TypeListing(Tool.Type.LADDER, "STP", repriced)),
+                    List.of(ToolCatalog.BrandListing.of(Tool.Brand.WERNER))));
+            try (JournalReader reader = journal.openReader(1)) {
+                RentalAgreement replayed = reader.next().getAgreement();
+                assertSame(catalog.get().findTool("STPW"), replayed.getTool());
+                // Charged as it was issued, whatever the price is now
+                assertEquals(ladder.getFinalCharge(), replayed.getFinalCharge());
+                assertEquals(ladder.getDailyRentalCharge(), replayed.getDailyRentalCharge());
+            }
+
+            // A catalog that stops carrying the tool can't replay it
+            catalog.set(ToolCatalog.of(List.of(ToolCatalog.TypeListing.of(Tool.Type.CHAINSAW)),
+                    List.of(ToolCatalog.BrandListing.of(Tool.Brand.STIHL))));
+            try (JournalReader reader = journal.openReader(1)) {
+                assertThrows(IOException.class, reader::next);
+            }
+        }
+    }
+
+    @Test
+    void testAppendAfterCloseThrows() throws Exception {
+        AgreementJournal journal = AgreementJournal.builder().directory(directory).build();
+        journal.close();
+        assertThrows(IllegalStateException.class, () -> journal.append(agreements(1).get(0)));
+    }
+
+    private int countRecords() throws IOException {
+        int count = 0;
+        try (JournalReader reader = JournalReader.open(directory, ToolCatalog.DEFAULT, 1)) {
+            while (reader.next() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void flipByte(Path segment, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, position);
+            b.put(0, (byte) ~b.get(0));
+            channel.write(b.rewind(), position);
+        }
+    }
+
+    private List<RentalAgreement> agreements(int count) {
+        List<RentalAgreement> agreements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            agreements.add(rentalService.tryCheckout(RentalRequest.builder()
+                    .toolCode(TOOL_CODES[i % TOOL_CODES.length])
+                    .numDaysToRent(1 + i % 30)
+                    .discountPercent(i % 101)
+                    .checkoutLocalDate(LocalDate.of(2020, 1, 1).plusDays(i))
+                    .build()).getAgreement());
+        }
+        return agreements;
+    }
+}
@@ -0,0 +1,127 @@
+package com.winters.tool.rental.metrics;
+
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ValidationRule;
+import com.winters.tool.rental.inventory.ToolInventory;
+import com.winters.tool.rental.pricing.QuoteCache;
+import com.winters.tool.rental.services.RentalService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicrometerCheckoutMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QuoteCache quoteCache = new QuoteCache(100);
+    private final RentalService rentalService = RentalService.builder()
+            .checkoutMetrics(new MicrometerCheckoutMetrics(registry))
+            .quoteCache(quoteCache)
+            .build();
+
+    @Test
+    void testSuccessfulCheckoutRecordsEveryStage() throws Exception {
+        rentalService.checkout(request("LADW", 3, 10));
+
+        for (CheckoutStage stage : CheckoutStage.values()) {
+            assertEquals(1, stageCount(stage), stage.name());
+        }
+        assertEquals(1, registry.get("rental.checkouts").tag("type", "LADDER").counter().count());
+        assertEquals(0, registry.get("rental.checkouts").tag("type", "CHAINSAW").counter().count());
+        assertEquals(1, registry.get("rental.checkout.rental.days").summary().count());
+        assertEquals(3, registry.get("rental.checkout.rental.days").summary().totalAmount());
+    }
+
+    @Test
+    void testCachedQuoteSkipsPricingStages() {
+        rentalService.tryCheckout(request("LADW", 3, 10));
+        rentalService.tryCheckout(request("LADR", 3, 10));
+
+        assertEquals(2, stageCount(CheckoutStage.QUOTE));
+        assertEquals(1, stageCount(CheckoutStage.DISCOUNT_DAYS));
+        assertEquals(1, stageCount(CheckoutStage.CHARGES));
+        // Quotes, nothing was issued
+        assertEquals(0, registry.get("rental.checkouts").tag("type", "LADDER").counter().count());
+    }
+
+    @Test
+    void testQuoteAndUnavailableCheckoutArentCountedAsCheckouts() {
+        RentalService inventoryService = RentalService.builder()
+                .checkoutMetrics(new MicrometerCheckoutMetrics(registry))
+                .toolInventory(new ToolInventory(ToolCatalog.DEFAULT, Map.of("LADW", 0)))
+                .build();
+        assertTrue(inventoryService.tryCheckout(request("LADW", 3, 10)).isSuccess());
+        assertFalse(inventoryService.issue(request("LADW", 3, 10)).isSuccess());
+
+        assertEquals(0, registry.get("rental.checkouts").tag("type", "LADDER").counter().count());
+        assertEquals(0, registry.get("rental.checkout.rental.days").summary().count());
+    }
+
+    @Test
+    void testValidationFailuresCountedByRule() {
+        rentalService.tryCheckout(request("LADW", 0, 101));
+        rentalService.tryCheckout(request("LADW", 3, 101));
+
+        assertEquals(1, failureCount(ValidationRule.RENTAL_DAYS_BELOW_ONE));
+        assertEquals(2, failureCount(ValidationRule.DISCOUNT_PERCENT_OUT_OF_RANGE));
+        assertEquals(0, failureCount(ValidationRule.TOOL_CODE_MISSING));
+        assertEquals(2, stageCount(CheckoutStage.VALIDATION));
+        assertEquals(0, stageCount(CheckoutStage.QUOTE));
+        assertEquals(0, registry.get("rental.checkout.rental.days").summary().count());
+    }
+
+    @Test
+    void testSampledStageTimingStillCountsEveryCheckout() {
+        SimpleMeterRegistry sampledRegistry = new SimpleMeterRegistry();
+        RentalService sampled = RentalService.builder()
+                .checkoutMetrics(new MicrometerCheckoutMetrics(sampledRegistry, 4))
+                .build();
+        for (int i = 0; i < 1_000; i++) {
+            sampled.issue(request("LADW", 3, 10));
+        }
+
+        assertEquals(1_000, sampledRegistry.get("rental.checkouts").tag("type", "LADDER").counter().count());
+        long timed = sampledRegistry.get("rental.checkout.stage").tag("stage", CheckoutStage.AGREEMENT.name()).timer().count();
+        // Roughly a quarter, with plenty of room for chance
+        assertTrue(timed > 100 && timed < 500, "timed " + timed);
+        assertThrows(IllegalArgumentException.class, () -> new MicrometerCheckoutMetrics(sampledRegistry, 0));
+    }
+
+    @Test
+    void testQuoteCacheMetrics() {
+        new QuoteCacheMetrics(quoteCache).bindTo(registry);
+        rentalService.tryCheckout(request("LADW", 3, 10));
+        rentalService.tryCheckout(request("LADW", 3, 10));
+        rentalService.tryCheckout(request("LADW", 4, 10));
+
+        assertEquals(1, registry.get("rental.quote-cache.hits").functionCounter().count());
+        assertEquals(2, registry.get("rental.quote-cache.misses").functionCounter().count());
+        assertEquals(0, registry.get("rental.quote-cache.evictions").functionCounter().count());
+        assertEquals(2, registry.get("rental.quote-cache.size").gauge().value());
+    }
+
+    private long stageCount(CheckoutStage stage) {
+        return registry.get("rental.checkout.stage").tag("stage", stage.name()).timer().count();
+    }
+
+    private double failureCount(ValidationRule rule) {
+        return registry.get("rental.checkout.validation.failures").tag("rule", rule.name()).counter().count();
+    }
+
+    private static RentalRequest request(String toolCode, int numDaysToRent, int discountPercent) {
+        return RentalRequest.builder()
+                .toolCode(toolCode)
+                .checkoutLocalDate(LocalDate.of(2020, Month.JULY, 2))
+                .numDaysToRent(numDaysToRent)
+                .discountPercent(discountPercent)
+                .build();
+    }
+}
@@ -0,0 +1,225 @@
+package com.winters.tool.rental.overdue;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.ToolCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OverdueTrackerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2020, Month.JULY, 1);
+
+    private final OverdueTracker tracker = new OverdueTracker(TODAY);
+
+    @Test
+    void testAgreementIsOverdueFromTheDayAfterItsDue() {
+        RentalAgreement dueTomorrow = agreement("LADW-1", TODAY, 1);
+        RentalAgreement dueNextWeek = agreement("LADW-2", TODAY, 7);
+        tracker.track(dueNextWeek);
+        tracker.track(dueTomorrow);
+
+        assertEquals(List.of(), tracker.sweep(TODAY.plusDays(1)));
+        assertEquals(List.of(dueTomorrow), tracker.sweep(TODAY.plusDays(2)));
+        // Already reported, so not again
+        assertEquals(List.of(), tracker.sweep(TODAY.plusDays(2)));
+        assertEquals(List.of(dueNextWeek), tracker.sweep(TODAY.plusDays(30)));
+
+        assertEquals(List.of(dueTomorrow, dueNextWeek), tracker.getOverdue(TODAY.plusDays(30)));
+        // As of an earlier day only what was overdue by then
+        assertEquals(List.of(dueTomorrow), tracker.getOverdue(TODAY.plusDays(3)));
+        assertEquals(new OverdueTrackerStats(2, 2, TODAY.plusDays(30)), tracker.getStats());
+    }
+
+    @Test
+    void testListingOverdueAsOfALaterDayDoesntSweep() {
+        RentalAgreement dueTomorrow = agreement("LADW-1", TODAY, 1);
+        RentalAgreement dueNextWeek = agreement("LADW-2", TODAY, 7);
+        RentalAgreement backdated = agreement("LADW-3", TODAY.minusDays(10), 3);
+        tracker.track(dueNextWeek);
+        tracker.track(dueTomorrow);
+        tracker.sweep(TODAY.plusDays(2));
+        tracker.track(backdated);
+
+        assertEquals(List.of(backdated, dueTomorrow, dueNextWeek), tracker.getOverdue(TODAY.plusDays(365)));
+        assertEquals(new OverdueTrackerStats(3, 1, TODAY.plusDays(2)), tracker.getStats());
+        assertFalse(tracker.isOutOverdue("LADW-2"));
+        // Still handed out by the next sweep, as if nobody had asked
+        assertEquals(List.of(backdated, dueNextWeek), tracker.sweep(TODAY.plusDays(9)));
+    }
+
+    @Test
+    void testCheckedInAgreementsAreNeverOverdue() {
+        RentalAgreement returned = agreement("LADW-1", TODAY, 1);
+        RentalAgreement returnedAfterFallingDue = agreement("LADW-2", TODAY, 1);
+        RentalAgreement kept = agreement("LADW-3", TODAY, 1);
+        tracker.track(returned);
+        tracker.track(returnedAfterFallingDue);
+        tracker.track(kept);
+
+        assertTrue(tracker.remove(returned));
+        assertEquals(List.of(returnedAfterFallingDue, kept), tracker.sweep(TODAY.plusDays(2)));
+        assertTrue(tracker.remove(returnedAfterFallingDue));
+
+        assertEquals(List.of(kept), tracker.getOverdue(TODAY.plusDays(2)));
+        assertEquals(new OverdueTrackerStats(1, 1, TODAY.plusDays(2)), tracker.getStats());
+        assertFalse(tracker.remove(returned));
+    }
+
+    @Test
+    void testAgreementTrackedAlreadyOverdueIsReportedByTheNextSweep() {
+        RentalAgreement backdated = agreement("CHNS-1", TODAY.minusDays(10), 3);
+        tracker.track(backdated);
+
+        assertEquals(List.of(backdated), tracker.sweep(TODAY));
+        assertThrows(IllegalArgumentException.class, () -> tracker.track(backdated));
+    }
+
+    @Test
+    void testCheckInByUnitTakesTheRentalTheUnitIsOutOn() {
+        RentalAgreement first = agreement("CHNS-1", TODAY, 3);
+        RentalAgreement later = agreement("CHNS-1", TODAY.plusDays(10), 3);
+        RentalAgreement otherUnit = agreement("CHNS-2", TODAY, 3);
+        tracker.track(later);
+        tracker.track(otherUnit);
+        tracker.track(first);
+
+        assertNull(tracker.checkIn("CHNS-1", TODAY.minusDays(1)));
+        assertNull(tracker.checkIn("CHNS-3", TODAY));
+        assertSame(first, tracker.checkIn("CHNS-1", TODAY.plusDays(2)));
+        // The next booking hadn't been handed over yet on that day
+        assertNull(tracker.checkIn("CHNS-1", TODAY.plusDays(2)));
+        assertSame(later, tracker.checkIn("CHNS-1", TODAY.plusDays(12)));
+        assertEquals(1, tracker.getStats().getNumOpen());
+    }
+
+    @Test
+    void testUnitIsOutOverdueFromTheSweepThatFindsItLateUntilItsCheckedIn() {
+        RentalAgreement agreement = agreement("CHNS-1", TODAY, 3);
+        tracker.track(agreement);
+        tracker.track(agreement("CHNS-2", TODAY, 10));
+
+        // Only as of the last sweep, however late it really is by now
+        assertFalse(tracker.isOutOverdue("CHNS-1"));
+        tracker.sweep(TODAY.plusDays(3));
+        assertFalse(tracker.isOutOverdue("CHNS-1"));
+        tracker.sweep(TODAY.plusDays(4));
+        assertTrue(tracker.isOutOverdue("CHNS-1"));
+        assertFalse(tracker.isOutOverdue("CHNS-2"));
+
+        Set<String> whileOut = tracker.getUnitsOutOverdue();
+
+        assertSame(agreement, tracker.checkIn("CHNS-1", TODAY.plusDays(5)));
+        assertFalse(tracker.isOutOverdue("CHNS-1"));
+        // A snapshot, left as it was by the check-in
+        assertEquals(Set.of("CHNS-1"), whileOut);
+        assertEquals(Set.of(), tracker.getUnitsOutOverdue());
+    }
+
+    @Test
+    void testUnitTrackedAlreadyOverdueIsOutOverdueStraightAway() {
+        tracker.track(agreement("CHNS-1", TODAY.minusDays(10), 3));
+
+        assertTrue(tracker.isOutOverdue("CHNS-1"));
+        tracker.sweep(TODAY);
+        assertTrue(tracker.isOutOverdue("CHNS-1"));
+    }
+
+    @Test
+    void testIsOutOverdueDoesntWaitForTheTracker() throws Exception {
+        tracker.track(agreement("CHNS-1", TODAY, 3));
+        tracker.sweep(TODAY.plusDays(5));
+
+        Thread checker = new Thread(() -> assertTrue(tracker.isOutOverdue("CHNS-1")));
+        synchronized (tracker) {
+            checker.start();
+            checker.join(5_000);
+            assertFalse(checker.isAlive());
+        }
+    }
+
+    /**
+     * Rentals from a day to centuries long, swept in steps from a day to decades, with some checked in along the way -
+     * every sweep must report exactly what a scan of every open agreement would have
+     */
+    @Test
+    void testSweepsMatchAScanOfEveryOpenAgreement() {
+        Random random = new Random(42);
+        List<RentalAgreement> open = new ArrayList<>();
+        // Agreements are compared by value, and plenty of these are equal to one another
+        Set<RentalAgreement> reported = identitySet(List.of());
+        LocalDate today = TODAY;
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 50; i++) {
+                int numDays = switch (random.nextInt(4)) {
+                    case 0 -> 1 + random.nextInt(7);
+                    case 1 -> 1 + random.nextInt(100);
+                    case 2 -> 1 + random.nextInt(10_000);
+                    default -> 1 + random.nextInt(100_000);
+                };
+                RentalAgreement agreement = agreement(null, today.minusDays(random.nextInt(5)), numDays);
+                tracker.track(agreement);
+                open.add(agreement);
+            }
+            for (int i = 0; i < 10 && !open.isEmpty(); i++) {
+                assertTrue(tracker.remove(open.remove(random.nextInt(open.size()))));
+            }
+            today = today.plusDays(random.nextInt(10) == 0 ? random.nextInt(20_000) : random.nextInt(30));
+
+            LocalDate sweptTo = today;
+            Set<RentalAgreement> expected = identitySet(open.stream()
+                    .filter(agreement -> agreement.getDueLocalDate().isBefore(sweptTo) && !reported.contains(agreement))
+                    .toList());
+            List<RentalAgreement> newlyOverdue = tracker.sweep(today);
+            assertEquals(expected.size(), newlyOverdue.size(), "round " + round);
+            assertEquals(expected, identitySet(newlyOverdue), "round " + round);
+            reported.addAll(newlyOverdue);
+            assertEquals(open.size(), tracker.getStats().getNumOpen());
+            assertEquals(open.stream().filter(agreement -> agreement.getDueLocalDate().isBefore(sweptTo)).count(),
+                    tracker.getOverdue(today).size());
+        }
+    }
+
+    @Test
+    void testRentalsPastTheWheelsReachStillFallDue() {
+        RentalAgreement decades = agreement(null, TODAY, 20_000);
+        RentalAgreement millennia = agreement(null, TODAY, 20_000_000);
+        tracker.track(millennia);
+        tracker.track(decades);
+
+        assertEquals(List.of(decades), tracker.sweep(decades.getDueLocalDate().plusDays(1)));
+        assertEquals(List.of(), tracker.sweep(millennia.getDueLocalDate()));
+        assertEquals(List.of(millennia), tracker.sweep(millennia.getDueLocalDate().plusDays(1)));
+    }
+
+    private static Set<RentalAgreement> identitySet(Collection<RentalAgreement> agreements) {
+        Set<RentalAgreement> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(agreements);
+        return set;
+    }
+
+    private static RentalAgreement agreement(String unitId, LocalDate checkoutDate, int numDays) {
+        return RentalAgreement.builder()
+                .tool(ToolCatalog.DEFAULT.findTool(unitId != null ? unitId.substring(0, 4) : "LADW"))
+                .numDaysRented(numDays)
+                .checkOutLocalDate(checkoutDate)
+                .dueLocalDate(checkoutDate.plusDays(numDays))
+                .unitId(unitId)
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.winters.tool.rental.pricing;
+
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.services.RentalService;
+import com.winters.tool.rental.util.RentalUtil;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CentsPricingTest {
+
+    @Test
+    void testMatchesBigDecimalForEveryTypeDiscountAndChargeDaysUpToTenYears() {
+        for (Tool.Type type : Tool.Type.values()) {
+            for (int chargeDays = 1; chargeDays <= 3650; chargeDays++) {
+                for (int discountPercent = 0; discountPercent <= 100; discountPercent++) {
+                    assertMatchesBigDecimal(type, chargeDays, discountPercent);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMatchesBigDecimalForVeryLongRentals() {
+        Random random = new Random(823L);
+        for (int i = 0; i < 100_000; i++) {
+            Tool.Type type = Tool.Type.values()[random.nextInt(Tool.Type.values().length)];
+            int chargeDays = 1 + random.nextInt(Integer.MAX_VALUE);
+            assertMatchesBigDecimal(type, chargeDays, random.nextInt(101));
+        }
+        for (Tool.Type type : Tool.Type.values()) {
+            for (int discountPercent = 0; discountPercent <= 100; discountPercent++) {
+                assertMatchesBigDecimal(type, Integer.MAX_VALUE, discountPercent);
+            }
+        }
+    }
+
+    @Test
+    void testCheckoutMatchesBigDecimal() {
+        RentalService rentalService = new RentalService();
+        LocalDate checkoutDate = LocalDate.of(2020, 6, 29);
+        for (Tool tool : new Tool[]{Tool.builder().type(Tool.Type.CHAINSAW).brand(Tool.Brand.STIHL).build(),
+                Tool.builder().type(Tool.Type.LADDER).brand(Tool.Brand.WERNER).build(),
+                Tool.builder().type(Tool.Type.JACKHAMMER).brand(Tool.Brand.RIDGID).build()}) {
+            for (int numDays = 1; numDays <= 400; numDays += 3) {
+                for (int discountPercent = 0; discountPercent <= 100; discountPercent++) {
+                    RentalRequest req = RentalRequest.builder()
+                            .toolCode(tool.getCode())
+                            .numDaysToRent(numDays)
+                            .discountPercent(discountPercent)
+                            .checkoutDate(RentalUtil.convertLocalDateToDate(checkoutDate))
+                            .build();
+                    CheckoutResult result = rentalService.tryCheckout(req);
+                    RentalAgreement agreement = result.getAgreement();
+
+                    BigDecimal[] expected = bigDecimalPricing(tool.getType().getDailyCharge(), agreement.getChargeDays(), discountPercent);
+                    assertEquals(expected[0], agreement.getPreDiscountCharge());
+                    assertEquals(expected[1], agreement.getDiscountAmount());
+                    assertEquals(expected[2], agreement.getFinalCharge());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDivideHalfUpMatchesRoundingMode() {
+        for (long dividend = -1000; dividend <= 1000; dividend++) {
+            for (long divisor : new long[]{1, 2, 3, 7, 100, -3, -100}) {
+                long expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP).longValueExact();
+                assertEquals(expected, CentsPricing.divideHalfUp(dividend, divisor), dividend + " / " + divisor);
+            }
+        }
+    }
+
+    @Test
+    void testDailyChargeCents() {
+        assertEquals(149, Tool.Type.CHAINSAW.getDailyChargeCents());
+        assertEquals(199, Tool.Type.LADDER.getDailyChargeCents());
+        assertEquals(299, Tool.Type.JACKHAMMER.getDailyChargeCents());
+        assertEquals(350, Tool.Type.WEEKDAY_EXEMPT.getDailyChargeCents());
+    }
+
+    @Test
+    void testOverflowThrows() {
+        assertThrows(ArithmeticException.class, () -> CentsPricing.price(Long.MAX_VALUE / 2, 3, 0));
+        assertThrows(ArithmeticException.class, () -> CentsPricing.price(Long.MAX_VALUE / 50, 1, 100));
+    }
+
+    private void assertMatchesBigDecimal(Tool.Type type, int chargeDays, int discountPercent) {
+        BigDecimal[] expected = bigDecimalPricing(type.getDailyCharge(), chargeDays, discountPercent);
+        PriceBreakdown actual = CentsPricing.price(type.getDailyChargeCents(), chargeDays, discountPercent);
+
+        // equals rather than compareTo, so the scale has to match as well as the value
+        String context = type + " for " + chargeDays + " days at " + discountPercent + "%";
+        assertEquals(expected[0], actual.getPreDiscountCharge(), context);
+        assertEquals(expected[1], actual.getDiscountAmount(), context);
+        assertEquals(expected[2], actual.getFinalCharge(), context);
+    }
+
+    /**
+     * The pricing math checkout used before it moved to cents
+     */
+    private static BigDecimal[] bigDecimalPricing(BigDecimal dailyCharge, int chargeDays, int discountPercent) {
+        BigDecimal preDiscountCharge = dailyCharge.multiply(BigDecimal.valueOf(chargeDays)).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal discountPercentageAsDecimal = BigDecimal.valueOf(discountPercent).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        BigDecimal discountAmount = preDiscountCharge.multiply(discountPercentageAsDecimal).setScale(2, RoundingMode.HALF_UP);
+        return new BigDecimal[]{preDiscountCharge, discountAmount, preDiscountCharge.subtract(discountAmount)};
+    }
+}
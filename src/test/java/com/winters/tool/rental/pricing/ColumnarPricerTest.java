@@ -0,0 +1,163 @@
+package com.winters.tool.rental.pricing;
+
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ToolPricing;
+import com.winters.tool.rental.services.RentalService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarPricerTest {
+
+    private static final Tool.Type[] TYPES = Tool.Type.values();
+
+    private final RentalService rentalService = new RentalService();
+
+    @Test
+    void testMatchesCheckoutForEveryRow() {
+        Random random = new Random(823L);
+        long origin = LocalDate.of(2014, Month.JANUARY, 1).toEpochDay();
+        PricingColumns columns = new PricingColumns(50_000);
+        for (int row = 0; row < columns.getNumRows(); row++) {
+            // A few out of range days & discounts so invalid rows are mixed in with the valid ones
+            columns.set(row, TYPES[random.nextInt(TYPES.length)], origin + random.nextInt(3650),
+                    random.nextInt(20) == 0 ? random.nextInt(3) - 1 : 1 + random.nextInt(random.nextBoolean() ? 14 : 1000),
+                    random.nextInt(50) == 0 ? 101 : random.nextInt(101));
+        }
+
+        int numInvalid = ColumnarPricer.builder().rowsPerTask(1000).build().price(columns);
+
+        assertEquals(numInvalid, assertMatchesCheckout(columns));
+        assertTrue(numInvalid > 0);
+    }
+
+    @Test
+    void testBatchSpanningTooManyYearsToTabulateAsksTheCalendar() {
+        PricingColumns columns = new PricingColumns(6);
+        columns.set(0, Tool.Type.CHAINSAW, LocalDate.of(1066, Month.JULY, 2).toEpochDay(), 5, 0);
+        columns.set(1, Tool.Type.LADDER, LocalDate.of(2015, Month.JULY, 2).toEpochDay(), 400, 10);
+        columns.set(2, Tool.Type.JACKHAMMER, LocalDate.of(2015, Month.SEPTEMBER, 3).toEpochDay(), 6, 0);
+        columns.set(3, Tool.Type.JACKHAMMER, LocalDate.of(2020, Month.JULY, 2).toEpochDay(), 9, 50);
+        columns.set(4, Tool.Type.WEEKDAY_EXEMPT, LocalDate.of(4321, Month.AUGUST, 30).toEpochDay(), 10, 25);
+        columns.set(5, Tool.Type.CHAINSAW, LocalDate.of(9999, Month.JUNE, 1).toEpochDay(), 60, 100);
+        assertTrue(columns.getCheckoutEpochDays()[5] - columns.getCheckoutEpochDays()[0] > ColumnarPricer.MAX_HOLIDAY_TABLE_DAYS);
+
+        assertEquals(0, new ColumnarPricer(null, null, null, 0).price(columns));
+        assertEquals(0, assertMatchesCheckout(columns));
+    }
+
+    @Test
+    void testSplittingDoesNotChangeResults() {
+        Random random = new Random(47L);
+        long origin = LocalDate.of(2020, Month.JUNE, 1).toEpochDay();
+        PricingColumns split = new PricingColumns(100_003);
+        PricingColumns whole = new PricingColumns(split.getNumRows());
+        for (int row = 0; row < split.getNumRows(); row++) {
+            Tool.Type type = TYPES[random.nextInt(TYPES.length)];
+            long checkoutEpochDay = origin + random.nextInt(730);
+            int numDays = random.nextInt(60);
+            int discountPercent = random.nextInt(101);
+            split.set(row, type, checkoutEpochDay, numDays, discountPercent);
+            whole.set(row, type, checkoutEpochDay, numDays, discountPercent);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int numInvalid = ColumnarPricer.builder().pool(pool).rowsPerTask(777).build().price(split);
+            assertEquals(numInvalid, ColumnarPricer.builder().rowsPerTask(Integer.MAX_VALUE).build().price(whole));
+        } finally {
+            pool.shutdown();
+        }
+        assertArrayEquals(whole.getChargeDays(), split.getChargeDays());
+        assertArrayEquals(whole.getDiscountDays(), split.getDiscountDays());
+        assertArrayEquals(whole.getFinalCents(), split.getFinalCents());
+    }
+
+    @Test
+    void testUnknownToolTypeIsInvalid() {
+        PricingColumns columns = new PricingColumns(2);
+        columns.set(0, Tool.Type.LADDER, LocalDate.of(2020, Month.JULY, 2).toEpochDay(), 3, 10);
+        columns.set(1, Tool.Type.LADDER, LocalDate.of(2020, Month.JULY, 2).toEpochDay(), 3, 10);
+        columns.getToolTypes()[1] = TYPES.length;
+
+        assertEquals(1, new ColumnarPricer(null, null, null, 0).price(columns));
+        assertArrayEquals(new int[]{2, ColumnarPricer.INVALID}, columns.getChargeDays());
+        assertArrayEquals(new int[]{1, ColumnarPricer.INVALID}, columns.getDiscountDays());
+        assertArrayEquals(new long[]{358, ColumnarPricer.INVALID}, columns.getFinalCents());
+    }
+
+    @Test
+    void testPricesFromTheCatalog() {
+        // Ladders at 2.50, free on weekends & holidays, and no other types carried
+        ToolCatalog catalog = ToolCatalog.of(
+                List.of(new ToolCatalog.TypeListing(Tool.Type.LADDER, "LAD", new ToolPricing(new BigDecimal("2.50"), true, false, false))),
+                List.of(ToolCatalog.BrandListing.of(Tool.Brand.WERNER)));
+        PricingColumns columns = new PricingColumns(2);
+        columns.set(0, Tool.Type.LADDER, LocalDate.of(2020, Month.JULY, 2).toEpochDay(), 5, 10);
+        columns.set(1, Tool.Type.CHAINSAW, LocalDate.of(2020, Month.JULY, 2).toEpochDay(), 5, 10);
+
+        assertEquals(1, ColumnarPricer.builder().toolCatalog(catalog).build().price(columns));
+        assertArrayEquals(new int[]{2, ColumnarPricer.INVALID}, columns.getChargeDays());
+        assertArrayEquals(new int[]{3, ColumnarPricer.INVALID}, columns.getDiscountDays());
+        assertArrayEquals(new long[]{450, ColumnarPricer.INVALID}, columns.getFinalCents());
+    }
+
+    @Test
+    void testChargeTooLargeForALongIsInvalid() {
+        // A daily charge of a hundredth of the largest long, in cents
+        ToolCatalog catalog = ToolCatalog.of(
+                List.of(new ToolCatalog.TypeListing(Tool.Type.LADDER, "LAD", new ToolPricing(new BigDecimal("922337203685477.58"), true, true, true))),
+                List.of(ToolCatalog.BrandListing.of(Tool.Brand.WERNER)));
+        PricingColumns columns = new PricingColumns(3);
+        long checkoutEpochDay = LocalDate.of(2020, Month.JULY, 2).toEpochDay();
+        columns.set(0, Tool.Type.LADDER, checkoutEpochDay, 2, 0);
+        // Fits undiscounted, but not once multiplied by the discount percentage
+        columns.set(1, Tool.Type.LADDER, checkoutEpochDay, 2, 100);
+        columns.set(2, Tool.Type.LADDER, checkoutEpochDay, 101, 0);
+
+        assertEquals(2, ColumnarPricer.builder().toolCatalog(catalog).build().price(columns));
+        assertArrayEquals(new long[]{2 * 92_233_720_368_547_758L, ColumnarPricer.INVALID, ColumnarPricer.INVALID}, columns.getFinalCents());
+        assertArrayEquals(new int[]{2, ColumnarPricer.INVALID, ColumnarPricer.INVALID}, columns.getChargeDays());
+    }
+
+    /**
+     * @return the number of rows checkout rejected, each of which must have been marked invalid
+     */
+    private int assertMatchesCheckout(PricingColumns columns) {
+        int numRejected = 0;
+        for (int row = 0; row < columns.getNumRows(); row++) {
+            Tool.Type type = TYPES[columns.getToolTypes()[row]];
+            CheckoutResult result = rentalService.tryCheckout(RentalRequest.builder()
+                    .toolCode(type.getTypeCode() + Tool.Brand.STIHL.getBrandCode())
+                    .checkoutLocalDate(LocalDate.ofEpochDay(columns.getCheckoutEpochDays()[row]))
+                    .numDaysToRent(columns.getNumDaysToRent()[row])
+                    .discountPercent(columns.getDiscountPercents()[row])
+                    .build());
+            if (!result.isSuccess()) {
+                numRejected++;
+                assertEquals(ColumnarPricer.INVALID, columns.getChargeDays()[row], "row " + row);
+                assertEquals(ColumnarPricer.INVALID, columns.getDiscountDays()[row], "row " + row);
+                assertEquals(ColumnarPricer.INVALID, columns.getFinalCents()[row], "row " + row);
+                continue;
+            }
+            RentalAgreement agreement = result.getAgreement();
+            assertEquals(agreement.getChargeDays(), columns.getChargeDays()[row], "row " + row);
+            assertEquals(agreement.getDiscountDays(), columns.getDiscountDays()[row], "row " + row);
+            assertEquals(agreement.getFinalCharge().movePointRight(2).longValueExact(), columns.getFinalCents()[row], "row " + row);
+        }
+        return numRejected;
+    }
+}
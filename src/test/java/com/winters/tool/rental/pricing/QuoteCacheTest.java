@@ -0,0 +1,145 @@
+package com.winters.tool.rental.pricing;
+
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.holiday.CompiledHolidayCalendar;
+import com.winters.tool.rental.holiday.HolidayCalendar;
+import com.winters.tool.rental.services.RentalService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuoteCacheTest {
+
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    private final QuoteCache quoteCache = new QuoteCache(1_000);
+    private final RentalService cachedService = RentalService.builder().quoteCache(quoteCache).build();
+    private final RentalService uncachedService = new RentalService();
+
+    @Test
+    void testCachedAgreementsMatchUncached() {
+        Random random = new Random(823L);
+        LocalDate origin = LocalDate.of(2020, Month.JUNE, 1);
+        for (int i = 0; i < 20_000; i++) {
+            // A small pool of requests so most lookups are repeats
+            RentalRequest req = request(TOOL_CODES[random.nextInt(TOOL_CODES.length)], origin.plusDays(random.nextInt(10)),
+                    1 + random.nextInt(10), random.nextInt(3) * 10);
+
+            assertEquals(uncachedService.tryCheckout(req), cachedService.tryCheckout(req));
+        }
+        QuoteCacheStats stats = quoteCache.getStats();
+        assertEquals(20_000, stats.getHitCount() + stats.getMissCount());
+        assertTrue(stats.getHitRate() > 0.9, "hit rate " + stats.getHitRate());
+    }
+
+    @Test
+    void testBrandIsNotPartOfTheKey() {
+        LocalDate checkoutDate = LocalDate.of(2020, Month.JULY, 2);
+        CheckoutResult dewalt = cachedService.tryCheckout(request("JAKD", checkoutDate, 5, 10));
+        CheckoutResult ridgid = cachedService.tryCheckout(request("JAKR", checkoutDate, 5, 10));
+
+        assertEquals(new QuoteCacheStats(1, 1, 0, 1), quoteCache.getStats());
+        assertEquals(dewalt.getAgreement().getFinalCharge(), ridgid.getAgreement().getFinalCharge());
+        assertEquals("JAKR", ridgid.getAgreement().getTool().getCode());
+    }
+
+    @Test
+    void testInvalidRequestsNeverReachTheCache() {
+        cachedService.tryCheckout(request("JAKR", LocalDate.of(2020, Month.JULY, 2), 5, 101));
+
+        assertEquals(new QuoteCacheStats(0, 0, 0, 0), quoteCache.getStats());
+    }
+
+    @Test
+    void testInvalidateAll() {
+        RentalRequest req = request("LADW", LocalDate.of(2020, Month.JULY, 2), 3, 10);
+        cachedService.tryCheckout(req);
+        quoteCache.invalidateAll();
+        cachedService.tryCheckout(req);
+
+        assertEquals(2, quoteCache.getStats().getMissCount());
+        assertEquals(0, quoteCache.getStats().getHitCount());
+    }
+
+    @Test
+    void testQuotesAreNotSharedBetweenHolidayCalendars() {
+        RentalService noHolidays = RentalService.builder()
+                .holidayCalendar(new CompiledHolidayCalendar(List.of()))
+                .quoteCache(quoteCache)
+                .build();
+        // Spans the observed Independence Day, which jackhammers aren't charged for
+        RentalRequest req = request("JAKR", LocalDate.of(2020, Month.JULY, 2), 4, 0);
+
+        assertEquals(1, cachedService.tryCheckout(req).getAgreement().getChargeDays());
+        assertEquals(2, noHolidays.tryCheckout(req).getAgreement().getChargeDays());
+        assertEquals(2, quoteCache.getStats().getMissCount());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        QuoteCache smallCache = new QuoteCache(10);
+        RentalService service = RentalService.builder().quoteCache(smallCache).build();
+        LocalDate checkoutDate = LocalDate.of(2020, Month.JULY, 2);
+        for (int numDays = 1; numDays <= 100; numDays++) {
+            service.tryCheckout(request("LADW", checkoutDate, numDays, 0));
+        }
+        smallCache.cleanUp();
+
+        QuoteCacheStats stats = smallCache.getStats();
+        assertEquals(10, stats.getSize());
+        assertEquals(90, stats.getEvictionCount());
+    }
+
+    @Test
+    void testConcurrentLookupsMatchUncached() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                long seed = thread;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 5_000; i++) {
+                        RentalRequest req = request(TOOL_CODES[random.nextInt(TOOL_CODES.length)],
+                                LocalDate.of(2020, Month.JULY, 1 + random.nextInt(5)), 1 + random.nextInt(5), 25);
+                        assertEquals(uncachedService.tryCheckout(req), cachedService.tryCheckout(req));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // 3 tool types x 5 days x 5 lengths, each computed at most once
+        assertEquals(75, quoteCache.getStats().getMissCount());
+    }
+
+    @Test
+    void testSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new QuoteCache(0));
+    }
+
+    private static RentalRequest request(String toolCode, LocalDate checkoutDate, int numDaysToRent, int discountPercent) {
+        return RentalRequest.builder()
+                .toolCode(toolCode)
+                .checkoutLocalDate(checkoutDate)
+                .numDaysToRent(numDaysToRent)
+                .discountPercent(discountPercent)
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.winters.tool.rental.receipt;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.services.RentalService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsyncAgreementSinkTest {
+
+    // Renders each receipt on a single line, so the lines written count the receipts
+    private static final ReceiptRenderer ONE_LINE = new ReceiptRenderer(" | ");
+
+    private final RentalAgreement agreement = new RentalService().tryCheckout(RentalRequest.builder().toolCode("LADW")
+            .numDaysToRent(3).checkoutLocalDate(LocalDate.of(2020, Month.JULY, 2)).build()).getAgreement();
+
+    @Test
+    void testEveryReceiptIsWrittenOrDroppedWhenClosedMidCheckout() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            AsyncAgreementSink sink = new AsyncAgreementSink(new PrintStream(bytes, true, StandardCharsets.UTF_8), 1_000_000, ONE_LINE);
+            AtomicLong numAccepted = new AtomicLong();
+            CountDownLatch started = new CountDownLatch(4);
+            List<Thread> checkouts = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread checkout = new Thread(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 20_000; i++) {
+                        sink.accept(agreement);
+                        numAccepted.incrementAndGet();
+                    }
+                });
+                checkout.start();
+                checkouts.add(checkout);
+            }
+            started.await();
+            sink.close();
+            for (Thread checkout : checkouts) {
+                checkout.join();
+            }
+
+            long numWritten = bytes.toString(StandardCharsets.UTF_8).lines().count();
+            assertEquals(numAccepted.get(), numWritten + sink.getNumDropped(), "round " + round);
+        }
+    }
+
+    @Test
+    void testReceiptsAcceptedAfterCloseAreDropped() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncAgreementSink sink = new AsyncAgreementSink(new PrintStream(bytes, true, StandardCharsets.UTF_8), 10, ONE_LINE);
+        sink.accept(agreement);
+        sink.close();
+        sink.accept(agreement);
+
+        assertEquals(1, bytes.toString(StandardCharsets.UTF_8).lines().count());
+        assertEquals(1, sink.getNumDropped());
+    }
+}
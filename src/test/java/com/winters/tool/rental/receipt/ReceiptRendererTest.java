@@ -0,0 +1,107 @@
+package com.winters.tool.rental.receipt;
+
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.services.RentalService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReceiptRendererTest {
+
+    private final RentalService rentalService = new RentalService();
+
+    @Test
+    void testMatchesFormatterBasedReceipt() {
+        for (String toolCode : new String[]{"CHNS", "LADW", "JAKD", "JAKR", "WEEW"}) {
+            for (int numDaysToRent : new int[]{1, 5, 30, 365, 3650, 36500}) {
+                RentalAgreement agreement = checkout(toolCode, numDaysToRent, 25);
+                assertEquals(legacyReceipt(agreement), ReceiptRenderer.DEFAULT.render(agreement));
+            }
+        }
+    }
+
+    @Test
+    void testToStringUsesRenderer() {
+        RentalAgreement agreement = checkout("CHNS", 5, 25);
+        assertEquals(ReceiptRenderer.DEFAULT.render(agreement), agreement.toString());
+    }
+
+    @Test
+    void testRenderIntoByteBuffer() {
+        RentalAgreement agreement = checkout("LADW", 3650, 10);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        buffer.put((byte) '>');
+
+        ReceiptRenderer.DEFAULT.render(agreement, buffer);
+
+        buffer.flip();
+        assertEquals(">" + legacyReceipt(agreement), StandardCharsets.US_ASCII.decode(buffer).toString());
+    }
+
+    @Test
+    void testCustomLineSeparator() {
+        RentalAgreement agreement = checkout("JAKR", 9, 0);
+        String receipt = new ReceiptRenderer("\n").render(agreement);
+
+        assertEquals(legacyReceipt(agreement).replace(System.lineSeparator(), "\n"), receipt);
+    }
+
+    @Test
+    void testAsyncSinkWritesEveryReceipt() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RentalAgreement agreement = checkout("CHNS", 5, 25);
+
+        AsyncAgreementSink sink = new AsyncAgreementSink(new PrintStream(bytes, true, StandardCharsets.UTF_8), 100, new ReceiptRenderer("\n"));
+        for (int i = 0; i < 50; i++) {
+            sink.accept(agreement);
+        }
+        sink.close();
+        sink.accept(agreement);
+
+        String written = bytes.toString(StandardCharsets.UTF_8);
+        assertEquals(50, written.split("\nTotal: ", -1).length - 1);
+        assertEquals(1, sink.getNumDropped());
+    }
+
+    private RentalAgreement checkout(String toolCode, int numDaysToRent, int discountPercent) {
+        Date checkoutDate = new GregorianCalendar(2020, Calendar.JULY, 2).getTime();
+        return rentalService.tryCheckout(RentalRequest.builder()
+                .toolCode(toolCode)
+                .numDaysToRent(numDaysToRent)
+                .discountPercent(discountPercent)
+                .checkoutDate(checkoutDate)
+                .build()).getAgreement();
+    }
+
+    /**
+     * The original RentalAgreement.toString, used as the reference for the renderer's output
+     */
+    private static String legacyReceipt(RentalAgreement agreement) {
+        DateFormat dateFormat = new SimpleDateFormat("MM/dd/yy");
+        String toolName = agreement.getTool().getType().getFullName();
+        String formattedToolName = toolName.substring(0, 1).toUpperCase() + toolName.substring(1).toLowerCase();
+        NumberFormat usdFormat = NumberFormat.getCurrencyInstance(Locale.US);
+        return "Tool Data: " + System.lineSeparator()
+                + "\tType: " + formattedToolName + ", Brand: " + agreement.getTool().getBrand() + ", Code: " + agreement.getTool().getCode() + System.lineSeparator()
+                + "Rental data: " + System.lineSeparator()
+                + "\tRental Days: " + agreement.getNumDaysRented() + ", Discount Days: " + agreement.getDiscountDays() + ", Checkout Date: " + dateFormat.format(agreement.getCheckOutDate()) + ", Return Date: " + dateFormat.format(agreement.getDueDate()) + System.lineSeparator()
+                + "Charge Data: " + System.lineSeparator()
+                + "\tDaily Charge: " + usdFormat.format(agreement.getDailyRentalCharge()) + ", Days Charged: " + agreement.getChargeDays() + System.lineSeparator()
+                + "\tPre Discount Total: " + usdFormat.format(agreement.getPreDiscountCharge()) + ", Discount Percentage: " + agreement.getDiscountPercent() + "%, Discount Amount: " + usdFormat.format(agreement.getDiscountAmount()) + System.lineSeparator()
+                + "__________________________________________________________" + System.lineSeparator()
+                + "Total: " + usdFormat.format(agreement.getFinalCharge());
+    }
+}
@@ -1,18 +1,46 @@
 package com.winters.tool.rental.services;
 
+import com.winters.tool.rental.data.AvailabilityResult;
+import com.winters.tool.rental.data.AvailableTool;
+import com.winters.tool.rental.data.BatchCheckoutResult;
+import com.winters.tool.rental.data.CheckoutResult;
+import com.winters.tool.rental.data.QuoteCurve;
 import com.winters.tool.rental.util.RentalUtil;
 import com.winters.tool.rental.data.RentalAgreement;
 import com.winters.tool.rental.data.RentalRequest;
+import com.winters.tool.rental.data.RentalReturn;
+import com.winters.tool.rental.data.RentalValidationException;
 import com.winters.tool.rental.data.Tool;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.data.ToolPricing;
+import com.winters.tool.rental.data.ValidationError;
+import com.winters.tool.rental.data.ValidationMode;
+import com.winters.tool.rental.data.ValidationRule;
+import com.winters.tool.rental.discount.CompiledDiscountRules;
+import com.winters.tool.rental.discount.DiscountRule;
+import com.winters.tool.rental.inventory.ToolInventory;
+import com.winters.tool.rental.overdue.OverdueTracker;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
@@ -242,6 +270,444 @@ class RentalServiceTest {
         assertEquals(2, agreement.getChargeDays());
     }
 
+    @Test
+    void testEveryViolatedRuleIsReportedInOrder() {
+        RentalRequest req = assembleRentalRequest(null, null, 0, -5);
+
+        CheckoutResult result = rentalService.tryCheckout(req);
+
+        assertFalse(result.isSuccess());
+        assertEquals(List.of(ValidationRule.RENTAL_DAYS_BELOW_ONE, ValidationRule.DISCOUNT_PERCENT_OUT_OF_RANGE,
+                        ValidationRule.CHECKOUT_DATE_MISSING, ValidationRule.TOOL_CODE_MISSING),
+                result.getValidationErrors().stream().map(ValidationError::getRule).toList());
+        assertEquals("Checkout date is required.", result.getValidationMessages().get(2));
+    }
+
+    @Test
+    void testUnknownTypeAndBrandAreBothReported() {
+        Date checkoutDate = new GregorianCalendar(2015, Calendar.SEPTEMBER, 3).getTime();
+        List<ValidationError> errors = rentalService.validate(assembleRentalRequest(checkoutDate, "XXXZ", 3, 0), ValidationMode.ALL_ERRORS);
+
+        assertEquals(List.of(ValidationRule.TOOL_TYPE_NOT_FOUND, ValidationRule.TOOL_BRAND_NOT_FOUND),
+                errors.stream().map(ValidationError::getRule).toList());
+    }
+
+    @Test
+    void testFailFastStopsAtFirstViolatedRule() {
+        RentalRequest req = assembleRentalRequest(null, "TOOLONG", 0, 101);
+
+        CheckoutResult result = rentalService.tryCheckout(req, ValidationMode.FAIL_FAST);
+
+        assertEquals(1, result.getValidationErrors().size());
+        assertEquals(ValidationRule.RENTAL_DAYS_BELOW_ONE, result.getValidationErrors().get(0).getRule());
+        assertEquals(4, rentalService.validate(req, ValidationMode.ALL_ERRORS).size());
+    }
+
+    @Test
+    void testIsValid() {
+        Date checkoutDate = new GregorianCalendar(2015, Calendar.JULY, 2).getTime();
+        assertTrue(rentalService.isValid(assembleRentalRequest(checkoutDate, "CHNS", 5, 25)));
+        assertFalse(rentalService.isValid(assembleRentalRequest(checkoutDate, "CHNX", 5, 25)));
+        assertTrue(rentalService.validate(assembleRentalRequest(checkoutDate, "CHNS", 5, 25), ValidationMode.ALL_ERRORS).isEmpty());
+    }
+
+    @Test
+    void testCheckoutThrowsStructuredErrors() {
+        RentalRequest req = assembleRentalRequest(new GregorianCalendar(2015, Calendar.JULY, 2).getTime(), "CHNS", 0, 101);
+
+        RentalValidationException e = assertThrows(RentalValidationException.class, () -> rentalService.checkout(req));
+
+        assertEquals(2, e.getValidationErrors().size());
+        assertEquals(ValidationRule.DISCOUNT_PERCENT_OUT_OF_RANGE, e.getValidationErrors().get(1).getRule());
+        assertTrue(e.getMessage().startsWith("Rental Request is not valid. Please fix the following error(s): "));
+        assertTrue(e.getMessage().contains("Request had a value of 101"));
+    }
+
+    @Test
+    void testLocalDateCheckoutMatchesDateCheckout() throws Exception {
+        Date checkoutDate = new GregorianCalendar(2015, Calendar.JULY, 2).getTime();
+        RentalRequest viaDate = assembleRentalRequest(checkoutDate, "CHNS", 5, 25);
+        RentalRequest viaLocalDate = RentalRequest.builder()
+                .checkoutLocalDate(LocalDate.of(2015, Month.JULY, 2))
+                .numDaysToRent(5)
+                .discountPercent(25)
+                .toolCode("CHNS")
+                .build();
+
+        assertEquals(viaDate, viaLocalDate);
+        RentalAgreement agreement = rentalService.checkout(viaLocalDate);
+        assertEquals(rentalService.checkout(viaDate), agreement);
+        assertEquals(LocalDate.of(2015, Month.JULY, 2), agreement.getCheckOutLocalDate());
+        assertEquals(LocalDate.of(2015, Month.JULY, 7), agreement.getDueLocalDate());
+    }
+
+    @Test
+    void testTimeOfDayIsIgnored() throws Exception {
+        Date lateEvening = new GregorianCalendar(2015, Calendar.JULY, 2, 23, 59).getTime();
+        RentalAgreement agreement = rentalService.checkout(assembleRentalRequest(lateEvening, "CHNS", 5, 25));
+
+        assertEquals(LocalDate.of(2015, Month.JULY, 7), agreement.getDueLocalDate());
+        assertEquals(new GregorianCalendar(2015, Calendar.JULY, 7).getTime(), agreement.getDueDate());
+        assertEquals(3, agreement.getChargeDays());
+    }
+
+    @Test
+    void testCheckoutBatchKeepsInputOrderAndIsolatesFailures() {
+        Date checkoutDate = new GregorianCalendar(2020, Calendar.JULY, 2).getTime();
+        List<RentalRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // Every 7th request has an invalid discount, the rest rent for a growing number of days
+            requests.add(assembleRentalRequest(checkoutDate, "LADW", 1 + i % 30, i % 7 == 0 ? 101 : 10));
+        }
+
+        BatchCheckoutResult batch = rentalService.checkoutBatch(requests);
+
+        assertEquals(requests.size(), batch.getResults().size());
+        assertEquals(143, batch.getNumFailed());
+        assertEquals(857, batch.getNumSucceeded());
+        for (int i = 0; i < requests.size(); i++) {
+            CheckoutResult result = batch.getResults().get(i);
+            assertSame(requests.get(i), result.getRequest());
+            assertEquals(i % 7 != 0, result.isSuccess());
+            if (result.isSuccess()) {
+                assertEquals(1 + i % 30, result.getAgreement().getNumDaysRented());
+            } else {
+                assertTrue(result.getValidationMessages().get(0).contains("Discount percentage must be between 0 and 100"));
+            }
+        }
+    }
+
+    @Test
+    void testCheckoutBatchOnProvidedExecutor() {
+        Date checkoutDate = new GregorianCalendar(2015, Calendar.JULY, 2).getTime();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            BatchCheckoutResult batch = rentalService.checkoutBatch(List.of(
+                    assembleRentalRequest(checkoutDate, "CHNS", 5, 25),
+                    assembleRentalRequest(checkoutDate, null, 5, 25),
+                    assembleRentalRequest(null, "JAKR", 9, 0)
+            ), executor);
+
+            assertEquals(3, batch.getNumRequests());
+            assertEquals(1, batch.getNumSucceeded());
+            assertTrue(batch.getNumWorkerThreads() >= 1 && batch.getNumWorkerThreads() <= 3);
+            assertEquals(3, batch.getResults().get(0).getAgreement().getChargeDays());
+            assertTrue(batch.getResults().get(1).getValidationMessages().contains("Tool Code is required (ex: CHNS)."));
+            assertTrue(batch.getResults().get(2).getValidationMessages().contains("Checkout date is required."));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testEmptyCheckoutBatch() {
+        BatchCheckoutResult batch = rentalService.checkoutBatch(Stream.empty());
+
+        assertTrue(batch.getResults().isEmpty());
+        assertEquals(0, batch.getNumRequests());
+        assertEquals(0, batch.getNumChunks());
+    }
+
+    @Test
+    void testIssueReservesAUnitForTheWholeRental() throws Exception {
+        ToolInventory inventory = new ToolInventory(ToolCatalog.DEFAULT, Map.of("LADW", 1));
+        RentalService inventoryService = RentalService.builder().toolInventory(inventory).build();
+        LocalDate checkoutDate = LocalDate.of(2020, Month.JULY, 2);
+
+        RentalAgreement agreement = inventoryService.checkout(RentalRequest.builder().toolCode("LADW").numDaysToRent(3).checkoutLocalDate(checkoutDate).build());
+        assertEquals("LADW-1", agreement.getUnitId());
+
+        // The ladder is out through the due date, so a rental starting on the due date can't have it
+        CheckoutResult overlapping = inventoryService.issue(RentalRequest.builder().toolCode("LADW").numDaysToRent(1).checkoutLocalDate(checkoutDate.plusDays(3)).build());
+        assertFalse(overlapping.isSuccess());
+        assertEquals(ValidationRule.TOOL_UNAVAILABLE, overlapping.getValidationErrors().get(0).getRule());
+        assertEquals("No LADW is available from 2020-07-05 through 2020-07-06. Try another brand or different dates.",
+                overlapping.getValidationMessages().get(0));
+
+        // Quotes never book anything
+        assertTrue(inventoryService.tryCheckout(RentalRequest.builder().toolCode("LADW").numDaysToRent(1).checkoutLocalDate(checkoutDate.plusDays(3)).build()).isSuccess());
+        assertTrue(inventoryService.issue(RentalRequest.builder().toolCode("LADW").numDaysToRent(1).checkoutLocalDate(checkoutDate.plusDays(4)).build()).isSuccess());
+    }
+
+    @Test
+    void testReservationIsReleasedWhenTheSinkFails() {
+        ToolInventory inventory = new ToolInventory(ToolCatalog.DEFAULT, Map.of("LADW", 1));
+        RentalService failingService = RentalService.builder()
+                .toolInventory(inventory)
+                .agreementSink(agreement -> {
+                    throw new IllegalStateException("journal unavailable");
+                })
+                .build();
+        LocalDate checkoutDate = LocalDate.of(2020, Month.JULY, 2);
+
+        assertThrows(IllegalStateException.class, () -> failingService.issue(RentalRequest.builder().toolCode("LADW").numDaysToRent(3).checkoutLocalDate(checkoutDate).build()));
+        assertEquals(1, inventory.countAvailable(ToolCatalog.DEFAULT.findTool("LADW"), checkoutDate.toEpochDay(), checkoutDate.toEpochDay() + 3));
+    }
+
+    @Test
+    void testCheckInChargesLateDaysByTheToolTypesChargeDays() throws Exception {
+        // Chainsaws aren't charged on weekends: due Tue 2015-07-07, back Mon 2015-07-13 is 6 days late, 4 of them charged
+        RentalAgreement chainsaw = rentalService.checkout(RentalRequest.builder().toolCode("CHNS").numDaysToRent(5)
+                .discountPercent(25).checkoutLocalDate(LocalDate.of(2015, Month.JULY, 2)).build());
+        RentalReturn late = rentalService.checkIn(chainsaw, LocalDate.of(2015, Month.JULY, 13));
+        assertTrue(late.isLate());
+        assertEquals(6, late.getNumDaysLate());
+        assertEquals(4, late.getLateChargeDays());
+        // The agreement's discount only covers the days rented
+        assertEquals(new BigDecimal("5.96"), late.getLateCharge());
+        assertEquals(new BigDecimal("9.31"), late.getTotalCharge());
+
+        // Ladders aren't charged on holidays: Fri 2020-07-03 (Independence Day observed) is free, the weekend isn't
+        RentalAgreement ladder = rentalService.checkout(RentalRequest.builder().toolCode("LADW").numDaysToRent(2)
+                .checkoutLocalDate(LocalDate.of(2020, Month.JUNE, 30)).build());
+        RentalReturn overHoliday = rentalService.checkIn(ladder, LocalDate.of(2020, Month.JULY, 6));
+        assertEquals(4, overHoliday.getNumDaysLate());
+        assertEquals(3, overHoliday.getLateChargeDays());
+        assertEquals(new BigDecimal("5.97"), overHoliday.getLateCharge());
+
+        // Due on the observed holiday & back over the weekend, none of which a jackhammer is charged for
+        RentalAgreement jackhammer = rentalService.checkout(RentalRequest.builder().toolCode("JAKR").numDaysToRent(1)
+                .checkoutLocalDate(LocalDate.of(2015, Month.JULY, 2)).build());
+        RentalReturn freeDaysOnly = rentalService.checkIn(jackhammer, LocalDate.of(2015, Month.JULY, 5));
+        assertEquals(2, freeDaysOnly.getNumDaysLate());
+        assertEquals(0, freeDaysOnly.getLateChargeDays());
+        assertEquals(jackhammer.getFinalCharge().setScale(2), freeDaysOnly.getTotalCharge());
+    }
+
+    @Test
+    void testCheckInNeverChargesLessThanNothingForAHolidayOnAnUnchargedDay() throws Exception {
+        // Only charged on weekends, so Independence Day on a Thursday is an uncharged weekday and a holiday - once
+        ToolPricing weekendsOnly = new ToolPricing(new BigDecimal("10.00"), false, true, false);
+        ToolCatalog catalog = ToolCatalog.of(List.of(new ToolCatalog.TypeListing(Tool.Type.LADDER, "LAD", weekendsOnly)),
+                List.of(ToolCatalog.BrandListing.of(Tool.Brand.WERNER)));
+        RentalService weekendService = RentalService.builder().toolCatalog(catalog).build();
+        RentalAgreement agreement = weekendService.checkout(RentalRequest.builder().toolCode("LADW").numDaysToRent(1)
+                .checkoutLocalDate(LocalDate.of(2024, Month.JULY, 2)).build());
+
+        RentalReturn overHoliday = weekendService.checkIn(agreement, LocalDate.of(2024, Month.JULY, 4));
+        assertEquals(1, overHoliday.getNumDaysLate());
+        assertEquals(0, overHoliday.getLateChargeDays());
+        assertEquals(new BigDecimal("0.00"), overHoliday.getLateCharge());
+
+        // Back on the Saturday after, which is charged
+        RentalReturn overWeekend = weekendService.checkIn(agreement, LocalDate.of(2024, Month.JULY, 6));
+        assertEquals(1, overWeekend.getLateChargeDays());
+        assertEquals(new BigDecimal("10.00"), overWeekend.getLateCharge());
+    }
+
+    @Test
+    void testCheckInOnOrBeforeTheDueDateCostsTheAgreement() throws Exception {
+        RentalAgreement agreement = rentalService.checkout(RentalRequest.builder().toolCode("LADW").numDaysToRent(3)
+                .discountPercent(10).checkoutLocalDate(LocalDate.of(2020, Month.JULY, 2)).build());
+
+        for (LocalDate returnDate : List.of(agreement.getCheckOutLocalDate(), agreement.getDueLocalDate())) {
+            RentalReturn onTime = rentalService.checkIn(agreement, returnDate);
+            assertFalse(onTime.isLate());
+            assertEquals(0, onTime.getLateChargeDays());
+            assertEquals(new BigDecimal("0.00"), onTime.getLateCharge());
+            assertEquals(agreement.getFinalCharge(), onTime.getTotalCharge());
+        }
+        assertThrows(IllegalArgumentException.class, () -> rentalService.checkIn(agreement, agreement.getCheckOutLocalDate().minusDays(1)));
+    }
+
+    @Test
+    void testCheckInByUnitReleasesTheUnitAndClosesTheAgreement() throws Exception {
+        ToolInventory inventory = new ToolInventory(ToolCatalog.DEFAULT, Map.of("LADW", 1));
+        OverdueTracker tracker = new OverdueTracker(LocalDate.of(2020, Month.JULY, 1));
+        RentalService trackingService = RentalService.builder().toolInventory(inventory).overdueTracker(tracker).build();
+        LocalDate checkoutDate = LocalDate.of(2020, Month.JULY, 2);
+        RentalAgreement agreement = trackingService.checkout(RentalRequest.builder().toolCode("LADW").numDaysToRent(7).checkoutLocalDate(checkoutDate).build());
+        RentalRequest nextWeek = RentalRequest.builder().toolCode("LADW").numDaysToRent(2).checkoutLocalDate(checkoutDate.plusDays(4)).build();
+        assertFalse(trackingService.issue(nextWeek).isSuccess());
+
+        // Nothing was checked out on the unit yet as of the day before
+        assertNull(trackingService.checkIn("LADW-1", checkoutDate.minusDays(1)));
+        RentalReturn early = trackingService.checkIn("LADW-1", checkoutDate.plusDays(3));
+        assertSame(agreement, early.getAgreement());
+        assertEquals(agreement.getFinalCharge(), early.getTotalCharge());
+
+        assertTrue(trackingService.issue(nextWeek).isSuccess());
+        assertNull(trackingService.checkIn(agreement, checkoutDate.plusDays(3)));
+        assertEquals(1, tracker.getStats().getNumOpen());
+        assertThrows(IllegalStateException.class, () -> rentalService.checkIn("LADW-1", checkoutDate));
+    }
+
+    @Test
+    void testUnitOutOverdueIsntOfferedUntilItsCheckedIn() throws Exception {
+        ToolInventory inventory = new ToolInventory(ToolCatalog.DEFAULT, Map.of("LADW", 1));
+        OverdueTracker tracker = new OverdueTracker(LocalDate.of(2020, Month.JULY, 1));
+        RentalService trackingService = RentalService.builder().toolInventory(inventory).overdueTracker(tracker).build();
+        LocalDate checkoutDate = LocalDate.of(2020, Month.JULY, 2);
+        trackingService.checkout(RentalRequest.builder().toolCode("LADW").numDaysToRent(2).checkoutLocalDate(checkoutDate).build());
+        RentalRequest afterItsDue = RentalRequest.builder().toolCode("LADW").numDaysToRent(1).checkoutLocalDate(checkoutDate.plusDays(4)).build();
+
+        // Booked through the 4th only, and not known to be late before then
+        assertEquals(1, trackingService.findAvailable(searchRequest("LADW", checkoutDate.plusDays(4), 1)).getAvailableTools().size());
+        assertEquals(1, tracker.sweep(checkoutDate.plusDays(4)).size());
+        assertTrue(trackingService.findAvailable(searchRequest("LADW", checkoutDate.plusDays(4), 1)).getAvailableTools().isEmpty());
+        CheckoutResult whileOut = trackingService.issue(afterItsDue);
+        assertFalse(whileOut.isSuccess());
+        assertEquals(ValidationRule.TOOL_UNAVAILABLE, whileOut.getValidationErrors().get(0).getRule());
+
+        assertTrue(trackingService.checkIn("LADW-1", checkoutDate.plusDays(4)).isLate());
+        CheckoutResult onceBack = trackingService.issue(afterItsDue);
+        assertTrue(onceBack.isSuccess());
+        assertEquals("LADW-1", onceBack.getAgreement().getUnitId());
+    }
+
+    @Test
+    void testAskingWhatsOverdueInTheFutureDoesntHoldUnitsBack() throws Exception {
+        ToolInventory inventory = new ToolInventory(ToolCatalog.DEFAULT, Map.of("LADW", 1));
+        OverdueTracker tracker = new OverdueTracker(LocalDate.of(2020, Month.JULY, 1));
+        RentalService trackingService = RentalService.builder().toolInventory(inventory).overdueTracker(tracker).build();
+        LocalDate checkoutDate = LocalDate.of(2020, Month.JULY, 2);
+        RentalAgreement agreement = trackingService.checkout(RentalRequest.builder().toolCode("LADW").numDaysToRent(2)
+                .checkoutLocalDate(checkoutDate).build());
+
+        assertEquals(List.of(agreement), trackingService.findOverdue(LocalDate.of(2030, Month.JANUARY, 1)));
+        assertEquals(List.of(), trackingService.findOverdue(checkoutDate.plusDays(2)));
+        assertEquals(checkoutDate.minusDays(1), tracker.getStats().getSweptThrough());
+        assertEquals(1, trackingService.findAvailable(searchRequest("LADW", checkoutDate.plusDays(4), 1)).getAvailableTools().size());
+        assertTrue(trackingService.issue(RentalRequest.builder().toolCode("LADW").numDaysToRent(3)
+                .checkoutLocalDate(checkoutDate.plusDays(10)).build()).isSuccess());
+    }
+
+    @Test
+    void testFindAvailableSkipsBookedToolsAndSortsByFinalCharge() {
+        ToolInventory inventory = ToolInventory.of(ToolCatalog.DEFAULT, 1, Map.of("LADW", 2));
+        RentalService inventoryService = RentalService.builder().toolInventory(inventory).build();
+        LocalDate checkoutDate = LocalDate.of(2020, Month.JULY, 3);
+        Tool stihlLadder = ToolCatalog.DEFAULT.findTool("LADS");
+        Tool wernerLadder = ToolCatalog.DEFAULT.findTool("LADW");
+        inventory.reserve(stihlLadder, checkoutDate.toEpochDay() + 2, checkoutDate.toEpochDay() + 2);
+        inventory.reserve(wernerLadder, checkoutDate.toEpochDay(), checkoutDate.toEpochDay());
+
+        AvailabilityResult ladders = inventoryService.findAvailable(searchRequest("LAD", checkoutDate, 7));
+        assertEquals(List.of("LADD", "LADR", "LADW"), ladders.getAvailableTools().stream().map(available -> available.getTool().getCode()).toList());
+        assertEquals(1, ladders.getAvailableTools().get(2).getNumUnitsAvailable());
+        for (AvailableTool available : ladders.getAvailableTools()) {
+            // Priced exactly like checking the tool out
+            CheckoutResult checkout = inventoryService.tryCheckout(searchRequest(available.getTool().getCode(), checkoutDate, 7));
+            assertEquals(checkout.getAgreement(), available.getQuote());
+        }
+
+        AvailabilityResult everything = inventoryService.findAvailable(searchRequest(null, checkoutDate, 7));
+        assertEquals(ToolCatalog.DEFAULT.getTools().size() - 1, everything.getAvailableTools().size());
+        for (int i = 1; i < everything.getAvailableTools().size(); i++) {
+            assertTrue(everything.getAvailableTools().get(i - 1).getQuote().getFinalCharge()
+                    .compareTo(everything.getAvailableTools().get(i).getQuote().getFinalCharge()) <= 0);
+        }
+
+        assertTrue(inventoryService.findAvailable(searchRequest("LADS", checkoutDate, 7)).getAvailableTools().isEmpty());
+        assertEquals(1, inventoryService.findAvailable(searchRequest("LADS", checkoutDate.plusDays(3), 7)).getAvailableTools().size());
+        assertEquals(AvailableTool.UNITS_NOT_TRACKED, rentalService.findAvailable(searchRequest("LADS", checkoutDate, 7))
+                .getAvailableTools().get(0).getNumUnitsAvailable());
+    }
+
+    @Test
+    void testFindAvailableValidation() {
+        LocalDate checkoutDate = LocalDate.of(2020, Month.JULY, 3);
+        assertEquals(List.of(ValidationRule.TOOL_CODE_WRONG_LENGTH), rules(rentalService.findAvailable(searchRequest("LA", checkoutDate, 7))));
+        assertEquals(List.of(ValidationRule.TOOL_TYPE_NOT_FOUND), rules(rentalService.findAvailable(searchRequest("XYZ", checkoutDate, 7))));
+        assertEquals(List.of(ValidationRule.TOOL_BRAND_NOT_FOUND), rules(rentalService.findAvailable(searchRequest("LADX", checkoutDate, 7))));
+        assertEquals(List.of(ValidationRule.RENTAL_DAYS_BELOW_ONE, ValidationRule.CHECKOUT_DATE_MISSING),
+                rules(rentalService.findAvailable(searchRequest("", null, 0))));
+    }
+
+    @Test
+    void testQuoteCurveMatchesCheckoutForEveryLength() {
+        // Every type, including the weekday exempt one, from a checkout on every day of a year with both holidays in it
+        LocalDate firstCheckout = LocalDate.of(2020, Month.JANUARY, 1);
+        for (Tool.Type type : Tool.Type.values()) {
+            String toolCode = ToolCatalog.DEFAULT.getTools().stream().filter(tool -> tool.getType() == type).findFirst().orElseThrow().getCode();
+            for (int offset = 0; offset < 366; offset++) {
+                LocalDate checkoutDate = firstCheckout.plusDays(offset);
+                QuoteCurve curve = rentalService.quoteCurve(searchRequest(toolCode, checkoutDate, 45));
+                assertEquals(45, curve.getPoints().size());
+                for (QuoteCurve.Point point : curve.getPoints()) {
+                    assertPointMatchesCheckout(point, rentalService.tryCheckout(searchRequest(toolCode, checkoutDate, point.getNumDaysRented())).getAgreement());
+                }
+            }
+        }
+
+        // A long curve crosses many years of holidays, so check lengths spread all the way through it
+        QuoteCurve longCurve = rentalService.quoteCurve(searchRequest("JAKR", LocalDate.of(2015, Month.SEPTEMBER, 3), 3650));
+        for (int numDays = 1; numDays <= 3650; numDays += 37) {
+            assertPointMatchesCheckout(longCurve.getPoints().get(numDays - 1),
+                    rentalService.tryCheckout(searchRequest("JAKR", LocalDate.of(2015, Month.SEPTEMBER, 3), numDays)).getAgreement());
+        }
+    }
+
+    @Test
+    void testQuoteCurveValidation() {
+        QuoteCurve curve = rentalService.quoteCurve(searchRequest("LADX", LocalDate.of(2020, Month.JULY, 3), 0));
+        assertFalse(curve.isSuccess());
+        assertTrue(curve.getPoints().isEmpty());
+        assertEquals(List.of(ValidationRule.RENTAL_DAYS_BELOW_ONE, ValidationRule.TOOL_BRAND_NOT_FOUND),
+                curve.getValidationErrors().stream().map(ValidationError::getRule).toList());
+    }
+
+    @Test
+    void testDiscountRulesAreAddedToTheRequestDiscount() throws Exception {
+        RentalService promotionService = RentalService.builder().discountRules(new CompiledDiscountRules(List.of(
+                DiscountRule.builder().name("Long term ladders").toolType(Tool.Type.LADDER).minDays(7).percent(20).build(),
+                DiscountRule.builder().name("Werner week").brand(Tool.Brand.WERNER).minDays(5).maxDays(9).percent(25).build(),
+                DiscountRule.builder().name("Independence week").firstCheckoutDate(LocalDate.of(2020, Month.JUNE, 29))
+                        .lastCheckoutDate(LocalDate.of(2020, Month.JULY, 5)).percent(5).stackable(true).build()
+        ))).build();
+        LocalDate checkoutDate = LocalDate.of(2020, Month.JULY, 2);
+
+        // Only the request's 10% and the stackable holiday week special
+        RentalAgreement shortLadder = promotionService.checkout(searchRequest("LADS", checkoutDate, 3));
+        assertEquals(15, shortLadder.getDiscountPercent());
+        assertEquals(new BigDecimal("0.60"), shortLadder.getDiscountAmount());
+        // The better of the two exclusive promotions, plus the special
+        assertEquals(40, promotionService.checkout(searchRequest("LADW", checkoutDate, 7)).getDiscountPercent());
+        assertEquals(35, promotionService.checkout(searchRequest("LADS", checkoutDate, 7)).getDiscountPercent());
+        // Too long for the Werner promotion, and checked out after the holiday week
+        assertEquals(30, promotionService.checkout(searchRequest("LADW", checkoutDate.plusDays(4), 10)).getDiscountPercent());
+
+        // Capped at 100%, even though the request's own discount is valid on its own
+        RentalRequest generous = RentalRequest.builder().toolCode("LADW").numDaysToRent(7).discountPercent(90).checkoutLocalDate(checkoutDate).build();
+        RentalAgreement free = promotionService.checkout(generous);
+        assertEquals(100, free.getDiscountPercent());
+        assertEquals(new BigDecimal("0.00"), free.getFinalCharge());
+
+        // Every point of a curve gets the promotions for its own length
+        QuoteCurve curve = promotionService.quoteCurve(searchRequest("LADW", checkoutDate, 12));
+        for (QuoteCurve.Point point : curve.getPoints()) {
+            assertPointMatchesCheckout(point, promotionService.tryCheckout(searchRequest("LADW", checkoutDate, point.getNumDaysRented())).getAgreement());
+        }
+        assertEquals(List.of(15, 15, 15, 15, 40, 40, 40, 40, 40, 35, 35, 35), curve.getPoints().stream().map(QuoteCurve.Point::getDiscountPercent).toList());
+
+        // Brands of the same type are no longer always the same price, and search has to price each one
+        AvailabilityResult ladders = promotionService.findAvailable(searchRequest("LAD", checkoutDate, 6));
+        assertEquals("LADW", ladders.getAvailableTools().get(0).getTool().getCode());
+        for (AvailableTool available : ladders.getAvailableTools()) {
+            assertEquals(promotionService.tryCheckout(searchRequest(available.getTool().getCode(), checkoutDate, 6)).getAgreement(), available.getQuote());
+        }
+    }
+
+    private static void assertPointMatchesCheckout(QuoteCurve.Point point, RentalAgreement agreement) {
+        String length = agreement.getTool().getCode() + " from " + agreement.getCheckOutLocalDate() + " for " + agreement.getNumDaysRented() + " days";
+        assertEquals(agreement.getNumDaysRented(), point.getNumDaysRented(), length);
+        assertEquals(agreement.getDueLocalDate(), point.getDueDate(), length);
+        assertEquals(agreement.getChargeDays(), point.getChargeDays(), length);
+        assertEquals(agreement.getDiscountDays(), point.getDiscountDays(), length);
+        assertEquals(agreement.getDiscountPercent(), point.getDiscountPercent(), length);
+        assertEquals(agreement.getPreDiscountCharge(), point.getPrice().getPreDiscountCharge(), length);
+        assertEquals(agreement.getDiscountAmount(), point.getPrice().getDiscountAmount(), length);
+        assertEquals(agreement.getFinalCharge(), point.getPrice().getFinalCharge(), length);
+    }
+
+    private static List<ValidationRule> rules(AvailabilityResult result) {
+        return result.getValidationErrors().stream().map(ValidationError::getRule).toList();
+    }
+
+    private static RentalRequest searchRequest(String toolCode, LocalDate checkoutDate, int numDaysToRent) {
+        return RentalRequest.builder().toolCode(toolCode).numDaysToRent(numDaysToRent).discountPercent(10).checkoutLocalDate(checkoutDate).build();
+    }
+
     private void assertRentalAgreement(RentalRequest req, RentalAgreement agreement, Tool expectedTool, int expectedChargeDays) {
         Tool agreementTool = agreement.getTool();
         BigDecimal expectedDailyCharge = expectedTool.getType().getDailyCharge();
@@ -0,0 +1,69 @@
+package com.winters.tool.rental.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PackedCodeIndexTest {
+
+    @Test
+    void testThousandsOfCodes() {
+        // Every 4 letter code from AAAA through ~ADZZ, far more than the table's initial sizing
+        PackedCodeIndex.Builder<Integer> builder = PackedCodeIndex.builder(4);
+        int numCodes = 0;
+        for (char second = 'A'; second <= 'D'; second++) {
+            for (char third = 'A'; third <= 'Z'; third++) {
+                for (char fourth = 'A'; fourth <= 'Z'; fourth++) {
+                    builder.putIfAbsent("A" + second + third + fourth, numCodes++);
+                }
+            }
+        }
+        PackedCodeIndex<Integer> index = builder.build();
+
+        assertEquals(numCodes, index.size());
+        int expected = 0;
+        for (char second = 'A'; second <= 'D'; second++) {
+            for (char third = 'A'; third <= 'Z'; third++) {
+                for (char fourth = 'A'; fourth <= 'Z'; fourth++) {
+                    assertEquals(expected++, index.get("a" + second + third + fourth));
+                }
+            }
+        }
+        assertNull(index.get("AEAA"));
+        assertNull(index.get("ZZZZ"));
+    }
+
+    @Test
+    void testFirstValueForCodeWins() {
+        PackedCodeIndex<String> index = PackedCodeIndex.<String>builder(2)
+                .putIfAbsent("LAD", "first")
+                .putIfAbsent("lad", "second")
+                .build();
+
+        assertEquals(1, index.size());
+        assertEquals("first", index.get("LAD"));
+    }
+
+    @Test
+    void testCodesOfDifferentLengthsDoNotCollide() {
+        PackedCodeIndex<String> index = PackedCodeIndex.<String>builder(2)
+                .putIfAbsent("A", "one")
+                .putIfAbsent("\u0001A", "two")
+                .build();
+
+        assertEquals("one", index.get("A"));
+        assertEquals("two", index.get("\u0001A"));
+        assertNull(index.get(""));
+    }
+
+    @Test
+    void testRejectsCodesThatCannotBePacked() {
+        PackedCodeIndex.Builder<String> builder = PackedCodeIndex.builder(1);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.putIfAbsent("TOOLONG", "x"));
+        assertThrows(IllegalArgumentException.class, () -> builder.putIfAbsent("", "x"));
+        assertThrows(IllegalArgumentException.class, () -> builder.putIfAbsent("CHÉ", "x"));
+    }
+}
@@ -3,11 +3,19 @@ package com.winters.tool.rental.util;
 import com.winters.tool.rental.data.Tool;
 import org.junit.jupiter.api.Test;
 
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 
 class RentalUtilTest {
@@ -63,4 +71,92 @@ class RentalUtilTest {
         assertEquals(Tool.Brand.STIHL, tool.getBrand());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testCountDays() {
+        LocalDate start = RentalUtil.convertDateToLocalDate(startDate);
+        LocalDate end = RentalUtil.convertDateToLocalDate(endDate);
+        DayCounts dayCounts = RentalUtil.countDays(start, end);
+
+        assertEquals(5, dayCounts.getWeekDays());
+        assertEquals(2, dayCounts.getWeekendDays());
+        assertEquals(1, dayCounts.getHolidays());
+    }
+
+    @Test
+    void testDateConversionUsesGivenZone() {
+        // 2023-07-04T02:00Z is still the evening of the 3rd in New York
+        Date instant = Date.from(Instant.parse("2023-07-04T02:00:00Z"));
+
+        assertEquals(LocalDate.of(2023, Month.JULY, 3), RentalUtil.convertDateToLocalDate(instant, ZoneId.of("America/New_York")));
+        assertEquals(LocalDate.of(2023, Month.JULY, 4), RentalUtil.convertDateToLocalDate(instant, ZoneOffset.UTC));
+        assertEquals(Instant.parse("2023-07-03T04:00:00Z"),
+                RentalUtil.convertLocalDateToDate(LocalDate.of(2023, Month.JULY, 3), ZoneId.of("America/New_York")).toInstant());
+        assertNull(RentalUtil.convertDateToLocalDate(null));
+        assertNull(RentalUtil.convertLocalDateToDate(null));
+    }
+
+    @Test
+    void testCountDaysEmptyRange() {
+        LocalDate start = RentalUtil.convertDateToLocalDate(startDate);
+        DayCounts dayCounts = RentalUtil.countDays(start, start.minusDays(1));
+
+        assertEquals(new DayCounts(0, 0, 0), dayCounts);
+    }
+
+    @Test
+    void testClosedFormWeekdayAndWeekendCountsMatchPerDayWalk() {
+        // Fixed seed so a failure can be reproduced, covering ranges from a single day up to roughly 40 years
+        Random random = new Random(20230823L);
+        LocalDate origin = LocalDate.of(1950, 1, 1);
+        for (int i = 0; i < 2000; i++) {
+            LocalDate start = origin.plusDays(random.nextInt(365 * 100));
+            LocalDate end = start.plusDays(random.nextInt(i % 10 == 0 ? 365 * 40 : 40));
+
+            long first = start.toEpochDay();
+            long last = end.toEpochDay();
+            assertEquals(countPerDay(start, end, true), RentalUtil.countWeekendDays(first, last), start + " - " + end);
+            assertEquals(countPerDay(start, end, false), RentalUtil.countWeekDays(first, last), start + " - " + end);
+        }
+    }
+
+    @Test
+    void testHolidayCountsMatchPerDayWalk() {
+        Random random = new Random(47L);
+        LocalDate origin = LocalDate.of(1990, 1, 1);
+        for (int i = 0; i < 500; i++) {
+            LocalDate start = origin.plusDays(random.nextInt(365 * 50));
+            LocalDate end = start.plusDays(random.nextInt(i % 10 == 0 ? 365 * 20 : 120));
+
+            long expected = start.datesUntil(end.plusDays(1)).filter(RentalUtilTest::isObservedHoliday).count();
+            assertEquals(expected, RentalUtil.countHolidays(start.toEpochDay(), end.toEpochDay()), start + " - " + end);
+        }
+    }
+
+    /**
+     * The original day by day implementation, kept here as the reference the closed form counts are checked against
+     */
+    private static int countPerDay(LocalDate start, LocalDate end, boolean weekend) {
+        return (int) start.datesUntil(end.plusDays(1))
+                .filter(day -> (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) == weekend)
+                .count();
+    }
+
+    private static boolean isObservedHoliday(LocalDate day) {
+        LocalDate fourthOfJuly = LocalDate.of(day.getYear(), Month.JULY, 4);
+        LocalDate observed = switch (fourthOfJuly.getDayOfWeek()) {
+            case SATURDAY -> fourthOfJuly.minusDays(1);
+            case SUNDAY -> fourthOfJuly.plusDays(1);
+            default -> fourthOfJuly;
+        };
+        boolean isLaborDay = day.getMonth() == Month.SEPTEMBER && day.getDayOfWeek() == DayOfWeek.MONDAY && day.getDayOfMonth() <= 7;
+        return day.equals(observed) || isLaborDay;
+    }
+
+    @Test
+    void testIsWeekendMatchesDayOfWeek() {
+        for (LocalDate date = LocalDate.of(1969, Month.DECEMBER, 1); date.isBefore(LocalDate.of(1970, Month.FEBRUARY, 1)); date = date.plusDays(1)) {
+            boolean expected = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+            assertEquals(expected, RentalUtil.isWeekend(date.toEpochDay()), date.toString());
+        }
+    }
+}
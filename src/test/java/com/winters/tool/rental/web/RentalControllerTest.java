@@ -0,0 +1,300 @@
+package com.winters.tool.rental.web;
+
+import com.winters.tool.rental.api.ValidationErrorDto;
+import com.winters.tool.rental.bulk.BulkPricingJob;
+import com.winters.tool.rental.data.RentalAgreement;
+import com.winters.tool.rental.data.ToolCatalog;
+import com.winters.tool.rental.idempotency.IdempotencyCache;
+import com.winters.tool.rental.inventory.ToolInventory;
+import com.winters.tool.rental.overdue.OverdueTracker;
+import com.winters.tool.rental.services.RentalService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RentalControllerTest {
+
+    private final MockMvc mockMvc = standalone(new RentalService());
+
+    @Test
+    void testCheckout() throws Exception {
+        mockMvc.perform(post("/api/rentals/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"CHNS\",\"numDaysToRent\":5,\"discountPercent\":25,\"checkoutDate\":\"2015-07-02\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.toolCode").value("CHNS"))
+                .andExpect(jsonPath("$.toolType").value("CHAINSAW"))
+                .andExpect(jsonPath("$.toolBrand").value("STIHL"))
+                .andExpect(jsonPath("$.checkOutDate").value("2015-07-02"))
+                .andExpect(jsonPath("$.dueDate").value("2015-07-07"))
+                .andExpect(jsonPath("$.chargeDays").value(3))
+                .andExpect(jsonPath("$.preDiscountCharge").value(4.47))
+                .andExpect(jsonPath("$.discountAmount").value(1.12))
+                .andExpect(jsonPath("$.finalCharge").value(3.35));
+    }
+
+    @Test
+    void testQuote() throws Exception {
+        mockMvc.perform(get("/api/rentals/quote")
+                        .param("toolCode", "LADW")
+                        .param("checkoutDate", "2020-07-02")
+                        .param("numDaysToRent", "3")
+                        .param("discountPercent", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.chargeDays").value(2))
+                .andExpect(jsonPath("$.finalCharge").value(3.58));
+    }
+
+    @Test
+    void testValidationFailuresReturnBadRequestWithEveryError() throws Exception {
+        mockMvc.perform(post("/api/rentals/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"JAKR\",\"numDaysToRent\":0,\"discountPercent\":101,\"checkoutDate\":\"2015-09-03\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors", hasSize(2)))
+                .andExpect(jsonPath("$.errors", hasItem("Discount percentage must be between 0 and 100. Request had a value of 101")))
+                .andExpect(jsonPath("$.codes[0]").value("RENTAL_DAYS_BELOW_ONE"))
+                .andExpect(jsonPath("$.codes[1]").value("DISCOUNT_PERCENT_OUT_OF_RANGE"));
+    }
+
+    @Test
+    void testMalformedDateReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/rentals/quote")
+                        .param("toolCode", "LADW")
+                        .param("checkoutDate", "07/02/20")
+                        .param("numDaysToRent", "3"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Checkout date must be formatted as yyyy-MM-dd. Request had a value of 07/02/20"))
+                .andExpect(jsonPath("$.codes[0]").value(ValidationErrorDto.INVALID_CHECKOUT_DATE_CODE));
+    }
+
+    @Test
+    void testMalformedDateIsReportedAlongsideTheOtherErrors() throws Exception {
+        mockMvc.perform(post("/api/rentals/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"JAKR\",\"numDaysToRent\":0,\"discountPercent\":101,\"checkoutDate\":\"09/03/15\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors", hasSize(3)))
+                .andExpect(jsonPath("$.codes[0]").value("RENTAL_DAYS_BELOW_ONE"))
+                .andExpect(jsonPath("$.codes[1]").value("DISCOUNT_PERCENT_OUT_OF_RANGE"))
+                .andExpect(jsonPath("$.codes[2]").value(ValidationErrorDto.INVALID_CHECKOUT_DATE_CODE))
+                .andExpect(jsonPath("$.errors[2]").value("Checkout date must be formatted as yyyy-MM-dd. Request had a value of 09/03/15"));
+
+        // Searches validate the way they always do, where the tool code is optional
+        mockMvc.perform(get("/api/rentals/availability")
+                        .param("checkoutDate", "tomorrow")
+                        .param("numDaysToRent", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.codes", hasSize(2)))
+                .andExpect(jsonPath("$.codes[1]").value(ValidationErrorDto.INVALID_CHECKOUT_DATE_CODE));
+    }
+
+    @Test
+    void testUnreadableBodyReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/rentals/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{not json"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors", hasSize(1)));
+    }
+
+    @Test
+    void testOnlyCheckoutIssuesTheAgreement() throws Exception {
+        List<RentalAgreement> issued = new CopyOnWriteArrayList<>();
+        MockMvc issuingMockMvc = standalone(RentalService.builder().agreementSink(issued::add).build());
+
+        issuingMockMvc.perform(get("/api/rentals/quote")
+                        .param("toolCode", "LADW")
+                        .param("checkoutDate", "2020-07-02")
+                        .param("numDaysToRent", "3"))
+                .andExpect(status().isOk());
+        assertEquals(0, issued.size());
+
+        issuingMockMvc.perform(post("/api/rentals/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"toolCode\":\"CHNS\",\"numDaysToRent\":5,\"discountPercent\":25,\"checkoutDate\":\"2015-07-02\"}"))
+                .andExpect(status().isOk());
+        assertEquals(1, issued.size());
+        assertEquals("CHNS", issued.get(0).getTool().getCode());
+    }
+
+    @Test
+    void testRetriedCheckoutWithIdempotencyKeyIsOnlyIssuedOnce() throws Exception {
+        List<RentalAgreement> issued = new CopyOnWriteArrayList<>();
+        MockMvc issuingMockMvc = standalone(RentalService.builder().agreementSink(issued::add)
+                .idempotencyCache(new IdempotencyCache(100, Duration.ofMinutes(5))).build());
+        String body = "{\"toolCode\":\"CHNS\",\"numDaysToRent\":5,\"discountPercent\":25,\"checkoutDate\":\"2015-07-02\"}";
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            issuingMockMvc.perform(post("/api/rentals/checkout")
+                            .header(RentalController.IDEMPOTENCY_KEY_HEADER, "order-823")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.finalCharge").value(3.35));
+        }
+        assertEquals(1, issued.size());
+
+        issuingMockMvc.perform(post("/api/rentals/checkout")
+                        .header(RentalController.IDEMPOTENCY_KEY_HEADER, "order-823")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("CHNS", "LADW")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.codes[0]").value("IDEMPOTENCY_KEY_REUSED"));
+        assertEquals(1, issued.size());
+    }
+
+    @Test
+    void testAvailability() throws Exception {
+        mockMvc.perform(get("/api/rentals/availability")
+                        .param("toolCode", "JAK")
+                        .param("checkoutDate", "2015-09-03")
+                        .param("numDaysToRent", "6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].unitsAvailable").value(-1))
+                .andExpect(jsonPath("$[0].quote.toolCode").value("JAKD"))
+                .andExpect(jsonPath("$[0].quote.chargeDays").value(3))
+                .andExpect(jsonPath("$[0].quote.finalCharge").value(8.97));
+
+        mockMvc.perform(get("/api/rentals/availability")
+                        .param("toolCode", "JA")
+                        .param("checkoutDate", "2015-09-03"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.codes[0]").value("RENTAL_DAYS_BELOW_ONE"))
+                .andExpect(jsonPath("$.codes[1]").value("TOOL_CODE_WRONG_LENGTH"));
+    }
+
+    @Test
+    void testQuoteCurve() throws Exception {
+        mockMvc.perform(get("/api/rentals/quote-curve")
+                        .param("toolCode", "LADW")
+                        .param("checkoutDate", "2020-07-02")
+                        .param("maxDays", "5")
+                        .param("discountPercent", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.toolCode").value("LADW"))
+                .andExpect(jsonPath("$.points", hasSize(5)))
+                .andExpect(jsonPath("$.points[2].numDaysRented").value(3))
+                .andExpect(jsonPath("$.points[2].dueDate").value("2020-07-05"))
+                .andExpect(jsonPath("$.points[2].chargeDays").value(2))
+                .andExpect(jsonPath("$.points[2].finalCharge").value(3.58));
+
+        mockMvc.perform(get("/api/rentals/quote-curve")
+                        .param("toolCode", "LADW")
+                        .param("checkoutDate", "2020-07-02")
+                        .param("maxDays", "4000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.codes[0]").value(ValidationErrorDto.QUOTE_CURVE_TOO_LONG_CODE));
+    }
+
+    @Test
+    void testBulkCheckoutStreamsOneLinePerRequestInOrder() throws Exception {
+        List<RentalAgreement> issued = new CopyOnWriteArrayList<>();
+        MockMvc issuingMockMvc = standalone(RentalService.builder().agreementSink(issued::add).build());
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            body.append(i % 100 == 7 ? "{not json" : i % 100 == 9
+                    ? "{\"toolCode\":\"JAKR\",\"numDaysToRent\":0,\"discountPercent\":0,\"checkoutDate\":\"2015-09-03\"}"
+                    : "{\"toolCode\":\"CHNS\",\"numDaysToRent\":" + (i % 10 + 1) + ",\"discountPercent\":25,\"checkoutDate\":\"2015-07-02\"}");
+            body.append('\n');
+        }
+
+        MvcResult result = issuingMockMvc.perform(post("/api/rentals/checkout/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(1000, lines.length);
+        assertEquals("{\"line\":8,\"errors\":[\"Request body is not a valid rental request.\"],\"codes\":[\"" + ValidationErrorDto.UNREADABLE_REQUEST_CODE + "\"]}", lines[7]);
+        assertTrue(lines[9].startsWith("{\"line\":10,"));
+        assertTrue(lines[9].contains("RENTAL_DAYS_BELOW_ONE"));
+        assertTrue(lines[4].contains("\"numDaysRented\":5"));
+        assertTrue(lines[4].contains("\"finalCharge\":3.35"));
+        assertEquals(980, issued.size());
+    }
+
+    @Test
+    void testCheckInChargesForLateDaysAndClosesTheRental() throws Exception {
+        MockMvc trackingMockMvc = standalone(RentalService.builder()
+                .toolInventory(ToolInventory.of(ToolCatalog.DEFAULT, 1, Map.of()))
+                .overdueTracker(new OverdueTracker(LocalDate.of(2015, Month.JULY, 1)))
+                .build());
+        for (String toolCode : new String[]{"CHNS", "LADW"}) {
+            trackingMockMvc.perform(post("/api/rentals/checkout")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"toolCode\":\"" + toolCode + "\",\"numDaysToRent\":5,\"discountPercent\":25,\"checkoutDate\":\"2015-07-02\"}"))
+                    .andExpect(status().isOk());
+        }
+        trackingMockMvc.perform(get("/api/rentals/overdue").param("asOf", "2015-07-08"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        trackingMockMvc.perform(post("/api/rentals/check-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"unitId\":\"CHNS-1\",\"returnDate\":\"2015-07-13\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.agreement.unitId").value("CHNS-1"))
+                .andExpect(jsonPath("$.agreement.finalCharge").value(3.35))
+                .andExpect(jsonPath("$.returnDate").value("2015-07-13"))
+                .andExpect(jsonPath("$.numDaysLate").value(6))
+                .andExpect(jsonPath("$.lateChargeDays").value(4))
+                .andExpect(jsonPath("$.lateCharge").value(5.96))
+                .andExpect(jsonPath("$.totalCharge").value(9.31));
+
+        trackingMockMvc.perform(post("/api/rentals/check-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"unitId\":\"CHNS-1\",\"returnDate\":\"2015-07-13\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.codes[0]").value(ValidationErrorDto.NO_OPEN_RENTAL_CODE));
+        trackingMockMvc.perform(get("/api/rentals/overdue").param("asOf", "2015-07-13"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].unitId").value("LADW-1"));
+    }
+
+    @Test
+    void testCheckInValidation() throws Exception {
+        mockMvc.perform(post("/api/rentals/check-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"returnDate\":\"07/13/2015\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.codes", hasSize(2)))
+                .andExpect(jsonPath("$.codes[0]").value(ValidationErrorDto.UNIT_ID_MISSING_CODE))
+                .andExpect(jsonPath("$.codes[1]").value(ValidationErrorDto.INVALID_RETURN_DATE_CODE));
+        // Nothing is held open without an overdue tracker
+        mockMvc.perform(post("/api/rentals/check-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"unitId\":\"CHNS-1\",\"returnDate\":\"2015-07-13\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.codes[0]").value(ValidationErrorDto.OPEN_RENTALS_NOT_TRACKED_CODE));
+    }
+
+    private static MockMvc standalone(RentalService rentalService) {
+        BulkPricingJob bulkCheckoutJob = BulkPricingJob.builder().rentalService(rentalService).numWorkers(2).batchSize(64)
+                .issue(true).flushEachBatch(true).build();
+        return MockMvcBuilders.standaloneSetup(new RentalController(rentalService, bulkCheckoutJob)).build();
+    }
+}